@@ -0,0 +1,61 @@
+package benchmarks;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * The BenchmarkRunner is the main class of benchmarks.jar. It accepts the
+ * same options as the standard JMH launcher, but unless told otherwise with
+ * -rf and -rff it writes the results of every run as JSON to a new file in
+ * the results directory, named after the time of the run, so that runs can
+ * be compared over time.
+ * 
+ * Copyright (C) 2022 Andrew Cupps, CC BY 4.0
+ * 
+ * @author Andrew Cupps
+ * @version 16 Oct 2026
+ */
+public class BenchmarkRunner {
+	
+	/*
+	 * Directory the results of each run are written to
+	 */
+	private static final Path RESULTS_DIRECTORY = Paths.get("results");
+	
+	/**
+	 * Main method which runs the benchmarks selected by the given JMH options.
+	 * @param args - standard JMH command line options; -h lists them
+	 */
+	public static void main(String[] args) throws Exception {
+		CommandLineOptions cmd = new CommandLineOptions(args);
+		if (cmd.shouldHelp()) {
+			cmd.showHelp();
+			return;
+		}
+		if (cmd.shouldList()) {
+			new Runner(cmd).list();
+			return;
+		}
+		
+		ChainedOptionsBuilder options = new OptionsBuilder().parent(cmd);
+		if (!cmd.getResultFormat().hasValue()) {
+			options.resultFormat(ResultFormatType.JSON);
+		}
+		if (!cmd.getResult().hasValue()) {
+			String time = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
+			Files.createDirectories(RESULTS_DIRECTORY);
+			options.result(RESULTS_DIRECTORY.resolve("jmh-" + time + ".json").toString());
+		}
+		
+		new Runner(options.build()).run();
+	}
+}
@@ -0,0 +1,86 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import functions.SeededRandom;
+import neural.LayerKernel;
+import neural.Network;
+import neural.PopulationBrain;
+
+/**
+ * Benchmarks of evaluating a whole population of Networks, comparing one
+ * Network.transferData() call per Network with evaluating them all at once
+ * in a PopulationBrain, with the scalar and with the SIMD layer kernel.
+ * 
+ * Copyright (C) 2022 Andrew Cupps, CC BY 4.0
+ * 
+ * @author Andrew Cupps
+ * @version 16 Oct 2026
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+public class BrainBenchmark {
+	
+	/*
+	 * How the population is evaluated: "network" calls transferData() on
+	 * each Network, while "scalar" and "vector" evaluate the PopulationBrain
+	 * with that kernel
+	 */
+	@Param({"network", "scalar", "vector"})
+	public String kernel;
+	
+	@Param({"100", "1000", "10000"})
+	public int population;
+	
+	private PopulationBrain brain;
+	private Network[] networks;
+	
+	@Setup
+	public void setup() {
+		SeededRandom random = new SeededRandom(42);
+		brain = new PopulationBrain(NetworkBenchmark.LAYER_SIZES);
+		brain.setKernel(kernel.equals("vector") ? LayerKernel.vector() : LayerKernel.SCALAR);
+		
+		networks = new Network[population];
+		for (int i = 0; i < population; i++) {
+			networks[i] = new Network(NetworkBenchmark.LAYER_SIZES.length, NetworkBenchmark.LAYER_SIZES, random);
+			brain.add(networks[i]);
+		}
+	}
+	
+	/**
+	 * A forward pass of every Network in the population.
+	 */
+	@Benchmark
+	public void evaluate() {
+		if (kernel.equals("network")) {
+			for (Network network : networks) {
+				network.resetNetwork();
+				network.transferData();
+			}
+			return;
+		}
+		
+		for (Network network : networks) {
+			network.resetNetwork();
+			brain.submit(network);
+		}
+		brain.evaluate();
+	}
+}
@@ -0,0 +1,52 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import creatures.Creature;
+import creatures.CreaturePool;
+import simulation.World;
+
+/**
+ * Benchmark of Creature.reproduce(): the offspring is removed again after
+ * every invocation so that the population stays the same size.
+ * 
+ * Copyright (C) 2022 Andrew Cupps, CC BY 4.0
+ * 
+ * @author Andrew Cupps
+ * @version 16 Oct 2026
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+public class CreatureBenchmark {
+	
+	private CreaturePool creatures;
+	private Creature parent;
+	
+	@Setup
+	public void setup() {
+		creatures = new World(1920, 1080, 42, 1).getCreatures();
+		parent = creatures.get(0);
+	}
+	
+	@Benchmark
+	public double reproduce() {
+		double size = parent.reproduce().getSize();
+		creatures.remove(creatures.size() - 1);
+		return size;
+	}
+}
@@ -0,0 +1,58 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import functions.Function;
+
+/**
+ * Benchmarks of Function.sigmoid in both of its SigmoidModes, over a spread
+ * of inputs so that the fast mode's table lookups are not all the same.
+ * 
+ * Copyright (C) 2022 Andrew Cupps, CC BY 4.0
+ * 
+ * @author Andrew Cupps
+ * @version 16 Oct 2026
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+public class FunctionBenchmark {
+	
+	@Param({"EXACT", "FAST"})
+	public Function.SigmoidMode mode;
+	
+	/*
+	 * Inputs cycled through by each invocation
+	 */
+	private static final int NUM_VALUES = 1024;
+	private final double[] values = new double[NUM_VALUES];
+	private int next = 0;
+	
+	@Setup
+	public void setup() {
+		for (int i = 0; i < NUM_VALUES; i++) {
+			values[i] = (i - NUM_VALUES / 2) / 64.0;
+		}
+	}
+	
+	@Benchmark
+	public double sigmoid() {
+		next = (next + 1) & (NUM_VALUES - 1);
+		return Function.sigmoid(mode, values[next], 1.5, 2, 0.25, 0);
+	}
+}
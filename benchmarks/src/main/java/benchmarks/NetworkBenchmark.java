@@ -0,0 +1,74 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import functions.SeededRandom;
+import neural.Network;
+
+/**
+ * Benchmarks of a single Creature-sized Network: a forward pass with
+ * Network.transferData(), and creating a mutated copy as in reproduction.
+ * 
+ * Copyright (C) 2022 Andrew Cupps, CC BY 4.0
+ * 
+ * @author Andrew Cupps
+ * @version 16 Oct 2026
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+public class NetworkBenchmark {
+	
+	/*
+	 * The layer sizes of every Creature's Network in CreaturePool
+	 */
+	static final int[] LAYER_SIZES = {13, 9, 9, 8};
+	
+	private SeededRandom random;
+	private Network network;
+	private double[] inputs;
+	
+	@Setup
+	public void setup() {
+		random = new SeededRandom(42);
+		network = new Network(LAYER_SIZES.length, LAYER_SIZES, random);
+		inputs = new double[LAYER_SIZES[0]];
+		for (int i = 0; i < inputs.length; i++) {
+			inputs[i] = random.nextDouble();
+		}
+	}
+	
+	/**
+	 * A forward pass as a Creature makes it every tick; the Network is reset
+	 * first so that its data does not grow from one invocation to the next.
+	 */
+	@Benchmark
+	public double transferData() {
+		network.resetNetwork();
+		network.getInputs().input(inputs);
+		network.transferData();
+		return network.getOutputs().getData(0);
+	}
+	
+	/**
+	 * Inheriting a Network with mutations, as a Creature's offspring does.
+	 */
+	@Benchmark
+	public Network mutate() {
+		return new Network(network, 0.1, random);
+	}
+}
@@ -0,0 +1,76 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import environment.TileField;
+import simulation.World;
+
+/**
+ * Benchmarks of updating Tiles: a single Tile, as Tile.update() does, and a
+ * pass over the TileField after Creatures have eaten one Tile in a hundred,
+ * as in every tick.
+ * 
+ * Copyright (C) 2022 Andrew Cupps, CC BY 4.0
+ * 
+ * @author Andrew Cupps
+ * @version 16 Oct 2026
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+public class TileBenchmark {
+	
+	/*
+	 * Stride between the Tiles eaten before each pass
+	 */
+	private static final int EATEN_STRIDE = 100;
+	
+	private TileField tiles;
+	private int next = 0;
+	
+	@Setup
+	public void setup() {
+		tiles = new World(1920, 1080, 42, 1).getTiles();
+		tiles.update();
+	}
+	
+	/**
+	 * Eating and updating a single Tile, cycling through the whole field.
+	 */
+	@Benchmark
+	public int updateTile() {
+		next = (next + 1) % tiles.size();
+		tiles.eat(next);
+		tiles.update(next);
+		return tiles.getRGB(next);
+	}
+	
+	/**
+	 * Eating one Tile in EATEN_STRIDE, then updating the field; only active
+	 * Tiles are visited.
+	 */
+	@Benchmark
+	public int updateField() {
+		next = (next + 1) % EATEN_STRIDE;
+		for (int i = next; i < tiles.size(); i += EATEN_STRIDE) {
+			tiles.eat(i);
+		}
+		tiles.update();
+		tiles.clearChanged();
+		return tiles.getNumActive();
+	}
+}
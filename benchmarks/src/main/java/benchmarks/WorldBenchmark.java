@@ -0,0 +1,89 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import creatures.CreaturePool;
+import simulation.World;
+
+/**
+ * Benchmarks of a full World tick, and of updating every Creature alone,
+ * at several population sizes. Since Creatures die and are born during a
+ * run, the population is brought back to exactly its size before every
+ * tick, spawning Creatures or removing them from the last slot down; even
+ * the smallest population takes long enough per tick that a per-invocation
+ * setup does not distort the results.
+ * 
+ * Copyright (C) 2022 Andrew Cupps, CC BY 4.0
+ * 
+ * @author Andrew Cupps
+ * @version 16 Oct 2026
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+public class WorldBenchmark {
+	
+	@Param({"100", "1000", "10000", "100000"})
+	public int population;
+	
+	/*
+	 * Threads used to update Creatures; 0 uses every available processor
+	 */
+	@Param({"0"})
+	public int threads;
+	
+	private World world;
+	private CreaturePool creatures;
+	
+	@Setup
+	public void setup() {
+		int parallelism = (threads > 0) ? threads : Runtime.getRuntime().availableProcessors();
+		world = new World(1920, 1080, 42, parallelism);
+		creatures = world.getCreatures();
+	}
+	
+	@Setup(Level.Invocation)
+	public void resetPopulation() {
+		while (creatures.size() < population) {
+			creatures.spawn();
+		}
+		while (creatures.size() > population) {
+			creatures.remove(creatures.size() - 1);
+		}
+	}
+	
+	/**
+	 * A full tick: every Creature, then every active Tile.
+	 */
+	@Benchmark
+	public long step() {
+		world.step();
+		return world.getTime();
+	}
+	
+	/**
+	 * Updating every Creature, as Creature.update() did for a single
+	 * Creature before Creatures were stored in a CreaturePool.
+	 */
+	@Benchmark
+	public int updateCreatures() {
+		creatures.update();
+		return creatures.size();
+	}
+}
@@ -0,0 +1,131 @@
+package checkpoint;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import simulation.World;
+
+/**
+ * Tests that Checkpoints survive being written and read back, that a World
+ * resumed from one carries on exactly as the original, that damaged files
+ * are rejected cleanly, and that a failed background write does not stop
+ * later ones.
+ * 
+ * Copyright (C) 2022 Andrew Cupps, CC BY 4.0
+ * 
+ * @author Andrew Cupps
+ * @version 16 Oct 2026
+ */
+class CheckpointTest {
+	
+	/*
+	 * Offset in the file written by small() of the length of its array
+	 * section: the header, then the name length, the name "values" and the
+	 * section type
+	 */
+	private static final int LENGTH_OFFSET = 16 + 2 + 6 + 1;
+	
+	@TempDir
+	Path dir;
+	
+	@Test
+	void sectionsSurviveWriteAndRead() throws IOException {
+		Path path = dir.resolve("small.ckp");
+		small().write(path);
+		Checkpoint read = Checkpoint.read(path);
+		assertTrue(read.isIdentical(small()));
+		assertEquals(7, read.getLong("count"));
+		assertArrayEquals(new double[] {0.5, -1, Double.MIN_VALUE}, read.getDoubles("values"));
+	}
+	
+	@Test
+	void resumedWorldIsBitIdentical() throws IOException {
+		World original = new World(1920, 1080, 3, 1);
+		original.step(2000);
+		Path path = dir.resolve("world.ckp");
+		original.checkpoint().write(path);
+		
+		World resumed = new World(Checkpoint.read(path), 1);
+		assertTrue(original.checkpoint().isIdentical(resumed.checkpoint()));
+		for (int k = 0; k < 4; k++) {
+			original.step(500);
+			resumed.step(500);
+			assertTrue(original.checkpoint().isIdentical(resumed.checkpoint()), "diverged at tick " + original.getTime());
+		}
+	}
+	
+	@Test
+	void failedWriteDoesNotBlockLaterWrites() throws Exception {
+		Path unwritable = dir.resolve("missing").resolve("first.ckp");
+		Path path = dir.resolve("second.ckp");
+		try (Checkpointer checkpointer = new Checkpointer()) {
+			CompletableFuture<Path> failed = checkpointer.write(CheckpointTest::small, unwritable);
+			ExecutionException failure = assertThrows(ExecutionException.class, failed::get);
+			assertInstanceOf(IOException.class, failure.getCause());
+			
+			assertEquals(path, checkpointer.write(CheckpointTest::small, path).get());
+			checkpointer.awaitLastWrite();
+			assertTrue(Checkpoint.read(path).isIdentical(small()));
+			
+			checkpointer.write(CheckpointTest::small, unwritable);
+			assertThrows(IOException.class, checkpointer::awaitLastWrite);
+			checkpointer.awaitLastWrite();
+		}
+	}
+	
+	@Test
+	void corruptLengthIsRejected() throws IOException {
+		Path path = dir.resolve("length.ckp");
+		small().write(path);
+		byte[] file = Files.readAllBytes(path);
+		ByteBuffer.wrap(file).order(ByteOrder.LITTLE_ENDIAN).putInt(LENGTH_OFFSET, Integer.MAX_VALUE);
+		Files.write(path, file);
+		assertThrows(IOException.class, () -> Checkpoint.read(path));
+		
+		ByteBuffer.wrap(file).order(ByteOrder.LITTLE_ENDIAN).putInt(LENGTH_OFFSET, -1);
+		Files.write(path, file);
+		assertThrows(IOException.class, () -> Checkpoint.read(path));
+		
+		ByteBuffer.wrap(file).order(ByteOrder.LITTLE_ENDIAN).putShort(16, (short) -1);
+		Files.write(path, file);
+		assertThrows(IOException.class, () -> Checkpoint.read(path));
+	}
+	
+	@Test
+	void corruptOrTruncatedFileIsRejected() throws IOException {
+		Path path = dir.resolve("data.ckp");
+		small().write(path);
+		byte[] file = Files.readAllBytes(path);
+		file[LENGTH_OFFSET + 4] ^= 1;
+		Files.write(path, file);
+		assertThrows(IOException.class, () -> Checkpoint.read(path));
+		
+		Files.write(path, Arrays.copyOf(file, file.length - 12));
+		assertThrows(IOException.class, () -> Checkpoint.read(path));
+	}
+	
+	/*
+	 * Returns a Checkpoint with one array section followed by a long
+	 */
+	private static Checkpoint small() {
+		Checkpoint checkpoint = new Checkpoint();
+		checkpoint.putDoubles("values", new double[] {0.5, -1, Double.MIN_VALUE}, 3);
+		checkpoint.putLong("count", 7);
+		return checkpoint;
+	}
+}
@@ -0,0 +1,216 @@
+package creatures;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import checkpoint.Checkpoint;
+import functions.SeededRandom;
+
+/**
+ * Tests that the pruned Phylogeny answers every query as a brute-force
+ * search of the full family tree does, over random spawns, births and
+ * deaths, that it never holds more than twice as many nodes as there are
+ * living Creatures, and that it survives being saved and restored.
+ * 
+ * Copyright (C) 2022 Andrew Cupps, CC BY 4.0
+ * 
+ * @author Andrew Cupps
+ * @version 16 Oct 2026
+ */
+class PhylogenyTest {
+	
+	/*
+	 * Number of random events, how often the tree is checked, and the number
+	 * of living Creatures the population drifts around
+	 */
+	private static final int NUM_EVENTS = 20000, CHECK_EVERY = 1000, TARGET_LIVING = 150;
+	
+	/*
+	 * Number of random pairs whose common ancestor is checked
+	 */
+	private static final int NUM_PAIRS = 500;
+	
+	private final SeededRandom random = new SeededRandom(5);
+	private final Phylogeny phylogeny = new Phylogeny();
+	
+	/*
+	 * The full family tree: the parent of every Creature ever added, or
+	 * NO_ANCESTOR, the living Creatures, and every id in order of birth
+	 */
+	private final Map<Long, Long> parentOf = new HashMap<>();
+	private final List<Long> living = new ArrayList<>();
+	private final List<Long> born = new ArrayList<>();
+	private long nextId = 0;
+	
+	@Test
+	void queriesMatchFullTree() {
+		for (int event = 1; event <= NUM_EVENTS; event++) {
+			randomEvent();
+			if (event % CHECK_EVERY == 0) {
+				check(phylogeny);
+			}
+		}
+	}
+	
+	@Test
+	void restoredTreeMatchesFullTree() {
+		for (int event = 0; event < NUM_EVENTS / 2; event++) {
+			randomEvent();
+		}
+		
+		Checkpoint saved = new Checkpoint();
+		phylogeny.saveState(saved);
+		Phylogeny restored = new Phylogeny();
+		restored.restoreState(saved);
+		check(restored);
+		assertThrows(IllegalStateException.class, () -> restored.restoreState(saved));
+		
+		Checkpoint resaved = new Checkpoint();
+		restored.saveState(resaved);
+		assertTrue(resaved.isIdentical(saved));
+	}
+	
+	@Test
+	void invalidEventsAreRejected() {
+		phylogeny.addRoot(0);
+		assertThrows(IllegalArgumentException.class, () -> phylogeny.addRoot(0));
+		assertThrows(IllegalArgumentException.class, () -> phylogeny.addBirth(1, 7));
+		phylogeny.addBirth(1, 0);
+		phylogeny.addBirth(2, 0);
+		phylogeny.addDeath(0);
+		assertThrows(IllegalArgumentException.class, () -> phylogeny.addDeath(0));
+		phylogeny.addDeath(1);
+		assertThrows(IllegalArgumentException.class, () -> phylogeny.getDepth(0));
+		assertEquals(1, phylogeny.size());
+	}
+	
+	/*
+	 * Spawns, gives birth to or kills a random Creature, keeping the number
+	 * of living Creatures near TARGET_LIVING.
+	 */
+	private void randomEvent() {
+		double r = random.nextDouble();
+		if (living.isEmpty() || r < 0.02) {
+			long id = nextId++;
+			phylogeny.addRoot(id);
+			parentOf.put(id, Phylogeny.NO_ANCESTOR);
+			living.add(id);
+			born.add(id);
+		} else if (r < 0.51 + 0.2 * (TARGET_LIVING - living.size()) / TARGET_LIVING) {
+			long id = nextId++, parent = living.get(randomIndex(living.size()));
+			phylogeny.addBirth(id, parent);
+			parentOf.put(id, parent);
+			living.add(id);
+			born.add(id);
+		} else {
+			int k = randomIndex(living.size());
+			long id = living.get(k);
+			living.set(k, living.get(living.size() - 1));
+			living.remove(living.size() - 1);
+			phylogeny.addDeath(id);
+		}
+	}
+	
+	/*
+	 * Checks every query of the given tree against the full family tree.
+	 */
+	private void check(Phylogeny tree) {
+		Set<Long> alive = new HashSet<>(living);
+		Map<Long, Long> descendants = new HashMap<>(), livingDescendants = new HashMap<>();
+		Map<Long, Integer> branches = new HashMap<>();
+		for (long id : born) {
+			for (long a = parentOf.get(id); a != Phylogeny.NO_ANCESTOR; a = parentOf.get(a)) {
+				descendants.merge(a, 1L, Long::sum);
+				if (alive.contains(id)) {
+					livingDescendants.merge(a, 1L, Long::sum);
+				}
+			}
+		}
+		
+		/*
+		 * A dead Creature stays in the tree exactly when living lineages
+		 * branch at it: when at least two of its children are alive or have
+		 * living descendants
+		 */
+		for (long id : born) {
+			long parent = parentOf.get(id);
+			if (parent != Phylogeny.NO_ANCESTOR && (alive.contains(id) || livingDescendants.containsKey(id))) {
+				branches.merge(parent, 1, Integer::sum);
+			}
+		}
+		
+		List<Long> inTree = new ArrayList<>();
+		for (long id : born) {
+			boolean expected = alive.contains(id) || branches.getOrDefault(id, 0) >= 2;
+			assertEquals(expected, tree.contains(id), "contains " + id);
+			if (!expected) {
+				continue;
+			}
+			
+			inTree.add(id);
+			assertEquals(alive.contains(id), tree.isLiving(id));
+			assertEquals(depth(id), tree.getDepth(id));
+			assertEquals(descendants.getOrDefault(id, 0L), tree.getDescendants(id));
+			assertEquals(livingDescendants.getOrDefault(id, 0L), tree.getLivingDescendants(id));
+			
+			long ancestor = parentOf.get(id);
+			while (ancestor != Phylogeny.NO_ANCESTOR && !tree.contains(ancestor)) {
+				ancestor = parentOf.get(ancestor);
+			}
+			assertEquals(ancestor, tree.getAncestor(id));
+		}
+		assertEquals(inTree.size(), tree.size());
+		assertTrue(tree.size() <= 2 * living.size(), tree.size() + " nodes for " + living.size() + " living");
+		
+		for (int pair = 0; pair < NUM_PAIRS && !inTree.isEmpty(); pair++) {
+			long first = inTree.get(randomIndex(inTree.size())), second = inTree.get(randomIndex(inTree.size()));
+			assertEquals(commonAncestor(first, second), tree.getCommonAncestor(first, second),
+					"common ancestor of " + first + " and " + second);
+		}
+	}
+	
+	/*
+	 * Returns the number of ancestors of a Creature in the full tree.
+	 */
+	private int depth(long id) {
+		int depth = 0;
+		for (long a = parentOf.get(id); a != Phylogeny.NO_ANCESTOR; a = parentOf.get(a)) {
+			depth++;
+		}
+		return depth;
+	}
+	
+	/*
+	 * Returns the most recent common ancestor of two Creatures in the full
+	 * tree, where every Creature descends from itself.
+	 */
+	private long commonAncestor(long first, long second) {
+		Set<Long> ancestors = new HashSet<>();
+		for (long a = first; a != Phylogeny.NO_ANCESTOR; a = parentOf.get(a)) {
+			ancestors.add(a);
+		}
+		for (long b = second; b != Phylogeny.NO_ANCESTOR; b = parentOf.get(b)) {
+			if (ancestors.contains(b)) {
+				return b;
+			}
+		}
+		return Phylogeny.NO_ANCESTOR;
+	}
+	
+	/*
+	 * Returns a random index below n.
+	 */
+	private int randomIndex(int n) {
+		return (int) (random.nextDouble() * n);
+	}
+}
@@ -0,0 +1,148 @@
+package creatures;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import functions.SeededRandom;
+
+/**
+ * Tests that the SpatialGrid finds exactly what a search of every circle
+ * finds, after circles have been moved, removed and moved between slots,
+ * including queries which wrap around the edges of the area.
+ * 
+ * Copyright (C) 2022 Andrew Cupps, CC BY 4.0
+ * 
+ * @author Andrew Cupps
+ * @version 16 Oct 2026
+ */
+class SpatialGridTest {
+	
+	/*
+	 * Size of the area, number of circles first inserted, and the largest
+	 * radius of a circle
+	 */
+	private static final double WIDTH = 600, HEIGHT = 400;
+	private static final int NUM_CIRCLES = 4000;
+	private static final double MAX_RADIUS = 10;
+	
+	private final SeededRandom random = new SeededRandom(1);
+	private SpatialGrid grid;
+	private double[] x, y, radius;
+	private int n;
+	
+	/*
+	 * Fills the grid with circles, moves many of them and removes some,
+	 * keeping slots packed the way the CreaturePool does
+	 */
+	@BeforeEach
+	void populate() {
+		grid = new SpatialGrid(WIDTH, HEIGHT, 2 * MAX_RADIUS, MAX_RADIUS);
+		x = new double[NUM_CIRCLES];
+		y = new double[NUM_CIRCLES];
+		radius = new double[NUM_CIRCLES];
+		for (n = 0; n < NUM_CIRCLES; n++) {
+			x[n] = random.nextDouble() * WIDTH;
+			y[n] = random.nextDouble() * HEIGHT;
+			radius[n] = 1 + random.nextDouble() * (MAX_RADIUS - 1);
+			grid.insert(n, x[n], y[n], radius[n]);
+		}
+		
+		for (int k = 0; k < 20000; k++) {
+			int s = (int) (random.nextDouble() * n);
+			x[s] = Math.floorMod((long) (x[s] + (random.nextDouble() - 0.5) * 60), (long) WIDTH)
+					+ random.nextDouble() * 0.99;
+			y[s] = Math.floorMod((long) (y[s] + (random.nextDouble() - 0.5) * 60), (long) HEIGHT)
+					+ random.nextDouble() * 0.99;
+			grid.update(s, x[s], y[s]);
+		}
+		
+		for (int k = 0; k < 500; k++) {
+			int s = (int) (random.nextDouble() * n);
+			int last = --n;
+			grid.remove(s);
+			if (s != last) {
+				grid.move(last, s);
+				x[s] = x[last];
+				y[s] = y[last];
+				radius[s] = radius[last];
+			}
+		}
+	}
+	
+	@Test
+	void slotsAreTracked() {
+		assertEquals(n, grid.size());
+		for (int s = 0; s < n; s++) {
+			assertTrue(grid.contains(s));
+		}
+		for (int s = n; s < NUM_CIRCLES; s++) {
+			assertFalse(grid.contains(s));
+		}
+	}
+	
+	@Test
+	void withinMatchesBruteForce() {
+		for (int q = 0; q < 1000; q++) {
+			double qx = random.nextDouble() * WIDTH, qy = random.nextDouble() * HEIGHT;
+			double distance = random.nextDouble() * 60;
+			Set<Integer> found = new HashSet<>();
+			int count = grid.forEachWithin(qx, qy, distance, found::add);
+			
+			Set<Integer> expected = new HashSet<>();
+			for (int s = 0; s < n; s++) {
+				double dx = grid.wrapX(x[s] - qx), dy = grid.wrapY(y[s] - qy);
+				if (dx * dx + dy * dy <= distance * distance) {
+					expected.add(s);
+				}
+			}
+			assertEquals(expected, found, "query " + q);
+			assertEquals(expected.size(), count);
+		}
+	}
+	
+	@Test
+	void raycastMatchesBruteForce() {
+		double[] distance = new double[1];
+		int hits = 0;
+		for (int q = 0; q < 1000; q++) {
+			double qx = random.nextDouble() * WIDTH, qy = random.nextDouble() * HEIGHT;
+			double angle = random.nextDouble() * 360, length = random.nextDouble() * 100;
+			int exclude = (q % 2 == 0) ? SpatialGrid.NONE : (int) (random.nextDouble() * n);
+			int hit = grid.raycast(qx, qy, angle, length, exclude, distance);
+			
+			/*
+			 * The nearest circle the ray enters or starts inside, ties going
+			 * to the lower slot
+			 */
+			double dirX = Math.cos((Math.PI * angle) / 180), dirY = Math.sin((Math.PI * angle) / 180);
+			double nearest = Double.POSITIVE_INFINITY;
+			int expected = SpatialGrid.NONE;
+			for (int s = 0; s < n; s++) {
+				double dx = grid.wrapX(x[s] - qx), dy = grid.wrapY(y[s] - qy);
+				double along = dx * dirX + dy * dirY, offSquared = dx * dx + dy * dy - along * along;
+				if (s == exclude || offSquared > radius[s] * radius[s]) {
+					continue;
+				}
+				double halfChord = Math.sqrt(radius[s] * radius[s] - offSquared);
+				double t = Math.max(0, along - halfChord);
+				if (along + halfChord >= 0 && t <= length && t < nearest) {
+					nearest = t;
+					expected = s;
+				}
+			}
+			assertEquals(expected, hit, "ray " + q);
+			if (hit != SpatialGrid.NONE) {
+				assertEquals(nearest, distance[0], 1e-9);
+				hits++;
+			}
+		}
+		assertTrue(hits > 100, "only " + hits + " rays hit anything");
+	}
+}
@@ -0,0 +1,138 @@
+package environment;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import checkpoint.Checkpoint;
+import functions.Function.SigmoidMode;
+import functions.SeededRandom;
+
+/**
+ * Tests that updating only the active Tiles of a TileField gives exactly
+ * what updating every Tile gives, after random eating, feeding and shifts
+ * of the nutrition of the whole field, that every Tile whose color changed
+ * is in the changed list, and that the field survives being saved and
+ * restored.
+ * 
+ * Copyright (C) 2022 Andrew Cupps, CC BY 4.0
+ * 
+ * @author Andrew Cupps
+ * @version 16 Oct 2026
+ */
+class TileFieldTest {
+	
+	/*
+	 * Size of the field, number of ticks, and the number of Tiles eaten and
+	 * fed each tick
+	 */
+	private static final int WIDTH = 80, HEIGHT = 60, TICKS = 2000, EATEN = 4, FED = 1;
+	
+	/*
+	 * Nutrition regrowth rate, and the amount and rate of the changes of
+	 * nutrition of the whole field, fast enough to cross many color steps
+	 */
+	private static final double INCREASE_RATE = 3.5, CHANGE_AMOUNT = 200, CHANGE_RATE = 0.01;
+	
+	@Test
+	void activeUpdateMatchesFullPass() {
+		TileField active = field(), full = field();
+		SeededRandom random = new SeededRandom(9);
+		int[] lastRGB = new int[active.size()];
+		
+		for (int tick = 0; tick < TICKS; tick++) {
+			for (int k = 0; k < EATEN; k++) {
+				int i = randomTile(random);
+				assertEquals(full.eat(i), active.eat(i));
+			}
+			for (int k = 0; k < FED; k++) {
+				int i = randomTile(random);
+				double amount = 100 * random.nextDouble();
+				active.addNutrition(i, amount);
+				full.addNutrition(i, amount);
+			}
+			
+			active.update();
+			for (int i = 0; i < full.size(); i++) {
+				full.update(i);
+			}
+			double change = CHANGE_AMOUNT * CHANGE_RATE * Math.cos(tick * CHANGE_RATE);
+			active.shiftNutrition(change);
+			full.shiftNutrition(change);
+			
+			Set<Integer> changed = new HashSet<>();
+			for (int k = 0; k < active.getNumChanged(); k++) {
+				changed.add(active.getChanged(k));
+			}
+			for (int i = 0; i < full.size(); i++) {
+				assertEquals(full.getNutrition(i), active.getNutrition(i), "nutrition of Tile " + i);
+				assertEquals(full.getRGB(i), active.getRGB(i), "color of Tile " + i);
+				assertTrue(active.getRGB(i) == lastRGB[i] || changed.contains(i), "Tile " + i + " not in changed list");
+				lastRGB[i] = active.getRGB(i);
+			}
+			active.clearChanged();
+		}
+		
+		assertTrue(active.getNumActive() < active.size() / 2, active.getNumActive() + " active Tiles");
+	}
+	
+	@Test
+	void restoredFieldMatches() {
+		TileField original = field();
+		SeededRandom random = new SeededRandom(4);
+		for (int tick = 0; tick < TICKS / 10; tick++) {
+			original.eat(randomTile(random));
+			original.update();
+			original.shiftNutrition(-CHANGE_AMOUNT * CHANGE_RATE);
+		}
+		
+		Checkpoint saved = new Checkpoint();
+		original.saveState(saved);
+		TileField restored = new TileField(WIDTH, HEIGHT, INCREASE_RATE, SigmoidMode.EXACT);
+		restored.restoreState(saved);
+		assertEquals(original.size(), restored.getNumChanged());
+		for (int tick = 0; tick < TICKS / 10; tick++) {
+			int i = randomTile(random);
+			assertEquals(original.eat(i), restored.eat(i));
+			original.update();
+			restored.update();
+			original.shiftNutrition(CHANGE_AMOUNT * CHANGE_RATE);
+			restored.shiftNutrition(CHANGE_AMOUNT * CHANGE_RATE);
+		}
+		for (int i = 0; i < original.size(); i++) {
+			assertEquals(original.getNutrition(i), restored.getNutrition(i));
+			assertEquals(original.getRGB(i), restored.getRGB(i));
+		}
+	}
+	
+	/*
+	 * Creates a field of water, soil and mountain Tiles inside a border,
+	 * the same for every call.
+	 */
+	private static TileField field() {
+		TileField field = new TileField(WIDTH, HEIGHT, INCREASE_RATE, SigmoidMode.EXACT);
+		SeededRandom random = new SeededRandom(2);
+		for (int y = 0; y < HEIGHT; y++) {
+			for (int x = 0; x < WIDTH; x++) {
+				if (x == 0 || y == 0 || x == WIDTH - 1 || y == HEIGHT - 1) {
+					field.setBorder(field.index(x, y));
+				} else {
+					field.setElevation(field.index(x, y), 2 * random.nextDouble() - 0.5);
+				}
+			}
+		}
+		field.update();
+		return field;
+	}
+	
+	/*
+	 * Returns the index of a random Tile.
+	 */
+	private static int randomTile(SeededRandom random) {
+		return (int) (random.nextDouble() * WIDTH * HEIGHT);
+	}
+}
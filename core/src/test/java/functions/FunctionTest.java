@@ -0,0 +1,62 @@
+package functions;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import functions.Function.SigmoidMode;
+
+/**
+ * Tests of the two SigmoidModes of Function against Math.exp.
+ * 
+ * Copyright (C) 2022 Andrew Cupps, CC BY 4.0
+ * 
+ * @author Andrew Cupps
+ * @version 16 Oct 2026
+ */
+class FunctionTest {
+	
+	/*
+	 * The documented maximum absolute error of fastLogistic(): about 7.4e-7
+	 * from interpolation, always below 1e-6
+	 */
+	private static final double INTERPOLATION_ERROR = 7.4e-7;
+	private static final double MAX_ERROR = 1e-6;
+	
+	private static double logistic(double x) {
+		return 1 / (1 + Math.exp(-x));
+	}
+	
+	@Test
+	void fastLogisticIsWithinDocumentedErrorOfTheTable() {
+		double maxError = 0;
+		for (double x = -16; x <= 16; x += 1.0 / 4096) {
+			maxError = Math.max(maxError, Math.abs(Function.fastLogistic(x) - logistic(x)));
+		}
+		assertTrue(maxError <= INTERPOLATION_ERROR, "maximum error " + maxError);
+	}
+	
+	@Test
+	void fastLogisticSaturatesBeyondTheTable() {
+		for (double x = 16; x <= 64; x += 1.0 / 64) {
+			assertEquals(1, Function.fastLogistic(x));
+			assertEquals(logistic(x), Function.fastLogistic(x), MAX_ERROR);
+			assertEquals(0, Function.fastLogistic(-x));
+			assertEquals(logistic(-x), Function.fastLogistic(-x), MAX_ERROR);
+		}
+		assertEquals(1, Function.fastLogistic(Double.POSITIVE_INFINITY));
+		assertEquals(0, Function.fastLogistic(Double.NEGATIVE_INFINITY));
+		assertTrue(Double.isNaN(Function.fastLogistic(Double.NaN)));
+	}
+	
+	@Test
+	void fastSigmoidErrorScalesWithYScale() {
+		for (double x = -20; x <= 20; x += 1.0 / 256) {
+			double exact = Function.sigmoid(SigmoidMode.EXACT, x, 1.5, 2, 0.25, -1);
+			double fast = Function.sigmoid(SigmoidMode.FAST, x, 1.5, 2, 0.25, -1);
+			assertEquals(Function.sigmoid(x, 1.5, 2, 0.25, -1), exact);
+			assertEquals(exact, fast, 2 * MAX_ERROR);
+		}
+	}
+}
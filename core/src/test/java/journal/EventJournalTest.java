@@ -0,0 +1,198 @@
+package journal;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests that records committed to an EventJournal are read back in order by
+ * a JournalReader as segments roll over, that a reopened journal appends
+ * after its highest segment, and that a full ring drops records and a
+ * failed writer is reported while the journal is still open.
+ * 
+ * Copyright (C) 2022 Andrew Cupps, CC BY 4.0
+ * 
+ * @author Andrew Cupps
+ * @version 16 Oct 2026
+ */
+class EventJournalTest {
+	
+	/*
+	 * A segment holding four records after its header, and a ring holding
+	 * more records than any test commits at once
+	 */
+	private static final int SEGMENT_SIZE = 5 * JournalRecord.RECORD_SIZE, RING_CAPACITY = 16;
+	
+	/*
+	 * How long to wait for the writer thread before failing
+	 */
+	private static final long TIMEOUT_NANOS = 10_000_000_000L;
+	
+	@TempDir
+	Path dir;
+	
+	@Test
+	void committedRecordsAreReadBackInOrder() throws IOException {
+		try (EventJournal journal = new EventJournal(dir, RING_CAPACITY, SEGMENT_SIZE)) {
+			assertThrows(IllegalStateException.class, journal::commit);
+			for (int i = 0; i < 10; i++) {
+				JournalRecord record = journal.claim();
+				assertThrows(IllegalStateException.class, journal::claim);
+				record.setTick(i).setId(100 + i).setParentId(i - 1).setLineage(7).setGeneration(i / 2)
+						.setType(JournalRecord.BIRTH).setCause(JournalRecord.NONE).setSize(i + 0.5);
+				journal.commit();
+			}
+			assertEquals(10, journal.getCommitted());
+		}
+		
+		assertEquals(3, EventJournal.segmentsOf(dir).size());
+		long[] next = {0};
+		JournalReader reader = new JournalReader(dir);
+		assertEquals(10, reader.read(r -> true, r -> {
+			assertEquals(next[0]++, r.getTick());
+			assertEquals(100 + r.getTick(), r.getId());
+			assertEquals(r.getTick() - 1, r.getParentId());
+			assertEquals(7, r.getLineage());
+			assertEquals(r.getTick() / 2, r.getGeneration());
+			assertEquals(JournalRecord.BIRTH, r.getType());
+			assertEquals(r.getTick() + 0.5f, r.getSize());
+			assertEquals(0, r.getAttack());
+		}));
+		assertEquals(10, reader.getScannedRecords());
+	}
+	
+	@Test
+	void reopenedJournalAppends() throws IOException {
+		try (EventJournal journal = new EventJournal(dir, RING_CAPACITY, SEGMENT_SIZE)) {
+			commit(journal, 0, 6);
+		}
+		try (EventJournal journal = new EventJournal(dir, RING_CAPACITY, SEGMENT_SIZE)) {
+			commit(journal, 6, 11);
+		}
+		
+		assertArrayEquals(range(0, 11), ticks());
+		assertArrayEquals(new int[] {0, 1, 2}, segmentNumbers());
+	}
+	
+	@Test
+	void reopenedJournalSkipsRemovedSegments() throws IOException {
+		try (EventJournal journal = new EventJournal(dir, RING_CAPACITY, SEGMENT_SIZE)) {
+			commit(journal, 0, 10);
+		}
+		Files.delete(dir.resolve("journal-000000.log"));
+		
+		try (EventJournal journal = new EventJournal(dir, RING_CAPACITY, SEGMENT_SIZE)) {
+			commit(journal, 10, 18);
+		}
+		assertArrayEquals(range(4, 18), ticks());
+		assertArrayEquals(new int[] {1, 2, 3, 4}, segmentNumbers());
+	}
+	
+	@Test
+	void fullRingDropsRecordsAndFailedWriterIsReported() throws IOException, InterruptedException {
+		EventJournal journal = new EventJournal(dir, 4, 2 * JournalRecord.RECORD_SIZE);
+		commit(journal, 0, 1);
+		await(() -> journal.getWritten() == 1);
+		assertNull(journal.getError());
+		
+		// The next segment cannot be created, so the writer stops
+		Files.createFile(dir.resolve("journal-000001.log"));
+		commit(journal, 1, 2);
+		await(() -> journal.getError() != null);
+		assertInstanceOf(FileAlreadyExistsException.class, journal.getError());
+		
+		commit(journal, 2, 5);
+		assertNull(journal.claim());
+		assertNull(journal.claim());
+		assertEquals(2, journal.getDropped());
+		assertEquals(5, journal.getCommitted());
+		assertEquals(1, journal.getWritten());
+		
+		IOException thrown = assertThrows(IOException.class, journal::close);
+		assertSame(journal.getError(), thrown);
+	}
+	
+	@Test
+	void smallRingKeepsEveryCommittedRecord() throws IOException {
+		int attempts = 20000;
+		List<Long> committed = new ArrayList<>();
+		try (EventJournal journal = new EventJournal(dir, 4, 257 * JournalRecord.RECORD_SIZE)) {
+			for (int i = 0; i < attempts; i++) {
+				JournalRecord record = journal.claim();
+				if (record != null) {
+					record.setTick(i);
+					journal.commit();
+					committed.add((long) i);
+				}
+			}
+			assertEquals(attempts, journal.getCommitted() + journal.getDropped());
+		}
+		
+		assertArrayEquals(committed.stream().mapToLong(Long::longValue).toArray(), ticks());
+	}
+	
+	/*
+	 * Commits records with ticks from from up to to, which must all fit in
+	 * the ring.
+	 */
+	private static void commit(EventJournal journal, long from, long to) {
+		for (long tick = from; tick < to; tick++) {
+			journal.claim().setTick(tick).setType(JournalRecord.SPAWN);
+			journal.commit();
+		}
+	}
+	
+	/*
+	 * Returns the ticks of the records of the journal in dir, in order.
+	 */
+	private long[] ticks() throws IOException {
+		List<Long> ticks = new ArrayList<>();
+		new JournalReader(dir).read(r -> true, r -> ticks.add(r.getTick()));
+		return ticks.stream().mapToLong(Long::longValue).toArray();
+	}
+	
+	/*
+	 * Returns the numbers of the segments of the journal in dir, in order.
+	 */
+	private int[] segmentNumbers() throws IOException {
+		return EventJournal.segmentsOf(dir).stream().mapToInt(EventJournal::segmentNumber).toArray();
+	}
+	
+	/*
+	 * Returns the numbers from from up to to.
+	 */
+	private static long[] range(long from, long to) {
+		long[] range = new long[(int) (to - from)];
+		for (int i = 0; i < range.length; i++) {
+			range[i] = from + i;
+		}
+		return range;
+	}
+	
+	/*
+	 * Waits until condition holds for the writer thread, failing after
+	 * TIMEOUT_NANOS.
+	 */
+	private static void await(BooleanSupplier condition) throws InterruptedException {
+		long deadline = System.nanoTime() + TIMEOUT_NANOS;
+		while (!condition.getAsBoolean()) {
+			assertTrue(System.nanoTime() < deadline, "Timed out waiting for the journal writer.");
+			Thread.sleep(1);
+		}
+	}
+}
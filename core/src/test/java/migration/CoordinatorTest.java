@@ -0,0 +1,171 @@
+package migration;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests the handshake between a Coordinator and its IslandNodes: every node
+ * is assigned its island and the addresses of the islands it sends to, the
+ * Coordinator finishes once every node has reported, and a node speaking
+ * another protocol version is turned away without being given an island.
+ * 
+ * Copyright (C) 2022 Andrew Cupps, CC BY 4.0
+ * 
+ * @author Andrew Cupps
+ * @version 16 Oct 2026
+ */
+class CoordinatorTest {
+	
+	/*
+	 * Seed of the first island, and the first of the ports the nodes claim
+	 * to accept Migrants on; nothing listens on them
+	 */
+	private static final long SEED = 77;
+	private static final int FIRST_PORT = 9100;
+	
+	/*
+	 * How long a whole handshake may take
+	 */
+	private static final Duration TIMEOUT = Duration.ofSeconds(30);
+	
+	@Test
+	void nodesAreAssignedARing() {
+		assertTimeoutPreemptively(TIMEOUT, () -> {
+			int numIslands = 3;
+			ServerSocketChannel server = openServer();
+			AtomicReference<Throwable> failure = new AtomicReference<>();
+			Thread coordinator = runCoordinator(new Coordinator(numIslands, SEED, "ring"), server, failure);
+			
+			List<SocketChannel> channels = new ArrayList<>();
+			List<Future<FrameCodec.Assignment>> joins = new ArrayList<>();
+			ExecutorService executor = Executors.newFixedThreadPool(numIslands);
+			try {
+				for (int k = 0; k < numIslands; k++) {
+					SocketChannel channel = SocketChannel.open(server.getLocalAddress());
+					int port = FIRST_PORT + k;
+					channels.add(channel);
+					joins.add(executor.submit(() -> IslandNode.join(channel, ByteBuffer.allocate(1024), port)));
+				}
+				
+				/*
+				 * Islands are numbered in the order the nodes arrived, which
+				 * the threads do not fix, so the port each island claimed is
+				 * found from the node it was assigned to
+				 */
+				FrameCodec.Assignment[] assignments = new FrameCodec.Assignment[numIslands];
+				int[] portOfIsland = new int[numIslands];
+				for (int k = 0; k < numIslands; k++) {
+					FrameCodec.Assignment assignment = joins.get(k).get();
+					assertNull(assignments[assignment.island]);
+					assignments[assignment.island] = assignment;
+					portOfIsland[assignment.island] = FIRST_PORT + k;
+				}
+				for (int i = 0; i < numIslands; i++) {
+					FrameCodec.Assignment assignment = assignments[i];
+					int next = (i + 1) % numIslands;
+					assertEquals(numIslands, assignment.numIslands);
+					assertEquals(SEED, assignment.seed);
+					assertArrayEquals(new int[] {next}, assignment.destinations);
+					assertArrayEquals(new String[] {"127.0.0.1"}, assignment.hosts);
+					assertArrayEquals(new int[] {portOfIsland[next]}, assignment.ports);
+				}
+				
+				for (int k = 0; k < numIslands; k++) {
+					ByteBuffer buffer = ByteBuffer.allocate(1024);
+					FrameCodec.writeDone(buffer, joins.get(k).get().island, 100, 10, 1, 2, 0);
+					IslandNode.writeFully(channels.get(k), buffer);
+				}
+				coordinator.join();
+				assertNull(failure.get());
+			} finally {
+				executor.shutdownNow();
+				for (SocketChannel channel : channels) {
+					channel.close();
+				}
+				server.close();
+			}
+		});
+	}
+	
+	@Test
+	void otherProtocolVersionIsRejected() {
+		assertTimeoutPreemptively(TIMEOUT, () -> {
+			ServerSocketChannel server = openServer();
+			AtomicReference<Throwable> failure = new AtomicReference<>();
+			Thread coordinator = runCoordinator(new Coordinator(1, SEED, "ring"), server, failure);
+			
+			try (SocketChannel stranger = SocketChannel.open(server.getLocalAddress());
+					SocketChannel node = SocketChannel.open(server.getLocalAddress())) {
+				ByteBuffer buffer = ByteBuffer.allocate(1024);
+				buffer.putInt(1 + 2 * Integer.BYTES).put(FrameCodec.HELLO)
+						.putInt(FrameCodec.PROTOCOL_VERSION + 1).putInt(FIRST_PORT);
+				IslandNode.writeFully(stranger, buffer);
+				assertThrows(EOFException.class, () -> IslandNode.readFrame(stranger, buffer));
+				assertNull(failure.get());
+				
+				buffer.clear();
+				FrameCodec.Assignment assignment = IslandNode.join(node, buffer, FIRST_PORT + 1);
+				assertEquals(0, assignment.island);
+				assertEquals(1, assignment.numIslands);
+				assertEquals(0, assignment.destinations.length);
+				
+				FrameCodec.writeDone(buffer, 0, 100, 10, 0, 0, 0);
+				IslandNode.writeFully(node, buffer);
+				coordinator.join();
+				assertNull(failure.get());
+			} finally {
+				server.close();
+			}
+		});
+	}
+	
+	@Test
+	void invalidOptionsAreRejected() {
+		assertThrows(IllegalArgumentException.class, () -> new Coordinator(0, SEED, "ring"));
+		assertThrows(IllegalArgumentException.class, () -> new Coordinator(2, SEED, "star"));
+	}
+	
+	/*
+	 * Opens a server channel on a free port of the loopback address.
+	 */
+	private static ServerSocketChannel openServer() throws IOException {
+		return ServerSocketChannel.open().bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+	}
+	
+	/*
+	 * Runs coordinator on server in a new thread, keeping what it throws.
+	 */
+	private static Thread runCoordinator(Coordinator coordinator, ServerSocketChannel server,
+			AtomicReference<Throwable> failure) {
+		Thread thread = new Thread(() -> {
+			try {
+				coordinator.run(server);
+			} catch (IOException | RuntimeException e) {
+				failure.set(e);
+			}
+		}, "CoordinatorTest coordinator");
+		thread.setDaemon(true);
+		thread.start();
+		return thread;
+	}
+}
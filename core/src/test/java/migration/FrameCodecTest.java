@@ -0,0 +1,92 @@
+package migration;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.ByteBuffer;
+
+import org.junit.jupiter.api.Test;
+
+import creatures.CreaturePool;
+import creatures.Migrant;
+import functions.SeededRandom;
+import neural.Network;
+import simulation.World;
+
+/**
+ * Tests that Migrants survive being encoded and decoded, and that Migrants
+ * which could not join an Island are rejected before they change anything.
+ * 
+ * Copyright (C) 2022 Andrew Cupps, CC BY 4.0
+ * 
+ * @author Andrew Cupps
+ * @version 16 Oct 2026
+ */
+class FrameCodecTest {
+	
+	@Test
+	void migrantSurvivesEncoding() {
+		World world = new World(480, 270, 5, 1);
+		Migrant migrant = world.getCreatures().emigrate(0, new SeededRandom(1));
+		ByteBuffer frame = encode(migrant);
+		assertEquals(FrameCodec.migrantSize(migrant), frame.limit());
+		
+		Migrant decoded = FrameCodec.readMigrant(body(frame));
+		assertEquals(migrant.getGeneration(), decoded.getGeneration());
+		assertArrayEquals(migrant.getNetwork().getLayerSizes(), decoded.getNetwork().getLayerSizes());
+		for (int t = 0; t < Migrant.TRAIT_NAMES.length; t++) {
+			assertEquals((float) migrant.getTrait(t), decoded.getTrait(t));
+		}
+	}
+	
+	@Test
+	void malformedLayersAreRejected() {
+		Migrant migrant = new World(480, 270, 5, 1).getCreatures().emigrate(0, new SeededRandom(1));
+		int layers = FrameCodec.HEADER_SIZE + 2 * Integer.BYTES + 1 + Migrant.TRAIT_NAMES.length * Float.BYTES;
+		
+		ByteBuffer frame = encode(migrant);
+		frame.put(layers, (byte) -3);
+		assertThrows(IllegalArgumentException.class, () -> FrameCodec.readMigrant(body(frame)));
+		
+		frame.put(layers, (byte) 127);
+		assertThrows(IllegalArgumentException.class, () -> FrameCodec.readMigrant(body(frame)));
+		
+		ByteBuffer sizes = encode(migrant);
+		sizes.putShort(layers + 1, (short) -1);
+		assertThrows(IllegalArgumentException.class, () -> FrameCodec.readMigrant(body(sizes)));
+		
+		sizes.putShort(layers + 1, Short.MAX_VALUE);
+		sizes.putShort(layers + 3, Short.MAX_VALUE);
+		assertThrows(IllegalArgumentException.class, () -> FrameCodec.readMigrant(body(sizes)));
+	}
+	
+	@Test
+	void mismatchedNetworkIsNotAdmitted() {
+		int[] layerSizes = CreaturePool.getNetworkLayerSizes();
+		layerSizes[1]++;
+		Migrant migrant = new Migrant(new double[Migrant.TRAIT_NAMES.length], 0,
+				new Network(layerSizes.length, layerSizes, new SeededRandom(1)));
+		
+		CreaturePool creatures = new World(480, 270, 5, 1).getCreatures();
+		int size = creatures.size();
+		assertThrows(IllegalArgumentException.class, () -> creatures.immigrate(migrant));
+		assertEquals(size, creatures.size());
+	}
+	
+	/*
+	 * Returns the MIGRANT frame of migrant, flipped for reading
+	 */
+	private static ByteBuffer encode(Migrant migrant) {
+		ByteBuffer buffer = ByteBuffer.allocate(FrameCodec.MAX_FRAME_SIZE);
+		FrameCodec.writeMigrant(buffer, 0, migrant);
+		return buffer.flip();
+	}
+	
+	/*
+	 * Returns the body of frame, positioned after its header
+	 */
+	private static ByteBuffer body(ByteBuffer frame) {
+		return frame.duplicate().position(FrameCodec.HEADER_SIZE);
+	}
+}
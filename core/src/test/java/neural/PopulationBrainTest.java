@@ -0,0 +1,151 @@
+package neural;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import functions.SeededRandom;
+
+/**
+ * Tests that Networks attached to a PopulationBrain, submitted and evaluated
+ * in ranges of slots, give exactly the same outputs as copies of them
+ * evaluated alone, while Networks are removed from the middle of the slots
+ * in between, including Networks that were submitted and not yet evaluated.
+ * Networks that are not submitted must be left unchanged, and a removed
+ * Network must keep working on its own.
+ * 
+ * Copyright (C) 2022 Andrew Cupps, CC BY 4.0
+ * 
+ * @author Andrew Cupps
+ * @version 16 Oct 2026
+ */
+class PopulationBrainTest {
+	
+	/*
+	 * Layer sizes of the Networks, as used by Creatures, and the number of
+	 * Networks initially attached
+	 */
+	private static final int[] LAYER_SIZES = {13, 9, 9, 8};
+	private static final int NUM_NETWORKS = 200;
+	
+	/*
+	 * Number of rounds of submitting and evaluating, and the number of
+	 * Networks removed in each round
+	 */
+	private static final int ROUNDS = 10;
+	private static final int REMOVALS = 15;
+	
+	@Test
+	void batchedMatchesStandaloneAfterRemovals() {
+		SeededRandom random = new SeededRandom(5);
+		PopulationBrain brain = new PopulationBrain(LAYER_SIZES);
+		List<Network> attached = new ArrayList<>(), copies = new ArrayList<>();
+		for (int n = 0; n < NUM_NETWORKS; n++) {
+			double[] parameters = new Network(LAYER_SIZES.length, LAYER_SIZES, random).getParameters();
+			Network network = new Network(LAYER_SIZES, parameters);
+			brain.add(network);
+			attached.add(network);
+			copies.add(new Network(LAYER_SIZES, parameters));
+		}
+		
+		double[] inputs = new double[LAYER_SIZES[0]];
+		for (int round = 0; round < ROUNDS; round++) {
+			/* Submit about two thirds of the Networks; the others keep their outputs */
+			boolean[] submitted = new boolean[attached.size()];
+			double[][] before = new double[attached.size()][];
+			for (int n = 0; n < attached.size(); n++) {
+				before[n] = outputs(attached.get(n));
+				if (random.nextDouble() < 2.0 / 3) {
+					for (int i = 0; i < inputs.length; i++) {
+						inputs[i] = (random.nextDouble() - 0.5) * 200;
+					}
+					submitted[n] = true;
+					input(attached.get(n), inputs);
+					input(copies.get(n), inputs);
+					copies.get(n).transferData();
+				}
+			}
+			
+			/* Remove Networks between submitting and evaluating, moving the last slots */
+			for (int r = 0; r < REMOVALS; r++) {
+				int index = (int)(random.nextDouble() * attached.size());
+				Network removed = attached.get(index);
+				brain.remove(removed);
+				assertNull(removed.getBrain());
+				
+				/* A removed Network still evaluates on its own like its copy */
+				if (submitted[index]) {
+					removed.transferData();
+					assertOutputs(copies.get(index).getOutputs(), removed, "removed network");
+				}
+				
+				int last = attached.size() - 1;
+				attached.set(index, attached.get(last));
+				copies.set(index, copies.get(last));
+				submitted[index] = submitted[last];
+				before[index] = before[last];
+				attached.remove(last);
+				copies.remove(last);
+			}
+			
+			assertEquals(attached.size(), brain.size());
+			for (int n = 0; n < attached.size(); n++) {
+				assertEquals(attached.get(n), brain.getNetwork(n), "slot " + n);
+			}
+			
+			/* Evaluate in uneven ranges, as the worker threads do */
+			int split = (int)(random.nextDouble() * brain.size());
+			brain.evaluate(0, split);
+			brain.evaluate(split, brain.size());
+			
+			for (int n = 0; n < attached.size(); n++) {
+				if (submitted[n]) {
+					assertOutputs(copies.get(n).getOutputs(), attached.get(n), "round " + round + " network " + n);
+				} else {
+					double[] actual = outputs(attached.get(n));
+					for (int o = 0; o < actual.length; o++) {
+						assertEquals(before[n][o], actual[o], "round " + round + " unsubmitted network " + n);
+					}
+				}
+			}
+		}
+	}
+	
+	/*
+	 * Asserts that the outputs of network are exactly those of expected
+	 */
+	private static void assertOutputs(Layer expected, Network network, String message) {
+		Layer actual = network.getOutputs();
+		for (int o = 0; o < expected.getSize(); o++) {
+			assertEquals(expected.getData(o), actual.getData(o), message + " output " + o);
+		}
+	}
+	
+	/*
+	 * Returns a copy of the outputs of network
+	 */
+	private static double[] outputs(Network network) {
+		Layer layer = network.getOutputs();
+		double[] outputs = new double[layer.getSize()];
+		for (int o = 0; o < outputs.length; o++) {
+			outputs[o] = layer.getData(o);
+		}
+		return outputs;
+	}
+	
+	/*
+	 * Resets network, gives it the inputs and submits it to its brain if it
+	 * has one
+	 */
+	private static void input(Network network, double[] inputs) {
+		network.resetNetwork();
+		network.getInputs().input(inputs);
+		if (network.getBrain() != null) {
+			network.getBrain().submit(network);
+		}
+	}
+}
@@ -0,0 +1,84 @@
+package neural;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import org.junit.jupiter.api.Test;
+
+import functions.SeededRandom;
+
+/**
+ * Tests that a PopulationBrain evaluated with the VectorKernel gives the
+ * same outputs as with the exact scalar kernel, to within the error of the
+ * VectorKernel's approximation of exp. Skipped when the jdk.incubator.vector
+ * module is absent.
+ * 
+ * Copyright (C) 2022 Andrew Cupps, CC BY 4.0
+ * 
+ * @author Andrew Cupps
+ * @version 16 Oct 2026
+ */
+class VectorKernelTest {
+	
+	/*
+	 * Layer sizes of the Networks, as used by Creatures, and the number of
+	 * Networks in each PopulationBrain
+	 */
+	private static final int[] LAYER_SIZES = {13, 9, 9, 8};
+	private static final int NUM_NETWORKS = 500;
+	
+	/*
+	 * Largest difference allowed between the outputs of the two kernels,
+	 * relative to the size of the output: each Edge's contribution may
+	 * differ by about 1e-13, and each output adds up a few layers of them
+	 */
+	private static final double TOLERANCE = 1e-12;
+	
+	@Test
+	void vectorMatchesScalar() {
+		assumeTrue(LayerKernel.isVectorAvailable(), "jdk.incubator.vector is not present");
+		LayerKernel vector = LayerKernel.vector();
+		assertNotSame(LayerKernel.SCALAR, vector);
+		
+		SeededRandom random = new SeededRandom(3);
+		PopulationBrain scalarBrain = new PopulationBrain(LAYER_SIZES), vectorBrain = new PopulationBrain(LAYER_SIZES);
+		vectorBrain.setKernel(vector);
+		for (int n = 0; n < NUM_NETWORKS; n++) {
+			double[] parameters = new Network(LAYER_SIZES.length, LAYER_SIZES, random).getParameters();
+			scalarBrain.add(new Network(LAYER_SIZES, parameters));
+			vectorBrain.add(new Network(LAYER_SIZES, parameters));
+		}
+		
+		double[] inputs = new double[LAYER_SIZES[0]];
+		for (int round = 0; round < 5; round++) {
+			for (int n = 0; n < NUM_NETWORKS; n++) {
+				for (int i = 0; i < inputs.length; i++) {
+					inputs[i] = (random.nextDouble() - 0.5) * 200;
+				}
+				input(scalarBrain.getNetwork(n), inputs);
+				input(vectorBrain.getNetwork(n), inputs);
+			}
+			scalarBrain.evaluate();
+			vectorBrain.evaluate();
+			
+			for (int n = 0; n < NUM_NETWORKS; n++) {
+				Layer expected = scalarBrain.getNetwork(n).getOutputs();
+				Layer actual = vectorBrain.getNetwork(n).getOutputs();
+				for (int o = 0; o < expected.getSize(); o++) {
+					assertEquals(expected.getData(o), actual.getData(o),
+							TOLERANCE * Math.max(1, Math.abs(expected.getData(o))), "network " + n + " output " + o);
+				}
+			}
+		}
+	}
+	
+	/*
+	 * Resets network, gives it the inputs and submits it to its brain
+	 */
+	private static void input(Network network, double[] inputs) {
+		network.resetNetwork();
+		network.getInputs().input(inputs);
+		network.getBrain().submit(network);
+	}
+}
@@ -0,0 +1,74 @@
+package simulation;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.lang.management.ManagementFactory;
+
+import org.junit.jupiter.api.Test;
+
+import com.sun.management.ThreadMXBean;
+
+/**
+ * Tests that stepping a World does not allocate for each Creature it
+ * updates, measuring the bytes allocated by the stepping thread with the
+ * ThreadMXBean.
+ * 
+ * Births, spawns and deaths allocate by design, since every new Creature
+ * has a new Network and generator, so only ticks without any of them are
+ * measured. Every tick also creates its Flight Recorder events, which are
+ * allowed for separately.
+ * 
+ * Copyright (C) 2022 Andrew Cupps, CC BY 4.0
+ * 
+ * @author Andrew Cupps
+ * @version 16 Oct 2026
+ */
+class AllocationTest {
+	
+	/*
+	 * Ticks run before measuring, so that the hot paths are compiled, and
+	 * ticks measured
+	 */
+	private static final int WARMUP_TICKS = 5000, MEASURED_TICKS = 3000;
+	
+	/*
+	 * Bytes each tick may allocate for its TickEvent and TilePassEvent, and
+	 * bytes each Creature may allocate per tick
+	 */
+	private static final long TICK_ALLOWANCE = 128;
+	private static final double CREATURE_ALLOWANCE = 1;
+	
+	@Test
+	void updatingCreaturesDoesNotAllocate() {
+		ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+		assumeTrue(threads.isThreadAllocatedMemorySupported());
+		threads.setThreadAllocatedMemoryEnabled(true);
+		long thread = Thread.currentThread().getId();
+		
+		World world = new World(1920, 1080, 42, 1);
+		SimulationMetrics metrics = world.getMetrics();
+		for (int t = 0; t < WARMUP_TICKS; t++) {
+			world.step();
+		}
+		
+		long bytes = 0, quietTicks = 0, creatureTicks = 0;
+		for (int t = 0; t < MEASURED_TICKS; t++) {
+			long births = metrics.getBirths(), deaths = metrics.getDeaths();
+			long before = threads.getThreadAllocatedBytes(thread);
+			world.step();
+			long after = threads.getThreadAllocatedBytes(thread);
+			
+			if (metrics.getBirths() == births && metrics.getDeaths() == deaths) {
+				bytes += after - before;
+				quietTicks++;
+				creatureTicks += world.getCreatures().size();
+			}
+		}
+		
+		assertTrue(quietTicks > MEASURED_TICKS / 10, "only " + quietTicks + " ticks without births or deaths");
+		double perCreatureTick = (double) Math.max(0, bytes - quietTicks * TICK_ALLOWANCE) / creatureTicks;
+		assertTrue(perCreatureTick < CREATURE_ALLOWANCE, bytes + " bytes allocated in " + quietTicks
+				+ " ticks, " + perCreatureTick + " per Creature per tick");
+	}
+}
@@ -0,0 +1,52 @@
+package simulation;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests that fights between Creatures are settled identically whatever the
+ * number of threads updating them, in a World crowded enough that most
+ * Creatures touch others every tick.
+ * 
+ * Copyright (C) 2022 Andrew Cupps, CC BY 4.0
+ * 
+ * @author Andrew Cupps
+ * @version 16 Oct 2026
+ */
+class CombatTest {
+	
+	/*
+	 * Thousands of Creatures in a small World, kept from dying out
+	 */
+	private static final Parameters CROWDED = Parameters.DEFAULT
+			.with(Parameters.Key.INITIAL_NUM_CREATURES, 4000)
+			.with(Parameters.Key.MIN_NUM_CREATURES, 2000);
+	
+	@Test
+	void combatIsIndependentOfParallelism() {
+		World serial = new World(480, 270, 11, 1, CROWDED);
+		World parallel = new World(480, 270, 11, 4, CROWDED);
+		for (int t = 0; t < 200; t++) {
+			serial.step();
+			parallel.step();
+			if (t % 20 == 0) {
+				assertTrue(serial.checkpoint().isIdentical(parallel.checkpoint()), "diverged at tick " + serial.getTime());
+			}
+		}
+		assertTrue(serial.checkpoint().isIdentical(parallel.checkpoint()));
+	}
+	
+	@Test
+	void combatChangesTheWorld() {
+		World fighting = new World(480, 270, 11, 1, CROWDED);
+		World harmless = new World(480, 270, 11, 1, CROWDED.with(Parameters.Key.CREATURE_ATTACK_DAMAGE_RATE, 0));
+		fighting.step(20);
+		harmless.step(20);
+		assertFalse(Arrays.equals(fighting.checkpoint().getDoubles("creatures.health"),
+				harmless.checkpoint().getDoubles("creatures.health")));
+	}
+}
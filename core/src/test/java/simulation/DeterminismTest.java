@@ -0,0 +1,37 @@
+package simulation;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests that a World evolves identically whatever the number of threads
+ * updating its Creatures.
+ * 
+ * Copyright (C) 2022 Andrew Cupps, CC BY 4.0
+ * 
+ * @author Andrew Cupps
+ * @version 16 Oct 2026
+ */
+class DeterminismTest {
+	
+	/*
+	 * A population large enough to be split between several threads in
+	 * every parallel phase
+	 */
+	private static final Parameters CROWDED = Parameters.DEFAULT.with(Parameters.Key.INITIAL_NUM_CREATURES, 3000);
+	
+	@Test
+	void worldIsIndependentOfParallelism() {
+		World serial = new World(1920, 1080, 42, 1, CROWDED);
+		World parallel = new World(1920, 1080, 42, 4, CROWDED);
+		for (int t = 0; t < 300; t++) {
+			serial.step();
+			parallel.step();
+			if (t % 50 == 0) {
+				assertTrue(serial.checkpoint().isIdentical(parallel.checkpoint()), "diverged at tick " + serial.getTime());
+			}
+		}
+		assertTrue(serial.checkpoint().isIdentical(parallel.checkpoint()));
+	}
+}
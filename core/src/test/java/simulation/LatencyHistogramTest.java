@@ -0,0 +1,92 @@
+package simulation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+
+import functions.SeededRandom;
+
+/**
+ * Tests that every bucket of a LatencyHistogram holds the values it should,
+ * and that its percentiles are within a bucket of the exact percentiles of
+ * the sorted values recorded.
+ * 
+ * Copyright (C) 2022 Andrew Cupps, CC BY 4.0
+ * 
+ * @author Andrew Cupps
+ * @version 16 Oct 2026
+ */
+class LatencyHistogramTest {
+	
+	/*
+	 * Number of values recorded, and the largest power of two they span
+	 */
+	private static final int NUM_VALUES = 100000, MAX_BITS = 40;
+	
+	/*
+	 * Relative width of a bucket: values below 64 are counted exactly, and
+	 * every other bucket spans at most 1/32 of the values in it
+	 */
+	private static final int SUB_BUCKETS = 32;
+	
+	private static final double[] PERCENTILES = {0, 0.1, 1, 10, 25, 50, 75, 90, 99, 99.9, 99.99, 100};
+	
+	private final SeededRandom random = new SeededRandom(8);
+	
+	@Test
+	void bucketsHoldTheirValues() {
+		for (int k = 0; k < NUM_VALUES; k++) {
+			long value = randomValue(64);
+			int i = LatencyHistogram.index(value);
+			long highest = LatencyHistogram.highestValue(i);
+			long lowest = (i == 0) ? 0 : LatencyHistogram.highestValue(i - 1) + 1;
+			assertTrue(lowest <= value && value <= highest, value + " outside bucket " + i);
+			assertTrue(highest - lowest <= Math.max(0, lowest / SUB_BUCKETS), "bucket " + i + " too wide");
+		}
+		for (long value = 0; value < 2 * SUB_BUCKETS; value++) {
+			assertEquals(value, LatencyHistogram.highestValue(LatencyHistogram.index(value)));
+		}
+		assertEquals(Long.MAX_VALUE, LatencyHistogram.highestValue(LatencyHistogram.index(Long.MAX_VALUE)));
+	}
+	
+	@Test
+	void percentilesMatchSortedValues() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		assertEquals(0, histogram.getValueAtPercentile(50));
+		
+		long[] values = new long[NUM_VALUES];
+		long sum = 0;
+		for (int k = 0; k < NUM_VALUES; k++) {
+			values[k] = randomValue(MAX_BITS);
+			histogram.record(values[k]);
+			sum += values[k];
+		}
+		Arrays.sort(values);
+		
+		assertEquals(NUM_VALUES, histogram.getCount());
+		assertEquals(values[NUM_VALUES - 1], histogram.getMax());
+		assertEquals((double) sum / NUM_VALUES, histogram.getMean(), 1e-6);
+		for (double percentile : PERCENTILES) {
+			long exact = values[(int) Math.max(1, Math.ceil(NUM_VALUES * percentile / 100)) - 1];
+			long reported = histogram.getValueAtPercentile(percentile);
+			assertTrue(exact <= reported && reported - exact <= exact / SUB_BUCKETS,
+					"percentile " + percentile + ": " + reported + " for " + exact);
+		}
+		
+		histogram.reset();
+		histogram.record(-5);
+		assertEquals(1, histogram.getCount());
+		assertEquals(0, histogram.getValueAtPercentile(100));
+	}
+	
+	/*
+	 * Returns a value below 2^bits whose number of bits is spread evenly.
+	 */
+	private long randomValue(int bits) {
+		int magnitude = (int) (random.nextDouble() * bits);
+		return (magnitude == 0) ? 0 : random.nextLong() >>> (64 - magnitude);
+	}
+}
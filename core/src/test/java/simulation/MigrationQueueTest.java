@@ -0,0 +1,122 @@
+package simulation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.Test;
+
+import creatures.Migrant;
+import functions.SeededRandom;
+import neural.Network;
+
+/**
+ * Tests that a MigrationQueue shared by a producer and a consumer thread
+ * hands over every Migrant exactly once and in order, or counts it as
+ * dropped, across many wraps of its ring, and that Islands connected by
+ * MigrationQueues account for every Migrant they send.
+ * 
+ * Copyright (C) 2022 Andrew Cupps, CC BY 4.0
+ * 
+ * @author Andrew Cupps
+ * @version 16 Oct 2026
+ */
+class MigrationQueueTest {
+	
+	/*
+	 * Capacity of the queue handing Migrants between threads, and the number
+	 * of Migrants which must get through, wrapping the ring many times
+	 */
+	private static final int CAPACITY = 8, DELIVERED = 100000;
+	
+	/*
+	 * Size and length of the runs of Islands, and how often and how many
+	 * Creatures they send
+	 */
+	private static final int WIDTH = 320, HEIGHT = 240, TICKS = 300, INTERVAL = 10, NUM_MIGRANTS = 3;
+	
+	@Test
+	void everyMigrantIsPolledOnceInOrderOrDropped() throws InterruptedException {
+		MigrationQueue queue = new MigrationQueue(CAPACITY);
+		assertNull(queue.poll());
+		Network network = new Network(2, new int[] {1, 1}, new SeededRandom(1));
+		double[] traits = new double[Migrant.TRAIT_NAMES.length];
+		
+		/*
+		 * Each Migrant carries its number in the sequence offered as its
+		 * generation; the producer keeps offering until enough have been
+		 * accepted, giving way to the consumer whenever one is dropped
+		 */
+		List<Integer> accepted = new ArrayList<>();
+		int[] rejected = {0};
+		AtomicBoolean done = new AtomicBoolean();
+		Thread producer = new Thread(() -> {
+			for (int sequence = 0; accepted.size() < DELIVERED; sequence++) {
+				if (queue.offer(new Migrant(traits, sequence, network))) {
+					accepted.add(sequence);
+				} else {
+					rejected[0]++;
+					Thread.yield();
+				}
+			}
+			done.set(true);
+		}, "MigrationQueueTest producer");
+		
+		List<Integer> polled = new ArrayList<>();
+		producer.start();
+		while (true) {
+			boolean finished = done.get();
+			Migrant migrant = queue.poll();
+			if (migrant != null) {
+				polled.add(migrant.getGeneration());
+			} else if (finished) {
+				break;
+			} else {
+				Thread.yield();
+			}
+		}
+		producer.join();
+		
+		assertEquals(accepted, polled);
+		assertEquals(rejected[0], queue.getDropped());
+		assertEquals(0, queue.size());
+		assertNull(queue.poll());
+	}
+	
+	@Test
+	void islandsAccountForEveryMigrant() throws InterruptedException {
+		Island[] islands = new Island[2];
+		for (int i = 0; i < islands.length; i++) {
+			islands[i] = new Island(i, new World(WIDTH, HEIGHT, 11 + i, 1), TICKS, INTERVAL, NUM_MIGRANTS);
+		}
+		
+		/*
+		 * Queues small enough that some Migrants are dropped
+		 */
+		MigrationQueue[] queues = new MigrationQueue[islands.length];
+		for (int i = 0; i < islands.length; i++) {
+			queues[i] = new MigrationQueue(2);
+			islands[i].addOutbox(queues[i]);
+			islands[(i + 1) % islands.length].addInbox(queues[i]);
+		}
+		
+		Thread[] threads = new Thread[islands.length];
+		for (int i = 0; i < islands.length; i++) {
+			threads[i] = new Thread(islands[i], "MigrationQueueTest island " + i);
+			threads[i].start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		
+		for (int i = 0; i < islands.length; i++) {
+			Island source = islands[i], destination = islands[(i + 1) % islands.length];
+			assertEquals(TICKS, source.getWorld().getTime());
+			assertEquals(TICKS / INTERVAL * NUM_MIGRANTS, source.getEmigrants() + source.getDropped());
+			assertEquals(source.getEmigrants(), destination.getImmigrants() + queues[i].size());
+		}
+	}
+}
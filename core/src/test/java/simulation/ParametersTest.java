@@ -0,0 +1,75 @@
+package simulation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import checkpoint.Checkpoint;
+
+/**
+ * Tests that Parameters parsed from text are validated like those set
+ * directly, and that Parameters survive being saved and restored while
+ * invalid saved values are rejected.
+ * 
+ * Copyright (C) 2022 Andrew Cupps, CC BY 4.0
+ * 
+ * @author Andrew Cupps
+ * @version 16 Oct 2026
+ */
+class ParametersTest {
+	
+	@Test
+	void textValuesAreParsed() {
+		Parameters parameters = Parameters.DEFAULT.with("creature_eat_cost", " 10 ")
+				.with(" CHANGING_NUTRITION", "TRUE").with("FAST_SIGMOID", "false").with("MIN_NUM_CREATURES", "7");
+		assertEquals(10, parameters.get(Parameters.Key.CREATURE_EAT_COST));
+		assertTrue(parameters.is(Parameters.Key.CHANGING_NUTRITION));
+		assertFalse(parameters.is(Parameters.Key.FAST_SIGMOID));
+		assertEquals(7, parameters.getInt(Parameters.Key.MIN_NUM_CREATURES));
+		assertEquals("7", parameters.format(Parameters.Key.MIN_NUM_CREATURES));
+		
+		assertEquals(Parameters.DEFAULT.with(Parameters.Key.CREATURE_EAT_COST, 10),
+				Parameters.DEFAULT.with("CREATURE_EAT_COST", "10"));
+		assertEquals(Parameters.DEFAULT.get(Parameters.Key.CREATURE_EAT_COST),
+				Parameters.Key.CREATURE_EAT_COST.getDefault());
+	}
+	
+	@Test
+	void invalidTextIsRejected() {
+		assertThrows(IllegalArgumentException.class, () -> Parameters.DEFAULT.with("NO_SUCH_KEY", "1"));
+		assertThrows(IllegalArgumentException.class, () -> Parameters.DEFAULT.with("CREATURE_EAT_COST", "cheap"));
+		assertThrows(IllegalArgumentException.class, () -> Parameters.DEFAULT.with("CREATURE_EAT_COST", ""));
+		assertThrows(IllegalArgumentException.class, () -> Parameters.DEFAULT.with("CREATURE_EAT_COST", "NaN"));
+		assertThrows(IllegalArgumentException.class, () -> Parameters.DEFAULT.with("CREATURE_EAT_COST", "Infinity"));
+		assertThrows(IllegalArgumentException.class, () -> Parameters.DEFAULT.with("CREATURE_EAT_COST", "-1"));
+		assertThrows(IllegalArgumentException.class, () -> Parameters.DEFAULT.with("MIN_NUM_CREATURES", "2.5"));
+		assertThrows(IllegalArgumentException.class, () -> Parameters.DEFAULT.with("CHANGING_NUTRITION", "2"));
+		assertThrows(IllegalArgumentException.class, () -> Parameters.DEFAULT.with("CHANGING_NUTRITION", "yes"));
+	}
+	
+	@Test
+	void savedParametersAreRestored() {
+		Parameters parameters = Parameters.DEFAULT.with(Parameters.Key.CREATURE_EAT_COST, 0.1)
+				.with(Parameters.Key.VECTOR_KERNEL, 1).with(Parameters.Key.INITIAL_NUM_CREATURES, 0);
+		Checkpoint saved = new Checkpoint();
+		parameters.saveState(saved);
+		Parameters restored = Parameters.restoreState(saved);
+		assertEquals(parameters, restored);
+		assertEquals(parameters.hashCode(), restored.hashCode());
+		assertEquals(parameters.toString(), restored.toString());
+		assertNotEquals(Parameters.DEFAULT, restored);
+		
+		Checkpoint invalid = new Checkpoint();
+		parameters.saveState(invalid);
+		invalid.putLong("parameters.MIN_NUM_CREATURES", Double.doubleToRawLongBits(-3));
+		assertThrows(IllegalArgumentException.class, () -> Parameters.restoreState(invalid));
+		
+		Checkpoint missing = new Checkpoint();
+		missing.putLong("parameters.CREATURE_EAT_COST", Double.doubleToRawLongBits(1));
+		assertThrows(IllegalArgumentException.class, () -> Parameters.restoreState(missing));
+	}
+}
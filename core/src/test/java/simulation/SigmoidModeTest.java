@@ -0,0 +1,117 @@
+package simulation;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import org.junit.jupiter.api.Test;
+
+import creatures.Creature;
+import creatures.CreaturePool;
+import functions.Function.SigmoidMode;
+
+/**
+ * Tests that the FAST_SIGMOID parameter belongs to each World, and that the
+ * FAST SigmoidMode keeps emergent behavior close to the EXACT one.
+ * 
+ * Copyright (C) 2022 Andrew Cupps, CC BY 4.0
+ * 
+ * @author Andrew Cupps
+ * @version 16 Oct 2026
+ */
+class SigmoidModeTest {
+	
+	private static final Parameters FAST = Parameters.DEFAULT.with(Parameters.Key.FAST_SIGMOID, 1);
+	
+	/*
+	 * Seeds and length of the compared runs; both seeds grow past the
+	 * minimum population within the run, where the modes start to diverge
+	 */
+	private static final long[] SEEDS = {1, 3};
+	private static final int TICKS = 20000, SAMPLE_INTERVAL = 100;
+	
+	/*
+	 * Tolerances of the comparison, averaged over the seeds: the mean
+	 * population may differ by 10%, and the mean of each trait by 10% of the
+	 * range the trait can take
+	 */
+	private static final double POPULATION_TOLERANCE = 0.1;
+	private static final double SIZE_TOLERANCE = 0.1 * (10 - 4);
+	private static final double ATTACK_TOLERANCE = 0.1 * 50, DEFENSE_TOLERANCE = 0.1 * 50;
+	private static final double VELOCITY_TOLERANCE = 0.1 * 2.5;
+	
+	@Test
+	void modeIsTakenFromParameters() {
+		assertEquals(SigmoidMode.EXACT, new World(960, 540, 1, 1).getSigmoidMode());
+		assertEquals(SigmoidMode.FAST, new World(960, 540, 1, 1, FAST).getSigmoidMode());
+	}
+	
+	@Test
+	void worldsInDifferentModesRunSideBySide() {
+		World alone = new World(960, 540, 7, 1);
+		World exact = new World(960, 540, 7, 1), fast = new World(960, 540, 7, 1, FAST);
+		for (int t = 0; t < 500; t++) {
+			alone.step();
+			exact.step();
+			fast.step();
+		}
+		assertArrayEquals(positions(alone), positions(exact));
+		assertFalse(Arrays.equals(positions(exact), positions(fast)));
+	}
+	
+	@Test
+	void fastModeKeepsEmergentBehaviorWithinTolerance() {
+		double[] exact = new double[5], fast = new double[5];
+		for (long seed : SEEDS) {
+			addStatistics(new World(1920, 1080, seed, 1), exact);
+			addStatistics(new World(1920, 1080, seed, 1, FAST), fast);
+		}
+		
+		assertEquals(exact[0], fast[0], POPULATION_TOLERANCE * exact[0], "mean population");
+		assertEquals(exact[1] / SEEDS.length, fast[1] / SEEDS.length, SIZE_TOLERANCE, "mean size");
+		assertEquals(exact[2] / SEEDS.length, fast[2] / SEEDS.length, ATTACK_TOLERANCE, "mean attack");
+		assertEquals(exact[3] / SEEDS.length, fast[3] / SEEDS.length, DEFENSE_TOLERANCE, "mean defense");
+		assertEquals(exact[4] / SEEDS.length, fast[4] / SEEDS.length, VELOCITY_TOLERANCE,
+				"mean maximum linear velocity");
+	}
+	
+	/*
+	 * Runs world for TICKS ticks and adds its mean sampled population and
+	 * the mean traits of its final Creatures to statistics.
+	 */
+	private static void addStatistics(World world, double[] statistics) {
+		long population = 0;
+		for (int t = 1; t <= TICKS; t++) {
+			world.step();
+			if (t % SAMPLE_INTERVAL == 0) {
+				population += world.getCreatures().size();
+			}
+		}
+		statistics[0] += (double) population / (TICKS / SAMPLE_INTERVAL);
+		
+		CreaturePool creatures = world.getCreatures();
+		double[] sums = new double[4];
+		for (int s = 0; s < creatures.size(); s++) {
+			Creature creature = creatures.get(s);
+			sums[0] += creature.getSize();
+			sums[1] += creature.getAttack();
+			sums[2] += creature.getDefense();
+			sums[3] += creature.getMaxLinearVelocity();
+		}
+		for (int i = 0; i < sums.length; i++) {
+			statistics[i + 1] += sums[i] / creatures.size();
+		}
+	}
+	
+	private static double[] positions(World world) {
+		CreaturePool creatures = world.getCreatures();
+		double[] positions = new double[2 * creatures.size()];
+		for (int s = 0; s < creatures.size(); s++) {
+			positions[2 * s] = creatures.get(s).getX();
+			positions[2 * s + 1] = creatures.get(s).getY();
+		}
+		return positions;
+	}
+}
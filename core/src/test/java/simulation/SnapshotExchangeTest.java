@@ -0,0 +1,159 @@
+package simulation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.junit.jupiter.api.Test;
+
+import creatures.CreaturePool;
+import environment.TileField;
+
+/**
+ * Tests that a SnapshotExchange shared by a publishing and a taking thread
+ * only ever hands the viewer complete snapshots of a published tick, that a
+ * snapshot is not written while the viewer holds it, and that take() always
+ * returns the latest snapshot published before it was called.
+ * 
+ * Copyright (C) 2022 Andrew Cupps, CC BY 4.0
+ * 
+ * @author Andrew Cupps
+ * @version 16 Oct 2026
+ */
+class SnapshotExchangeTest {
+	
+	/*
+	 * Size of the World published, and the number of ticks published
+	 */
+	private static final int WIDTH = 320, HEIGHT = 240, TICKS = 3000;
+	
+	/*
+	 * Number of times the viewer yields while holding a snapshot, giving the
+	 * publisher the chance to write over it
+	 */
+	private static final int HOLD_YIELDS = 3;
+	
+	@Test
+	void takeReturnsLatestPublished() {
+		World world = new World(WIDTH, HEIGHT, 6, 1);
+		SnapshotExchange exchange = new SnapshotExchange(world);
+		assertNull(exchange.take());
+		
+		exchange.publish(world);
+		RenderSnapshot first = exchange.take();
+		assertEquals(0, first.getTick());
+		assertSame(first, exchange.take());
+		
+		for (int k = 0; k < 5; k++) {
+			world.step();
+			exchange.publish(world);
+		}
+		RenderSnapshot latest = exchange.take();
+		assertEquals(5, latest.getTick());
+		assertEquals(checksum(world), checksum(latest));
+		assertSame(latest, exchange.take());
+	}
+	
+	@Test
+	void concurrentTakesSeeWholeLatestSnapshots() throws InterruptedException {
+		World world = new World(WIDTH, HEIGHT, 6, 1);
+		SnapshotExchange exchange = new SnapshotExchange(world);
+		
+		/*
+		 * The checksum of the World at every published tick, put before the
+		 * tick is published, and the last tick whose publish has returned
+		 */
+		Map<Long, Long> expected = new ConcurrentHashMap<>();
+		long[] lastPublished = {-1};
+		Object lock = new Object();
+		Thread publisher = new Thread(() -> {
+			while (world.getTime() < TICKS) {
+				world.step();
+				expected.put(world.getTime(), checksum(world));
+				exchange.publish(world);
+				synchronized (lock) {
+					lastPublished[0] = world.getTime();
+				}
+			}
+		}, "SnapshotExchangeTest publisher");
+		publisher.start();
+		
+		long lastTaken = -1, taken = 0;
+		while (lastTaken < TICKS) {
+			long published;
+			synchronized (lock) {
+				published = lastPublished[0];
+			}
+			RenderSnapshot snapshot = exchange.take();
+			if (snapshot == null) {
+				assertEquals(-1, published);
+				Thread.yield();
+				continue;
+			}
+			
+			long tick = snapshot.getTick(), sum = checksum(snapshot);
+			assertTrue(tick >= published, "took tick " + tick + " after tick " + published + " was published");
+			assertTrue(tick >= lastTaken, "took tick " + tick + " after tick " + lastTaken);
+			assertEquals(expected.get(tick), sum, "snapshot of tick " + tick);
+			for (int k = 0; k < HOLD_YIELDS; k++) {
+				Thread.yield();
+			}
+			assertEquals(tick, snapshot.getTick(), "held snapshot was written");
+			assertEquals(sum, checksum(snapshot), "held snapshot was written");
+			
+			lastTaken = tick;
+			taken++;
+		}
+		publisher.join();
+		
+		assertEquals(TICKS, exchange.take().getTick());
+		assertTrue(taken > 1);
+	}
+	
+	/*
+	 * Returns a checksum of everything a snapshot of world would hold.
+	 */
+	private static long checksum(World world) {
+		TileField tiles = world.getTiles();
+		CreaturePool creatures = world.getCreatures();
+		long sum = world.getTime();
+		for (int t = 0; t < tiles.size(); t++) {
+			sum = 31 * sum + tiles.getRGB(t);
+		}
+		sum = 31 * sum + creatures.size();
+		for (int s = 0; s < creatures.size(); s++) {
+			sum = 31 * sum + (int) creatures.getX(s);
+			sum = 31 * sum + (int) creatures.getY(s);
+			sum = 31 * sum + (int) creatures.getSize(s);
+			sum = 31 * sum + creatures.getCreatureRGB(s);
+			sum = 31 * sum + (int) creatures.getVisionXGraphics(s);
+			sum = 31 * sum + (int) creatures.getVisionYGraphics(s);
+		}
+		return sum;
+	}
+	
+	/*
+	 * Returns a checksum of everything snapshot holds, equal to that of the
+	 * World it was written from.
+	 */
+	private static long checksum(RenderSnapshot snapshot) {
+		long sum = snapshot.getTick();
+		for (int rgb : snapshot.getTileRGB()) {
+			sum = 31 * sum + rgb;
+		}
+		sum = 31 * sum + snapshot.getNumCreatures();
+		for (int s = 0; s < snapshot.getNumCreatures(); s++) {
+			sum = 31 * sum + snapshot.getCreatureX()[s];
+			sum = 31 * sum + snapshot.getCreatureY()[s];
+			sum = 31 * sum + snapshot.getCreatureSize()[s];
+			sum = 31 * sum + snapshot.getCreatureRGB()[s];
+			sum = 31 * sum + snapshot.getVisionX()[s];
+			sum = 31 * sum + snapshot.getVisionY()[s];
+		}
+		return sum;
+	}
+}
@@ -0,0 +1,80 @@
+package simulation;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests the parsing of the options of the SweepRunner, and that a run whose
+ * population dies out is summarized with empty means rather than failing.
+ * 
+ * Copyright (C) 2022 Andrew Cupps, CC BY 4.0
+ * 
+ * @author Andrew Cupps
+ * @version 16 Oct 2026
+ */
+class SweepRunnerTest {
+	
+	@TempDir
+	Path dir;
+	
+	@Test
+	void seedsAreParsed() {
+		assertArrayEquals(new long[] {1, 2, 5}, SweepRunner.parseSeeds("1,2,5"));
+		assertArrayEquals(new long[] {3, 4, 5, 9}, SweepRunner.parseSeeds("3-5, 9"));
+		assertArrayEquals(new long[] {7}, SweepRunner.parseSeeds("7-7"));
+		assertArrayEquals(new long[] {-2, -1, 0, 1}, SweepRunner.parseSeeds("-2-1"));
+		assertArrayEquals(new long[] {-5, -4}, SweepRunner.parseSeeds("-5--4"));
+		assertArrayEquals(new long[] {-3, 8}, SweepRunner.parseSeeds("-3,8"));
+		
+		assertThrows(IllegalArgumentException.class, () -> SweepRunner.parseSeeds("5-3"));
+		assertThrows(IllegalArgumentException.class, () -> SweepRunner.parseSeeds("-1--3"));
+		assertThrows(IllegalArgumentException.class, () -> SweepRunner.parseSeeds("1-"));
+		assertThrows(IllegalArgumentException.class, () -> SweepRunner.parseSeeds("one"));
+		assertThrows(IllegalArgumentException.class, () -> SweepRunner.parseSeeds(""));
+	}
+	
+	@Test
+	void parameterValuesAreCombined() {
+		List<Parameters> costs = SweepRunner.combine(List.of(Parameters.DEFAULT), "CREATURE_EAT_COST=10,15");
+		List<Parameters> sets = SweepRunner.combine(costs, "CHANGING_NUTRITION=false,true,false");
+		assertEquals(6, sets.size());
+		for (int k = 0; k < sets.size(); k++) {
+			assertEquals((k < 3) ? 10 : 15, sets.get(k).get(Parameters.Key.CREATURE_EAT_COST));
+			assertEquals(k % 3 == 1, sets.get(k).is(Parameters.Key.CHANGING_NUTRITION));
+		}
+		
+		assertThrows(IllegalArgumentException.class, () -> SweepRunner.combine(sets, "CREATURE_EAT_COST"));
+		assertThrows(IllegalArgumentException.class, () -> SweepRunner.combine(sets, "NO_SUCH_KEY=1"));
+		assertThrows(IllegalArgumentException.class, () -> SweepRunner.combine(sets, "CREATURE_EAT_COST=10,x"));
+	}
+	
+	@Test
+	void emptyPopulationHasEmptyMeans() throws IOException, InterruptedException {
+		Parameters empty = Parameters.DEFAULT.with(Parameters.Key.INITIAL_NUM_CREATURES, 0)
+				.with(Parameters.Key.MIN_NUM_CREATURES, 0);
+		Path path = dir.resolve("sweep.csv");
+		assertEquals(0, new SweepRunner(List.of(empty), new long[] {1}, 320, 240, 20, 10).run(path, 1));
+		
+		List<String> lines = Files.readAllLines(path);
+		assertEquals(2, lines.size());
+		String[] header = lines.get(0).split(",", -1), row = lines.get(1).split(",", -1);
+		assertEquals(header.length, row.length);
+		for (int c = 0; c < header.length; c++) {
+			String column = header[c];
+			if (column.startsWith("mean") && !column.equals("meanPopulation")) {
+				assertEquals("", row[c], column);
+			} else if (column.equals("population") || column.equals("maxGeneration") || column.equals("lineages")) {
+				assertEquals("0", row[c], column);
+			}
+		}
+	}
+}
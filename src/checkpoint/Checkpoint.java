@@ -0,0 +1,443 @@
+package checkpoint;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.zip.CRC32C;
+
+/**
+ * A Checkpoint is a complete copy of the state of a simulation, held in
+ * memory as named sections, which can be written to and read back from a
+ * file. Since every array is copied as it is put, a Checkpoint taken
+ * between two ticks stays consistent while it is written on another thread
+ * and the simulation carries on.
+ * 
+ * The file format is little-endian:
+ * MAGIC (8 bytes), VERSION (4 bytes), number of sections (4 bytes), then
+ * each section as the length of its name (2 bytes), its UTF-8 name, its type
+ * (1 byte), and either a single long or the length of an array (4 bytes)
+ * followed by its values, and finally the CRC-32C of everything before it
+ * (8 bytes). Files are written and read through a FileChannel with a direct
+ * buffer, so arrays are copied in bulk, and are written to a temporary file
+ * first so that an interrupted write never replaces an older checkpoint.
+ * 
+ * Copyright (C) 2022 Andrew Cupps, CC BY 4.0
+ * 
+ * @author Andrew Cupps
+ * @version 16 Oct 2026
+ */
+public class Checkpoint implements StateWriter, StateReader {
+	
+	/**
+	 * "JSENNCKP" in ASCII
+	 */
+	private static final long MAGIC = 0x4A53454E4E434B50L;
+	
+	/**
+	 * Version of the format written, raised whenever the sections a World
+	 * saves change, since a file with other sections cannot be restored:
+	 * 1 - the first format;
+	 * 2 - adds creatures.nextId, creatures.id and creatures.parentId;
+	 * 3 - adds the phylogeny.* sections;
+	 * 4 - adds a parameters.* section for every Parameters key;
+	 * 5 - saves networks of 13-9-9-8 Nodes for combat, and the combat
+	 * parameters;
+	 * 6 - adds parameters.VECTOR_KERNEL;
+	 * 7 - adds tiles.nutritionOffset.
+	 */
+	private static final int VERSION = 7;
+	
+	/*
+	 * Types of sections
+	 */
+	private static final byte LONG = 0, DOUBLES = 1, INTS = 2, LONGS = 3, BYTES = 4;
+	
+	/*
+	 * Size of the direct buffer used for reading and writing files
+	 */
+	private static final int BUFFER_SIZE = 1 << 20;
+	
+	/*
+	 * Every section in the order it was put: a Long, or an array
+	 */
+	private final Map<String, Object> sections = new LinkedHashMap<>();
+	
+	@Override
+	public void putLong(String name, long value) {
+		sections.put(name, value);
+	}
+	
+	@Override
+	public void putDoubles(String name, double[] values, int length) {
+		sections.put(name, Arrays.copyOf(values, length));
+	}
+	
+	@Override
+	public void putInts(String name, int[] values, int length) {
+		sections.put(name, Arrays.copyOf(values, length));
+	}
+	
+	@Override
+	public void putLongs(String name, long[] values, int length) {
+		sections.put(name, Arrays.copyOf(values, length));
+	}
+	
+	@Override
+	public void putBytes(String name, byte[] values, int length) {
+		sections.put(name, Arrays.copyOf(values, length));
+	}
+	
+	@Override
+	public long getLong(String name) { return get(name, Long.class); }
+	@Override
+	public double[] getDoubles(String name) { return get(name, double[].class); }
+	@Override
+	public int[] getInts(String name) { return get(name, int[].class); }
+	@Override
+	public long[] getLongs(String name) { return get(name, long[].class); }
+	@Override
+	public byte[] getBytes(String name) { return get(name, byte[].class); }
+	
+	/**
+	 * Returns whether this Checkpoint has the same sections as other, with
+	 * the same values bit for bit.
+	 * @param other - the Checkpoint to be compared
+	 * @return true if both hold identical state, false otherwise
+	 */
+	public boolean isIdentical(Checkpoint other) {
+		if (!sections.keySet().equals(other.sections.keySet())) {
+			return false;
+		}
+		
+		for (Map.Entry<String, Object> section : sections.entrySet()) {
+			if (!Objects.deepEquals(section.getValue(), other.sections.get(section.getKey()))) {
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	/**
+	 * Writes this Checkpoint to path, replacing any existing file only once
+	 * the whole Checkpoint has been written and forced to the device.
+	 * @param path - the file to be written
+	 * @throws IOException if the file could not be written
+	 */
+	public void write(Path path) throws IOException {
+		Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+		try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+				StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+			Output out = new Output(channel);
+			out.require(16);
+			out.buffer.putLong(MAGIC).putInt(VERSION).putInt(sections.size());
+			
+			for (Map.Entry<String, Object> section : sections.entrySet()) {
+				byte[] name = section.getKey().getBytes(StandardCharsets.UTF_8);
+				out.require(2 + name.length + 1 + 8);
+				out.buffer.putShort((short) name.length).put(name);
+				
+				Object value = section.getValue();
+				if (value instanceof Long) {
+					out.buffer.put(LONG).putLong((Long) value);
+				} else if (value instanceof double[]) {
+					out.putDoubles((double[]) value);
+				} else if (value instanceof int[]) {
+					out.putInts((int[]) value);
+				} else if (value instanceof long[]) {
+					out.putLongs((long[]) value);
+				} else {
+					out.putBytes((byte[]) value);
+				}
+			}
+			
+			out.finish();
+			channel.force(false);
+		}
+		Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+	
+	/**
+	 * Reads a Checkpoint written by write().
+	 * @param path - the file to be read
+	 * @return the Checkpoint read
+	 * @throws IOException if the file could not be read, is not a
+	 * checkpoint, has an unsupported version or is corrupt
+	 */
+	public static Checkpoint read(Path path) throws IOException {
+		Checkpoint checkpoint = new Checkpoint();
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			Input in = new Input(channel);
+			in.require(16);
+			if (in.buffer.getLong() != MAGIC) {
+				throw new IOException(path + " is not a JSENN checkpoint.");
+			}
+			int version = in.buffer.getInt();
+			if (version != VERSION) {
+				throw new IOException("Unsupported checkpoint version " + version + ".");
+			}
+			
+			int numSections = in.buffer.getInt();
+			for (int k = 0; k < numSections; k++) {
+				in.require(2);
+				byte[] name = new byte[in.length(in.buffer.getShort() & 0xFFFF, 1)];
+				in.require(name.length + 1);
+				in.buffer.get(name);
+				
+				Object value;
+				byte type = in.buffer.get();
+				in.require((type == LONG) ? Long.BYTES : Integer.BYTES);
+				switch (type) {
+				case LONG: value = in.buffer.getLong(); break;
+				case DOUBLES: value = in.getDoubles(); break;
+				case INTS: value = in.getInts(); break;
+				case LONGS: value = in.getLongs(); break;
+				case BYTES: value = in.getBytes(); break;
+				default: throw new IOException("Unknown section type " + type + ".");
+				}
+				checkpoint.sections.put(new String(name, StandardCharsets.UTF_8), value);
+			}
+			
+			in.finish();
+		}
+		return checkpoint;
+	}
+	
+	/*
+	 * Returns the section of the given name, checking its type.
+	 */
+	private <T> T get(String name, Class<T> type) {
+		Object value = sections.get(name);
+		if (!type.isInstance(value)) {
+			throw new IllegalArgumentException("Checkpoint has no " + type.getSimpleName() + " section " + name + ".");
+		}
+		
+		return type.cast(value);
+	}
+	
+	/*
+	 * Writes to a FileChannel through a direct buffer, keeping the CRC-32C
+	 * of everything written.
+	 */
+	private static class Output {
+		
+		final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+		final FileChannel channel;
+		final CRC32C crc = new CRC32C();
+		
+		Output(FileChannel channel) {
+			this.channel = channel;
+		}
+		
+		/*
+		 * Flushes the buffer if it has fewer than n bytes left.
+		 */
+		void require(int n) throws IOException {
+			if (buffer.remaining() < n) {
+				flush();
+			}
+		}
+		
+		void putDoubles(double[] values) throws IOException {
+			buffer.put(DOUBLES).putInt(values.length);
+			for (int off = 0; off < values.length; ) {
+				require(Double.BYTES);
+				int n = Math.min(buffer.remaining() / Double.BYTES, values.length - off);
+				buffer.asDoubleBuffer().put(values, off, n);
+				buffer.position(buffer.position() + n * Double.BYTES);
+				off += n;
+			}
+		}
+		
+		void putInts(int[] values) throws IOException {
+			buffer.put(INTS).putInt(values.length);
+			for (int off = 0; off < values.length; ) {
+				require(Integer.BYTES);
+				int n = Math.min(buffer.remaining() / Integer.BYTES, values.length - off);
+				buffer.asIntBuffer().put(values, off, n);
+				buffer.position(buffer.position() + n * Integer.BYTES);
+				off += n;
+			}
+		}
+		
+		void putLongs(long[] values) throws IOException {
+			buffer.put(LONGS).putInt(values.length);
+			for (int off = 0; off < values.length; ) {
+				require(Long.BYTES);
+				int n = Math.min(buffer.remaining() / Long.BYTES, values.length - off);
+				buffer.asLongBuffer().put(values, off, n);
+				buffer.position(buffer.position() + n * Long.BYTES);
+				off += n;
+			}
+		}
+		
+		void putBytes(byte[] values) throws IOException {
+			buffer.put(BYTES).putInt(values.length);
+			for (int off = 0; off < values.length; ) {
+				require(1);
+				int n = Math.min(buffer.remaining(), values.length - off);
+				buffer.put(values, off, n);
+				off += n;
+			}
+		}
+		
+		/*
+		 * Writes out the buffer, then the CRC-32C of the whole file.
+		 */
+		void finish() throws IOException {
+			flush();
+			buffer.putLong(crc.getValue());
+			buffer.flip();
+			while (buffer.hasRemaining()) {
+				channel.write(buffer);
+			}
+		}
+		
+		private void flush() throws IOException {
+			buffer.flip();
+			crc.update(buffer.duplicate());
+			while (buffer.hasRemaining()) {
+				channel.write(buffer);
+			}
+			buffer.clear();
+		}
+	}
+	
+	/*
+	 * Reads from a FileChannel through a direct buffer, keeping the CRC-32C
+	 * of everything read before the final checksum.
+	 */
+	private static class Input {
+		
+		final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+		final FileChannel channel;
+		final CRC32C crc = new CRC32C();
+		
+		/*
+		 * The position in the file of the checksum, and of the next byte to
+		 * be read into the buffer
+		 */
+		final long dataEnd;
+		long filePosition = 0;
+		
+		Input(FileChannel channel) throws IOException {
+			this.channel = channel;
+			dataEnd = channel.size() - Long.BYTES;
+			buffer.limit(0);
+		}
+		
+		/*
+		 * Reads more of the file if the buffer has fewer than n bytes left.
+		 */
+		void require(int n) throws IOException {
+			if (buffer.remaining() >= n) {
+				return;
+			}
+			
+			buffer.compact();
+			int start = buffer.position();
+			buffer.limit((int) Math.min(buffer.capacity(), start + Math.max(0, dataEnd - filePosition)));
+			while (buffer.hasRemaining()) {
+				int read = channel.read(buffer, filePosition);
+				if (read < 0) {
+					break;
+				}
+				filePosition += read;
+			}
+			
+			ByteBuffer added = buffer.duplicate();
+			added.flip().position(start);
+			crc.update(added);
+			buffer.flip();
+			if (buffer.remaining() < n) {
+				throw new IOException("Checkpoint is truncated.");
+			}
+		}
+		
+		double[] getDoubles() throws IOException {
+			double[] values = new double[length(buffer.getInt(), Double.BYTES)];
+			for (int off = 0; off < values.length; ) {
+				require(Double.BYTES);
+				int n = Math.min(buffer.remaining() / Double.BYTES, values.length - off);
+				buffer.asDoubleBuffer().get(values, off, n);
+				buffer.position(buffer.position() + n * Double.BYTES);
+				off += n;
+			}
+			return values;
+		}
+		
+		int[] getInts() throws IOException {
+			int[] values = new int[length(buffer.getInt(), Integer.BYTES)];
+			for (int off = 0; off < values.length; ) {
+				require(Integer.BYTES);
+				int n = Math.min(buffer.remaining() / Integer.BYTES, values.length - off);
+				buffer.asIntBuffer().get(values, off, n);
+				buffer.position(buffer.position() + n * Integer.BYTES);
+				off += n;
+			}
+			return values;
+		}
+		
+		long[] getLongs() throws IOException {
+			long[] values = new long[length(buffer.getInt(), Long.BYTES)];
+			for (int off = 0; off < values.length; ) {
+				require(Long.BYTES);
+				int n = Math.min(buffer.remaining() / Long.BYTES, values.length - off);
+				buffer.asLongBuffer().get(values, off, n);
+				buffer.position(buffer.position() + n * Long.BYTES);
+				off += n;
+			}
+			return values;
+		}
+		
+		byte[] getBytes() throws IOException {
+			byte[] values = new byte[length(buffer.getInt(), 1)];
+			for (int off = 0; off < values.length; ) {
+				require(1);
+				int n = Math.min(buffer.remaining(), values.length - off);
+				buffer.get(values, off, n);
+				off += n;
+			}
+			return values;
+		}
+		
+		/*
+		 * Checks that the whole file has been read and that its checksum
+		 * matches.
+		 */
+		void finish() throws IOException {
+			if (buffer.hasRemaining() || filePosition != dataEnd) {
+				throw new IOException("Checkpoint has trailing data.");
+			}
+			
+			ByteBuffer checksum = ByteBuffer.allocate(Long.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+			while (checksum.hasRemaining() && channel.read(checksum, dataEnd + checksum.position()) >= 0) {
+				// Reading the whole checksum
+			}
+			if (checksum.hasRemaining() || checksum.getLong(0) != crc.getValue()) {
+				throw new IOException("Checkpoint is corrupt.");
+			}
+		}
+		
+		/*
+		 * Checks a length read from the file against what is left of it, so
+		 * that a corrupt length fails cleanly before anything is allocated
+		 * rather than only at the checksum.
+		 */
+		int length(int length, int elementBytes) throws IOException {
+			if (length < 0 || (long) length * elementBytes > buffer.remaining() + (dataEnd - filePosition)) {
+				throw new IOException("Checkpoint is corrupt.");
+			}
+			return length;
+		}
+	}
+}
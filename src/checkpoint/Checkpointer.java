@@ -0,0 +1,108 @@
+package checkpoint;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * The Checkpointer writes Checkpoints to files on a background thread, so
+ * that the thread taking them only pauses for as long as copying the state
+ * takes. At most one Checkpoint is waiting to be written at a time: taking
+ * a new one first waits for the previous one to finish, so a slow disk
+ * cannot make copies pile up in memory. A failed write does not stop later
+ * ones: it is reported through the Future of that write, and once more by
+ * awaitLastWrite() if it was the last.
+ * 
+ * Copyright (C) 2022 Andrew Cupps, CC BY 4.0
+ * 
+ * @author Andrew Cupps
+ * @version 16 Oct 2026
+ */
+public class Checkpointer implements AutoCloseable {
+	
+	/*
+	 * The thread writing Checkpoints, and the last write submitted to it
+	 */
+	private final ExecutorService writer = Executors.newSingleThreadExecutor(runnable -> {
+		Thread thread = new Thread(runnable, "JSENN checkpoint writer");
+		thread.setDaemon(true);
+		return thread;
+	});
+	private CompletableFuture<Path> lastWrite = CompletableFuture.completedFuture(null);
+	
+	/**
+	 * Waits for any previous write to finish, whether or not it succeeded,
+	 * then takes a Checkpoint from copy on the calling thread and writes it
+	 * to path in the background.
+	 * @param copy - supplies a consistent copy of the state, such as
+	 * World::checkpoint; the Checkpoint must not be changed afterwards
+	 * @param path - the file to be written
+	 * @return a CompletableFuture completed with path once the file has been
+	 * written, or completed exceptionally if it could not be
+	 * @throws IOException if interrupted while waiting for the previous write
+	 */
+	public CompletableFuture<Path> write(Supplier<Checkpoint> copy, Path path) throws IOException {
+		try {
+			lastWrite.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while waiting for a checkpoint to be written.", e);
+		} catch (ExecutionException e) {
+			// Reported through the Future of the previous write
+		}
+		
+		Checkpoint checkpoint = copy.get();
+		CompletableFuture<Path> written = new CompletableFuture<>();
+		writer.execute(() -> {
+			try {
+				checkpoint.write(path);
+				written.complete(path);
+			} catch (IOException | RuntimeException e) {
+				written.completeExceptionally(e);
+			}
+		});
+		lastWrite = written;
+		return written;
+	}
+	
+	/**
+	 * Waits for the last write to finish; a failure is only thrown once, so
+	 * later writes and calls are not affected by it.
+	 * @throws IOException if it failed
+	 */
+	public void awaitLastWrite() throws IOException {
+		try {
+			lastWrite.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while waiting for a checkpoint to be written.", e);
+		} catch (ExecutionException e) {
+			lastWrite = CompletableFuture.completedFuture(null);
+			throw (e.getCause() instanceof IOException) ? (IOException) e.getCause()
+					: new IOException("Checkpoint could not be written.", e.getCause());
+		}
+	}
+	
+	/**
+	 * Waits for the last write to finish, then stops the background thread.
+	 * @throws IOException if the last write failed
+	 */
+	@Override
+	public void close() throws IOException {
+		try {
+			awaitLastWrite();
+		} finally {
+			writer.shutdown();
+			try {
+				writer.awaitTermination(1, TimeUnit.MINUTES);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+}
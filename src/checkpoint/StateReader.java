@@ -0,0 +1,36 @@
+package checkpoint;
+
+/**
+ * A StateReader gives back the named values and arrays put into a
+ * StateWriter. Every getter throws IllegalArgumentException if there is no
+ * value of that name and type.
+ * 
+ * Copyright (C) 2022 Andrew Cupps, CC BY 4.0
+ * 
+ * @author Andrew Cupps
+ * @version 16 Oct 2026
+ */
+public interface StateReader {
+	
+	long getLong(String name);
+	
+	/**
+	 * Returns the saved array itself, which must not be modified.
+	 */
+	double[] getDoubles(String name);
+	
+	/**
+	 * Returns the saved array itself, which must not be modified.
+	 */
+	int[] getInts(String name);
+	
+	/**
+	 * Returns the saved array itself, which must not be modified.
+	 */
+	long[] getLongs(String name);
+	
+	/**
+	 * Returns the saved array itself, which must not be modified.
+	 */
+	byte[] getBytes(String name);
+}
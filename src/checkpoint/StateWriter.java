@@ -0,0 +1,38 @@
+package checkpoint;
+
+/**
+ * A StateWriter receives the state of a simulation object as named values
+ * and arrays, so that the object can be restored exactly from a StateReader
+ * later. Arrays are copied when they are put, so the caller may keep
+ * changing them afterwards. Names are conventionally prefixed with the
+ * object they belong to, such as "tiles.nutrition".
+ * 
+ * Copyright (C) 2022 Andrew Cupps, CC BY 4.0
+ * 
+ * @author Andrew Cupps
+ * @version 16 Oct 2026
+ */
+public interface StateWriter {
+	
+	void putLong(String name, long value);
+	
+	/**
+	 * Copies the first length values of values.
+	 */
+	void putDoubles(String name, double[] values, int length);
+	
+	/**
+	 * Copies the first length values of values.
+	 */
+	void putInts(String name, int[] values, int length);
+	
+	/**
+	 * Copies the first length values of values.
+	 */
+	void putLongs(String name, long[] values, int length);
+	
+	/**
+	 * Copies the first length values of values.
+	 */
+	void putBytes(String name, byte[] values, int length);
+}
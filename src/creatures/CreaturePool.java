@@ -0,0 +1,1459 @@
+package creatures;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import checkpoint.StateReader;
+import checkpoint.StateWriter;
+import functions.Function;
+import functions.Function.SigmoidMode;
+import functions.SeededRandom;
+import journal.EventJournal;
+import journal.JournalRecord;
+import neural.Layer;
+import neural.LayerKernel;
+import neural.Network;
+import neural.PopulationBrain;
+import simulation.BirthEvent;
+import simulation.DeathEvent;
+import simulation.Parameters;
+import simulation.SimulationMetrics;
+import simulation.SimulationMetrics.Phase;
+import simulation.World;
+
+/**
+ * The CreaturePool holds every Creature in the simulation. Rather than one
+ * object per Creature, each field of a Creature is stored in its own
+ * primitive array indexed by slot, so that updating the population runs
+ * linear loops over contiguous arrays. Living Creatures always occupy slots
+ * 0 to size() - 1: newborns are appended after the last slot, and a dead
+ * Creature is replaced by the Creature in the last slot.
+ * 
+ * Creature networks are attached to a single PopulationBrain, in the same
+ * slot as their Creature, and are evaluated together once per update.
+ * 
+ * Each update alternates between parallel phases, in which every Creature
+ * only reads shared state and writes its own slot, and serial commit phases,
+ * in which effects on shared state (eating, returning nutrition on death and
+ * births) are applied in slot order. The result of an update therefore does
+ * not depend on the number of threads used.
+ * 
+ * Each Creature owns a SeededRandom, split from the generator of its parent
+ * or, for spawned Creatures, from the pool's generator, which is seeded with
+ * the world seed. All random numbers of a Creature and the mutation of its
+ * offspring are drawn from its own generator, so a run is reproduced exactly
+ * by its seed, and offspring can be created in parallel.
+ * 
+ * Copyright (C) 2022 Andrew Cupps, CC BY 4.0
+ * 
+ * @author Andrew Cupps
+ * @version 16 Oct 2026
+ */
+public class CreaturePool {
+	
+	/*
+	 * Maximum maximum radius of any Creature in pixels
+	 */
+	private static final double CREATURE_SIZE_MAX = 10;
+	
+	/*
+	 * Minimum radius of any Creature in pixels
+	 */
+	private static final double CREATURE_SIZE_MIN = 4;
+	
+	/*
+	 * Maximum maxHealth of any Creature
+	 */
+	private static final double CREATURE_MAXHEALTH_MAX = 100;
+	
+	/*
+	 * Minimum maxHealth of any Creature
+	 */
+	private static final double CREATURE_MAXHEALTH_MIN = 40;
+	
+	/*
+	 * Maximum Attack damage of any Creature
+	 */
+	private static final double CREATURE_ATTACK_MAX = 50;
+	
+	/*
+	 * Minimum Attack damage of any Creature
+	 */
+	private static final double CREATURE_ATTACK_MIN = 0;
+	
+	/*
+	 * Maximum Defense damage of any Creature
+	 */
+	private static final double CREATURE_DEFENSE_MAX = 50;
+	
+	/*
+	 * Minimum Defense damage of any Creature
+	 */
+	private static final double CREATURE_DEFENSE_MIN = 0;
+	
+	/*
+	 * Maximum amount of genetic variance between two generations of a Creature
+	 */
+	private static final double CREATURE_VARIANCE_MAX = 1;
+	
+	/*
+	 * Minimum amount of genetic variance between two generations of a Creature
+	 */
+	private static final double CREATURE_VARIANCE_MIN = 0;
+	
+	/*
+	 * Maximum linearVelocity of a creature in pixels / update
+	 */
+	private static final double CREATURE_LINEAR_V_MAX = 2.5;
+	
+	/*
+	 * Maximum angularVelocity of a creature in degrees / update
+	 */
+	private static final double CREATURE_ANGULAR_V_MAX = 90;
+	
+	/*
+	 * Maximum maxEnergy of a creature
+	 */
+	private static final double CREATURE_MAXENERGY_MAX = 300;
+	
+	/*
+	 * Minimum maxEnergy of a creature
+	 */
+	private static final double CREATURE_MAXENERGY_MIN = 40;
+	
+	/*
+	 * Minimum energyUseRate per update
+	 */
+	private static final double CREATURE_ENERGY_USE_RATE_MIN = 1.0;
+	
+	/*
+	 * Energy use rate scaling per pixel of size; energy use rate scales
+	 * linearly with size
+	 */
+	private static final double CREATURE_ENERGY_USE_RATE_SCALING = 0.625;
+	
+	/*
+	 * Health regeneration rate in health per update
+	 */
+	private static final double CREATURE_HEALTH_REGENERATION_RATE = 0.1;
+	
+	/*
+	 * Value of reproduction output in network at which this creature
+	 * can reproduce.
+	 */
+	private static final double CREATURE_REPRODUCTION_NETWORK_THRESHOLD = 0.7;
+	
+	/*
+	 * Amount of energy needed for a creature to reproduce as a factor of its
+	 * maxEnergy.
+	 */
+	private static final double CREATURE_REPRODUCTION_ENERGY_THRESHOLD = 0.7;
+	
+	/*
+	 * Amount of health needed for a creature to reproduce as a factor of its
+	 * maxHealth.
+	 */
+	private static final double CREATURE_REPRODUCTION_HEALTH_THRESHOLD = 0.7;
+	
+	/*
+	 * Maximum distance a Creature can see
+	 */
+	private static final double CREATURE_MAX_VISION_DISTANCE = 50;
+	
+	/*
+	 * Number of Nodes in each layer of every Creature's network
+	 */
+	private static final int[] NETWORK_LAYER_SIZES = {13, 9, 9, 8};
+	
+	/*
+	 * Initial number of slots allocated
+	 */
+	private static final int INITIAL_CAPACITY = 64;
+	
+	/*
+	 * Names under which the arrays returned by doubleColumns() are saved
+	 */
+	private static final String[] DOUBLE_COLUMN_NAMES = {"attack", "defense", "red", "blue", "green", 
+		"size", "markerValue", "geneticVariance", "maxLinearVelocity", "maxAngularVelocity", 
+		"maxEnergy", "energyUseRate", "maxHealth", "health", "linearVelocity", "x", "y", "angle", 
+		"angularVelocity", "energy", "visionX", "visionY", "visionRed", "visionGreen", "visionBlue", 
+		"visionDistance", "belowRed", "belowGreen", "belowBlue", "visionXGraphics", "visionYGraphics"};
+	
+	/*
+	 * Number of Creatures below which a parallel phase is not split further
+	 * between threads
+	 */
+	private static final int PARALLEL_CHUNK_SIZE = 512;
+	
+	/*
+	 * The World whose Tiles the Creatures live on
+	 */
+	private final World world;
+	
+	/*
+	 * The number of living Creatures, which occupy slots 0 to numCreatures - 1,
+	 * and the number of slots allocated
+	 */
+	private int numCreatures, capacity;
+	
+	/*
+	 * Amount of energy used when a Creature eats or attacks, damage dealt
+	 * per point of attack above defense, energy taken per point of damage
+	 * dealt, and the amount of ticks before a Creature can reproduce, from
+	 * the World's Parameters
+	 */
+	private final double eatCost, attackCost, attackDamageRate, attackTransfer;
+	private final int reproductionTime;
+	
+	/*
+	 * The way the outputs of networks are processed, from the World's
+	 * Parameters
+	 */
+	private final SigmoidMode sigmoidMode;
+	
+	/*
+	 * Inherited characteristic fields of each Creature
+	 */
+	private double[] attack, defense, red, blue, green, size, markerValue, geneticVariance, 
+		maxLinearVelocity, maxAngularVelocity;
+	
+	/*
+	 * Characteristic fields of each Creature which are based off other 
+	 * characteristic fields
+	 */
+	private double[] maxEnergy, energyUseRate, maxHealth;
+	
+	/*
+	 * Computational fields of each Creature
+	 */
+	private double[] health, linearVelocity, x, y, angle, angularVelocity, energy,
+		visionX, visionY, visionRed, visionGreen, visionBlue, visionDistance,
+		belowRed, belowGreen, belowBlue;
+	private double[] visionXGraphics, visionYGraphics; //Used only for graphics purposes
+	private int[] reproductionTimer;
+	
+	/*
+	 * Per-update results of the parallel movement phase used by the serial
+	 * eating phase, the damage taken and energy gained by each Creature in
+	 * the combat phase and whether an attacker touched it, and whether each
+	 * Creature survived the current update
+	 */
+	private double[] energyDecrease, damageTaken, energyGained;
+	private boolean[] eating, attacking, attacked, alive;
+	
+	/*
+	 * The generator from which the generators of spawned Creatures are split,
+	 * and the generator of each Creature
+	 */
+	private SeededRandom random;
+	private SeededRandom[] randoms;
+	
+	/*
+	 * The parent slot and genetic variance of each Creature born in the
+	 * current update, used by the parallel birth phase
+	 */
+	private int[] parents;
+	private double[] birthVariance;
+	
+	/*
+	 * The tick each Creature was born in, its number of ancestors since its
+	 * lineage was spawned, and its lineage: the number of the spawned
+	 * Creature it descends from, counting spawns in the order they happen
+	 */
+	private long[] birthTick;
+	private int[] generation;
+	private long[] lineage;
+	private long numSpawned = 0;
+	
+	/*
+	 * The id of each Creature and of its parent, or NO_PARENT for spawned
+	 * Creatures; ids count every Creature created, in the order they are
+	 * created
+	 */
+	private long[] id, parentId;
+	private long nextId = 0;
+	
+	/*
+	 * The family tree of all living Creatures
+	 */
+	private final Phylogeny phylogeny = new Phylogeny();
+	
+	/*
+	 * Index of the bodies of all Creatures by where they are, in slot order;
+	 * each body is a circle of radius size, so its cells are as large as
+	 * the distance at which two bodies touch
+	 */
+	private final SpatialGrid grid;
+	
+	/*
+	 * The journal spawns, births and deaths are recorded to, or null
+	 */
+	private EventJournal journal = null;
+	
+	/*
+	 * Neural Network which controls each Creature; all networks are attached
+	 * to brain, where each network occupies the same slot as its Creature.
+	 */
+	private Network[] networks;
+	private PopulationBrain brain = new PopulationBrain(NETWORK_LAYER_SIZES);
+	
+	/*
+	 * Creature views of each slot; each view is only created once it is
+	 * requested.
+	 */
+	private Creature[] views;
+	
+	/*
+	 * Reusable buffers for the inputs of a network, so that updating
+	 * Creatures does not allocate; inputBuffers holds one buffer per thread
+	 * for the parallel phases.
+	 */
+	private final double[] inputs = new double[NETWORK_LAYER_SIZES[0]];
+	private final ThreadLocal<double[]> inputBuffers = 
+			ThreadLocal.withInitial(() -> new double[NETWORK_LAYER_SIZES[0]]);
+	private final ThreadLocal<Contacts> contactBuffers = ThreadLocal.withInitial(Contacts::new);
+	
+	/*
+	 * Worker threads for the parallel phases of an update, or null if
+	 * updates run on a single thread, and the parallel phases themselves
+	 */
+	private final ForkJoinPool workers;
+	private final SlotPhase movePhase = this::moveRange;
+	private final SlotPhase attackPhase = this::attackRange;
+	private final SlotPhase defensePhase = this::defenseRange;
+	private final SlotPhase woundPhase = this::woundRange;
+	private final SlotPhase sensePhase = this::senseRange;
+	private final SlotPhase birthPhase = this::birthRange;
+	
+	/**
+	 * Creates an empty CreaturePool living in the given World and seeded
+	 * with the given world seed, which updates Creatures using every
+	 * available processor.
+	 * @param world - the World the Creatures live in
+	 * @param seed - the seed of every random number drawn by the pool
+	 */
+	public CreaturePool(World world, long seed) {
+		this(world, seed, Runtime.getRuntime().availableProcessors());
+	}
+	
+	/**
+	 * Creates an empty CreaturePool living in the given World and seeded
+	 * with the given world seed, which updates Creatures using the given
+	 * number of threads. Pools created with the same seed evolve identically,
+	 * whatever their parallelism.
+	 * @param world - the World the Creatures live in
+	 * @param seed - the seed of every random number drawn by the pool
+	 * @param parallelism - the number of threads used by update()
+	 * @throws IllegalArgumentException if parallelism is less than one
+	 */
+	public CreaturePool(World world, long seed, int parallelism) {
+		if (parallelism < 1) {
+			throw new IllegalArgumentException("Parallelism must be at least one.");
+		}
+		
+		this.world = world;
+		eatCost = world.getParameters().get(Parameters.Key.CREATURE_EAT_COST);
+		attackCost = world.getParameters().get(Parameters.Key.CREATURE_ATTACK_COST);
+		attackDamageRate = world.getParameters().get(Parameters.Key.CREATURE_ATTACK_DAMAGE_RATE);
+		attackTransfer = world.getParameters().get(Parameters.Key.CREATURE_ATTACK_ENERGY_TRANSFER);
+		sigmoidMode = world.getSigmoidMode();
+		brain.setKernel(LayerKernel.scalar(sigmoidMode));
+		reproductionTime = world.getParameters().getInt(Parameters.Key.CREATURE_REPRODUCTION_TIME);
+		random = new SeededRandom(seed);
+		workers = (parallelism > 1) ? new ForkJoinPool(parallelism) : null;
+		grid = new SpatialGrid(world.getWidth(), world.getHeight(), 2 * CREATURE_SIZE_MAX, CREATURE_SIZE_MAX);
+		allocate(INITIAL_CAPACITY);
+	}
+	
+	/**
+	 * Adds a new Creature to the pool; when a new Creature is generated 
+	 * without inheriting data from another Creature, all data is randomized
+	 * to a reasonable degree.
+	 * @return the new Creature
+	 */
+	public Creature spawn() {
+		int s = addSlot();
+		SeededRandom r = randoms[s] = random.split();
+		
+		attack[s] = r.nextDouble() * (CREATURE_ATTACK_MAX - CREATURE_ATTACK_MIN) + CREATURE_ATTACK_MIN;
+		defense[s] = r.nextDouble() * (CREATURE_DEFENSE_MAX - CREATURE_DEFENSE_MIN) + CREATURE_DEFENSE_MIN;
+		red[s] = r.nextDouble() * 255;
+		blue[s] = r.nextDouble() * 255;
+		green[s] = r.nextDouble() * 255;
+		size[s] = r.nextDouble() * (CREATURE_SIZE_MAX - CREATURE_SIZE_MIN) + CREATURE_SIZE_MIN;
+		markerValue[s] = r.nextDouble() * 100;
+		geneticVariance[s] = r.nextDouble() * (CREATURE_VARIANCE_MAX - CREATURE_VARIANCE_MIN) + CREATURE_VARIANCE_MAX;
+		maxLinearVelocity[s] = r.nextDouble() * CREATURE_LINEAR_V_MAX;
+		maxAngularVelocity[s] = r.nextDouble() * CREATURE_ANGULAR_V_MAX;
+		
+		deriveCharacteristics(s);
+		health[s] = maxHealth[s];
+		linearVelocity[s] = 0;
+		x[s] = r.nextDouble() * world.getWidth();
+		y[s] = r.nextDouble() * world.getHeight();
+		initializeVision(s);
+		angle[s] = r.nextDouble() * 360;
+		angularVelocity[s] = 0;
+		energy[s] = maxEnergy[s];
+		reproductionTimer[s] = reproductionTime;
+		birthTick[s] = world.getTime();
+		generation[s] = 0;
+		lineage[s] = numSpawned++;
+		id[s] = nextId++;
+		parentId[s] = JournalRecord.NO_PARENT;
+		
+		senseTiles(s);
+		
+		networks[s] = new Network(NETWORK_LAYER_SIZES.length, NETWORK_LAYER_SIZES, r);
+		brain.add(networks[s]);
+		inputNetwork(s, inputs, r.nextDouble(), r.nextDouble(), belowRed[s], belowGreen[s], belowBlue[s]);
+		networks[s].transferData(brain.getKernel());
+		grid.insert(s, x[s], y[s], size[s]);
+		phylogeny.addRoot(id[s]);
+		journal(s, JournalRecord.SPAWN, JournalRecord.NONE);
+		
+		return get(s);
+	}
+	
+	/**
+	 * Genetic algorithmic method for adding a Creature inheriting fields from
+	 * the Creature in another slot; this is used when Creatures reproduce to
+	 * create new Creatures. The new Creature's generator is split from the
+	 * parent's.
+	 * @param parent - the slot of the Creature to be inherited
+	 * @param maxVariance - the maximum variance of fields
+	 * @return the new Creature
+	 */
+	public Creature spawnOffspring(int parent, double maxVariance) {
+		int s = addSlot();
+		randoms[s] = randoms[parent].split();
+		id[s] = nextId++;
+		parentId[s] = id[parent];
+		
+		inherit(s, parent, maxVariance, inputs);
+		grid.insert(s, x[s], y[s], size[s]);
+		brain.add(networks[s]);
+		commitBirthEvent(s, parent, maxVariance);
+		phylogeny.addBirth(id[s], parentId[s]);
+		journal(s, JournalRecord.BIRTH, JournalRecord.NONE);
+		
+		return get(s);
+	}
+	
+	/*
+	 * Fills the newly added slot s with a Creature inheriting fields from the
+	 * Creature in slot parent, drawing all variations from the generator of
+	 * slot s, and creates and runs its network; the network is not yet added
+	 * to brain. Only slot s is written, so offspring can be created in
+	 * parallel.
+	 */
+	private void inherit(int s, int parent, double maxVariance, double[] buffer) {
+		SeededRandom r = randoms[s];
+		
+		attack[s] = attack[parent] + r.nextDouble() * maxVariance * 2 - maxVariance;
+		attack[s] = Function.bound(CREATURE_ATTACK_MIN, CREATURE_ATTACK_MAX, attack[s]);
+		defense[s] = defense[parent] + r.nextDouble() * maxVariance * 2 - maxVariance;
+		defense[s] = Function.bound(CREATURE_DEFENSE_MIN, CREATURE_DEFENSE_MAX, defense[s]);
+		red[s] = red[parent] + r.nextDouble() * maxVariance * 200 - maxVariance * 100;
+		red[s] = Function.bound(0, 255, red[s]);
+		green[s] = green[parent] + r.nextDouble() * maxVariance * 200 - maxVariance * 100;
+		green[s] = Function.bound(0, 255, green[s]);
+		blue[s] = blue[parent] + r.nextDouble() * maxVariance * 200 - maxVariance * 100;
+		blue[s] = Function.bound(0, 255, blue[s]);
+		size[s] = Function.bound(CREATURE_SIZE_MIN, CREATURE_SIZE_MAX, 
+				size[parent] + r.nextDouble() * maxVariance * 2 - maxVariance);
+		markerValue[s] = markerValue[parent] + r.nextDouble() * maxVariance * 2 - maxVariance;
+		geneticVariance[s] = geneticVariance[parent] + r.nextDouble() * maxVariance / 2 - maxVariance / 4;
+		geneticVariance[s] = Function.bound(CREATURE_VARIANCE_MIN, CREATURE_VARIANCE_MAX, geneticVariance[s]);
+		maxLinearVelocity[s] = maxLinearVelocity[parent] + r.nextDouble() * maxVariance * 2 - maxVariance;
+		maxLinearVelocity[s] = Function.bound(0, CREATURE_LINEAR_V_MAX, maxLinearVelocity[s]);
+		maxAngularVelocity[s] = maxAngularVelocity[parent] + r.nextDouble() * maxVariance * 2 - maxVariance;
+		maxAngularVelocity[s] = Function.bound(0, CREATURE_ANGULAR_V_MAX, maxAngularVelocity[s]);
+		
+		deriveCharacteristics(s);
+		
+		health[s] = health[parent] / 2;
+		linearVelocity[s] = 0;
+		x[s] = x[parent] + r.nextDouble() * 50;
+		y[s] = y[parent] + r.nextDouble() * 50;
+		x[s] = (x[s] + world.getWidth()) % world.getWidth();
+		y[s] = (y[s] + world.getHeight()) % world.getHeight();
+		initializeVision(s);
+		angle[s] = r.nextDouble() * 360;
+		angularVelocity[s] = 0;
+		energy[s] = energy[parent];
+		reproductionTimer[s] = reproductionTime;
+		birthTick[s] = world.getTime();
+		generation[s] = generation[parent] + 1;
+		lineage[s] = lineage[parent];
+		
+		senseTiles(s);
+		
+		networks[s] = new Network(networks[parent], maxVariance, r);
+		//memory is randomized at the beginning
+		inputNetwork(s, buffer, r.nextDouble(), r.nextDouble(), belowRed[s], belowGreen[s], belowBlue[s]);
+		networks[s].transferData(brain.getKernel());
+	}
+	
+	/*
+	 * Records a BirthEvent for the newborn Creature in slot s, if BirthEvents
+	 * are enabled.
+	 */
+	private void commitBirthEvent(int s, int parent, double variance) {
+		BirthEvent event = new BirthEvent();
+		if (event.isEnabled()) {
+			event.tick = world.getTime();
+			event.parentAge = getAge(parent);
+			event.generation = generation[s];
+			event.lineage = lineage[s];
+			event.variance = variance;
+			event.commit();
+		}
+	}
+	
+	/*
+	 * Records an event of the given type and cause for the Creature in slot s
+	 * to the journal, if there is one; the record is dropped if the journal
+	 * has fallen behind.
+	 */
+	private void journal(int s, byte type, byte cause) {
+		if (journal == null) {
+			return;
+		}
+		
+		JournalRecord record = journal.claim();
+		if (record != null) {
+			record.setTick(world.getTime()).setId(id[s]).setParentId(parentId[s]).setLineage(lineage[s])
+					.setGeneration(generation[s]).setType(type).setCause(cause)
+					.setSize(size[s]).setAttack(attack[s]).setDefense(defense[s])
+					.setGeneticVariance(geneticVariance[s]).setMaxLinearVelocity(maxLinearVelocity[s])
+					.setMaxAngularVelocity(maxAngularVelocity[s]);
+			journal.commit();
+		}
+	}
+	
+	/*
+	 * Calculates the characteristic fields of the Creature in slot s which
+	 * are based off its inherited fields.
+	 */
+	private void deriveCharacteristics(int s) {
+		maxEnergy[s] = (CREATURE_MAXENERGY_MAX - CREATURE_MAXENERGY_MIN) / (CREATURE_SIZE_MAX - CREATURE_SIZE_MIN) * 
+				(size[s] - CREATURE_SIZE_MIN);
+		energyUseRate[s] = CREATURE_ENERGY_USE_RATE_MIN + CREATURE_ENERGY_USE_RATE_SCALING * size[s];
+		maxHealth[s] = (CREATURE_MAXHEALTH_MAX - CREATURE_MAXHEALTH_MIN) / (CREATURE_SIZE_MAX - CREATURE_SIZE_MIN) * 
+				(size[s] - CREATURE_SIZE_MIN);
+	}
+	
+	/*
+	 * Places the vision point of the newly created Creature in slot s one
+	 * radius away from it diagonally.
+	 */
+	private void initializeVision(int s) {
+		visionX[s] = x[s] + size[s];
+		visionY[s] = y[s] + size[s];
+		visionXGraphics[s] = visionX[s];
+		visionYGraphics[s] = visionY[s];
+		visionX[s] = (visionX[s] + world.getWidth()) % world.getWidth();
+		visionY[s] = (visionY[s] + world.getHeight()) % world.getHeight(); 
+		visionDistance[s] = size[s];
+	}
+	
+	/*
+	 * Currently, all Networks have 4 layers, with the following inputs 
+	 * and outputs: (others will be added later as new features 
+	 * are implemented)
+	 * 
+	 * INPUTS:
+	 * 0 - linearVelocity
+	 * 1 - angle
+	 * 2 - health
+	 * 3 - energy
+	 * 4 - visionRed
+	 * 5 - visionGreen
+	 * 6 - visionBlue
+	 * 7 - memoryA
+	 * 8 - memoryB
+	 * 9 - visionDistance
+	 * 10 - belowRed
+	 * 11 - belowGreen
+	 * 12 - belowBlue
+	 * 
+	 * OUTPUTS:
+	 * 0 - angularVelocity
+	 * 1 - linearVelocity
+	 * 2 - eat
+	 * 3 - reproduce
+	 * 4 - memoryA
+	 * 5 - memoryB
+	 * 6 - visionDistance
+	 * 7 - attack
+	 */
+	
+	/**
+	 * Updates all Creatures in the pool based on their current positions,
+	 * circumstances, and the outputs of their neural networks. Every Creature
+	 * first moves and then eats, in slot order, and then fights the Creatures
+	 * it touches; those that run out of energy or health are then removed and
+	 * their energy and health are returned to the soil, while the networks of
+	 * all others are recalculated. Finally,
+	 * every surviving Creature that should reproduce does so, in slot order;
+	 * offspring are first updated on the following call.
+	 */
+	public void update() {
+		int n = numCreatures;
+		SimulationMetrics metrics = world.getMetrics();
+		long t = metrics.start();
+		
+		/*
+		 * Moving all Creatures in parallel
+		 */
+		forEachSlot(n, movePhase);
+		t = metrics.lap(Phase.MOVE, t);
+		
+		/*
+		 * Having Creatures eat in slot order, since eating changes Tiles
+		 * shared between Creatures, and moving them in the grid
+		 */
+		for (int s = 0; s < n; s++) {
+			alive[s] = eat(s);
+			attacked[s] = false;
+			grid.update(s, x[s], y[s]);
+		}
+		t = metrics.lap(Phase.EAT, t);
+		
+		/*
+		 * Finding the damage every Creature takes and deals in parallel,
+		 * attackers first so that only the Creatures they touched need to be
+		 * looked at next, then applying it in parallel once nothing reads it
+		 * any more
+		 */
+		forEachSlot(n, attackPhase);
+		forEachSlot(n, defensePhase);
+		forEachSlot(n, woundPhase);
+		t = metrics.lap(Phase.COMBAT, t);
+		
+		/*
+		 * Sensing the surroundings of all surviving Creatures and
+		 * recalculating their networks in parallel
+		 */
+		forEachSlot(n, sensePhase);
+		t = metrics.lap(Phase.SENSE, t);
+		
+		/*
+		 * Removing dead Creatures from the highest slot down, so that every
+		 * Creature moved into a freed slot has already been checked
+		 */
+		for (int s = n - 1; s >= 0; s--) {
+			if (!alive[s]) {
+				DeathEvent event = new DeathEvent();
+				boolean killed = damageTaken[s] > 0, starved = energy[s] <= 0;
+				if (event.isEnabled()) {
+					event.tick = world.getTime();
+					event.cause = killed ? DeathEvent.KILLED : starved ? DeathEvent.ENERGY : DeathEvent.HEALTH;
+					event.age = getAge(s);
+					event.generation = generation[s];
+					event.lineage = lineage[s];
+					event.commit();
+				}
+				journal(s, JournalRecord.DEATH, 
+						killed ? JournalRecord.KILLED : starved ? JournalRecord.ENERGY : JournalRecord.HEALTH);
+				
+				// Adding Creature energy back to soil
+				world.addNutrition(x[s], y[s], (int) energy[s] / 10);
+				world.addNutrition(x[s], y[s], (int) health[s]);
+				
+				remove(s);
+			}
+		}
+		t = metrics.lap(Phase.DEATHS, t);
+		
+		/*
+		 * Choosing the parents of all offspring in slot order, then creating
+		 * the offspring in parallel and attaching their networks in slot order
+		 */
+		int survivors = numCreatures;
+		for (int s = 0; s < survivors; s++) {
+			if (shouldReproduce(s)) {
+				double variance = prepareReproduction(s);
+				int child = addSlot();
+				randoms[child] = randoms[s].split();
+				id[child] = nextId++;
+				parentId[child] = id[s];
+				parents[child] = s;
+				birthVariance[child] = variance;
+			}
+		}
+		
+		forEachSlot(survivors, numCreatures, birthPhase);
+		for (int s = survivors; s < numCreatures; s++) {
+			grid.insert(s, x[s], y[s], size[s]);
+			brain.add(networks[s]);
+			commitBirthEvent(s, parents[s], birthVariance[s]);
+			phylogeny.addBirth(id[s], parentId[s]);
+			journal(s, JournalRecord.BIRTH, JournalRecord.NONE);
+		}
+		metrics.lap(Phase.BIRTHS, t);
+		metrics.count(numCreatures - survivors, n - survivors);
+	}
+	
+	/*
+	 * Moves each Creature in slots from to to - 1 according to the outputs
+	 * of its network, and records how much energy it used and whether it
+	 * wants to eat.
+	 */
+	private void moveRange(int from, int to) {
+		for (int s = from; s < to; s++) {
+			Layer outputLayer = networks[s].getOutputs();
+			
+			double angularVelocityOutput = Function.sigmoid(sigmoidMode, outputLayer.getData(0), 1, 2, 0, 0) - 1;
+			angularVelocity[s] = maxAngularVelocity[s] * angularVelocityOutput;
+			angle[s] += angularVelocity[s];
+			
+			double linearVelocityOutput = Function.sigmoid(sigmoidMode, outputLayer.getData(1), 1, 1, 0, 0) - 0;
+			linearVelocity[s] = maxLinearVelocity[s] * linearVelocityOutput;
+			
+			energyDecrease[s] = energyUseRate[s] + 
+					world.getTileEnergyRate(x[s], y[s]) * linearVelocityOutput * size[s];
+			
+			x[s] += linearVelocity[s] * Math.cos((Math.PI * angle[s]) / 180);
+			y[s] += linearVelocity[s] * Math.sin((Math.PI * angle[s]) / 180);
+			x[s] = (x[s] + world.getWidth()) % world.getWidth();
+			y[s] = (y[s] + world.getHeight()) % world.getHeight(); 
+			
+			health[s] += CREATURE_HEALTH_REGENERATION_RATE;
+			health[s] = Math.min(health[s], maxHealth[s]);
+			
+			eating[s] = Function.sigmoid(sigmoidMode, outputLayer.getData(2), 1, 1, 0, 0) > 0.8;
+			attacking[s] = Function.sigmoid(sigmoidMode, outputLayer.getData(7), 1, 1, 0, 0) > 0.8;
+			
+			reproductionTimer[s]--;
+		}
+	}
+	
+	/*
+	 * Creates each newborn Creature in slots from to to - 1 from its parent.
+	 */
+	private void birthRange(int from, int to) {
+		double[] buffer = inputBuffers.get();
+		for (int s = from; s < to; s++) {
+			inherit(s, parents[s], birthVariance[s], buffer);
+		}
+	}
+	
+	/*
+	 * Applies the energy used by the Creature in slot s while moving and has
+	 * it eat if its network decided to; returns false if the Creature has run
+	 * out of energy or health, true otherwise.
+	 */
+	private boolean eat(int s) {
+		energy[s] += -energyDecrease[s] + 
+				(eating[s] ? world.eat(x[s], y[s]) - eatCost : 0) - (attacking[s] ? attackCost : 0);
+		energy[s] = Math.min(energy[s], maxEnergy[s]);
+		
+		return energy[s] > 0 && health[s] > 0;
+	}
+	
+	/*
+	 * Finds the damage taken and the energy gained by each surviving
+	 * attacking Creature in slots from to to - 1, and marks every Creature
+	 * it touches as attacked; the damage of every other Creature is cleared.
+	 * Attackers on different threads may mark the same Creature, but marks
+	 * are only ever set, and are not read until the phase is over.
+	 */
+	private void attackRange(int from, int to) {
+		Contacts contacts = contactBuffers.get();
+		for (int s = from; s < to; s++) {
+			if (alive[s] && attacking[s]) {
+				fight(s, contacts);
+			} else {
+				damageTaken[s] = 0;
+				energyGained[s] = 0;
+			}
+		}
+	}
+	
+	/*
+	 * Finds the damage taken and the energy lost by each surviving Creature
+	 * in slots from to to - 1 which did not attack but was attacked; no
+	 * other Creature that did not attack touches an attacker, so only these
+	 * need to look for contacts.
+	 */
+	private void defenseRange(int from, int to) {
+		Contacts contacts = contactBuffers.get();
+		for (int s = from; s < to; s++) {
+			if (alive[s] && !attacking[s] && attacked[s]) {
+				fight(s, contacts);
+			}
+		}
+	}
+	
+	/*
+	 * Finds the damage taken and the energy gained by the Creature in slot s
+	 * from every surviving Creature whose body it touches: an attacking
+	 * Creature damages each Creature it touches by the amount its attack
+	 * exceeds the other's defense, and takes energy in proportion. Each
+	 * Creature only gathers what it takes and deals itself, adding up the
+	 * Creatures it touches in slot order, so the result does not depend on
+	 * the order of the grid or on threads.
+	 */
+	private void fight(int s, Contacts contacts) {
+		contacts.count = 0;
+		grid.forEachWithin(x[s], y[s], size[s] + CREATURE_SIZE_MAX, contacts);
+		
+		int touching = 0;
+		for (int i = 0; i < contacts.count; i++) {
+			int c = contacts.slots[i];
+			if (c == s || !alive[c] || !(attacking[c] || attacking[s])) {
+				continue;
+			}
+			
+			double dx = grid.wrapX(x[c] - x[s]), dy = grid.wrapY(y[c] - y[s]);
+			double reach = size[s] + size[c];
+			if (dx * dx + dy * dy < reach * reach) {
+				contacts.slots[touching++] = c;
+			}
+		}
+		Arrays.sort(contacts.slots, 0, touching);
+		
+		double taken = 0, dealt = 0;
+		for (int i = 0; i < touching; i++) {
+			int c = contacts.slots[i];
+			if (attacking[c]) {
+				taken += Math.max(0, attack[c] - defense[s]) * attackDamageRate;
+			}
+			if (attacking[s]) {
+				dealt += Math.max(0, attack[s] - defense[c]) * attackDamageRate;
+				attacked[c] = true;
+			}
+		}
+		damageTaken[s] = taken;
+		energyGained[s] = (dealt - taken) * attackTransfer;
+	}
+	
+	/*
+	 * Applies the damage taken and energy gained by each surviving Creature
+	 * in slots from to to - 1, and marks those it killed as dead.
+	 */
+	private void woundRange(int from, int to) {
+		for (int s = from; s < to; s++) {
+			if (alive[s] && (damageTaken[s] > 0 || energyGained[s] != 0)) {
+				health[s] -= damageTaken[s];
+				energy[s] = Math.min(energy[s] + energyGained[s], maxEnergy[s]);
+				alive[s] = energy[s] > 0 && health[s] > 0;
+			}
+		}
+	}
+	
+	/*
+	 * Senses the surroundings of each surviving Creature in slots from to
+	 * to - 1 and recalculates their networks.
+	 */
+	private void senseRange(int from, int to) {
+		double[] buffer = inputBuffers.get();
+		for (int s = from; s < to; s++) {
+			if (alive[s]) {
+				sense(s, buffer);
+				brain.submit(networks[s]);
+			}
+		}
+		brain.evaluate(from, to);
+	}
+	
+	/*
+	 * Moves the vision point of the Creature in slot s, reads the Tiles it
+	 * sees and inputs its surroundings into its network.
+	 */
+	private void sense(int s, double[] buffer) {
+		Layer outputLayer = networks[s].getOutputs();
+		
+		double visionDistanceOutput = Function.sigmoid(sigmoidMode, outputLayer.getData(6), 1, 1, 0, 0);
+		visionDistance[s] = visionDistanceOutput * CREATURE_MAX_VISION_DISTANCE;
+		visionDistance[s] = Function.bound(size[s], CREATURE_MAX_VISION_DISTANCE, visionDistance[s]);
+		visionX[s] = x[s] + visionDistance[s] * Math.cos((Math.PI * angle[s]) / 180);
+		visionY[s] = y[s] + visionDistance[s] * Math.sin((Math.PI * angle[s]) / 180);
+		visionXGraphics[s] = visionX[s];
+		visionYGraphics[s] = visionY[s];
+		visionX[s] = (visionX[s] + world.getWidth()) % world.getWidth();
+		visionY[s] = (visionY[s] + world.getHeight()) % world.getHeight(); 
+		
+		senseTiles(s);
+		
+		double memoryA = Function.sigmoid(sigmoidMode, outputLayer.getData(4), 1, 1, 0, 0);
+		double memoryB = Function.sigmoid(sigmoidMode, outputLayer.getData(5), 1, 1, 0, 0);
+		
+		inputNetwork(s, buffer, memoryA, memoryB, visionRed[s], visionGreen[s], visionBlue[s]);
+	}
+	
+	/*
+	 * Reads the colors of the Tiles beneath the Creature in slot s and at its
+	 * vision point from their packed RGB values.
+	 */
+	private void senseTiles(int s) {
+		int belowRGB = world.getTileRGB(x[s], y[s]);
+		belowRed[s] = (belowRGB >> 16) & 0xFF;
+		belowGreen[s] = (belowRGB >> 8) & 0xFF;
+		belowBlue[s] = belowRGB & 0xFF;
+		
+		int visionRGB = world.getTileRGB(visionX[s], visionY[s]);
+		visionRed[s] = (visionRGB >> 16) & 0xFF;
+		visionGreen[s] = (visionRGB >> 8) & 0xFF;
+		visionBlue[s] = visionRGB & 0xFF;
+	}
+	
+	/*
+	 * Fills the given buffer for the Creature in slot s in the order listed
+	 * above and inputs it into the input Layer of its network; the last three
+	 * inputs are given as parameters.
+	 */
+	private void inputNetwork(int s, double[] inputs, double memoryA, double memoryB, 
+			double lastRed, double lastGreen, double lastBlue) {
+		inputs[0] = linearVelocity[s];
+		inputs[1] = angle[s];
+		inputs[2] = health[s];
+		inputs[3] = energy[s];
+		inputs[4] = visionRed[s];
+		inputs[5] = visionGreen[s];
+		inputs[6] = visionBlue[s];
+		inputs[7] = memoryA;
+		inputs[8] = memoryB;
+		inputs[9] = visionDistance[s];
+		inputs[10] = lastRed;
+		inputs[11] = lastGreen;
+		inputs[12] = lastBlue;
+		networks[s].getInputs().input(inputs);
+	}
+	
+	/**
+	 * Returns true if the conditions are met that the Creature in slot s
+	 * should reproduce; false otherwise.
+	 * @param s - the slot of the Creature
+	 */
+	public boolean shouldReproduce(int s) {
+		return 	Function.sigmoid(sigmoidMode, networks[s].getOutputs().getData(3), 1, 1, 0, 0) > CREATURE_REPRODUCTION_NETWORK_THRESHOLD &&
+				health[s] > maxHealth[s] * CREATURE_REPRODUCTION_HEALTH_THRESHOLD &&
+				energy[s] > maxEnergy[s] * CREATURE_REPRODUCTION_ENERGY_THRESHOLD &&
+				reproductionTimer[s] <= 0;
+	}
+	
+	/**
+	 * Halves the health and energy of the Creature in slot s, then adds a
+	 * new Creature inheriting genetic values from it using spawnOffspring.
+	 * @param s - the slot of the reproducing Creature
+	 * @return the new Creature
+	 */
+	public Creature reproduce(int s) {
+		return spawnOffspring(s, prepareReproduction(s));
+	}
+	
+	/**
+	 * Returns a Migrant copying the Creature in slot s, which stays in the
+	 * pool. The copy of its network draws from the given generator, so that
+	 * the Creature's own generator is left untouched.
+	 * @param s - the slot of the Creature to be copied
+	 * @param random - the generator used to copy the network
+	 * @return the Migrant
+	 */
+	public Migrant emigrate(int s, SeededRandom random) {
+		double[] traits = new double[Migrant.TRAIT_NAMES.length];
+		traits[Migrant.ATTACK] = attack[s];
+		traits[Migrant.DEFENSE] = defense[s];
+		traits[Migrant.RED] = red[s];
+		traits[Migrant.GREEN] = green[s];
+		traits[Migrant.BLUE] = blue[s];
+		traits[Migrant.SIZE] = size[s];
+		traits[Migrant.MARKER_VALUE] = markerValue[s];
+		traits[Migrant.GENETIC_VARIANCE] = geneticVariance[s];
+		traits[Migrant.MAX_LINEAR_VELOCITY] = maxLinearVelocity[s];
+		traits[Migrant.MAX_ANGULAR_VELOCITY] = maxAngularVelocity[s];
+		traits[Migrant.HEALTH] = health[s];
+		traits[Migrant.ENERGY] = energy[s];
+		
+		return new Migrant(traits, generation[s], new Network(networks[s], 0, random));
+	}
+	
+	/**
+	 * Adds a new Creature built from migrant the way offspring are built from
+	 * their parent, with the migrant's genetic variance, at a random place in
+	 * the World. The new Creature has no parent in this pool, so it starts a
+	 * new lineage and is recorded as a spawn.
+	 * @param migrant - the Migrant to be added
+	 * @return the new Creature
+	 * @throws IllegalArgumentException if the network of migrant does not
+	 * have the layer sizes of this pool's networks
+	 */
+	public Creature immigrate(Migrant migrant) {
+		if (!Arrays.equals(migrant.getNetwork().getLayerSizes(), NETWORK_LAYER_SIZES)) {
+			throw new IllegalArgumentException("Migrant network has layer sizes "
+					+ Arrays.toString(migrant.getNetwork().getLayerSizes()) + " instead of "
+					+ Arrays.toString(NETWORK_LAYER_SIZES) + ".");
+		}
+		
+		int s = addSlot();
+		SeededRandom r = randoms[s] = random.split();
+		
+		/*
+		 * Placing the migrant in the new slot as its own parent, then
+		 * inheriting from it in place
+		 */
+		attack[s] = migrant.getTrait(Migrant.ATTACK);
+		defense[s] = migrant.getTrait(Migrant.DEFENSE);
+		red[s] = migrant.getTrait(Migrant.RED);
+		green[s] = migrant.getTrait(Migrant.GREEN);
+		blue[s] = migrant.getTrait(Migrant.BLUE);
+		size[s] = migrant.getTrait(Migrant.SIZE);
+		markerValue[s] = migrant.getTrait(Migrant.MARKER_VALUE);
+		geneticVariance[s] = migrant.getTrait(Migrant.GENETIC_VARIANCE);
+		maxLinearVelocity[s] = migrant.getTrait(Migrant.MAX_LINEAR_VELOCITY);
+		maxAngularVelocity[s] = migrant.getTrait(Migrant.MAX_ANGULAR_VELOCITY);
+		health[s] = migrant.getTrait(Migrant.HEALTH);
+		energy[s] = migrant.getTrait(Migrant.ENERGY);
+		x[s] = r.nextDouble() * world.getWidth();
+		y[s] = r.nextDouble() * world.getHeight();
+		generation[s] = migrant.getGeneration();
+		networks[s] = migrant.getNetwork();
+		inherit(s, s, geneticVariance[s], inputs);
+		grid.insert(s, x[s], y[s], size[s]);
+		
+		lineage[s] = numSpawned++;
+		id[s] = nextId++;
+		parentId[s] = JournalRecord.NO_PARENT;
+		brain.add(networks[s]);
+		phylogeny.addRoot(id[s]);
+		journal(s, JournalRecord.SPAWN, JournalRecord.NONE);
+		
+		return get(s);
+	}
+	
+	/*
+	 * Halves the health and energy of the Creature in slot s and resets its
+	 * reproduction timer; returns the genetic variance of its offspring.
+	 */
+	private double prepareReproduction(int s) {
+		reproductionTimer[s] = reproductionTime / 2;
+		energy[s] /= 2;
+		health[s] /= 2;
+		// Small chance for larger genetic variation in offspring
+		return (randoms[s].nextDouble() > 0.95) ? Math.sqrt(geneticVariance[s]) + 0.1 : geneticVariance[s];
+	}
+	
+	/**
+	 * Removes the Creature in slot s from the pool; the Creature in the last
+	 * slot is moved into slot s, and the view of the removed Creature is no
+	 * longer valid. The Creature is marked dead in the phylogeny.
+	 * @param s - the slot of the Creature to be removed
+	 */
+	public void remove(int s) {
+		phylogeny.addDeath(id[s]);
+		brain.remove(networks[s]);
+		grid.remove(s);
+		if (views[s] != null) {
+			views[s].setSlot(-1);
+		}
+		
+		int last = --numCreatures;
+		if (s != last) {
+			moveSlot(last, s);
+			grid.move(last, s);
+		}
+		
+		networks[last] = null;
+		randoms[last] = null;
+		views[last] = null;
+	}
+	
+	/**
+	 * Puts every field of every Creature, the state of every generator and
+	 * every network into state. Must not be called during update().
+	 * @param state - the StateWriter the Creatures are saved to
+	 */
+	public void saveState(StateWriter state) {
+		int n = numCreatures;
+		state.putLong("creatures.count", n);
+		state.putLong("creatures.numSpawned", numSpawned);
+		state.putLong("creatures.nextId", nextId);
+		state.putLong("creatures.random.seed", random.getSeed());
+		state.putLong("creatures.random.gamma", random.getGamma());
+		
+		double[][] columns = doubleColumns();
+		for (int c = 0; c < columns.length; c++) {
+			state.putDoubles("creatures." + DOUBLE_COLUMN_NAMES[c], columns[c], n);
+		}
+		state.putInts("creatures.reproductionTimer", reproductionTimer, n);
+		state.putLongs("creatures.birthTick", birthTick, n);
+		state.putInts("creatures.generation", generation, n);
+		state.putLongs("creatures.lineage", lineage, n);
+		state.putLongs("creatures.id", id, n);
+		state.putLongs("creatures.parentId", parentId, n);
+		
+		long[] seeds = new long[n], gammas = new long[n];
+		for (int s = 0; s < n; s++) {
+			seeds[s] = randoms[s].getSeed();
+			gammas[s] = randoms[s].getGamma();
+		}
+		state.putLongs("creatures.randoms.seed", seeds, n);
+		state.putLongs("creatures.randoms.gamma", gammas, n);
+		
+		brain.saveState(state);
+		phylogeny.saveState(state);
+	}
+	
+	/**
+	 * Replaces every Creature with those saved by saveState(); a pool
+	 * restored from the state of another evolves identically to it.
+	 * @param state - the StateReader the Creatures are restored from
+	 * @throws IllegalStateException if the pool is not empty
+	 */
+	public void restoreState(StateReader state) {
+		if (numCreatures != 0) {
+			throw new IllegalStateException("CreaturePool must be empty to be restored.");
+		}
+		
+		int n = (int) state.getLong("creatures.count");
+		if (n > capacity) {
+			allocate(Math.max(n, capacity * 2));
+		}
+		
+		numSpawned = state.getLong("creatures.numSpawned");
+		nextId = state.getLong("creatures.nextId");
+		random = new SeededRandom(state.getLong("creatures.random.seed"), state.getLong("creatures.random.gamma"));
+		
+		double[][] columns = doubleColumns();
+		for (int c = 0; c < columns.length; c++) {
+			System.arraycopy(state.getDoubles("creatures." + DOUBLE_COLUMN_NAMES[c]), 0, columns[c], 0, n);
+		}
+		System.arraycopy(state.getInts("creatures.reproductionTimer"), 0, reproductionTimer, 0, n);
+		System.arraycopy(state.getLongs("creatures.birthTick"), 0, birthTick, 0, n);
+		System.arraycopy(state.getInts("creatures.generation"), 0, generation, 0, n);
+		System.arraycopy(state.getLongs("creatures.lineage"), 0, lineage, 0, n);
+		System.arraycopy(state.getLongs("creatures.id"), 0, id, 0, n);
+		System.arraycopy(state.getLongs("creatures.parentId"), 0, parentId, 0, n);
+		
+		long[] seeds = state.getLongs("creatures.randoms.seed"), gammas = state.getLongs("creatures.randoms.gamma");
+		for (int s = 0; s < n; s++) {
+			randoms[s] = new SeededRandom(seeds[s], gammas[s]);
+		}
+		
+		brain.restoreState(state);
+		phylogeny.restoreState(state);
+		for (int s = 0; s < n; s++) {
+			networks[s] = brain.getNetwork(s);
+			grid.insert(s, x[s], y[s], size[s]);
+		}
+		numCreatures = n;
+	}
+	
+	/**
+	 * Returns the Creature view of the given slot.
+	 * @param s - the slot of the Creature
+	 * @return the Creature in slot s
+	 */
+	public Creature get(int s) {
+		if (views[s] == null) {
+			views[s] = new Creature(this, s);
+		}
+		
+		return views[s];
+	}
+	
+	/**
+	 * Sets the journal every spawn, birth and death is recorded to from now
+	 * on; the journal must only be written by the thread updating the pool.
+	 * Creatures spawned in the current tick before the journal was set, such
+	 * as the first Creatures of a new World, are recorded as well.
+	 * @param journal - the EventJournal, or null to stop recording
+	 */
+	public void setJournal(EventJournal journal) {
+		this.journal = journal;
+		for (int s = 0; s < numCreatures; s++) {
+			if (parentId[s] == JournalRecord.NO_PARENT && birthTick[s] == world.getTime()) {
+				journal(s, JournalRecord.SPAWN, JournalRecord.NONE);
+			}
+		}
+	}
+	
+	/**
+	 * Returns the family tree of all living Creatures, by id.
+	 * @return phylogeny
+	 */
+	public Phylogeny getPhylogeny() {
+		return phylogeny;
+	}
+	
+	/**
+	 * Returns the PopulationBrain evaluating the networks of all Creatures.
+	 * @return brain
+	 */
+	public PopulationBrain getBrain() {
+		return brain;
+	}
+	
+	/**
+	 * Returns the number of living Creatures in the pool.
+	 * @return numCreatures
+	 */
+	public int size() {
+		return numCreatures;
+	}
+	
+	/**
+	 * Returns the color of the Creature in slot s packed as 0xRRGGBB.
+	 * @param s - the slot of the Creature
+	 * @return the Creature's red, green, and blue fields packed into an int.
+	 */
+	public int getCreatureRGB(int s) {
+		return ((int) Function.bound(0, 255, red[s]) << 16) | 
+				((int) Function.bound(0, 255, green[s]) << 8) | (int) Function.bound(0, 255, blue[s]);
+	}
+	
+	public double getSize(int s) { return size[s]; }
+	public double getAttack(int s) { return attack[s]; }
+	public double getDefense(int s) { return defense[s]; }
+	public double getGeneticVariance(int s) { return geneticVariance[s]; }
+	public double getMaxLinearVelocity(int s) { return maxLinearVelocity[s]; }
+	public double getX(int s) { return x[s]; }
+	public double getY(int s) { return y[s]; }
+	public double getVisionXGraphics(int s) { return visionXGraphics[s]; }
+	public double getVisionYGraphics(int s) { return visionYGraphics[s]; }
+	public int getEnergy(int s) { return (int) energy[s]; }
+	public int getHealth(int s) { return (int) health[s]; }
+	public long getAge(int s) { return world.getTime() - birthTick[s]; }
+	public int getGeneration(int s) { return generation[s]; }
+	public long getLineage(int s) { return lineage[s]; }
+	public long getId(int s) { return id[s]; }
+	public long getParentId(int s) { return parentId[s]; }
+	
+	/**
+	 * Gets the maximum possible size of any Creature.
+	 * @return the static double CREATURE_SIZE_MAX.
+	 */
+	public static double getCreatureSizeMax() { return CREATURE_SIZE_MAX; }
+	
+	/**
+	 * Gets the number of Nodes in each layer of every Creature's network.
+	 * @return a copy of NETWORK_LAYER_SIZES
+	 */
+	public static int[] getNetworkLayerSizes() { return NETWORK_LAYER_SIZES.clone(); }
+	
+	/**
+	 * Returns the SpatialGrid indexing every Creature by slot, with the
+	 * center and size of its body as of the last update(); it must only be
+	 * queried, and not during update().
+	 * @return the grid of the pool
+	 */
+	public SpatialGrid getGrid() { return grid; }
+	
+	/*
+	 * Appends a new slot for a Creature, growing the arrays if needed, and
+	 * returns its index.
+	 */
+	private int addSlot() {
+		if (numCreatures == capacity) {
+			allocate(capacity * 2);
+		}
+		
+		return numCreatures++;
+	}
+	
+	/*
+	 * Copies every field of the Creature in slot from into slot to, and
+	 * moves its view along with it.
+	 */
+	private void moveSlot(int from, int to) {
+		attack[to] = attack[from];
+		defense[to] = defense[from];
+		red[to] = red[from];
+		blue[to] = blue[from];
+		green[to] = green[from];
+		size[to] = size[from];
+		markerValue[to] = markerValue[from];
+		geneticVariance[to] = geneticVariance[from];
+		maxLinearVelocity[to] = maxLinearVelocity[from];
+		maxAngularVelocity[to] = maxAngularVelocity[from];
+		maxEnergy[to] = maxEnergy[from];
+		energyUseRate[to] = energyUseRate[from];
+		maxHealth[to] = maxHealth[from];
+		health[to] = health[from];
+		linearVelocity[to] = linearVelocity[from];
+		x[to] = x[from];
+		y[to] = y[from];
+		angle[to] = angle[from];
+		angularVelocity[to] = angularVelocity[from];
+		energy[to] = energy[from];
+		visionX[to] = visionX[from];
+		visionY[to] = visionY[from];
+		visionRed[to] = visionRed[from];
+		visionGreen[to] = visionGreen[from];
+		visionBlue[to] = visionBlue[from];
+		visionDistance[to] = visionDistance[from];
+		belowRed[to] = belowRed[from];
+		belowGreen[to] = belowGreen[from];
+		belowBlue[to] = belowBlue[from];
+		visionXGraphics[to] = visionXGraphics[from];
+		visionYGraphics[to] = visionYGraphics[from];
+		reproductionTimer[to] = reproductionTimer[from];
+		birthTick[to] = birthTick[from];
+		generation[to] = generation[from];
+		lineage[to] = lineage[from];
+		id[to] = id[from];
+		parentId[to] = parentId[from];
+		alive[to] = alive[from];
+		networks[to] = networks[from];
+		randoms[to] = randoms[from];
+		
+		views[to] = views[from];
+		if (views[to] != null) {
+			views[to].setSlot(to);
+		}
+	}
+	
+	/*
+	 * Returns every per-Creature double array which persists between
+	 * updates, in the order of DOUBLE_COLUMN_NAMES.
+	 */
+	private double[][] doubleColumns() {
+		return new double[][] {attack, defense, red, blue, green, size, markerValue, geneticVariance,
+			maxLinearVelocity, maxAngularVelocity, maxEnergy, energyUseRate, maxHealth,
+			health, linearVelocity, x, y, angle, angularVelocity, energy,
+			visionX, visionY, visionRed, visionGreen, visionBlue, visionDistance,
+			belowRed, belowGreen, belowBlue, visionXGraphics, visionYGraphics};
+	}
+	
+	/*
+	 * Grows every array to hold newCapacity Creatures, keeping the data of
+	 * all current Creatures.
+	 */
+	private void allocate(int newCapacity) {
+		attack = grow(attack, newCapacity);
+		defense = grow(defense, newCapacity);
+		red = grow(red, newCapacity);
+		blue = grow(blue, newCapacity);
+		green = grow(green, newCapacity);
+		size = grow(size, newCapacity);
+		markerValue = grow(markerValue, newCapacity);
+		geneticVariance = grow(geneticVariance, newCapacity);
+		maxLinearVelocity = grow(maxLinearVelocity, newCapacity);
+		maxAngularVelocity = grow(maxAngularVelocity, newCapacity);
+		maxEnergy = grow(maxEnergy, newCapacity);
+		energyUseRate = grow(energyUseRate, newCapacity);
+		maxHealth = grow(maxHealth, newCapacity);
+		health = grow(health, newCapacity);
+		linearVelocity = grow(linearVelocity, newCapacity);
+		x = grow(x, newCapacity);
+		y = grow(y, newCapacity);
+		angle = grow(angle, newCapacity);
+		angularVelocity = grow(angularVelocity, newCapacity);
+		energy = grow(energy, newCapacity);
+		visionX = grow(visionX, newCapacity);
+		visionY = grow(visionY, newCapacity);
+		visionRed = grow(visionRed, newCapacity);
+		visionGreen = grow(visionGreen, newCapacity);
+		visionBlue = grow(visionBlue, newCapacity);
+		visionDistance = grow(visionDistance, newCapacity);
+		belowRed = grow(belowRed, newCapacity);
+		belowGreen = grow(belowGreen, newCapacity);
+		belowBlue = grow(belowBlue, newCapacity);
+		visionXGraphics = grow(visionXGraphics, newCapacity);
+		visionYGraphics = grow(visionYGraphics, newCapacity);
+		reproductionTimer = (reproductionTimer == null) ? new int[newCapacity] 
+				: Arrays.copyOf(reproductionTimer, newCapacity);
+		energyDecrease = grow(energyDecrease, newCapacity);
+		damageTaken = grow(damageTaken, newCapacity);
+		energyGained = grow(energyGained, newCapacity);
+		eating = (eating == null) ? new boolean[newCapacity] : Arrays.copyOf(eating, newCapacity);
+		attacking = (attacking == null) ? new boolean[newCapacity] : Arrays.copyOf(attacking, newCapacity);
+		attacked = (attacked == null) ? new boolean[newCapacity] : Arrays.copyOf(attacked, newCapacity);
+		alive = (alive == null) ? new boolean[newCapacity] : Arrays.copyOf(alive, newCapacity);
+		networks = (networks == null) ? new Network[newCapacity] : Arrays.copyOf(networks, newCapacity);
+		views = (views == null) ? new Creature[newCapacity] : Arrays.copyOf(views, newCapacity);
+		randoms = (randoms == null) ? new SeededRandom[newCapacity] : Arrays.copyOf(randoms, newCapacity);
+		parents = (parents == null) ? new int[newCapacity] : Arrays.copyOf(parents, newCapacity);
+		birthVariance = grow(birthVariance, newCapacity);
+		birthTick = (birthTick == null) ? new long[newCapacity] : Arrays.copyOf(birthTick, newCapacity);
+		generation = (generation == null) ? new int[newCapacity] : Arrays.copyOf(generation, newCapacity);
+		lineage = (lineage == null) ? new long[newCapacity] : Arrays.copyOf(lineage, newCapacity);
+		id = (id == null) ? new long[newCapacity] : Arrays.copyOf(id, newCapacity);
+		parentId = (parentId == null) ? new long[newCapacity] : Arrays.copyOf(parentId, newCapacity);
+		capacity = newCapacity;
+	}
+	
+	/*
+	 * Runs phase over slots 0 to n - 1.
+	 */
+	private void forEachSlot(int n, SlotPhase phase) {
+		forEachSlot(0, n, phase);
+	}
+	
+	/*
+	 * Runs phase over slots from to to - 1, split between the worker threads
+	 * when there are enough Creatures for it to be worthwhile.
+	 */
+	private void forEachSlot(int from, int to, SlotPhase phase) {
+		if (workers == null || to - from <= PARALLEL_CHUNK_SIZE) {
+			phase.run(from, to);
+		} else {
+			workers.invoke(new PhaseTask(phase, from, to));
+		}
+	}
+	
+	/*
+	 * A phase of an update, run over a range of slots
+	 */
+	private interface SlotPhase {
+		void run(int from, int to);
+	}
+	
+	/*
+	 * Fork-join task which splits a SlotPhase in halves until each part has
+	 * at most PARALLEL_CHUNK_SIZE slots
+	 */
+	private static class PhaseTask extends RecursiveAction {
+		
+		private static final long serialVersionUID = 1L;
+		
+		private final SlotPhase phase;
+		private final int from, to;
+		
+		PhaseTask(SlotPhase phase, int from, int to) {
+			this.phase = phase;
+			this.from = from;
+			this.to = to;
+		}
+		
+		@Override
+		protected void compute() {
+			if (to - from <= PARALLEL_CHUNK_SIZE) {
+				phase.run(from, to);
+			} else {
+				int middle = (from + to) >>> 1;
+				invokeAll(new PhaseTask(phase, from, middle), new PhaseTask(phase, middle, to));
+			}
+		}
+	}
+	
+	/*
+	 * Buffer of the slots found by a query of the grid, kept per thread by
+	 * the combat phase
+	 */
+	private static class Contacts implements SpatialGrid.SlotVisitor {
+		
+		private int[] slots = new int[16];
+		private int count = 0;
+		
+		@Override
+		public void visit(int slot) {
+			if (count == slots.length) {
+				slots = Arrays.copyOf(slots, count * 2);
+			}
+			slots[count++] = slot;
+		}
+	}
+	
+	/*
+	 * Returns a copy of array with the given length, or a new array if
+	 * array is null.
+	 */
+	private static double[] grow(double[] array, int length) {
+		return (array == null) ? new double[length] : Arrays.copyOf(array, length);
+	}
+}
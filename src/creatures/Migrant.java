@@ -0,0 +1,85 @@
+package creatures;
+
+import neural.Network;
+
+/**
+ * A Migrant is a copy of a Creature taken out of one CreaturePool to be
+ * added to another, such as a different island of an island model: its
+ * inherited traits, its current health and energy, its generation and its
+ * network. A Migrant does not belong to any pool, so it can be handed
+ * between threads; it is never changed once created, and the pool it is
+ * added to builds a new Creature from it the way offspring are built from
+ * their parent.
+ * 
+ * Copyright (C) 2022 Andrew Cupps, CC BY 4.0
+ * 
+ * @author Andrew Cupps
+ * @version 16 Oct 2026
+ */
+public final class Migrant {
+	
+	/**
+	 * Names of the values returned by getTraits(), in order.
+	 */
+	public static final String[] TRAIT_NAMES = {"attack", "defense", "red", "green", "blue", "size",
+		"markerValue", "geneticVariance", "maxLinearVelocity", "maxAngularVelocity", "health", "energy"};
+	
+	/*
+	 * Indices of the values of traits
+	 */
+	static final int ATTACK = 0, DEFENSE = 1, RED = 2, GREEN = 3, BLUE = 4, SIZE = 5, MARKER_VALUE = 6,
+			GENETIC_VARIANCE = 7, MAX_LINEAR_VELOCITY = 8, MAX_ANGULAR_VELOCITY = 9, HEALTH = 10, ENERGY = 11;
+	
+	/*
+	 * The traits of the Creature, in the order of TRAIT_NAMES, its
+	 * generation, and a copy of its network detached from any
+	 * PopulationBrain
+	 */
+	private final double[] traits;
+	private final int generation;
+	private final Network network;
+	
+	/**
+	 * Creates a Migrant with the given traits, generation and network.
+	 * @param traits - the traits of the Creature, in the order of TRAIT_NAMES
+	 * @param generation - the generation of the Creature
+	 * @param network - the network of the Creature, which must not be
+	 * attached to a PopulationBrain or changed afterwards
+	 * @throws IllegalArgumentException if there are not as many traits as
+	 * TRAIT_NAMES, or if network is attached to a PopulationBrain
+	 */
+	public Migrant(double[] traits, int generation, Network network) {
+		if (traits.length != TRAIT_NAMES.length) {
+			throw new IllegalArgumentException("Expected " + TRAIT_NAMES.length + " traits but got "
+					+ traits.length + ".");
+		}
+		if (network.getBrain() != null) {
+			throw new IllegalArgumentException("Migrant network must not be attached to a PopulationBrain.");
+		}
+		
+		this.traits = traits.clone();
+		this.generation = generation;
+		this.network = network;
+	}
+	
+	/**
+	 * Returns the value of the trait with the given index in TRAIT_NAMES.
+	 * @param trait - the index of the trait
+	 * @return its value
+	 */
+	public double getTrait(int trait) {
+		return traits[trait];
+	}
+	
+	/**
+	 * Returns a copy of the traits of the Creature, in the order of
+	 * TRAIT_NAMES.
+	 * @return the traits
+	 */
+	public double[] getTraits() {
+		return traits.clone();
+	}
+	
+	public int getGeneration() { return generation; }
+	public Network getNetwork() { return network; }
+}
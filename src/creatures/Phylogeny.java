@@ -0,0 +1,514 @@
+package creatures;
+
+import java.util.Arrays;
+
+import checkpoint.StateReader;
+import checkpoint.StateWriter;
+
+/**
+ * The Phylogeny is the family tree of every living Creature, kept small
+ * enough to hold for a whole run. Creatures are identified by their ids. A
+ * Creature is added when it is spawned or born and marked dead when it
+ * dies, and then the tree is pruned: a dead Creature with no descendants in
+ * the tree is removed, and a dead Creature with exactly one child in the
+ * tree is spliced out, its child taking its place. What remains are the
+ * living Creatures and the dead ancestors at which their lineages branch,
+ * so the tree never has more than twice as many nodes as there are living
+ * Creatures, however many have been born.
+ * 
+ * Queries take the ids of Creatures still in the tree: every living
+ * Creature, and the branching ancestors, which are returned by
+ * getCommonAncestor(). The tree is a forest with one root for every spawned
+ * Creature with living descendants.
+ * 
+ * Nodes are stored in parallel primitive arrays, with the children of each
+ * node in a doubly linked list, and freed nodes are reused; ids are mapped
+ * to nodes with an open-addressing hash table.
+ * 
+ * Copyright (C) 2022 Andrew Cupps, CC BY 4.0
+ * 
+ * @author Andrew Cupps
+ * @version 16 Oct 2026
+ */
+public class Phylogeny {
+	
+	/**
+	 * Returned by getCommonAncestor() for Creatures with no common ancestor.
+	 */
+	public static final long NO_ANCESTOR = -1;
+	
+	/*
+	 * Number of nodes the tree initially has room for, and the marker of a
+	 * missing node
+	 */
+	private static final int INITIAL_CAPACITY = 1024;
+	private static final int NONE = -1;
+	
+	/*
+	 * For every node: the id of its Creature, its parent node, the
+	 * Creature's generation, its first child and its previous and next
+	 * siblings, its number of children, whether the Creature is alive, the
+	 * number of descendants ever born to it, and the number of living
+	 * Creatures in its subtree, itself included
+	 */
+	private long[] id;
+	private int[] parent, generation, firstChild, previousSibling, nextSibling, numChildren;
+	private boolean[] living;
+	private long[] descendants;
+	private int[] livingInSubtree;
+	private int capacity = 0;
+	
+	/*
+	 * The number of nodes in use, and the first free node, with the free
+	 * nodes linked through nextSibling
+	 */
+	private int numNodes = 0;
+	private int firstFree = NONE;
+	private int highestUsed = 0;
+	
+	/*
+	 * Open-addressing hash table from ids to nodes; empty buckets hold NONE
+	 */
+	private long[] bucketIds;
+	private int[] bucketNodes;
+	
+	/**
+	 * Creates an empty Phylogeny.
+	 */
+	public Phylogeny() {
+		allocate(INITIAL_CAPACITY);
+		bucketIds = new long[INITIAL_CAPACITY * 2];
+		bucketNodes = new int[INITIAL_CAPACITY * 2];
+		Arrays.fill(bucketNodes, NONE);
+	}
+	
+	/**
+	 * Adds a living Creature with no parent, such as a spawned Creature, as
+	 * the root of a new tree.
+	 * @param creatureId - the id of the Creature
+	 * @throws IllegalArgumentException if the id is already in the tree
+	 */
+	public void addRoot(long creatureId) {
+		int node = addNode(creatureId, NONE, 0);
+		livingInSubtree[node] = 1;
+	}
+	
+	/**
+	 * Adds a living Creature born to the given living parent.
+	 * @param creatureId - the id of the newborn Creature
+	 * @param parentId - the id of its parent
+	 * @throws IllegalArgumentException if the parent is not in the tree, or
+	 * the id already is
+	 */
+	public void addBirth(long creatureId, long parentId) {
+		int p = nodeOf(parentId);
+		int node = addNode(creatureId, p, generation[p] + 1);
+		
+		nextSibling[node] = firstChild[p];
+		if (firstChild[p] != NONE) {
+			previousSibling[firstChild[p]] = node;
+		}
+		firstChild[p] = node;
+		numChildren[p]++;
+		
+		livingInSubtree[node] = 1;
+		for (int a = p; a != NONE; a = parent[a]) {
+			descendants[a]++;
+			livingInSubtree[a]++;
+		}
+	}
+	
+	/**
+	 * Marks a living Creature as dead, and prunes the parts of the tree left
+	 * without living descendants.
+	 * @param creatureId - the id of the dead Creature
+	 * @throws IllegalArgumentException if the Creature is not in the tree or
+	 * is already dead
+	 */
+	public void addDeath(long creatureId) {
+		int node = nodeOf(creatureId);
+		if (!living[node]) {
+			throw new IllegalArgumentException("Creature " + creatureId + " is already dead.");
+		}
+		
+		living[node] = false;
+		for (int a = node; a != NONE; a = parent[a]) {
+			livingInSubtree[a]--;
+		}
+		
+		/*
+		 * Removing dead leaves up the tree, then splicing out the lowest
+		 * remaining dead node if it is left with a single child
+		 */
+		while (node != NONE && !living[node] && numChildren[node] == 0) {
+			int p = parent[node];
+			removeNode(node);
+			node = p;
+		}
+		if (node != NONE && !living[node] && numChildren[node] == 1) {
+			spliceNode(node);
+		}
+	}
+	
+	/**
+	 * Returns the most recent common ancestor of two Creatures: the Creature
+	 * with the highest generation which both descend from, where every
+	 * Creature descends from itself.
+	 * @param firstId - the id of one Creature
+	 * @param secondId - the id of the other
+	 * @return the id of the common ancestor, or NO_ANCESTOR if the Creatures
+	 * descend from different spawned Creatures
+	 * @throws IllegalArgumentException if either Creature is not in the tree
+	 */
+	public long getCommonAncestor(long firstId, long secondId) {
+		int a = nodeOf(firstId), b = nodeOf(secondId);
+		while (a != b) {
+			if (generation[a] >= generation[b]) {
+				a = parent[a];
+				if (a == NONE) {
+					return NO_ANCESTOR;
+				}
+			} else {
+				b = parent[b];
+				if (b == NONE) {
+					return NO_ANCESTOR;
+				}
+			}
+		}
+		return id[a];
+	}
+	
+	/**
+	 * Returns the number of descendants ever born to a Creature, including
+	 * descendants which have since died.
+	 * @param creatureId - the id of the Creature
+	 * @return the number of its descendants
+	 * @throws IllegalArgumentException if the Creature is not in the tree
+	 */
+	public long getDescendants(long creatureId) {
+		return descendants[nodeOf(creatureId)];
+	}
+	
+	/**
+	 * Returns the number of living descendants of a Creature, not counting
+	 * the Creature itself.
+	 * @param creatureId - the id of the Creature
+	 * @return the number of its living descendants
+	 * @throws IllegalArgumentException if the Creature is not in the tree
+	 */
+	public int getLivingDescendants(long creatureId) {
+		int node = nodeOf(creatureId);
+		return livingInSubtree[node] - (living[node] ? 1 : 0);
+	}
+	
+	/**
+	 * Returns the depth of a Creature's lineage: its number of ancestors back
+	 * to the spawned Creature its lineage started with.
+	 * @param creatureId - the id of the Creature
+	 * @return the generation of the Creature
+	 * @throws IllegalArgumentException if the Creature is not in the tree
+	 */
+	public int getDepth(long creatureId) {
+		return generation[nodeOf(creatureId)];
+	}
+	
+	/**
+	 * Returns the id of the closest ancestor of a Creature still in the tree.
+	 * @param creatureId - the id of the Creature
+	 * @return the id of the ancestor, or NO_ANCESTOR for a root
+	 * @throws IllegalArgumentException if the Creature is not in the tree
+	 */
+	public long getAncestor(long creatureId) {
+		int p = parent[nodeOf(creatureId)];
+		return (p == NONE) ? NO_ANCESTOR : id[p];
+	}
+	
+	/**
+	 * Returns whether a Creature is in the tree: whether it is alive, or a
+	 * dead ancestor at which living lineages branch.
+	 * @param creatureId - the id of the Creature
+	 * @return true if the Creature is in the tree, false otherwise
+	 */
+	public boolean contains(long creatureId) {
+		return bucketNodes[find(creatureId)] != NONE;
+	}
+	
+	/**
+	 * Returns whether a Creature in the tree is alive.
+	 * @param creatureId - the id of the Creature
+	 * @return true if the Creature is alive, false otherwise
+	 * @throws IllegalArgumentException if the Creature is not in the tree
+	 */
+	public boolean isLiving(long creatureId) {
+		return living[nodeOf(creatureId)];
+	}
+	
+	/**
+	 * @return the number of Creatures in the tree, living or dead
+	 */
+	public int size() { return numNodes; }
+	
+	/**
+	 * Puts every node of the tree into state, in order of id.
+	 * @param state - the StateWriter the tree is saved to
+	 */
+	public void saveState(StateWriter state) {
+		long[] ids = new long[numNodes];
+		int k = 0;
+		for (int node = 0; node < highestUsed; node++) {
+			if (livingInSubtree[node] > 0) {
+				ids[k++] = id[node];
+			}
+		}
+		
+		/*
+		 * Saving nodes in order of id, so that equal trees are saved equally
+		 * however their nodes are laid out
+		 */
+		Arrays.sort(ids, 0, k);
+		long[] parentIds = new long[k], counts = new long[k];
+		int[] generations = new int[k], alive = new int[k];
+		for (int j = 0; j < k; j++) {
+			int node = nodeOf(ids[j]);
+			parentIds[j] = (parent[node] == NONE) ? NO_ANCESTOR : id[parent[node]];
+			generations[j] = generation[node];
+			counts[j] = descendants[node];
+			alive[j] = living[node] ? 1 : 0;
+		}
+		
+		state.putLongs("phylogeny.id", ids, k);
+		state.putLongs("phylogeny.parentId", parentIds, k);
+		state.putInts("phylogeny.generation", generations, k);
+		state.putLongs("phylogeny.descendants", counts, k);
+		state.putInts("phylogeny.living", alive, k);
+	}
+	
+	/**
+	 * Replaces the tree with the one saved by saveState().
+	 * @param state - the StateReader the tree is restored from
+	 * @throws IllegalStateException if the tree is not empty
+	 */
+	public void restoreState(StateReader state) {
+		if (numNodes != 0) {
+			throw new IllegalStateException("Phylogeny must be empty to be restored.");
+		}
+		
+		long[] ids = state.getLongs("phylogeny.id"), parentIds = state.getLongs("phylogeny.parentId");
+		long[] counts = state.getLongs("phylogeny.descendants");
+		int[] generations = state.getInts("phylogeny.generation"), alive = state.getInts("phylogeny.living");
+		for (int k = 0; k < ids.length; k++) {
+			int node = addNode(ids[k], NONE, generations[k]);
+			descendants[node] = counts[k];
+			living[node] = alive[k] != 0;
+		}
+		
+		for (int k = 0; k < ids.length; k++) {
+			if (parentIds[k] != NO_ANCESTOR) {
+				int node = nodeOf(ids[k]), p = nodeOf(parentIds[k]);
+				parent[node] = p;
+				nextSibling[node] = firstChild[p];
+				if (firstChild[p] != NONE) {
+					previousSibling[firstChild[p]] = node;
+				}
+				firstChild[p] = node;
+				numChildren[p]++;
+			}
+		}
+		
+		for (int k = 0; k < ids.length; k++) {
+			if (alive[k] != 0) {
+				for (int a = nodeOf(ids[k]); a != NONE; a = parent[a]) {
+					livingInSubtree[a]++;
+				}
+			}
+		}
+	}
+	
+	/*
+	 * Takes a free node for a living Creature with the given parent and
+	 * generation, without linking it to its parent, and maps its id to it.
+	 * Nodes in use always have a living Creature in their subtree, except
+	 * briefly while one is pruned; free nodes have none.
+	 */
+	private int addNode(long creatureId, int parentNode, int nodeGeneration) {
+		int bucket = find(creatureId);
+		if (bucketNodes[bucket] != NONE) {
+			throw new IllegalArgumentException("Creature " + creatureId + " is already in the phylogeny.");
+		}
+		
+		int node;
+		if (firstFree != NONE) {
+			node = firstFree;
+			firstFree = nextSibling[node];
+		} else {
+			if (highestUsed == capacity) {
+				allocate(capacity * 2);
+			}
+			node = highestUsed++;
+		}
+		
+		id[node] = creatureId;
+		parent[node] = parentNode;
+		generation[node] = nodeGeneration;
+		firstChild[node] = NONE;
+		previousSibling[node] = NONE;
+		nextSibling[node] = NONE;
+		numChildren[node] = 0;
+		living[node] = true;
+		descendants[node] = 0;
+		livingInSubtree[node] = 0;
+		numNodes++;
+		
+		bucketIds[bucket] = creatureId;
+		bucketNodes[bucket] = node;
+		if (numNodes * 2 > bucketNodes.length) {
+			rehash(bucketNodes.length * 2);
+		}
+		return node;
+	}
+	
+	/*
+	 * Unlinks a node from its parent and siblings, and frees it.
+	 */
+	private void removeNode(int node) {
+		unlink(node);
+		unmap(id[node]);
+		livingInSubtree[node] = 0;
+		nextSibling[node] = firstFree;
+		firstFree = node;
+		numNodes--;
+	}
+	
+	/*
+	 * Replaces a node which has a single child by that child, and frees it.
+	 */
+	private void spliceNode(int node) {
+		int child = firstChild[node];
+		int p = parent[node];
+		
+		parent[child] = p;
+		previousSibling[child] = previousSibling[node];
+		nextSibling[child] = nextSibling[node];
+		if (previousSibling[node] != NONE) {
+			nextSibling[previousSibling[node]] = child;
+		} else if (p != NONE) {
+			firstChild[p] = child;
+		}
+		if (nextSibling[node] != NONE) {
+			previousSibling[nextSibling[node]] = child;
+		}
+		
+		unmap(id[node]);
+		livingInSubtree[node] = 0;
+		nextSibling[node] = firstFree;
+		firstFree = node;
+		numNodes--;
+	}
+	
+	/*
+	 * Removes a node from the child list of its parent.
+	 */
+	private void unlink(int node) {
+		int p = parent[node];
+		if (previousSibling[node] != NONE) {
+			nextSibling[previousSibling[node]] = nextSibling[node];
+		} else if (p != NONE) {
+			firstChild[p] = nextSibling[node];
+		}
+		if (nextSibling[node] != NONE) {
+			previousSibling[nextSibling[node]] = previousSibling[node];
+		}
+		if (p != NONE) {
+			numChildren[p]--;
+		}
+	}
+	
+	/*
+	 * Returns the node of a Creature in the tree.
+	 */
+	private int nodeOf(long creatureId) {
+		int node = bucketNodes[find(creatureId)];
+		if (node == NONE) {
+			throw new IllegalArgumentException("Creature " + creatureId + " is not in the phylogeny.");
+		}
+		
+		return node;
+	}
+	
+	/*
+	 * Returns the bucket holding the given id, or the empty bucket where it
+	 * would be inserted.
+	 */
+	private int find(long creatureId) {
+		int mask = bucketNodes.length - 1;
+		int bucket = hash(creatureId) & mask;
+		while (bucketNodes[bucket] != NONE && bucketIds[bucket] != creatureId) {
+			bucket = (bucket + 1) & mask;
+		}
+		return bucket;
+	}
+	
+	/*
+	 * Removes an id from the hash table, shifting back any later ids of the
+	 * same probe sequence so that no lookup passes an empty bucket too soon.
+	 */
+	private void unmap(long creatureId) {
+		int mask = bucketNodes.length - 1;
+		int hole = find(creatureId);
+		bucketNodes[hole] = NONE;
+		for (int bucket = (hole + 1) & mask; bucketNodes[bucket] != NONE; bucket = (bucket + 1) & mask) {
+			int home = hash(bucketIds[bucket]) & mask;
+			if (((bucket - home) & mask) >= ((bucket - hole) & mask)) {
+				bucketIds[hole] = bucketIds[bucket];
+				bucketNodes[hole] = bucketNodes[bucket];
+				bucketNodes[bucket] = NONE;
+				hole = bucket;
+			}
+		}
+	}
+	
+	/*
+	 * Rebuilds the hash table with the given number of buckets.
+	 */
+	private void rehash(int numBuckets) {
+		long[] oldIds = bucketIds;
+		int[] oldNodes = bucketNodes;
+		bucketIds = new long[numBuckets];
+		bucketNodes = new int[numBuckets];
+		Arrays.fill(bucketNodes, NONE);
+		for (int b = 0; b < oldNodes.length; b++) {
+			if (oldNodes[b] != NONE) {
+				int bucket = find(oldIds[b]);
+				bucketIds[bucket] = oldIds[b];
+				bucketNodes[bucket] = oldNodes[b];
+			}
+		}
+	}
+	
+	/*
+	 * Mixes the bits of an id, since ids are consecutive.
+	 */
+	private static int hash(long creatureId) {
+		long h = creatureId * 0x9e3779b97f4a7c15L;
+		return (int) (h ^ (h >>> 32));
+	}
+	
+	/*
+	 * Grows every node array to hold newCapacity nodes.
+	 */
+	private void allocate(int newCapacity) {
+		id = (id == null) ? new long[newCapacity] : Arrays.copyOf(id, newCapacity);
+		parent = (parent == null) ? new int[newCapacity] : Arrays.copyOf(parent, newCapacity);
+		generation = (generation == null) ? new int[newCapacity] : Arrays.copyOf(generation, newCapacity);
+		firstChild = (firstChild == null) ? new int[newCapacity] : Arrays.copyOf(firstChild, newCapacity);
+		previousSibling = (previousSibling == null) ? new int[newCapacity]
+				: Arrays.copyOf(previousSibling, newCapacity);
+		nextSibling = (nextSibling == null) ? new int[newCapacity] : Arrays.copyOf(nextSibling, newCapacity);
+		numChildren = (numChildren == null) ? new int[newCapacity] : Arrays.copyOf(numChildren, newCapacity);
+		living = (living == null) ? new boolean[newCapacity] : Arrays.copyOf(living, newCapacity);
+		descendants = (descendants == null) ? new long[newCapacity] : Arrays.copyOf(descendants, newCapacity);
+		livingInSubtree = (livingInSubtree == null) ? new int[newCapacity]
+				: Arrays.copyOf(livingInSubtree, newCapacity);
+		capacity = newCapacity;
+	}
+}
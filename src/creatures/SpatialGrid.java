@@ -0,0 +1,414 @@
+package creatures;
+
+import java.util.Arrays;
+
+/**
+ * The SpatialGrid indexes circles, such as the bodies of Creatures, by the
+ * cell of a uniform grid their centers lie in, so that the circles near a
+ * point or along a ray are found by visiting a few cells rather than every
+ * circle. The grid covers a World whose edges wrap around, so distances and
+ * queries wrap around as well.
+ * 
+ * Circles are identified by slot, as in the CreaturePool. Each cell keeps a
+ * doubly linked list of its slots in int arrays, so a circle which moves is
+ * relinked in constant time, and only when it crosses into another cell;
+ * nothing is allocated once the arrays are large enough. The order in which
+ * queries visit slots depends on the history of the grid, so results which
+ * must be reproducible should not depend on it.
+ * 
+ * Cells are at least cellSize across, and no circle may have a radius
+ * larger than cellSize, so that every circle overlapping a cell has its
+ * center in that cell or one of its eight neighbors. Queries may be run
+ * from several threads at once, as long as the grid is not changed.
+ * 
+ * Copyright (C) 2022 Andrew Cupps, CC BY 4.0
+ * 
+ * @author Andrew Cupps
+ * @version 16 Oct 2026
+ */
+public class SpatialGrid {
+	
+	/**
+	 * A SlotVisitor is called with each slot found by a query.
+	 */
+	@FunctionalInterface
+	public interface SlotVisitor {
+		void visit(int slot);
+	}
+	
+	/**
+	 * Returned by raycast() when nothing is hit, and the cell of slots which
+	 * are not in the grid.
+	 */
+	public static final int NONE = -1;
+	
+	/*
+	 * Initial number of slots allocated
+	 */
+	private static final int INITIAL_CAPACITY = 64;
+	
+	/*
+	 * The size of the wrapped area, the number of cells across and down, and
+	 * the size of each cell
+	 */
+	private final double width, height;
+	private final int numCellsX, numCellsY;
+	private final double cellWidth, cellHeight, maxRadius;
+	
+	/*
+	 * The first slot of each cell, or NONE; the next and previous slot in
+	 * the cell of each slot, or NONE; and the cell, center and radius of
+	 * each slot
+	 */
+	private final int[] head;
+	private int[] next, prev, cell;
+	private double[] x, y, radius;
+	private int numSlots = 0;
+	
+	/**
+	 * Creates an empty SpatialGrid over an area which wraps around at the
+	 * given width and height.
+	 * @param width - the width of the area
+	 * @param height - the height of the area
+	 * @param cellSize - the smallest size of a cell
+	 * @param maxRadius - the largest radius of any circle, at most cellSize
+	 * @throws IllegalArgumentException if the area or cellSize is not
+	 * positive, or maxRadius is larger than cellSize
+	 */
+	public SpatialGrid(double width, double height, double cellSize, double maxRadius) {
+		if (!(width > 0 && height > 0 && cellSize > 0) || maxRadius > cellSize) {
+			throw new IllegalArgumentException("Grid area and cell size must be positive, and no radius larger "
+					+ "than a cell.");
+		}
+		
+		this.width = width;
+		this.height = height;
+		this.maxRadius = maxRadius;
+		numCellsX = Math.max(1, (int) (width / cellSize));
+		numCellsY = Math.max(1, (int) (height / cellSize));
+		cellWidth = width / numCellsX;
+		cellHeight = height / numCellsY;
+		
+		head = new int[numCellsX * numCellsY];
+		Arrays.fill(head, NONE);
+		allocate(INITIAL_CAPACITY);
+	}
+	
+	/**
+	 * Adds the circle in slot s to the grid.
+	 * @param s - the slot, which must not be in the grid
+	 * @param x - the x coordinate of its center, within the area
+	 * @param y - the y coordinate of its center, within the area
+	 * @param radius - its radius, at most the largest radius of the grid
+	 * @throws IllegalArgumentException if radius is too large
+	 * @throws IllegalStateException if slot s is already in the grid
+	 */
+	public void insert(int s, double x, double y, double radius) {
+		if (radius > maxRadius) {
+			throw new IllegalArgumentException("Radius " + radius + " is larger than " + maxRadius + ".");
+		}
+		if (s >= cell.length) {
+			allocate(Math.max(s + 1, cell.length * 2));
+		}
+		if (cell[s] != NONE) {
+			throw new IllegalStateException("Slot " + s + " is already in the grid.");
+		}
+		
+		this.x[s] = x;
+		this.y[s] = y;
+		this.radius[s] = radius;
+		link(s, cellOf(x, y));
+		numSlots++;
+	}
+	
+	/**
+	 * Moves the center of the circle in slot s, relinking it only if it has
+	 * moved into another cell.
+	 * @param s - the slot, which must be in the grid
+	 * @param x - the new x coordinate of its center, within the area
+	 * @param y - the new y coordinate of its center, within the area
+	 */
+	public void update(int s, double x, double y) {
+		this.x[s] = x;
+		this.y[s] = y;
+		
+		int c = cellOf(x, y);
+		if (c != cell[s]) {
+			unlink(s);
+			link(s, c);
+		}
+	}
+	
+	/**
+	 * Removes the circle in slot s from the grid, if it is there.
+	 * @param s - the slot
+	 */
+	public void remove(int s) {
+		if (s < cell.length && cell[s] != NONE) {
+			unlink(s);
+			numSlots--;
+		}
+	}
+	
+	/**
+	 * Moves the circle in slot from into slot to, which must be empty, as
+	 * when the CreaturePool moves its last Creature into a freed slot.
+	 * @param from - the slot of the circle, which must be in the grid
+	 * @param to - its new slot, which must not be in the grid
+	 */
+	public void move(int from, int to) {
+		if (to >= cell.length) {
+			allocate(Math.max(to + 1, cell.length * 2));
+		}
+		
+		x[to] = x[from];
+		y[to] = y[from];
+		radius[to] = radius[from];
+		cell[to] = cell[from];
+		next[to] = next[from];
+		prev[to] = prev[from];
+		
+		if (prev[to] != NONE) {
+			next[prev[to]] = to;
+		} else {
+			head[cell[to]] = to;
+		}
+		if (next[to] != NONE) {
+			prev[next[to]] = to;
+		}
+		cell[from] = NONE;
+	}
+	
+	/**
+	 * Removes every circle from the grid.
+	 */
+	public void clear() {
+		Arrays.fill(head, NONE);
+		Arrays.fill(cell, NONE);
+		numSlots = 0;
+	}
+	
+	/**
+	 * Visits every slot whose center is within distance of the given point,
+	 * measured around the edges of the area; visits each slot once, in no
+	 * particular order, and costs time in proportion to the number of cells
+	 * the distance covers and the number of slots in them.
+	 * @param x - the x coordinate of the point
+	 * @param y - the y coordinate of the point
+	 * @param distance - the largest distance of a center from the point
+	 * @param visitor - the SlotVisitor called with each slot found
+	 * @return the number of slots visited
+	 */
+	public int forEachWithin(double x, double y, double distance, SlotVisitor visitor) {
+		int cx = Math.floorMod((int) Math.floor(x / cellWidth), numCellsX);
+		int cy = Math.floorMod((int) Math.floor(y / cellHeight), numCellsY);
+		int reachX = (int) Math.ceil(distance / cellWidth), reachY = (int) Math.ceil(distance / cellHeight);
+		
+		/*
+		 * Covering each column and row of cells only once when the distance
+		 * wraps all the way around
+		 */
+		int fromX = cx - reachX, toX = cx + reachX;
+		if (toX - fromX + 1 >= numCellsX) {
+			fromX = 0;
+			toX = numCellsX - 1;
+		}
+		int fromY = cy - reachY, toY = cy + reachY;
+		if (toY - fromY + 1 >= numCellsY) {
+			fromY = 0;
+			toY = numCellsY - 1;
+		}
+		
+		double distanceSquared = distance * distance;
+		int found = 0;
+		for (int j = fromY; j <= toY; j++) {
+			int row = Math.floorMod(j, numCellsY) * numCellsX;
+			for (int i = fromX; i <= toX; i++) {
+				for (int s = head[row + Math.floorMod(i, numCellsX)]; s != NONE; s = next[s]) {
+					double dx = wrapX(this.x[s] - x), dy = wrapY(this.y[s] - y);
+					if (dx * dx + dy * dy <= distanceSquared) {
+						visitor.visit(s);
+						found++;
+					}
+				}
+			}
+		}
+		return found;
+	}
+	
+	/**
+	 * Returns the slot of the first circle hit by a ray, walking the cells
+	 * the ray crosses in order and stopping at the first hit.
+	 * @param x - the x coordinate of the start of the ray
+	 * @param y - the y coordinate of the start of the ray
+	 * @param angle - the direction of the ray in degrees, as Creatures turn
+	 * @param length - the length of the ray, less than half of the area
+	 * @param exclude - a slot which is never hit, such as the Creature
+	 * casting the ray, or NONE
+	 * @param distance - an array whose first element is set to the distance
+	 * along the ray of the hit, or null
+	 * @return the slot of the first circle hit, or NONE
+	 */
+	public int raycast(double x, double y, double angle, double length, int exclude, double[] distance) {
+		double dirX = Math.cos((Math.PI * angle) / 180), dirY = Math.sin((Math.PI * angle) / 180);
+		
+		/*
+		 * Walking cells in unwrapped coordinates, wrapping only to look
+		 * them up
+		 */
+		int cx = (int) Math.floor(x / cellWidth), cy = (int) Math.floor(y / cellHeight);
+		int stepX = dirX > 0 ? 1 : -1, stepY = dirY > 0 ? 1 : -1;
+		double deltaX = (dirX != 0) ? cellWidth / Math.abs(dirX) : Double.POSITIVE_INFINITY;
+		double deltaY = (dirY != 0) ? cellHeight / Math.abs(dirY) : Double.POSITIVE_INFINITY;
+		double nextX = (dirX != 0) ? ((cx + (dirX > 0 ? 1 : 0)) * cellWidth - x) / dirX : Double.POSITIVE_INFINITY;
+		double nextY = (dirY != 0) ? ((cy + (dirY > 0 ? 1 : 0)) * cellHeight - y) / dirY : Double.POSITIVE_INFINITY;
+		
+		int hit = NONE;
+		double best = Double.POSITIVE_INFINITY, entry = 0;
+		while (entry <= length && entry <= best) {
+			/*
+			 * Any circle crossing the ray within this cell has its center
+			 * here or in a neighboring cell
+			 */
+			for (int j = cy - 1; j <= cy + 1; j++) {
+				int row = Math.floorMod(j, numCellsY) * numCellsX;
+				for (int i = cx - 1; i <= cx + 1; i++) {
+					for (int s = head[row + Math.floorMod(i, numCellsX)]; s != NONE; s = next[s]) {
+						if (s == exclude) {
+							continue;
+						}
+						
+						double t = intersect(s, x, y, dirX, dirY);
+						if (t <= length && (t < best || (t == best && s < hit))) {
+							best = t;
+							hit = s;
+						}
+					}
+				}
+			}
+			
+			if (nextX < nextY) {
+				entry = nextX;
+				nextX += deltaX;
+				cx += stepX;
+			} else {
+				entry = nextY;
+				nextY += deltaY;
+				cy += stepY;
+			}
+		}
+		
+		if (hit != NONE && distance != null) {
+			distance[0] = best;
+		}
+		return hit;
+	}
+	
+	/*
+	 * Returns the distance along the ray from (x, y) in direction (dirX,
+	 * dirY) at which it enters the circle in slot s, 0 if it starts inside
+	 * the circle, or infinity if it misses.
+	 */
+	private double intersect(int s, double x, double y, double dirX, double dirY) {
+		double dx = wrapX(this.x[s] - x), dy = wrapY(this.y[s] - y);
+		double along = dx * dirX + dy * dirY;
+		double offsetSquared = dx * dx + dy * dy - along * along;
+		double radiusSquared = radius[s] * radius[s];
+		if (offsetSquared > radiusSquared) {
+			return Double.POSITIVE_INFINITY;
+		}
+		
+		double halfChord = Math.sqrt(radiusSquared - offsetSquared);
+		if (along + halfChord < 0) {
+			return Double.POSITIVE_INFINITY;
+		}
+		return Math.max(0, along - halfChord);
+	}
+	
+	/**
+	 * Returns the horizontal offset dx wrapped to the shortest way around
+	 * the area, between -width / 2 and width / 2.
+	 * @param dx - the offset
+	 * @return the wrapped offset
+	 */
+	public double wrapX(double dx) {
+		return dx - width * Math.rint(dx / width);
+	}
+	
+	/**
+	 * Returns the vertical offset dy wrapped to the shortest way around the
+	 * area, between -height / 2 and height / 2.
+	 * @param dy - the offset
+	 * @return the wrapped offset
+	 */
+	public double wrapY(double dy) {
+		return dy - height * Math.rint(dy / height);
+	}
+	
+	/**
+	 * Returns whether slot s is in the grid.
+	 * @param s - the slot
+	 * @return true if the grid holds a circle in slot s
+	 */
+	public boolean contains(int s) {
+		return s < cell.length && cell[s] != NONE;
+	}
+	
+	public int size() { return numSlots; }
+	public int getNumCellsX() { return numCellsX; }
+	public int getNumCellsY() { return numCellsY; }
+	public double getCellWidth() { return cellWidth; }
+	public double getCellHeight() { return cellHeight; }
+	public double getMaxRadius() { return maxRadius; }
+	
+	/*
+	 * Returns the cell containing the point (x, y) of the area.
+	 */
+	private int cellOf(double x, double y) {
+		int i = Math.min(numCellsX - 1, Math.max(0, (int) (x / cellWidth)));
+		int j = Math.min(numCellsY - 1, Math.max(0, (int) (y / cellHeight)));
+		return j * numCellsX + i;
+	}
+	
+	/*
+	 * Adds slot s at the front of cell c.
+	 */
+	private void link(int s, int c) {
+		cell[s] = c;
+		prev[s] = NONE;
+		next[s] = head[c];
+		if (head[c] != NONE) {
+			prev[head[c]] = s;
+		}
+		head[c] = s;
+	}
+	
+	/*
+	 * Takes slot s out of its cell.
+	 */
+	private void unlink(int s) {
+		if (prev[s] != NONE) {
+			next[prev[s]] = next[s];
+		} else {
+			head[cell[s]] = next[s];
+		}
+		if (next[s] != NONE) {
+			prev[next[s]] = prev[s];
+		}
+		cell[s] = NONE;
+	}
+	
+	/*
+	 * Grows the per-slot arrays to hold newCapacity slots.
+	 */
+	private void allocate(int newCapacity) {
+		int oldCapacity = (cell == null) ? 0 : cell.length;
+		next = (next == null) ? new int[newCapacity] : Arrays.copyOf(next, newCapacity);
+		prev = (prev == null) ? new int[newCapacity] : Arrays.copyOf(prev, newCapacity);
+		cell = (cell == null) ? new int[newCapacity] : Arrays.copyOf(cell, newCapacity);
+		Arrays.fill(cell, oldCapacity, newCapacity, NONE);
+		x = (x == null) ? new double[newCapacity] : Arrays.copyOf(x, newCapacity);
+		y = (y == null) ? new double[newCapacity] : Arrays.copyOf(y, newCapacity);
+		radius = (radius == null) ? new double[newCapacity] : Arrays.copyOf(radius, newCapacity);
+	}
+}
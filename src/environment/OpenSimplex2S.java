@@ -1,4 +1,4 @@
-package graphics;
+package environment;
 
 /**
  * K.jpg's OpenSimplex 2, smooth variant ("SuperSimplex")
@@ -0,0 +1,566 @@
+package environment;
+
+import java.util.Arrays;
+
+import checkpoint.StateReader;
+import checkpoint.StateWriter;
+import environment.Tile.TileType;
+import functions.Function;
+import functions.Function.SigmoidMode;
+
+/**
+ * The TileField holds every Tile of the environment. Rather than one object
+ * per Tile, each field of a Tile is stored in its own flat primitive array in
+ * row-major order, so the Tile at column x and row y is found at index
+ * y * width + x, and updating the whole environment is a single linear loop.
+ * Tile objects are only created as views onto the field when requested.
+ * 
+ * Most Tiles are at rest: soil at its base nutrition, water and borders
+ * never change, and updating them again gives the same result. The field
+ * therefore only keeps a list of active Tiles, those which have changed
+ * since they were last updated or which are still regrowing, and update()
+ * only visits those; the cost of a tick scales with the number of Tiles
+ * Creatures have eaten or fed rather than with the size of the world, and
+ * the results are exactly those of updating every Tile.
+ * 
+ * The field also records which Tiles have changed color since the changes
+ * were last cleared, so that a renderer only needs to redraw those.
+ * 
+ * Nutrition added to every soil Tile at once, as when conditions change, is
+ * kept as a single offset over the field rather than added to each Tile, so
+ * that it does not make every Tile active; Tiles regrow toward their base
+ * nutrition beneath the offset, and their colors follow it in whole steps.
+ * 
+ * Each Tile has an elevation value; from the elevation value, base
+ * tile nutrition value is also calculated; from the combination of these,
+ * Tile color is calculated.
+ * 
+ * Copyright (C) 2022 Andrew Cupps, CC BY 4.0
+ * 
+ * @author Andrew Cupps
+ * @version 16 Oct 2026
+ */
+public class TileField {
+	
+	/**
+	 * All Tiles with post-sigmoid elevation below WATER_ELEVATION will be
+	 * water tiles; all Tiles with post-sigmoid elevation above MOUNTAIN_ELEVATION
+	 * will be mountain tiles.
+	 */
+	private static final double	WATER_ELEVATION = 0.2789,
+								MOUNTAIN_ELEVATION = 0.9;
+	
+	/**
+	 * Amount of energy per update required for Creatures to move one pixel
+	 * through a given tile.
+	 */
+	private static final double WATER_ENERGY_USE_RATE = 0.05,
+								MOUNTAIN_ENERGY_USE_RATE = 0.08,
+								SOIL_ENERGY_USE_RATE = 0.02;
+	
+	/**
+	 * Maximum base nutrition of a soil tile, and the rate at which base
+	 * nutrition decreases with elevation, as well as the maximum nutrition
+	 * any tile can have.
+	 */
+	private static final double SOIL_MAX_BASE_NUTRITION = 1000;
+	private static final double SOIL_NUTRITION_RATE = 150;
+	
+	/**
+	 * Change in each color component of a Tile per unit of nutrition above
+	 * its base nutrition.
+	 */
+	private static final double NUTRITION_COLOR_RATE = 0.05;
+	
+	/**
+	 * Inputs for the Function.sigmoid(...) function used to process elevation.
+	 */
+	private static final double SIGMOID_SHIFT_X = 1.0,
+								SIGMOID_SHIFT_Y = 0.0,
+								SIGMOID_SCALE_X = 2.0,
+								SIGMOID_SCALE_Y = 1.0;
+	
+	/*
+	 * Every TileType, indexed by the ordinals stored in types, and the energy
+	 * use rate of each TileType
+	 */
+	private static final TileType[] TILE_TYPES = TileType.values();
+	private static final double[] ENERGY_USE_RATES = new double[TILE_TYPES.length];
+	static {
+		ENERGY_USE_RATES[TileType.SOIL.ordinal()] = (float) SOIL_ENERGY_USE_RATE;
+		ENERGY_USE_RATES[TileType.MOUNTAIN.ordinal()] = (float) MOUNTAIN_ENERGY_USE_RATE;
+		ENERGY_USE_RATES[TileType.WATER.ordinal()] = (float) WATER_ENERGY_USE_RATE;
+		ENERGY_USE_RATES[TileType.BORDER.ordinal()] = (float) SOIL_ENERGY_USE_RATE;
+	}
+	
+	/*
+	 * The number of columns and rows of Tiles
+	 */
+	private final int width, height;
+	
+	/*
+	 * The rate that nutrition naturally increases, and the way elevation is
+	 * processed
+	 */
+	private final double nutritionIncreaseRate;
+	private final SigmoidMode sigmoidMode;
+	
+	/*
+	 * Fields of each Tile, indexed by y * width + x
+	 */
+	private final double[] elevation, nutrition, baseNutrition, baseRed, baseGreen, baseBlue;
+	
+	/*
+	 * The nutrition added to every soil Tile on top of its own, and the
+	 * whole number of color steps it shifts soil Tiles by
+	 */
+	private double nutritionOffset = 0;
+	private int colorShift = 0;
+	
+	/*
+	 * The current color of each Tile packed as 0xRRGGBB, and the ordinal of
+	 * the TileType of each Tile
+	 */
+	private final int[] rgb;
+	private final byte[] types;
+	
+	/*
+	 * The indices of all active Tiles, the number of active Tiles, and
+	 * whether each Tile is in the active list
+	 */
+	private int[] active;
+	private int numActive;
+	private final boolean[] isActive;
+	
+	/*
+	 * The indices of all Tiles whose color has changed since clearChanged()
+	 * was last called, the number of such Tiles, and whether each Tile is
+	 * in the changed list
+	 */
+	private final int[] changed;
+	private int numChanged;
+	private final boolean[] isChanged;
+	
+	/**
+	 * Creates a TileField of width by height Tiles, all of which are
+	 * initially border Tiles.
+	 * @param width - the number of columns of Tiles
+	 * @param height - the number of rows of Tiles
+	 * @param nutritionIncreaseRate - the rate that nutrition naturally
+	 * increases on soil Tiles
+	 * @param sigmoidMode - the SigmoidMode elevation is processed in
+	 * @throws IllegalArgumentException if width or height is less than one
+	 */
+	public TileField(int width, int height, double nutritionIncreaseRate, SigmoidMode sigmoidMode) {
+		if (width < 1 || height < 1) {
+			throw new IllegalArgumentException("TileField must have at least one Tile.");
+		}
+		
+		this.width = width;
+		this.height = height;
+		this.nutritionIncreaseRate = nutritionIncreaseRate;
+		this.sigmoidMode = sigmoidMode;
+		
+		int numTiles = width * height;
+		elevation = new double[numTiles];
+		nutrition = new double[numTiles];
+		baseNutrition = new double[numTiles];
+		baseRed = new double[numTiles];
+		baseGreen = new double[numTiles];
+		baseBlue = new double[numTiles];
+		rgb = new int[numTiles];
+		types = new byte[numTiles];
+		Arrays.fill(types, (byte) TileType.BORDER.ordinal());
+		
+		active = new int[numTiles];
+		isActive = new boolean[numTiles];
+		changed = new int[numTiles];
+		isChanged = new boolean[numTiles];
+		for (int i = 0; i < numTiles; i++) {
+			activate(i);
+		}
+	}
+	
+	/**
+	 * Makes the Tile at index i a Tile which outlines the Simulation as a
+	 * border; since Creature can move across the edge of the screen and appear
+	 * on the other edge, this allows Creatures to know that the terrain soon
+	 * ahead does not match the terrain near them in relation to the generated
+	 * noise pattern.
+	 * @param i - the index of the Tile
+	 */
+	public void setBorder(int i) {
+		elevation[i] = 0;
+		baseNutrition[i] = 0;
+		baseRed[i] = 0;
+		baseGreen[i] = 0;
+		baseBlue[i] = 0;
+		nutrition[i] = baseNutrition[i];
+		setRGB(i, packRGB((int) baseRed[i], (int) baseGreen[i], (int) baseBlue[i]));
+		types[i] = (byte) TileType.BORDER.ordinal();
+		activate(i);
+	}
+	
+	/**
+	 * Assigns the parameter elevation to the elevation of the Tile at index
+	 * i, then calculates other factors based off elevation.
+	 * @param i - the index of the Tile
+	 * @param elevationPreprocessed - the elevation of the Tile before sigmoidification
+	 */
+	public void setElevation(int i, double elevationPreprocessed) {
+		
+		/*
+		 * Processing of elevation value
+		 */
+		double elevation = (float) Function.sigmoid(sigmoidMode, elevationPreprocessed,
+				SIGMOID_SCALE_X, SIGMOID_SCALE_Y, SIGMOID_SHIFT_X, SIGMOID_SHIFT_Y);
+		
+		/*
+		 * Determination of TileType based on processed elevation value
+		 */
+		TileType tileType;
+		if (elevation <= WATER_ELEVATION) {
+			tileType = TileType.WATER;
+		}
+		else if (elevation >= MOUNTAIN_ELEVATION) {
+			tileType = TileType.MOUNTAIN;
+		}
+		else {
+			tileType = TileType.SOIL;
+		}
+		
+		/*
+		 * Determination of base nutritional value and base colors
+		 */
+		double baseNutrition, baseRed, baseGreen, baseBlue;
+		switch (tileType) {
+			
+		case WATER:
+			baseNutrition = 0;
+			baseRed = 2;
+			baseGreen = 0 + (100 / ((float) WATER_ELEVATION)) * elevation;
+			baseBlue = 99 + (100 / ((float) WATER_ELEVATION)) * elevation;
+			break;
+			
+		case MOUNTAIN:
+			baseNutrition = 0;
+			baseRed = 200 + (55 / ((float) MOUNTAIN_ELEVATION)) * elevation;
+			baseGreen = 200 + (55 / ((float) MOUNTAIN_ELEVATION)) * elevation;
+			baseBlue = 200 + (55 / ((float) MOUNTAIN_ELEVATION)) * elevation;
+			break;
+			
+		default:
+			baseNutrition = (float) (SOIL_MAX_BASE_NUTRITION - SOIL_NUTRITION_RATE * elevation);
+			baseNutrition = (float) Math.max(0, SOIL_MAX_BASE_NUTRITION);
+			baseRed = 16 + (170 / (float) (MOUNTAIN_ELEVATION - WATER_ELEVATION))
+					* (float) (elevation - WATER_ELEVATION);
+			baseGreen = 82 + (130 / (float) (MOUNTAIN_ELEVATION - WATER_ELEVATION))
+					* (float) (elevation - WATER_ELEVATION);
+			baseBlue = 0 + (170 / (float) (MOUNTAIN_ELEVATION - WATER_ELEVATION))
+					* (float) (elevation - WATER_ELEVATION);
+		}
+		
+		this.elevation[i] = elevation;
+		this.baseNutrition[i] = baseNutrition;
+		this.baseRed[i] = baseRed;
+		this.baseGreen[i] = baseGreen;
+		this.baseBlue[i] = baseBlue;
+		nutrition[i] = baseNutrition;
+		setRGB(i, packRGB((int) baseRed, (int) baseGreen, (int) baseBlue));
+		types[i] = (byte) tileType.ordinal();
+		activate(i);
+	}
+	
+	/**
+	 * Updates the color and nutritional value of every Tile. Only active
+	 * Tiles are visited, since updating any other Tile would not change it;
+	 * Tiles which are no longer regrowing afterwards are removed from the
+	 * active list.
+	 */
+	public void update() {
+		int kept = 0;
+		for (int k = 0; k < numActive; k++) {
+			int i = active[k];
+			update(i);
+			
+			if (isRegrowing(i)) {
+				active[kept++] = i;
+			} else {
+				isActive[i] = false;
+			}
+		}
+		numActive = kept;
+	}
+	
+	/**
+	 * Updates the color and nutritional value of the Tile at index i.
+	 * @param i - the index of the Tile
+	 */
+	public void update(int i) {
+		
+		if (types[i] == TileType.SOIL.ordinal()) {
+			/*
+			 * Updating nutrition; as elevation increases, the rate of nutrition
+			 * increase decreases
+			 */
+			if (nutrition[i] < baseNutrition[i]) {
+				nutrition[i] += nutritionIncreaseRate * Math.sqrt(MOUNTAIN_ELEVATION - elevation[i]);
+			}
+		}
+		
+		recolor(i);
+	}
+	
+	/**
+	 * Halves the nutrition of the Tile at index i, as when a Creature eats it.
+	 * @param i - the index of the Tile
+	 * @return the remaining nutrition of the Tile, which the Creature gains
+	 */
+	public double eat(int i) {
+		activate(i);
+		if (types[i] == TileType.SOIL.ordinal()) {
+			double remaining = (nutrition[i] + nutritionOffset) / 2;
+			nutrition[i] = remaining - nutritionOffset;
+			return remaining;
+		}
+		
+		nutrition[i] /= 2;
+		return nutrition[i];
+	}
+	
+	/**
+	 * Adds the given amount of nutrition to the Tile at index i.
+	 * @param i - the index of the Tile
+	 * @param amount - the nutrition to be added
+	 */
+	public void addNutrition(int i, double amount) {
+		activate(i);
+		nutrition[i] += amount;
+	}
+	
+	/**
+	 * Adds the given amount of nutrition to every soil Tile, by moving the
+	 * offset over the field; no Tile is activated, and soil Tiles are only
+	 * recolored when the offset crosses a whole color step.
+	 * @param amount - the nutrition to be added, or removed if negative
+	 */
+	public void shiftNutrition(double amount) {
+		nutritionOffset += amount;
+		int shift = (int) Math.floor(NUTRITION_COLOR_RATE * nutritionOffset);
+		if (shift != colorShift) {
+			colorShift = shift;
+			for (int i = 0; i < types.length; i++) {
+				if (types[i] == TileType.SOIL.ordinal()) {
+					recolor(i);
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Copies every field of the Tile at index from into the Tile at index to.
+	 * @param from - the index of the Tile to be copied
+	 * @param to - the index of the Tile to be overwritten
+	 */
+	public void copyTile(int from, int to) {
+		elevation[to] = elevation[from];
+		nutrition[to] = nutrition[from];
+		baseNutrition[to] = baseNutrition[from];
+		baseRed[to] = baseRed[from];
+		baseGreen[to] = baseGreen[from];
+		baseBlue[to] = baseBlue[from];
+		setRGB(to, rgb[from]);
+		types[to] = types[from];
+		activate(to);
+	}
+	
+	/**
+	 * Puts the fields of every Tile and the active list into state.
+	 * @param state - the StateWriter the Tiles are saved to
+	 */
+	public void saveState(StateWriter state) {
+		int numTiles = size();
+		state.putLong("tiles.width", width);
+		state.putLong("tiles.height", height);
+		state.putDoubles("tiles.elevation", elevation, numTiles);
+		state.putDoubles("tiles.nutrition", nutrition, numTiles);
+		state.putDoubles("tiles.baseNutrition", baseNutrition, numTiles);
+		state.putDoubles("tiles.baseRed", baseRed, numTiles);
+		state.putDoubles("tiles.baseGreen", baseGreen, numTiles);
+		state.putDoubles("tiles.baseBlue", baseBlue, numTiles);
+		state.putInts("tiles.rgb", rgb, numTiles);
+		state.putBytes("tiles.types", types, numTiles);
+		state.putInts("tiles.active", active, numActive);
+		state.putLong("tiles.nutritionOffset", Double.doubleToRawLongBits(nutritionOffset));
+	}
+	
+	/**
+	 * Replaces the fields of every Tile and the active list with those saved
+	 * by saveState(); every Tile is then in the changed list.
+	 * @param state - the StateReader the Tiles are restored from
+	 * @throws IllegalArgumentException if the saved TileField has a
+	 * different size
+	 */
+	public void restoreState(StateReader state) {
+		if (state.getLong("tiles.width") != width || state.getLong("tiles.height") != height) {
+			throw new IllegalArgumentException("Saved TileField does not match TileField size.");
+		}
+		
+		int numTiles = size();
+		System.arraycopy(state.getDoubles("tiles.elevation"), 0, elevation, 0, numTiles);
+		System.arraycopy(state.getDoubles("tiles.nutrition"), 0, nutrition, 0, numTiles);
+		System.arraycopy(state.getDoubles("tiles.baseNutrition"), 0, baseNutrition, 0, numTiles);
+		System.arraycopy(state.getDoubles("tiles.baseRed"), 0, baseRed, 0, numTiles);
+		System.arraycopy(state.getDoubles("tiles.baseGreen"), 0, baseGreen, 0, numTiles);
+		System.arraycopy(state.getDoubles("tiles.baseBlue"), 0, baseBlue, 0, numTiles);
+		System.arraycopy(state.getInts("tiles.rgb"), 0, rgb, 0, numTiles);
+		System.arraycopy(state.getBytes("tiles.types"), 0, types, 0, numTiles);
+		nutritionOffset = Double.longBitsToDouble(state.getLong("tiles.nutritionOffset"));
+		colorShift = (int) Math.floor(NUTRITION_COLOR_RATE * nutritionOffset);
+		
+		int[] savedActive = state.getInts("tiles.active");
+		Arrays.fill(isActive, false);
+		numActive = 0;
+		for (int i : savedActive) {
+			activate(i);
+		}
+		
+		clearChanged();
+		for (int i = 0; i < numTiles; i++) {
+			isChanged[i] = true;
+			changed[numChanged++] = i;
+		}
+	}
+	
+	/**
+	 * Returns the index of the Tile at column x and row y.
+	 * @param x - the column of the Tile
+	 * @param y - the row of the Tile
+	 * @return y * width + x
+	 */
+	public int index(int x, int y) {
+		return y * width + x;
+	}
+	
+	/**
+	 * Returns a Tile view of the Tile at column x and row y.
+	 * @param x - the column of the Tile
+	 * @param y - the row of the Tile
+	 * @return the Tile at x, y
+	 */
+	public Tile get(int x, int y) {
+		return new Tile(this, index(x, y));
+	}
+	
+	/**
+	 * Returns the color of the Tile at index i packed as 0xRRGGBB.
+	 * @param i - the index of the Tile
+	 * @return the Tile's red, green, and blue values packed into an int.
+	 */
+	public int getRGB(int i) { return rgb[i]; }
+	
+	public double getEnergyRate(int i) { return ENERGY_USE_RATES[types[i]]; }
+	public double getNutrition(int i) {
+		return (types[i] == TileType.SOIL.ordinal()) ? nutrition[i] + nutritionOffset : nutrition[i];
+	}
+	public double getElevation(int i) { return elevation[i]; }
+	public TileType getType(int i) { return TILE_TYPES[types[i]]; }
+	public boolean isSoil(int i) { return types[i] == TileType.SOIL.ordinal(); }
+	
+	public int getWidth() { return width; }
+	public int getHeight() { return height; }
+	public int getNumActive() { return numActive; }
+	
+	/**
+	 * Returns the number of Tiles whose color has changed since
+	 * clearChanged() was last called.
+	 * @return numChanged
+	 */
+	public int getNumChanged() {
+		return numChanged;
+	}
+	
+	/**
+	 * Returns the index of the k-th Tile whose color has changed since
+	 * clearChanged() was last called.
+	 * @param k - the position of the Tile in the changed list, below getNumChanged()
+	 * @return the index of the changed Tile
+	 */
+	public int getChanged(int k) {
+		return changed[k];
+	}
+	
+	/**
+	 * Empties the list of Tiles whose color has changed.
+	 */
+	public void clearChanged() {
+		for (int k = 0; k < numChanged; k++) {
+			isChanged[changed[k]] = false;
+		}
+		numChanged = 0;
+	}
+	
+	/**
+	 * Returns the number of Tiles in the field.
+	 * @return width * height
+	 */
+	public int size() {
+		return rgb.length;
+	}
+	
+	/*
+	 * Recalculates the color of the Tile at index i from its nutrition,
+	 * shifting soil Tiles by the whole color steps of the nutrition offset.
+	 */
+	private void recolor(int i) {
+		double nutritionDifference = nutrition[i] - baseNutrition[i];
+		int shift = (types[i] == TileType.SOIL.ordinal()) ? colorShift : 0;
+		int red = (int) (baseRed[i] - NUTRITION_COLOR_RATE * nutritionDifference) - shift;
+		int green = (int) (baseGreen[i] + NUTRITION_COLOR_RATE * nutritionDifference) + shift;
+		int blue = (int) (baseBlue[i] + NUTRITION_COLOR_RATE * nutritionDifference) + shift;
+		
+		red = (int) Function.bound(0, 255, red);
+		green = (int) Function.bound(0, 255, green);
+		blue = (int) Function.bound(0, 255, blue);
+		setRGB(i, packRGB(red, green, blue));
+	}
+	
+	/*
+	 * Sets the color of the Tile at index i, adding it to the changed list if
+	 * its color is different.
+	 */
+	private void setRGB(int i, int newRGB) {
+		if (rgb[i] != newRGB) {
+			rgb[i] = newRGB;
+			if (!isChanged[i]) {
+				isChanged[i] = true;
+				changed[numChanged++] = i;
+			}
+		}
+	}
+	
+	/*
+	 * Adds the Tile at index i to the active list, if it is not already in it.
+	 */
+	private void activate(int i) {
+		if (!isActive[i]) {
+			isActive[i] = true;
+			active[numActive++] = i;
+		}
+	}
+	
+	/*
+	 * Checks whether the Tile at index i will still gain nutrition when it is
+	 * next updated.
+	 */
+	private boolean isRegrowing(int i) {
+		return types[i] == TileType.SOIL.ordinal() && nutrition[i] < baseNutrition[i];
+	}
+	
+	/*
+	 * Packs red, green and blue values into a single 0xRRGGBB int.
+	 */
+	private static int packRGB(int red, int green, int blue) {
+		return ((red & 0xFF) << 16) | ((green & 0xFF) << 8) | (blue & 0xFF);
+	}
+}
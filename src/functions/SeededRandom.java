@@ -0,0 +1,109 @@
+package functions;
+
+/**
+ * SeededRandom is a fast, splittable pseudorandom number generator used in
+ * place of Math.random() so that simulations are reproducible from a single
+ * seed. It follows the algorithm of java.util.SplittableRandom: split()
+ * returns a new generator whose sequence is statistically independent of
+ * its parent's, which lets every Creature own a generator derived from the
+ * world seed without any generator being shared between threads.
+ * 
+ * Unlike SplittableRandom, the state of a SeededRandom can be read and
+ * restored, so that it can be saved along with the rest of a simulation.
+ * 
+ * Copyright (C) 2022 Andrew Cupps, CC BY 4.0
+ * 
+ * @author Andrew Cupps
+ * @version 16 Oct 2026
+ */
+public class SeededRandom {
+	
+	/*
+	 * The default gamma; the odd integer closest to 2^64 divided by the
+	 * golden ratio
+	 */
+	private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+	
+	/*
+	 * The current seed, and the odd increment added to it on every step
+	 */
+	private long seed, gamma;
+	
+	/**
+	 * Creates a new SeededRandom from the given seed; two SeededRandoms
+	 * created from the same seed produce the same sequence of values.
+	 * @param seed - the initial seed
+	 */
+	public SeededRandom(long seed) {
+		this(seed, GOLDEN_GAMMA);
+	}
+	
+	/**
+	 * Creates a SeededRandom with the given seed and gamma, as returned by
+	 * getSeed() and getGamma(); this restores a saved generator.
+	 * @param seed - the current seed
+	 * @param gamma - the increment of the generator; must be odd
+	 * @throws IllegalArgumentException if gamma is even
+	 */
+	public SeededRandom(long seed, long gamma) {
+		if ((gamma & 1) == 0) {
+			throw new IllegalArgumentException("Gamma must be odd.");
+		}
+		
+		this.seed = seed;
+		this.gamma = gamma;
+	}
+	
+	/**
+	 * Returns a new SeededRandom split off from this one; the sequences of
+	 * the two generators are independent, and this generator advances.
+	 * @return a new SeededRandom
+	 */
+	public SeededRandom split() {
+		return new SeededRandom(nextLong(), mixGamma(nextSeed()));
+	}
+	
+	/**
+	 * Returns a pseudorandom long.
+	 * @return the next pseudorandom long
+	 */
+	public long nextLong() {
+		return mix64(nextSeed());
+	}
+	
+	/**
+	 * Returns a pseudorandom double between zero (inclusive) and one
+	 * (exclusive); this replaces Math.random().
+	 * @return the next pseudorandom double in [0, 1)
+	 */
+	public double nextDouble() {
+		return (nextLong() >>> 11) * 0x1.0p-53;
+	}
+	
+	public long getSeed() { return seed; }
+	public long getGamma() { return gamma; }
+	
+	private long nextSeed() {
+		return seed += gamma;
+	}
+	
+	/*
+	 * Variant 13 of David Stafford's 64-bit mix function
+	 */
+	private static long mix64(long z) {
+		z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+		z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+		return z ^ (z >>> 31);
+	}
+	
+	/*
+	 * Returns an odd gamma with enough bit transitions to be a good increment
+	 */
+	private static long mixGamma(long z) {
+		z = (z ^ (z >>> 33)) * 0xff51afd7ed558ccdL;
+		z = (z ^ (z >>> 33)) * 0xc4ceb9fe1a85ec53L;
+		z = (z ^ (z >>> 33)) | 1L;
+		int n = Long.bitCount(z ^ (z >>> 1));
+		return (n < 24) ? z ^ 0xaaaaaaaaaaaaaaaaL : z;
+	}
+}
@@ -1,9 +1,23 @@
 package graphics;
 
+import java.nio.file.Paths;
 import java.util.Scanner;
 
-public class InputThread extends Thread {
+import simulation.SimulationThread;
 
+public class InputThread extends Thread {
+	
+	/*
+	 * The thread paused and resumed by the "pause" command, and sped up or
+	 * slowed down by "speed 1", "speed 10", "speed 100" or "speed max", and
+	 * checkpointed by "save FILE"
+	 */
+	private final SimulationThread simulation;
+	
+	public InputThread(SimulationThread simulation) {
+		this.simulation = simulation;
+	}
+	
 	/**
 	 * Reads input through the console for the duration of the program
 	 */
@@ -14,7 +28,17 @@ public class InputThread extends Thread {
 			System.out.print("> ");
 			String input = in.nextLine();
 			if (input.equals("pause")) {
-				JSENNPanel.togglePause();
+				simulation.togglePause();
+			}
+			else if (input.startsWith("speed ")) {
+				try {
+					simulation.setSpeed(SimulationThread.Speed.parse(input.substring(6).trim()));
+				} catch (IllegalArgumentException e) {
+					System.out.println(e.getMessage());
+				}
+			}
+			else if (input.startsWith("save ")) {
+				simulation.requestCheckpoint(Paths.get(input.substring(5).trim()));
 			}
 			else if (input.equals("close")) {
 				in.close();
@@ -1,42 +1,121 @@
 package graphics;
 
+import java.awt.Dimension;
+import java.awt.Toolkit;
+import java.awt.event.ActionEvent;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import javax.swing.AbstractAction;
+import javax.swing.JComponent;
 import javax.swing.JFrame;
+import javax.swing.KeyStroke;
 
-import functions.Function;
+import simulation.SimulationThread;
+import simulation.SnapshotExchange;
+import simulation.World;
 
 /**
- * JSENNFrame is the main class of JSENN; JSENNFrame contains the main
- * method used to drive the entire JSENN project; furthermore, it allows
- * for creation, update, and graphical representation of all JSENN objects.
+ * JSENNFrame is the graphical viewer of JSENN; its main method creates a
+ * World which fits the machine's screen size and displays it in a new
+ * JSENNFrame, which steps it 60 times per second on a separate
+ * SimulationThread. The keys 1, 2, 3 and 4 set the simulation speed to 1x,
+ * 10x, 100x or as fast as possible, space pauses or resumes it, and S
+ * writes a checkpoint of it to CHECKPOINT_FILE. Passing a checkpoint file
+ * as the first argument resumes that World instead of creating a new one.
+ * To run a World without a display, use simulation.HeadlessRunner instead.
  * 
  * Copyright (C) 2022 Andrew Cupps, CC BY 4.0
  * 
  * @author Andrew Cupps
- * @version 21 Dec 2022
+ * @version 16 Oct 2026
  */
 public class JSENNFrame extends JFrame {
-
+	
+	/**
+	 * The file the S key writes checkpoints to.
+	 */
+	public static final Path CHECKPOINT_FILE = Paths.get("jsenn.ckpt");
+	
+	/*
+	 * The thread stepping the displayed World
+	 */
+	private final SimulationThread simulation;
+	
 	/**
-	 * Constructor for a JSENNFrame which creates a new JSENNPanel and adds
-	 * it to this JFrame, then setting up graphical capabilities for this
-	 * project.
+	 * Constructor for a JSENNFrame which creates a new JSENNPanel displaying
+	 * the given World and adds it to this JFrame, then setting up graphical
+	 * capabilities for this project and starting a SimulationThread to step
+	 * the World. The World must not be used by any other thread afterwards.
+	 * @param world - the World to be displayed
 	 */
-	public JSENNFrame() {
+	public JSENNFrame(World world) {
 		
-		JSENNPanel panel = new JSENNPanel();
+		SnapshotExchange snapshots = new SnapshotExchange(world);
+		simulation = new SimulationThread(world, snapshots);
+		JSENNPanel panel = new JSENNPanel(snapshots, world.getMetrics(), world.getWidth(), world.getHeight());
+		bindKeys(panel);
 		this.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
 		this.add(panel);
 		this.pack();
 		this.setLocationRelativeTo(null);
 		this.setVisible(true);
 		this.setTitle("JSENN");
+		simulation.start();
+		
+		//Used for debugging visually
+		//Thread inputThread = new InputThread(simulation);
+		//inputThread.start();
+	}
+	
+	/*
+	 * Binding the speed, pause and checkpoint keys of the given panel to the
+	 * simulation
+	 */
+	private void bindKeys(JComponent panel) {
+		SimulationThread.Speed[] speeds = SimulationThread.Speed.values();
+		for (int i = 0; i < speeds.length; i++) {
+			SimulationThread.Speed speed = speeds[i];
+			bindKey(panel, KeyStroke.getKeyStroke(Character.forDigit(i + 1, 10)), "speed " + speed, 
+					() -> simulation.setSpeed(speed));
+		}
+		bindKey(panel, KeyStroke.getKeyStroke(' '), "pause", simulation::togglePause);
+		bindKey(panel, KeyStroke.getKeyStroke('s'), "checkpoint", () -> simulation.requestCheckpoint(CHECKPOINT_FILE));
 	}
 	
+	private static void bindKey(JComponent panel, KeyStroke key, String name, Runnable action) {
+		panel.getInputMap(JComponent.WHEN_IN_FOCUSED_WINDOW).put(key, name);
+		panel.getActionMap().put(name, new AbstractAction() {
+			@Override
+			public void actionPerformed(ActionEvent e) {
+				action.run();
+			}
+		});
+	}
+	
+	public SimulationThread getSimulation() { return simulation; }
+	
 	/**
-	 * Main method which creates a new JSENNFrame object.
-	 * @param args
+	 * Main method which creates a new World the size of the screen, or
+	 * resumes the one in the checkpoint file given as the first argument, and
+	 * a JSENNFrame displaying it, and registers the World's SimulationMetrics
+	 * over JMX.
+	 * @param args - optionally, a checkpoint file to resume
+	 * @throws IOException if the checkpoint file could not be read
 	 */
-	public static void main(String[] args) {
-		new JSENNFrame();
+	public static void main(String[] args) throws IOException {
+		World world;
+		if (args.length > 0) {
+			world = World.load(Paths.get(args[0]), Runtime.getRuntime().availableProcessors());
+			System.out.println("Resumed " + args[0] + " at tick " + world.getTime());
+		} else {
+			Dimension screenSize = Toolkit.getDefaultToolkit().getScreenSize();
+			world = new World((int) screenSize.getWidth(), (int) screenSize.getHeight(), World.defaultSeed());
+		}
+		long seed = world.getSeed();
+		System.out.println("Seed: " + seed);
+		world.getMetrics().register(Long.toString(seed));
+		new JSENNFrame(world);
 	}
 }
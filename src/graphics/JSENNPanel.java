@@ -5,180 +5,108 @@ import java.awt.Color;
 import java.awt.Dimension;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
-import java.awt.Toolkit;
+import java.awt.RenderingHints;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
-import java.util.ArrayList;
-import java.util.List;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.awt.image.DirectColorModel;
+import java.awt.image.Raster;
+import java.awt.image.WritableRaster;
+import java.util.Arrays;
 
 import javax.swing.JPanel;
 import javax.swing.Timer;
 
-import creatures.Creature;
-import environment.Tile;
+import simulation.RenderSnapshot;
+import simulation.SimulationMetrics;
+import simulation.SnapshotExchange;
+import simulation.World;
 
 /**
  * The JSENNPanel allows for graphical representation of all environment
- * objects and Creature objects in the JSENN simulation. Using a timer
- * and ActionListener, JSENNPanel also updates all Creatures and environment
- * objects.
+ * objects and Creature objects in a JSENN World. The World is stepped on a
+ * separate SimulationThread, which publishes a RenderSnapshot after every
+ * tick; using a timer and ActionListener, JSENNPanel repaints itself from
+ * the latest published snapshot, and never reads the World itself.
  * 
  * Copyright (C) 2022 Andrew Cupps, CC BY 4.0
  * 
  * @author Andrew Cupps
- * @version 29 Dec 2022
+ * @version 16 Oct 2026
  */
 public class JSENNPanel extends JPanel implements ActionListener {
 	
 	/**
-	 * Timer used for updating all objects necessary to update.
+	 * Number of times per second the panel should be repainted.
 	 */
-	private static Timer timer;
-		
-	/**
-	 * Screen size dimensions in pixels; automatically fits to machine's screen size.
-	 */
-	private static Dimension screenSize = Toolkit.getDefaultToolkit().getScreenSize();
-	public static int SIZE_X = (int) screenSize.getWidth(), SIZE_Y = (int) screenSize.getHeight();
-	/**
-	 * Number of times per second objects should be updated.
-	 */
-	private static final int UPDATE_RATE = 60;
-	
-	/**
-	 * Size of tiles in pixels
-	 */
-	private static final int TILE_SIZE = 15;
+	private static final int FRAME_RATE = 60;
 	
 	/**
-	 * Minimum number of creatures
+	 * Color model of the terrain images, matching BufferedImage.TYPE_INT_RGB
 	 */
-	private static final int MIN_NUM_CREATURES = 30;
+	private static final DirectColorModel RGB_MODEL = new DirectColorModel(24, 0xFF0000, 0xFF00, 0xFF);
 	
-	private static boolean isPaused = false;
-	
-	/**
-	 * The set of all tiles that will be used in this simulation; size is 
-	 * based on NUM_TILES_X and NUM_TILES_Y, which are based on the size of the
-	 * screen divided by the size of size of a tile.
+	/*
+	 * Stroke used for Creature outlines and vision
 	 */
-	private static final int NUM_TILES_X = SIZE_X / TILE_SIZE,
-							 NUM_TILES_Y = SIZE_Y / TILE_SIZE;
-	private static Tile[][] tiles = new Tile[NUM_TILES_X][NUM_TILES_Y];
+	private static final BasicStroke STROKE = new BasicStroke(2);
 	
 	/*
-	 * Assigning each index of the 2D tiles array to be a tile with elevation
-	 * values according to KdotJPG's OpenSimplex2 noise generator. The 
-	 * SEED double is randomly generated for each simulation;
-	 * SCALING_FACTOR is used to scale the noise.
+	 * Number of bits of the index of the Creature color cache
 	 */
-	private final long SEED = (long) (Math.random() * 10000000);
-	private static final double SCALING_FACTOR = 0.03;
-	private int numMovements = 0;
-	{
-		/*
-		 * Creating non-border Tiles
-		 */
-		double i = 0.01, j = 0.01;
-		for (int xIndex = 1; xIndex < NUM_TILES_X - 1; xIndex++) {
-			for (int yIndex = 1; yIndex < NUM_TILES_Y - 1; yIndex++) {
-				float noiseValue = OpenSimplex2S.noise2(SEED, i, j);
-				tiles[xIndex][yIndex] = new Tile(noiseValue + 0.5);
-				j += SCALING_FACTOR;
-			}
-			j = 0.01;
-			i += SCALING_FACTOR;
-		}
-		
-		/*
-		 * Creating border Tiles
-		 */
-		for (int xIndex = 0; xIndex < NUM_TILES_X; xIndex++) {
-			tiles[xIndex][0] = new Tile(true);
-			tiles[xIndex][NUM_TILES_Y - 1] = new Tile(true);
-		}
-		for (int yIndex = 0; yIndex < NUM_TILES_Y; yIndex++) {
-			tiles[0][yIndex] = new Tile(true);
-			tiles[NUM_TILES_X - 1][yIndex] = new Tile(true);
-		}
-	}
-	
+	private static final int COLOR_CACHE_BITS = 10;
 	
 	/**
-	 * NOTE: CHUNK IMPLEMENTATION OF CREATURES NOT CURRENTLY USED (21 Dec 2022)
-	 * 
-	 * A 2D array of Collections which contains all the Creature objects in
-	 * the simulation; this 2D array represents subsections of the tile grid
-	 * used for the environment, where each chunk represents a certain area
-	 * of the simulation in order to allow searches for Creatures to be done
-	 * more efficiently in situations where creatures are searched for in
-	 * a given radius or location. The size of chunks is dependent on the
-	 * maximum size limit for Creatures, being 5 times the maximum radius
-	 * of a Creature.
+	 * Timer used for repainting the panel.
 	 */
-//	private static final int CHUNK_SIZE = 
-//			3 * (int) Math.ceil(Creature.getCreatureSizeMax());
-//	private static final int NUM_CHUNKS_X = NUM_TILES_X / CHUNK_SIZE,
-//							 NUM_CHUNKS_Y = NUM_TILES_Y / CHUNK_SIZE;
-//	private static Collection<Creature>[][] creatures = 
-//			new Collection<Creature>[NUM_CHUNKS_X][NUM_CHUNKS_Y];
-//	
+	private final Timer timer;
+	
 	/*
-	 * NOTE: CHUNK IMPLEMENTATION OF CREATURES NOT CURRENTLY USED (21 Dec 2022)
-	 * 
-	 * Assigning each index in the 2D creatures array to be a HashSet of
-	 * Creatures.
+	 * The exchange snapshots of the displayed World are taken from
 	 */
-//	static {
-//		for (int i = 0; i < NUM_CHUNKS_X; i++) {
-//			for (int j = 0; j < NUM_CHUNKS_Y; j++) {
-//				creatures[i][j] = new HashSet<Creature>();
-//			}
-//		}
-//	}
-//	
+	private final SnapshotExchange snapshots;
 	
 	/*
-	 * AS OF VERSION 21 DEC 2022:
-	 * 
-	 * Creatures are stored in a single Collection of all Creatures.
+	 * The metrics painting is timed in
 	 */
-	private static List<Creature> creatures = new ArrayList<Creature>();
-	{
-		for (int i = 0; i < 60; i++) {
-			creatures.add(new Creature());
-		}
-	}
+	private final SimulationMetrics metrics;
 	
 	/*
-	 * For simulation of changing conditions
+	 * The terrain image of each snapshot of the exchange, by snapshot index;
+	 * each image is drawn with one pixel per Tile directly from the
+	 * snapshot's Tile colors, and scaled up to the size of the World in a
+	 * single call.
 	 */
-	private static final boolean CHANGING_NUTRITION = false;
-	private int time = 0;
-	private static final double TOTAL_CHANGE_AMOUNT = 100;
-	private static final double CHANGE_RATE_MODIFIER = 0.001;
+	private final BufferedImage[] terrains = new BufferedImage[3];
 	
 	/*
-	 * For simulation of moving terrain
+	 * Direct-mapped cache of Creature body Colors, indexed by a hash of the
+	 * packed RGB value; a Creature's color never changes, so painting the
+	 * same Creatures every frame allocates no Colors once the cache is warm.
+	 * Empty entries hold a key of -1, which no packed RGB value can equal.
 	 */
-	private static final boolean CHANGING_TERRAIN = false;
-	private static final int TIME_BETWEEN_CHANGES = 600;
+	private final int[] colorKeys = new int[1 << COLOR_CACHE_BITS];
+	private final Color[] colors = new Color[1 << COLOR_CACHE_BITS];
 	
 	/**
-	 * Sets the dimensions for the screen based on the SIZE_X and SIZE_Y
-	 * values, creates a new timer based on the UPDATE_RATE value, and 
-	 * begins the timer.
+	 * Sets the dimensions for the screen to the given size of the World,
+	 * creates a new timer based on the FRAME_RATE value, and begins the
+	 * timer.
+	 * @param snapshots - the exchange snapshots of the World are taken from
+	 * @param metrics - the metrics the time of every paint is recorded in
+	 * @param width - the width of the World in pixels
+	 * @param height - the height of the World in pixels
 	 */
-	public JSENNPanel() {
-		this.setPreferredSize(new Dimension(SIZE_X, SIZE_Y));
+	public JSENNPanel(SnapshotExchange snapshots, SimulationMetrics metrics, int width, int height) {
+		this.snapshots = snapshots;
+		this.metrics = metrics;
+		this.setPreferredSize(new Dimension(width, height));
 		this.setBackground(Color.MAGENTA);  //Magenta stands out,
 											//easy to spot missing texture.
-		timer = new Timer(1000 / UPDATE_RATE, this);
+		Arrays.fill(colorKeys, -1);
+		timer = new Timer(1000 / FRAME_RATE, this);
 		timer.start();
-		
-		//Used for debugging visually
-		//Thread inputThread = new Thread(new InputThread());
-		//inputThread.start();
 	}
 	
 	/**
@@ -187,134 +115,98 @@ public class JSENNPanel extends JPanel implements ActionListener {
 	@Override
 	public void paint(Graphics og) {
 		Graphics2D g = (Graphics2D) og;
-		super.paint(g);
+		long t = metrics.start();
+		RenderSnapshot snapshot = snapshots.take();
+		if (snapshot == null) {
+			super.paint(g);
+			return;
+		}
 		
 		/*
-		 * Drawing all tiles
+		 * Drawing all tiles; the background is only filled where the panel
+		 * extends past the terrain
 		 */
-		for (int i = 0; i < NUM_TILES_X; i++) {
-			for (int j = 0; j < NUM_TILES_Y; j++) {
-				int left = i * TILE_SIZE;
-				int top = j * TILE_SIZE;
-				g.setPaint(tiles[i][j].getTileColor());
-				g.fillRect(left, top, TILE_SIZE, TILE_SIZE);
-			}
+		int tileSize = World.getTileSize();
+		int terrainWidth = snapshot.getTilesWidth() * tileSize, terrainHeight = snapshot.getTilesHeight() * tileSize;
+		g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_NEAREST_NEIGHBOR);
+		g.drawImage(getTerrain(snapshot), 0, 0, terrainWidth, terrainHeight, null);
+		
+		g.setPaint(getBackground());
+		if (getWidth() > terrainWidth) {
+			g.fillRect(terrainWidth, 0, getWidth() - terrainWidth, getHeight());
+		}
+		if (getHeight() > terrainHeight) {
+			g.fillRect(0, terrainHeight, terrainWidth, getHeight() - terrainHeight);
 		}
 		
 		/*
 		 * Drawing all creatures
 		 */
-		for (Creature c : creatures) {
+		int[] creatureX = snapshot.getCreatureX(), creatureY = snapshot.getCreatureY();
+		int[] creatureSize = snapshot.getCreatureSize(), creatureRGB = snapshot.getCreatureRGB();
+		int[] creatureVisionX = snapshot.getVisionX(), creatureVisionY = snapshot.getVisionY();
+		g.setStroke(STROKE);
+		for (int i = 0; i < snapshot.getNumCreatures(); i++) {
 			/*
 			 * Drawing Creature bodies
 			 */
-			g.setPaint(c.getCreatureColor());
-			int size = (int) c.getSize();
-			int x = (int) c.getX();
-			int y = (int) c.getY();
+			g.setPaint(getColor(creatureRGB[i]));
+			int size = creatureSize[i];
+			int x = creatureX[i];
+			int y = creatureY[i];
 			g.fillOval(x - size, y - size, size * 2, size * 2);
-			g.setPaint(new Color(0,0,0));
-			g.setStroke(new BasicStroke(2));
+			g.setPaint(Color.BLACK);
 			g.drawOval(x - size - 1, y - size - 1, size * 2 + 2, size * 2 + 2);
 			
 			/*
 			 * Drawing Creature vision
 			 */
-			g.setPaint(Color.BLACK);
-			g.setStroke(new BasicStroke(2));
-			int visionX = (int) c.getVisionXGraphics();
-			int visionY = (int) c.getVisionYGraphics();
+			int visionX = creatureVisionX[i];
+			int visionY = creatureVisionY[i];
 			g.drawLine(x, y, visionX, visionY);
 			g.fillOval(visionX - 2, visionY - 2, 4, 4);
 		}
+		metrics.lap(SimulationMetrics.Phase.PAINT, t);
 	}
 	
-	/**
-	 * Updating all elements and graphics
+	/*
+	 * Returns the terrain image of the given snapshot, which shares the
+	 * snapshot's array of Tile colors, so nothing is copied when a new
+	 * snapshot is drawn.
 	 */
-	@Override
-	public void actionPerformed(ActionEvent e) {
-		
-		time++;
-		
-		if (!isPaused) {
-			/*
-			 * Updating all creatures, and removing some if necessary, or adding
-			 * new ones
-			 */
-			int numCreatures = creatures.size();
-			for (int i = 0; i < numCreatures; i++) {
-				if (!creatures.get(i).update()) { //creature must be removed
-					
-					// Adding Creature energy back to soil
-					int x = (int) creatures.get(i).getX();
-					int y = (int) creatures.get(i).getY();
-					int energy = creatures.get(i).getEnergy() / 10;
-					tiles[x / TILE_SIZE][y / TILE_SIZE].addNutrition(energy);
-					int health = creatures.get(i).getHealth();
-					tiles[x / TILE_SIZE][y / TILE_SIZE].addNutrition(health);
-					
-					creatures.remove(i--);
-					numCreatures--;
-				} else {
-					if (creatures.get(i).shouldReproduce()) {
-						creatures.add(creatures.get(i++).reproduce());
-						numCreatures++;
-					}
-				}
-			}
-			
-			/*
-			 * Updating all Tiles
-			 */
-			for (int i = 0; i < NUM_TILES_X; i++) {
-				for (int j = 0; j < NUM_TILES_Y; j++) {
-					tiles[i][j].update();
-					if (CHANGING_NUTRITION && tiles[i][j].isSoil()) {
-						tiles[i][j].addNutrition(TOTAL_CHANGE_AMOUNT * 
-								CHANGE_RATE_MODIFIER * Math.cos(time * CHANGE_RATE_MODIFIER));
-					}
-				}
-			}
-			
-			/*
-			 * Updating tiles for moving terrain
-			 */
-			if (CHANGING_TERRAIN && time % TIME_BETWEEN_CHANGES == 0) {
-				for (int i = 1; i < NUM_TILES_X - 1; i++) {
-					for (int j = 2; j < NUM_TILES_Y - 1; j++) {
-						tiles[i][j-1] = tiles[i][j];
-					}
-				}
-				for (int i = 1; i < NUM_TILES_X - 1; i++) {
-					float noiseValue = OpenSimplex2S.noise2(SEED, 0.01 + SCALING_FACTOR * (i - 1), (NUM_TILES_Y - 2 + numMovements) * SCALING_FACTOR + 0.01);
-					tiles[i][NUM_TILES_Y - 2] = new Tile(noiseValue + 0.5);
-				}
-				numMovements++;
-			}
-			
-			while (creatures.size() < MIN_NUM_CREATURES) {
-				creatures.add(new Creature());
-			}
+	private BufferedImage getTerrain(RenderSnapshot snapshot) {
+		int index = snapshot.getIndex();
+		if (terrains[index] == null) {
+			int width = snapshot.getTilesWidth(), height = snapshot.getTilesHeight();
+			int[] tileRGB = snapshot.getTileRGB();
+			WritableRaster raster = Raster.createPackedRaster(new DataBufferInt(tileRGB, tileRGB.length), 
+					width, height, width, RGB_MODEL.getMasks(), null);
+			terrains[index] = new BufferedImage(RGB_MODEL, raster, false, null);
 		}
 		
-		
-		repaint();
-	}
-	
-	public static double getTileEnergyRate(double x, double y) {
-		return tiles[(int) x / TILE_SIZE][(int) y / TILE_SIZE].getTileEnergyRate();
+		return terrains[index];
 	}
 	
-	public static double eat(double x, double y) {
-		return tiles[(int) x / TILE_SIZE][(int) y / TILE_SIZE].eat();
-	}
-	
-	public static Color getTileColor(double x, double y) {
-		return tiles[(int) x / TILE_SIZE][(int) y / TILE_SIZE].getTileColor();
+	/*
+	 * Returns the Color of the given packed RGB value from the color cache,
+	 * creating it only if its entry holds a different color.
+	 */
+	private Color getColor(int rgb) {
+		rgb &= 0xFFFFFF;
+		int index = (rgb * 0x9E3779B1) >>> (32 - COLOR_CACHE_BITS);
+		if (colorKeys[index] != rgb) {
+			colorKeys[index] = rgb;
+			colors[index] = new Color(rgb);
+		}
+		
+		return colors[index];
 	}
 	
-	public static void togglePause() { 
-		isPaused = !isPaused;
+	/**
+	 * Repainting the panel from the latest snapshot
+	 */
+	@Override
+	public void actionPerformed(ActionEvent e) {
+		repaint();
 	}
 }
@@ -0,0 +1,359 @@
+package journal;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * The EventJournal appends JournalRecords to a directory of memory-mapped
+ * segment files, for analysing lineages after a run. Records are written in
+ * two steps: the simulation thread fills them into an in-memory ring with
+ * claim() and commit(), which never lock or wait, and a background thread
+ * copies committed records into the current segment, starting a new
+ * segment whenever one is full. If the ring is full because the disk has
+ * fallen behind, new records are dropped and counted rather than making the
+ * simulation wait.
+ * 
+ * Only one thread may claim and commit records.
+ * 
+ * Each segment is a file named journal-NNNNNN.log of segmentSize bytes,
+ * little-endian: MAGIC (8 bytes), VERSION (4), RECORD_SIZE (4), the number
+ * of the segment's first record in the journal (8), the number of records
+ * in the segment (8), padding up to RECORD_SIZE, then the records. The
+ * record count is only raised after the records it covers are written, so a
+ * journal can be read while it is still being written. A journal opened on a
+ * directory which already holds segments appends to the one with the
+ * highest number, even if earlier segments have been removed.
+ * 
+ * If the writer thread fails, getError() returns the failure from then on,
+ * the records still committed are dropped once the ring fills, and close()
+ * throws it.
+ * 
+ * Copyright (C) 2022 Andrew Cupps, CC BY 4.0
+ * 
+ * @author Andrew Cupps
+ * @version 16 Oct 2026
+ */
+public class EventJournal implements AutoCloseable {
+	
+	/**
+	 * "JSENNLOG" in ASCII, and the version of the format written
+	 */
+	static final long MAGIC = 0x4A53454E4E4C4F47L;
+	static final int VERSION = 1;
+	
+	/*
+	 * Offsets of the header fields of a segment; the header takes the space
+	 * of one record
+	 */
+	static final int FIRST_RECORD = 16, RECORD_COUNT = 24, HEADER_SIZE = JournalRecord.RECORD_SIZE;
+	
+	/**
+	 * Default number of records the ring holds, and default size of a
+	 * segment in bytes.
+	 */
+	public static final int DEFAULT_RING_CAPACITY = 1 << 16;
+	public static final int DEFAULT_SEGMENT_SIZE = 64 << 20;
+	
+	/*
+	 * How long the writer thread sleeps when there is nothing to write
+	 */
+	private static final long IDLE_NANOS = 1000000L;
+	
+	/*
+	 * The ring of records waiting to be written, the number of records it
+	 * holds, and the view used to fill it
+	 */
+	private final ByteBuffer ring;
+	private final int ringCapacity;
+	private final JournalRecord claimed = new JournalRecord();
+	
+	/*
+	 * The number of records committed and the number copied into segments;
+	 * each counter is only raised by one thread, and published with release
+	 * semantics so that the records it covers are visible to the other
+	 */
+	private final AtomicLong committed = new AtomicLong(), copied = new AtomicLong();
+	
+	/*
+	 * The simulation thread's own copy of committed, its last reading of
+	 * copied, whether a record has been claimed and not committed, and the
+	 * number of records dropped
+	 */
+	private long head = 0, cachedTail = 0;
+	private boolean isClaimed = false;
+	private volatile long dropped = 0;
+	
+	/*
+	 * The directory of segments, the size of each segment, and the segment
+	 * currently written, its number, the number of its first record, and
+	 * the number of records in it; only used by the writer thread after
+	 * construction
+	 */
+	private final Path directory;
+	private final int segmentSize;
+	private MappedByteBuffer segment;
+	private int segmentNumber;
+	private long segmentFirstRecord;
+	private int segmentCount;
+	
+	/*
+	 * The thread copying records into segments, whether it should stop once
+	 * the ring is empty, and the first error it ran into
+	 */
+	private final Thread writer;
+	private volatile boolean closing = false;
+	private volatile IOException error = null;
+	
+	/**
+	 * Opens a journal in the given directory with the default ring capacity
+	 * and segment size, creating the directory if needed.
+	 * @param directory - the directory of segments
+	 * @throws IOException if the directory or a segment could not be opened
+	 */
+	public EventJournal(Path directory) throws IOException {
+		this(directory, DEFAULT_RING_CAPACITY, DEFAULT_SEGMENT_SIZE);
+	}
+	
+	/**
+	 * Opens a journal in the given directory, creating the directory if
+	 * needed, and starts its writer thread.
+	 * @param directory - the directory of segments
+	 * @param ringCapacity - the number of records the ring holds; a power of two
+	 * @param segmentSize - the size of each segment in bytes; a multiple of
+	 * RECORD_SIZE holding at least one record
+	 * @throws IOException if the directory or a segment could not be opened
+	 * @throws IllegalArgumentException if ringCapacity or segmentSize is invalid
+	 */
+	public EventJournal(Path directory, int ringCapacity, int segmentSize) throws IOException {
+		if (ringCapacity < 1 || Integer.bitCount(ringCapacity) != 1
+				|| ringCapacity > Integer.MAX_VALUE / JournalRecord.RECORD_SIZE) {
+			throw new IllegalArgumentException("Ring capacity must be a power of two.");
+		}
+		if (segmentSize % JournalRecord.RECORD_SIZE != 0 || segmentSize < HEADER_SIZE + JournalRecord.RECORD_SIZE) {
+			throw new IllegalArgumentException("Segment size must be a multiple of " + JournalRecord.RECORD_SIZE
+					+ " holding at least one record.");
+		}
+		
+		this.directory = directory;
+		this.segmentSize = segmentSize;
+		this.ringCapacity = ringCapacity;
+		ring = ByteBuffer.allocateDirect(ringCapacity * JournalRecord.RECORD_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+		
+		Files.createDirectories(directory);
+		List<Path> segments = segmentsOf(directory);
+		if (segments.isEmpty()) {
+			openSegment(0, 0);
+		} else {
+			Path last = segments.get(segments.size() - 1);
+			reopenSegment(last, segmentNumber(last));
+		}
+		
+		writer = new Thread(this::writeRecords, "JSENN journal writer");
+		writer.setDaemon(true);
+		writer.start();
+	}
+	
+	/**
+	 * Claims the next record of the ring, with every field set to zero, or
+	 * returns null and counts the record as dropped if the ring is full. The
+	 * record is only written once commit() is called.
+	 * @return a view of the claimed record, or null
+	 * @throws IllegalStateException if a record is already claimed
+	 */
+	public JournalRecord claim() {
+		if (isClaimed) {
+			throw new IllegalStateException("A journal record is already claimed.");
+		}
+		if (head - cachedTail >= ringCapacity) {
+			cachedTail = copied.get();
+			if (head - cachedTail >= ringCapacity) {
+				dropped++;
+				return null;
+			}
+		}
+		
+		isClaimed = true;
+		claimed.wrap(ring, (int) (head & (ringCapacity - 1)) * JournalRecord.RECORD_SIZE).clear();
+		return claimed;
+	}
+	
+	/**
+	 * Commits the record returned by claim(), so that it is written.
+	 * @throws IllegalStateException if no record is claimed
+	 */
+	public void commit() {
+		if (!isClaimed) {
+			throw new IllegalStateException("No journal record is claimed.");
+		}
+		
+		isClaimed = false;
+		committed.lazySet(++head);
+	}
+	
+	/**
+	 * Waits for every committed record to be written, then stops the writer
+	 * thread and flushes the last segment to the device.
+	 * @throws IOException if any record could not be written
+	 */
+	@Override
+	public void close() throws IOException {
+		closing = true;
+		LockSupport.unpark(writer);
+		try {
+			writer.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while closing the journal.", e);
+		}
+		
+		if (error != null) {
+			throw error;
+		}
+		segment.force();
+	}
+	
+	/**
+	 * @return the number of records committed
+	 */
+	public long getCommitted() { return committed.get(); }
+	
+	/**
+	 * @return the number of records written to segments
+	 */
+	public long getWritten() { return copied.get(); }
+	
+	/**
+	 * @return the number of records dropped because the ring was full
+	 */
+	public long getDropped() { return dropped; }
+	
+	/**
+	 * @return the error which stopped the writer thread, or null if it is
+	 * still writing
+	 */
+	public IOException getError() { return error; }
+	
+	/**
+	 * Returns the segment files of a journal directory in order.
+	 * @param directory - the directory of segments
+	 * @return the paths of the segments
+	 * @throws IOException if the directory could not be listed
+	 */
+	static List<Path> segmentsOf(Path directory) throws IOException {
+		try (var paths = Files.list(directory)) {
+			return paths.filter(p -> p.getFileName().toString().matches("journal-\\d{6}\\.log")).sorted().toList();
+		}
+	}
+	
+	/*
+	 * Returns the number NNNNNN in the name of a segment file.
+	 */
+	static int segmentNumber(Path segment) {
+		return Integer.parseInt(segment.getFileName().toString().substring(8, 14));
+	}
+	
+	/*
+	 * Copies committed records from the ring into segments until the journal
+	 * is closed and every record has been written; runs on the writer thread.
+	 */
+	private void writeRecords() {
+		long tail = copied.get();
+		while (true) {
+			boolean last = closing;
+			long available = committed.get();
+			if (available == tail) {
+				if (last) {
+					return;
+				}
+				LockSupport.parkNanos(IDLE_NANOS);
+				continue;
+			}
+			
+			try {
+				while (tail < available) {
+					if (segmentCount == (segmentSize - HEADER_SIZE) / JournalRecord.RECORD_SIZE) {
+						segment.force();
+						openSegment(segmentNumber + 1, segmentFirstRecord + segmentCount);
+					}
+					
+					int index = (int) (tail & (ringCapacity - 1));
+					int n = (int) Math.min(available - tail, Math.min(ringCapacity - index,
+							(segmentSize - HEADER_SIZE) / JournalRecord.RECORD_SIZE - segmentCount));
+					segment.put(HEADER_SIZE + segmentCount * JournalRecord.RECORD_SIZE, ring,
+							index * JournalRecord.RECORD_SIZE, n * JournalRecord.RECORD_SIZE);
+					segmentCount += n;
+					segment.putLong(RECORD_COUNT, segmentCount);
+					tail += n;
+					copied.lazySet(tail);
+				}
+			} catch (IOException e) {
+				error = e;
+				return;
+			}
+		}
+	}
+	
+	/*
+	 * Creates and maps a new segment with the given number, starting at the
+	 * given record.
+	 */
+	private void openSegment(int number, long firstRecord) throws IOException {
+		Path path = directory.resolve(String.format("journal-%06d.log", number));
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW,
+				StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+			segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+		}
+		segment.order(ByteOrder.LITTLE_ENDIAN);
+		segment.putLong(0, MAGIC).putInt(8, VERSION).putInt(12, JournalRecord.RECORD_SIZE);
+		segment.putLong(FIRST_RECORD, firstRecord).putLong(RECORD_COUNT, 0);
+		
+		segmentNumber = number;
+		segmentFirstRecord = firstRecord;
+		segmentCount = 0;
+	}
+	
+	/*
+	 * Maps the existing last segment of a journal to append to it.
+	 */
+	private void reopenSegment(Path path, int number) throws IOException {
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+			if (channel.size() != segmentSize) {
+				throw new IOException(path + " has a different segment size.");
+			}
+			segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+		}
+		segment.order(ByteOrder.LITTLE_ENDIAN);
+		checkHeader(segment, path);
+		
+		segmentNumber = number;
+		segmentFirstRecord = segment.getLong(FIRST_RECORD);
+		segmentCount = (int) segment.getLong(RECORD_COUNT);
+	}
+	
+	/*
+	 * Checks that a mapped segment has the header of a journal segment of
+	 * this version.
+	 */
+	static void checkHeader(ByteBuffer segment, Path path) throws IOException {
+		if (segment.limit() < HEADER_SIZE || segment.getLong(0) != MAGIC) {
+			throw new IOException(path + " is not a JSENN journal segment.");
+		}
+		if (segment.getInt(8) != VERSION || segment.getInt(12) != JournalRecord.RECORD_SIZE) {
+			throw new IOException("Unsupported journal version " + segment.getInt(8) + " in " + path + ".");
+		}
+		
+		long count = segment.getLong(RECORD_COUNT);
+		if (count < 0 || HEADER_SIZE + count * JournalRecord.RECORD_SIZE > segment.limit()) {
+			throw new IOException(path + " is corrupt.");
+		}
+	}
+}
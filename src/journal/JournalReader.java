@@ -0,0 +1,199 @@
+package journal;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * The JournalReader streams the records of an event journal written by an
+ * EventJournal, in the order they were written. Each segment is mapped and
+ * scanned sequentially with a single JournalRecord view, so filtering a
+ * journal creates no objects per record and runs as fast as the segments
+ * can be read from disk. A journal may be read while it is being written;
+ * only the records written so far are seen.
+ * 
+ * Its main method prints the records matching the given filters as comma-
+ * separated values, and how many records it scanned to standard error.
+ * Filters are given as pairs of arguments:
+ * --type T     only records of type spawn, birth or death
+ * --cause C    only deaths of cause energy, health or killed
+ * --id I       only records of the Creature with id I
+ * --parent P   only records of children of the Creature with id P
+ * --lineage L  only records of Creatures descending from spawn L
+ * --from F     only records from tick F on
+ * --to T       only records before tick T
+ * --count yes  only count the matching records
+ * 
+ * Copyright (C) 2022 Andrew Cupps, CC BY 4.0
+ * 
+ * @author Andrew Cupps
+ * @version 16 Oct 2026
+ */
+public class JournalReader {
+	
+	/*
+	 * The directory of segments read
+	 */
+	private final Path directory;
+	
+	/*
+	 * The number of records and bytes scanned by the last call to read()
+	 */
+	private long scannedRecords, scannedBytes;
+	
+	/**
+	 * Creates a JournalReader for the journal in the given directory.
+	 * @param directory - the directory of segments
+	 */
+	public JournalReader(Path directory) {
+		this.directory = directory;
+	}
+	
+	/**
+	 * Scans every record of the journal in order and passes those matching
+	 * filter to action. The record passed is a view which is moved on to the
+	 * next record afterwards, so it must not be kept.
+	 * @param filter - which records to pass on
+	 * @param action - what to do with each matching record
+	 * @return the number of matching records
+	 * @throws IOException if a segment could not be read or is corrupt
+	 */
+	public long read(Predicate<JournalRecord> filter, Consumer<JournalRecord> action) throws IOException {
+		scannedRecords = 0;
+		scannedBytes = 0;
+		long matched = 0;
+		JournalRecord record = new JournalRecord();
+		
+		List<Path> segments = EventJournal.segmentsOf(directory);
+		for (Path path : segments) {
+			MappedByteBuffer segment;
+			try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+				segment = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			}
+			segment.order(ByteOrder.LITTLE_ENDIAN);
+			EventJournal.checkHeader(segment, path);
+			
+			int count = (int) segment.getLong(EventJournal.RECORD_COUNT);
+			int end = EventJournal.HEADER_SIZE + count * JournalRecord.RECORD_SIZE;
+			for (int offset = EventJournal.HEADER_SIZE; offset < end; offset += JournalRecord.RECORD_SIZE) {
+				if (filter.test(record.wrap(segment, offset))) {
+					action.accept(record);
+					matched++;
+				}
+			}
+			scannedRecords += count;
+			scannedBytes += end;
+		}
+		return matched;
+	}
+	
+	/**
+	 * @return the number of records scanned by the last call to read()
+	 */
+	public long getScannedRecords() { return scannedRecords; }
+	
+	/**
+	 * @return the number of bytes of segments scanned by the last call to read()
+	 */
+	public long getScannedBytes() { return scannedBytes; }
+	
+	/**
+	 * Main method which prints the matching records of the journal in the
+	 * directory given as the first argument.
+	 * @param args - the directory, then the filters described above
+	 * @throws IOException if the journal could not be read
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length < 1) {
+			throw new IllegalArgumentException("Usage: JournalReader DIRECTORY [--option value]...");
+		}
+		
+		Filter filter = new Filter();
+		boolean countOnly = false;
+		for (int i = 1; i < args.length; i += 2) {
+			if (i + 1 >= args.length) {
+				throw new IllegalArgumentException("Missing value for option " + args[i] + ".");
+			}
+			
+			String value = args[i + 1];
+			switch (args[i]) {
+			case "--type": filter.type = parseName(value, "type", JournalRecord::typeName,
+					JournalRecord.SPAWN, JournalRecord.BIRTH, JournalRecord.DEATH); break;
+			case "--cause": filter.cause = parseName(value, "cause", JournalRecord::causeName,
+					JournalRecord.ENERGY, JournalRecord.HEALTH, JournalRecord.KILLED); break;
+			case "--id": filter.id = Long.parseLong(value); break;
+			case "--parent": filter.parentId = Long.parseLong(value); break;
+			case "--lineage": filter.lineage = Long.parseLong(value); break;
+			case "--from": filter.from = Long.parseLong(value); break;
+			case "--to": filter.to = Long.parseLong(value); break;
+			case "--count": countOnly = value.equalsIgnoreCase("yes"); break;
+			default: throw new IllegalArgumentException("Unknown option " + args[i] + ".");
+			}
+		}
+		
+		JournalReader reader = new JournalReader(Paths.get(args[0]));
+		PrintWriter out = new PrintWriter(new BufferedWriter(
+				new OutputStreamWriter(System.out, StandardCharsets.UTF_8), 1 << 16));
+		long start = System.nanoTime(), matched;
+		if (countOnly) {
+			matched = reader.read(filter, r -> {});
+		} else {
+			out.println(JournalRecord.CSV_HEADER);
+			matched = reader.read(filter, out::println);
+		}
+		out.flush();
+		
+		double seconds = (System.nanoTime() - start) / 1e9;
+		System.err.printf("%d of %d records matched in %.3f s (%.0f MB/s)%n", matched, reader.getScannedRecords(),
+				seconds, reader.getScannedBytes() / 1e6 / seconds);
+		if (countOnly) {
+			System.out.println(matched);
+		}
+	}
+	
+	/*
+	 * The filters of the main method in a single Predicate, so that scanning
+	 * only ever calls one filter class; a negative type, cause or id, or a
+	 * Long.MIN_VALUE parent or lineage, matches every record.
+	 */
+	private static class Filter implements Predicate<JournalRecord> {
+		
+		byte type = -1, cause = -1;
+		long id = -1, parentId = Long.MIN_VALUE, lineage = Long.MIN_VALUE;
+		long from = Long.MIN_VALUE, to = Long.MAX_VALUE;
+		
+		@Override
+		public boolean test(JournalRecord r) {
+			long tick = r.getTick();
+			return tick >= from && tick < to
+					&& (type < 0 || r.getType() == type) && (cause < 0 || r.getCause() == cause)
+					&& (id < 0 || r.getId() == id) && (parentId == Long.MIN_VALUE || r.getParentId() == parentId)
+					&& (lineage == Long.MIN_VALUE || r.getLineage() == lineage);
+		}
+	}
+	
+	/*
+	 * Returns whichever of the given values has the given name.
+	 */
+	private static byte parseName(String name, String kind, Function<Byte, String> names,
+			byte... values) {
+		for (byte value : values) {
+			if (names.apply(value).equalsIgnoreCase(name)) {
+				return value;
+			}
+		}
+		throw new IllegalArgumentException("Unknown " + kind + " " + name + ".");
+	}
+}
@@ -0,0 +1,164 @@
+package journal;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A JournalRecord is a view of one fixed-size record of an event journal:
+ * the spawn, birth or death of a Creature, with its id, its parent's id and
+ * some of its inherited traits. A view does not hold any data itself; it is
+ * moved over a buffer of records, so records can be written and scanned
+ * without creating an object for each of them.
+ * 
+ * Every record is RECORD_SIZE bytes, little-endian:
+ * tick (8 bytes), id (8), parent id (8), lineage (8), generation (4),
+ * type (1), cause (1), 2 unused bytes, then the size, attack, defense,
+ * genetic variance, maximum linear velocity and maximum angular velocity of
+ * the Creature as floats (4 bytes each).
+ * 
+ * Copyright (C) 2022 Andrew Cupps, CC BY 4.0
+ * 
+ * @author Andrew Cupps
+ * @version 16 Oct 2026
+ */
+public final class JournalRecord {
+	
+	/**
+	 * Size of every record in bytes.
+	 */
+	public static final int RECORD_SIZE = 64;
+	
+	/**
+	 * Types of records: a Creature spawned without a parent, born to a
+	 * parent, or dead.
+	 */
+	public static final byte SPAWN = 0, BIRTH = 1, DEATH = 2;
+	
+	/**
+	 * Causes of death, KILLED meaning while attacked by another Creature;
+	 * records of other types have cause NONE.
+	 */
+	public static final byte NONE = 0, ENERGY = 1, HEALTH = 2, KILLED = 3;
+	
+	/**
+	 * Parent id of spawned Creatures.
+	 */
+	public static final long NO_PARENT = -1;
+	
+	/*
+	 * Offsets of the fields within a record
+	 */
+	private static final int TICK = 0, ID = 8, PARENT_ID = 16, LINEAGE = 24, GENERATION = 32,
+			TYPE = 36, CAUSE = 37, SIZE = 40, ATTACK = 44, DEFENSE = 48, VARIANCE = 52,
+			MAX_LINEAR_VELOCITY = 56, MAX_ANGULAR_VELOCITY = 60;
+	
+	/*
+	 * The buffer viewed, which must be little-endian, and the offset of the
+	 * record in it
+	 */
+	private ByteBuffer buffer;
+	private int offset;
+	
+	/*
+	 * Moves this view to the record at offset in buffer.
+	 */
+	JournalRecord wrap(ByteBuffer buffer, int offset) {
+		this.buffer = buffer;
+		this.offset = offset;
+		return this;
+	}
+	
+	/*
+	 * Sets every byte of the viewed record to zero.
+	 */
+	void clear() {
+		for (int k = 0; k < RECORD_SIZE; k += Long.BYTES) {
+			buffer.putLong(offset + k, 0);
+		}
+	}
+	
+	/**
+	 * Returns the name of the given record type, as used by JournalReader.
+	 * @param type - SPAWN, BIRTH or DEATH
+	 * @return "spawn", "birth", "death", or the number of an unknown type
+	 */
+	public static String typeName(byte type) {
+		switch (type) {
+		case SPAWN: return "spawn";
+		case BIRTH: return "birth";
+		case DEATH: return "death";
+		default: return Byte.toString(type);
+		}
+	}
+	
+	/**
+	 * Returns the name of the given cause of death, as used by JournalReader.
+	 * @param cause - NONE, ENERGY, HEALTH or KILLED
+	 * @return "", "energy", "health", "killed", or the number of an unknown
+	 * cause
+	 */
+	public static String causeName(byte cause) {
+		switch (cause) {
+		case NONE: return "";
+		case ENERGY: return "energy";
+		case HEALTH: return "health";
+		case KILLED: return "killed";
+		default: return Byte.toString(cause);
+		}
+	}
+	
+	public long getTick() { return buffer.getLong(offset + TICK); }
+	public long getId() { return buffer.getLong(offset + ID); }
+	public long getParentId() { return buffer.getLong(offset + PARENT_ID); }
+	public long getLineage() { return buffer.getLong(offset + LINEAGE); }
+	public int getGeneration() { return buffer.getInt(offset + GENERATION); }
+	public byte getType() { return buffer.get(offset + TYPE); }
+	public byte getCause() { return buffer.get(offset + CAUSE); }
+	public float getSize() { return buffer.getFloat(offset + SIZE); }
+	public float getAttack() { return buffer.getFloat(offset + ATTACK); }
+	public float getDefense() { return buffer.getFloat(offset + DEFENSE); }
+	public float getGeneticVariance() { return buffer.getFloat(offset + VARIANCE); }
+	public float getMaxLinearVelocity() { return buffer.getFloat(offset + MAX_LINEAR_VELOCITY); }
+	public float getMaxAngularVelocity() { return buffer.getFloat(offset + MAX_ANGULAR_VELOCITY); }
+	
+	public JournalRecord setTick(long tick) { buffer.putLong(offset + TICK, tick); return this; }
+	public JournalRecord setId(long id) { buffer.putLong(offset + ID, id); return this; }
+	public JournalRecord setParentId(long parentId) { buffer.putLong(offset + PARENT_ID, parentId); return this; }
+	public JournalRecord setLineage(long lineage) { buffer.putLong(offset + LINEAGE, lineage); return this; }
+	public JournalRecord setGeneration(int generation) { buffer.putInt(offset + GENERATION, generation); return this; }
+	public JournalRecord setType(byte type) { buffer.put(offset + TYPE, type); return this; }
+	public JournalRecord setCause(byte cause) { buffer.put(offset + CAUSE, cause); return this; }
+	public JournalRecord setSize(double size) { buffer.putFloat(offset + SIZE, (float) size); return this; }
+	public JournalRecord setAttack(double attack) { buffer.putFloat(offset + ATTACK, (float) attack); return this; }
+	public JournalRecord setDefense(double defense) { buffer.putFloat(offset + DEFENSE, (float) defense); return this; }
+	public JournalRecord setGeneticVariance(double variance) {
+		buffer.putFloat(offset + VARIANCE, (float) variance);
+		return this;
+	}
+	public JournalRecord setMaxLinearVelocity(double velocity) {
+		buffer.putFloat(offset + MAX_LINEAR_VELOCITY, (float) velocity);
+		return this;
+	}
+	public JournalRecord setMaxAngularVelocity(double velocity) {
+		buffer.putFloat(offset + MAX_ANGULAR_VELOCITY, (float) velocity);
+		return this;
+	}
+	
+	/**
+	 * Returns this record as a line of comma-separated values, in the order
+	 * of CSV_HEADER.
+	 * @return the record as CSV
+	 */
+	@Override
+	public String toString() {
+		return getTick() + "," + typeName(getType()) + "," + causeName(getCause()) + "," + getId() + ","
+				+ getParentId() + "," + getLineage() + "," + getGeneration() + "," + getSize() + ","
+				+ getAttack() + "," + getDefense() + "," + getGeneticVariance() + ","
+				+ getMaxLinearVelocity() + "," + getMaxAngularVelocity();
+	}
+	
+	/**
+	 * Header of the comma-separated values returned by toString().
+	 */
+	public static final String CSV_HEADER = "tick,type,cause,id,parent,lineage,generation,size,attack,"
+			+ "defense,geneticVariance,maxLinearVelocity,maxAngularVelocity";
+}
@@ -0,0 +1,283 @@
+package migration;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+import simulation.World;
+
+/**
+ * The Coordinator brings together the IslandNodes of a distributed island
+ * model. It waits for the given number of nodes to say hello, numbers them
+ * in the order they arrived, and tells each its island, the seed of the
+ * first island and the address of every island it sends Migrants to; after
+ * that the nodes exchange Migrants directly. It then prints the summary of
+ * every island as it finishes, and exits once every node has finished or
+ * disconnected. Nodes speaking another version of the frames are turned
+ * away without being given an island.
+ * 
+ * Options are given as pairs of arguments:
+ * --port P       port nodes connect to (default 7878)
+ * --islands N    number of nodes to wait for (default 2)
+ * --seed S       seed of the first island; island i has seed S + i
+ *                (default -Djsenn.seed, or a new seed)
+ * --topology T   ring, where every island sends to the next, or all,
+ *                where every island sends to every other (default ring)
+ * 
+ * Copyright (C) 2022 Andrew Cupps, CC BY 4.0
+ * 
+ * @author Andrew Cupps
+ * @version 16 Oct 2026
+ */
+public class Coordinator {
+	
+	/*
+	 * The number of islands, the seed of the first, and the topology they
+	 * are connected in
+	 */
+	private final int numIslands;
+	private final long seed;
+	private final String topology;
+	
+	/*
+	 * The nodes which have joined in the order they arrived, the host and
+	 * port each accepts Migrants on, the nodes which have finished, and the
+	 * number of islands still running
+	 */
+	private final List<Link> nodes = new ArrayList<>();
+	private final List<String> hosts = new ArrayList<>();
+	private final List<Integer> ports = new ArrayList<>();
+	private final Set<Link> finished = new HashSet<>();
+	private int remaining;
+	
+	/**
+	 * Creates a Coordinator for the given number of islands.
+	 * @param numIslands - the number of nodes to wait for
+	 * @param seed - the seed of the first island
+	 * @param topology - ring or all
+	 * @throws IllegalArgumentException if numIslands is less than one or the
+	 * topology is unknown
+	 */
+	public Coordinator(int numIslands, long seed, String topology) {
+		if (numIslands < 1) {
+			throw new IllegalArgumentException("Number of islands must be at least one.");
+		}
+		if (!topology.equals("ring") && !topology.equals("all")) {
+			throw new IllegalArgumentException("Unknown topology " + topology + "; expected ring or all.");
+		}
+		
+		this.numIslands = numIslands;
+		this.seed = seed;
+		this.topology = topology;
+		remaining = numIslands;
+	}
+	
+	/**
+	 * Main method which coordinates nodes from the given options.
+	 * @param args - the options described above
+	 * @throws IOException if the coordinator's socket failed
+	 */
+	public static void main(String[] args) throws IOException {
+		int port = 7878;
+		int numIslands = 2;
+		long seed = World.defaultSeed();
+		String topology = "ring";
+		
+		for (int i = 0; i < args.length; i += 2) {
+			if (i + 1 >= args.length) {
+				throw new IllegalArgumentException("Missing value for option " + args[i] + ".");
+			}
+			
+			String value = args[i + 1];
+			switch (args[i]) {
+			case "--port": port = Integer.parseInt(value); break;
+			case "--islands": numIslands = Integer.parseInt(value); break;
+			case "--seed": seed = Long.parseLong(value); break;
+			case "--topology": topology = value; break;
+			default: throw new IllegalArgumentException("Unknown option " + args[i] + ".");
+			}
+		}
+		
+		Coordinator coordinator = new Coordinator(numIslands, seed, topology);
+		try (ServerSocketChannel server = ServerSocketChannel.open()) {
+			server.bind(new InetSocketAddress(port));
+			System.out.println("Waiting for " + numIslands + " islands on port " + port + " with seed " + seed);
+			coordinator.run(server);
+		}
+	}
+	
+	/**
+	 * Accepts nodes on server and answers them until every island has
+	 * finished or disconnected, then closes every connection to a node.
+	 * @param server - the bound channel nodes connect to
+	 * @throws IOException if the server failed, or an island left before
+	 * every island had joined
+	 */
+	public void run(ServerSocketChannel server) throws IOException {
+		try (Selector selector = Selector.open()) {
+			server.configureBlocking(false);
+			server.register(selector, SelectionKey.OP_ACCEPT);
+			try {
+				while (remaining > 0) {
+					selector.select();
+					Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+					while (keys.hasNext()) {
+						SelectionKey key = keys.next();
+						keys.remove();
+						
+						if (key.isValid() && key.isAcceptable()) {
+							accept(server, selector);
+						} else if (key.isValid() && key.isReadable()) {
+							read(key);
+						}
+					}
+				}
+			} finally {
+				for (SelectionKey key : selector.keys()) {
+					if (key.attachment() instanceof Link) {
+						((Link) key.attachment()).close();
+					}
+				}
+			}
+			System.out.println("Every island has finished");
+		}
+	}
+	
+	/*
+	 * Accepts a connection from a node, or closes it if every island has
+	 * already joined.
+	 */
+	private void accept(ServerSocketChannel server, Selector selector) throws IOException {
+		SocketChannel channel = server.accept();
+		if (channel != null && nodes.size() < numIslands) {
+			channel.register(selector, SelectionKey.OP_READ, new Link(channel, -1));
+		} else if (channel != null) {
+			channel.close();
+		}
+	}
+	
+	/*
+	 * Reads from a node and handles every complete frame; the connection is
+	 * closed once the node disconnects, sends something invalid or is
+	 * turned away.
+	 */
+	private void read(SelectionKey key) throws IOException {
+		Link link = (Link) key.attachment();
+		boolean open;
+		try {
+			open = link.read();
+			ByteBuffer frame;
+			while ((frame = link.nextFrame()) != null) {
+				byte type = frame.get();
+				if (type == FrameCodec.HELLO && !nodes.contains(link)) {
+					if (!handleHello(link, frame)) {
+						open = false;
+						break;
+					}
+				} else if (type == FrameCodec.DONE) {
+					handleDone(link, frame);
+				}
+			}
+		} catch (IOException e) {
+			open = false;
+		}
+		
+		if (!open) {
+			key.cancel();
+			link.close();
+			handleDisconnect(link);
+		}
+	}
+	
+	/*
+	 * Adds the node which sent a HELLO frame as the next island, and assigns
+	 * every island once all have joined; returns false if the node speaks
+	 * another protocol version and is turned away.
+	 */
+	private boolean handleHello(Link link, ByteBuffer frame) throws IOException {
+		int version = frame.getInt();
+		if (version != FrameCodec.PROTOCOL_VERSION) {
+			System.out.println("Rejected a node from " + link.getChannel().getRemoteAddress()
+					+ " speaking protocol version " + version + " instead of " + FrameCodec.PROTOCOL_VERSION);
+			return false;
+		}
+		
+		nodes.add(link);
+		hosts.add(((InetSocketAddress) link.getChannel().getRemoteAddress()).getAddress().getHostAddress());
+		ports.add(frame.getInt());
+		System.out.println("Island " + (nodes.size() - 1) + " joined from " + link.getChannel().getRemoteAddress());
+		if (nodes.size() == numIslands) {
+			assign();
+		}
+		return true;
+	}
+	
+	/*
+	 * Prints the summary in the DONE frame of a node, the first time the
+	 * node reports.
+	 */
+	private void handleDone(Link link, ByteBuffer frame) {
+		if (nodes.contains(link) && finished.add(link)) {
+			System.out.println(FrameCodec.readDone(frame));
+			remaining--;
+		}
+	}
+	
+	/*
+	 * Counts a node which disconnected before reporting as finished, unless
+	 * it left before every island had joined, which ends the run.
+	 */
+	private void handleDisconnect(Link link) throws IOException {
+		if (nodes.contains(link) && !finished.contains(link)) {
+			System.out.println("Island " + nodes.indexOf(link) + " disconnected");
+			if (nodes.size() == numIslands) {
+				remaining--;
+			} else {
+				throw new IOException("An island left before every island had joined.");
+			}
+		}
+	}
+	
+	/*
+	 * Sends every node its Assignment.
+	 */
+	private void assign() throws IOException {
+		for (int i = 0; i < numIslands; i++) {
+			List<Integer> destinations = new ArrayList<>();
+			if (topology.equals("ring") && numIslands > 1) {
+				destinations.add((i + 1) % numIslands);
+			} else if (topology.equals("all")) {
+				for (int j = 0; j < numIslands; j++) {
+					if (j != i) {
+						destinations.add(j);
+					}
+				}
+			}
+			
+			int[] islands = new int[destinations.size()], islandPorts = new int[destinations.size()];
+			String[] islandHosts = new String[destinations.size()];
+			for (int d = 0; d < destinations.size(); d++) {
+				islands[d] = destinations.get(d);
+				islandHosts[d] = hosts.get(islands[d]);
+				islandPorts[d] = ports.get(islands[d]);
+			}
+			
+			Link node = nodes.get(i);
+			FrameCodec.writeAssign(node.out(), new FrameCodec.Assignment(i, numIslands, seed, islands,
+					islandHosts, islandPorts));
+			while (!node.flush()) {
+				Thread.onSpinWait();
+			}
+		}
+		System.out.println("Every island has joined; assigned a " + topology + " topology");
+	}
+}
@@ -0,0 +1,282 @@
+package migration;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import creatures.Migrant;
+import neural.Network;
+
+/**
+ * The FrameCodec writes and reads the binary frames JSENN processes exchange
+ * when running distributed islands. Every frame starts with its length in
+ * bytes, not counting the length itself, as an int, followed by its type as
+ * a byte; all values are big-endian.
+ * 
+ * HELLO    (node to coordinator) PROTOCOL_VERSION (int), port the node
+ *          accepts Migrants on (int)
+ * ASSIGN   (coordinator to node) island number (int), number of islands
+ *          (int), seed (long), number of destinations (int), then for each
+ *          destination its island (int), host (short length and UTF-8
+ *          bytes) and port (int)
+ * MIGRANT  (node to node) source island (int), generation (int), number of
+ *          traits (byte), traits (floats), number of layers (byte), layer
+ *          sizes (shorts), network parameters (floats)
+ * DONE     (node to coordinator) island (int), tick (long), population
+ *          (int), Migrants received (long), sent (long) and dropped (long)
+ * 
+ * Traits and network parameters are sent as floats to keep Migrants small,
+ * so they arrive rounded to float precision. The coordinator only admits
+ * nodes speaking its own PROTOCOL_VERSION, which is raised whenever a frame
+ * or the network of Creatures changes, so every island of a run exchanges
+ * the same frames; a malformed MIGRANT frame is still rejected when read.
+ * 
+ * Copyright (C) 2022 Andrew Cupps, CC BY 4.0
+ * 
+ * @author Andrew Cupps
+ * @version 16 Oct 2026
+ */
+public final class FrameCodec {
+	
+	/**
+	 * Types of frames.
+	 */
+	public static final byte HELLO = 1, ASSIGN = 2, MIGRANT = 3, DONE = 4;
+	
+	/**
+	 * Version of the frames, sent in every HELLO.
+	 */
+	public static final int PROTOCOL_VERSION = 2;
+	
+	/**
+	 * Size of the length and type at the start of every frame, and the
+	 * largest length accepted.
+	 */
+	public static final int HEADER_SIZE = Integer.BYTES + 1;
+	public static final int MAX_FRAME_SIZE = 1 << 20;
+	
+	private FrameCodec() {}
+	
+	/**
+	 * Returns the size in bytes of the MIGRANT frame of migrant, header
+	 * included.
+	 * @param migrant - the Migrant to be sent
+	 * @return the size of its frame
+	 */
+	public static int migrantSize(Migrant migrant) {
+		Network network = migrant.getNetwork();
+		return HEADER_SIZE + 2 * Integer.BYTES + 1 + Migrant.TRAIT_NAMES.length * Float.BYTES + 1
+				+ network.getNumLayers() * Short.BYTES
+				+ Network.getNumParameters(network.getLayerSizes()) * Float.BYTES;
+	}
+	
+	/**
+	 * Writes the MIGRANT frame of migrant sent from the given island.
+	 * @param buffer - the buffer written, with at least migrantSize(migrant)
+	 * bytes remaining
+	 * @param source - the island migrant was sent from
+	 * @param migrant - the Migrant to be sent
+	 */
+	public static void writeMigrant(ByteBuffer buffer, int source, Migrant migrant) {
+		int start = beginFrame(buffer, MIGRANT);
+		buffer.putInt(source);
+		buffer.putInt(migrant.getGeneration());
+		
+		buffer.put((byte) Migrant.TRAIT_NAMES.length);
+		for (int t = 0; t < Migrant.TRAIT_NAMES.length; t++) {
+			buffer.putFloat((float) migrant.getTrait(t));
+		}
+		
+		int[] layerSizes = migrant.getNetwork().getLayerSizes();
+		buffer.put((byte) layerSizes.length);
+		for (int size : layerSizes) {
+			buffer.putShort((short) size);
+		}
+		for (double parameter : migrant.getNetwork().getParameters()) {
+			buffer.putFloat((float) parameter);
+		}
+		endFrame(buffer, start);
+	}
+	
+	/**
+	 * Reads the body of a MIGRANT frame, after its header.
+	 * @param frame - the frame, positioned after its type
+	 * @return the Migrant
+	 * @throws IllegalArgumentException if the frame is malformed
+	 */
+	public static Migrant readMigrant(ByteBuffer frame) {
+		frame.getInt(); // source island
+		int generation = frame.getInt();
+		
+		int numTraits = frame.get();
+		if (numTraits != Migrant.TRAIT_NAMES.length) {
+			throw new IllegalArgumentException("Migrant has " + numTraits + " traits instead of "
+					+ Migrant.TRAIT_NAMES.length + ".");
+		}
+		double[] traits = new double[numTraits];
+		for (int t = 0; t < numTraits; t++) {
+			traits[t] = frame.getFloat();
+		}
+		
+		int numLayers = frame.get();
+		if (numLayers < 2 || numLayers * Short.BYTES > frame.remaining()) {
+			throw new IllegalArgumentException("Migrant has an invalid number of layers " + numLayers + ".");
+		}
+		
+		/*
+		 * Counting the parameters the way Network.getNumParameters() does,
+		 * but in a long, since layer sizes read from the frame are not yet
+		 * known to be small enough for an int
+		 */
+		int[] layerSizes = new int[numLayers];
+		long numParameters = 0;
+		for (int l = 0; l < numLayers; l++) {
+			layerSizes[l] = frame.getShort();
+			if (layerSizes[l] < 1) {
+				throw new IllegalArgumentException("Migrant has an invalid layer size " + layerSizes[l] + ".");
+			}
+			numParameters += layerSizes[l];
+			if (l > 0) {
+				numParameters += 3L * layerSizes[l - 1] * layerSizes[l];
+			}
+		}
+		if (frame.remaining() != numParameters * Float.BYTES) {
+			throw new IllegalArgumentException("Migrant network does not match its layer sizes.");
+		}
+		double[] parameters = new double[(int) numParameters];
+		for (int p = 0; p < numParameters; p++) {
+			parameters[p] = frame.getFloat();
+		}
+		
+		return new Migrant(traits, generation, new Network(layerSizes, parameters));
+	}
+	
+	/**
+	 * Writes a HELLO frame.
+	 * @param buffer - the buffer written
+	 * @param port - the port the node accepts Migrants on
+	 */
+	public static void writeHello(ByteBuffer buffer, int port) {
+		int start = beginFrame(buffer, HELLO);
+		buffer.putInt(PROTOCOL_VERSION);
+		buffer.putInt(port);
+		endFrame(buffer, start);
+	}
+	
+	/**
+	 * Writes an ASSIGN frame.
+	 * @param buffer - the buffer written
+	 * @param assignment - the Assignment to be sent
+	 */
+	public static void writeAssign(ByteBuffer buffer, Assignment assignment) {
+		int start = beginFrame(buffer, ASSIGN);
+		buffer.putInt(assignment.island);
+		buffer.putInt(assignment.numIslands);
+		buffer.putLong(assignment.seed);
+		buffer.putInt(assignment.destinations.length);
+		for (int d = 0; d < assignment.destinations.length; d++) {
+			byte[] host = assignment.hosts[d].getBytes(StandardCharsets.UTF_8);
+			buffer.putInt(assignment.destinations[d]);
+			buffer.putShort((short) host.length);
+			buffer.put(host);
+			buffer.putInt(assignment.ports[d]);
+		}
+		endFrame(buffer, start);
+	}
+	
+	/**
+	 * Reads the body of an ASSIGN frame, after its header.
+	 * @param frame - the frame, positioned after its type
+	 * @return the Assignment
+	 */
+	public static Assignment readAssign(ByteBuffer frame) {
+		int island = frame.getInt(), numIslands = frame.getInt();
+		long seed = frame.getLong();
+		int numDestinations = frame.getInt();
+		if (numDestinations < 0 || numDestinations > numIslands) {
+			throw new IllegalArgumentException("Invalid number of destinations " + numDestinations + ".");
+		}
+		
+		int[] destinations = new int[numDestinations], ports = new int[numDestinations];
+		String[] hosts = new String[numDestinations];
+		for (int d = 0; d < numDestinations; d++) {
+			destinations[d] = frame.getInt();
+			byte[] host = new byte[frame.getShort()];
+			frame.get(host);
+			hosts[d] = new String(host, StandardCharsets.UTF_8);
+			ports[d] = frame.getInt();
+		}
+		return new Assignment(island, numIslands, seed, destinations, hosts, ports);
+	}
+	
+	/**
+	 * Writes a DONE frame.
+	 * @param buffer - the buffer written
+	 * @param island - the island which finished
+	 * @param tick - the tick it finished at
+	 * @param population - its final number of Creatures
+	 * @param immigrants - the number of Migrants it received
+	 * @param emigrants - the number of Migrants it sent
+	 * @param dropped - the number of Migrants it dropped
+	 */
+	public static void writeDone(ByteBuffer buffer, int island, long tick, int population, long immigrants,
+			long emigrants, long dropped) {
+		int start = beginFrame(buffer, DONE);
+		buffer.putInt(island);
+		buffer.putLong(tick);
+		buffer.putInt(population);
+		buffer.putLong(immigrants);
+		buffer.putLong(emigrants);
+		buffer.putLong(dropped);
+		endFrame(buffer, start);
+	}
+	
+	/**
+	 * Reads the body of a DONE frame, after its header, as a line of text.
+	 * @param frame - the frame, positioned after its type
+	 * @return the summary of the finished island
+	 */
+	public static String readDone(ByteBuffer frame) {
+		return String.format("island %d: tick %d, %d creatures, %d immigrants, %d emigrants, %d dropped",
+				frame.getInt(), frame.getLong(), frame.getInt(), frame.getLong(), frame.getLong(), frame.getLong());
+	}
+	
+	/*
+	 * Writes the header of a frame of the given type, leaving its length to
+	 * endFrame(), and returns the position of the frame.
+	 */
+	private static int beginFrame(ByteBuffer buffer, byte type) {
+		int start = buffer.position();
+		buffer.putInt(0);
+		buffer.put(type);
+		return start;
+	}
+	
+	/*
+	 * Writes the length of the frame which started at start.
+	 */
+	private static void endFrame(ByteBuffer buffer, int start) {
+		buffer.putInt(start, buffer.position() - start - Integer.BYTES);
+	}
+	
+	/**
+	 * An Assignment is what the coordinator tells a node: its island, the
+	 * number of islands and the seed of the first, and the islands it sends
+	 * Migrants to with the address each of them accepts Migrants on.
+	 */
+	public static final class Assignment {
+		
+		public final int island, numIslands;
+		public final long seed;
+		public final int[] destinations, ports;
+		public final String[] hosts;
+		
+		public Assignment(int island, int numIslands, long seed, int[] destinations, String[] hosts, int[] ports) {
+			this.island = island;
+			this.numIslands = numIslands;
+			this.seed = seed;
+			this.destinations = destinations;
+			this.hosts = hosts;
+			this.ports = ports;
+		}
+	}
+}
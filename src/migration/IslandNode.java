@@ -0,0 +1,202 @@
+package migration;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ProtocolException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+
+import simulation.Island;
+import simulation.MigrationQueue;
+import simulation.World;
+
+/**
+ * An IslandNode runs one Island of a distributed island model in its own
+ * process, so that islands spread over several processes or machines each
+ * have a small heap and garbage collection pauses of their own. The node
+ * says hello to the Coordinator, which assigns it an island and the islands
+ * it sends Migrants to; Migrants then travel directly between nodes through
+ * a MigrationTransport. When its World reaches the final tick, the node
+ * reports to the Coordinator and exits.
+ * 
+ * Options are given as pairs of arguments:
+ * --coordinator A  host:port of the Coordinator (default localhost:7878)
+ * --ticks N        ticks the Island is run for (default 1000000)
+ * --width W        width of the World in pixels (default 1920)
+ * --height H       height of the World in pixels (default 1080)
+ * --threads T      threads used to update Creatures (default all processors)
+ * --interval I     ticks between migrations (default 1000)
+ * --migrants M     Creatures sent to each destination per migration
+ *                  (default 2)
+ * --report R       ticks between progress reports (default 10000)
+ * 
+ * Copyright (C) 2022 Andrew Cupps, CC BY 4.0
+ * 
+ * @author Andrew Cupps
+ * @version 16 Oct 2026
+ */
+public class IslandNode {
+	
+	/*
+	 * Number of Migrants each queue holds
+	 */
+	private static final int QUEUE_CAPACITY = 64;
+	
+	/**
+	 * Main method which joins a distributed island model with the given
+	 * options.
+	 * @param args - the options described above
+	 * @throws IOException if the Coordinator could not be reached
+	 * @throws InterruptedException if interrupted while waiting for the Island
+	 */
+	public static void main(String[] args) throws IOException, InterruptedException {
+		String coordinator = "localhost:7878";
+		long ticks = 1000000;
+		int width = 1920, height = 1080;
+		int threads = Runtime.getRuntime().availableProcessors();
+		long interval = 1000;
+		int numMigrants = 2;
+		long report = 10000;
+		
+		for (int i = 0; i < args.length; i += 2) {
+			if (i + 1 >= args.length) {
+				throw new IllegalArgumentException("Missing value for option " + args[i] + ".");
+			}
+			
+			String value = args[i + 1];
+			switch (args[i]) {
+			case "--coordinator": coordinator = value; break;
+			case "--ticks": ticks = Long.parseLong(value); break;
+			case "--width": width = Integer.parseInt(value); break;
+			case "--height": height = Integer.parseInt(value); break;
+			case "--threads": threads = Integer.parseInt(value); break;
+			case "--interval": interval = Long.parseLong(value); break;
+			case "--migrants": numMigrants = Integer.parseInt(value); break;
+			case "--report": report = Long.parseLong(value); break;
+			default: throw new IllegalArgumentException("Unknown option " + args[i] + ".");
+			}
+		}
+		
+		int colon = coordinator.lastIndexOf(':');
+		if (colon < 0 || report < 1) {
+			throw new IllegalArgumentException("Expected --coordinator host:port and a positive report interval.");
+		}
+		InetSocketAddress address = new InetSocketAddress(coordinator.substring(0, colon),
+				Integer.parseInt(coordinator.substring(colon + 1)));
+		
+		try (SocketChannel channel = SocketChannel.open(address)) {
+			/*
+			 * Opening the transport first, so that its port can be sent to
+			 * the Coordinator, then waiting for the assignment
+			 */
+			MigrationTransport transport = new MigrationTransport();
+			ByteBuffer buffer = ByteBuffer.allocate(FrameCodec.MAX_FRAME_SIZE);
+			System.out.println("Joining coordinator " + coordinator + "; waiting for every island");
+			FrameCodec.Assignment assignment = join(channel, buffer, transport.getPort());
+			
+			/*
+			 * Building the Island, with one outbox per destination
+			 */
+			long seed = assignment.seed + assignment.island;
+			World world = new World(width, height, seed, threads);
+			world.getMetrics().register("island-" + assignment.island);
+			Island island = new Island(assignment.island, world, ticks, interval, numMigrants);
+			MigrationQueue inbox = new MigrationQueue(QUEUE_CAPACITY);
+			island.addInbox(inbox);
+			transport.setInbox(assignment.island, inbox);
+			for (int d = 0; d < assignment.destinations.length; d++) {
+				MigrationQueue outbox = new MigrationQueue(QUEUE_CAPACITY);
+				island.addOutbox(outbox);
+				transport.connect(assignment.destinations[d], assignment.hosts[d], assignment.ports[d], outbox);
+			}
+			System.out.println("Running island " + assignment.island + " of " + assignment.numIslands
+					+ " with seed " + seed);
+			
+			Thread transportThread = new Thread(transport, "JSENN migration transport");
+			transportThread.setDaemon(true);
+			transportThread.start();
+			Thread islandThread = new Thread(island, "JSENN island " + assignment.island);
+			islandThread.start();
+			
+			long start = System.nanoTime(), last = start, lastTime = 0;
+			while (islandThread.isAlive()) {
+				islandThread.join(100);
+				long time = world.getMetrics().getTicks();
+				if (time / report > lastTime / report && islandThread.isAlive()) {
+					long now = System.nanoTime();
+					System.out.printf("tick %d: %d creatures, %.0f ticks/s, %d immigrants, %d emigrants%n", time,
+							world.getMetrics().getPopulation(), (time - lastTime) * 1e9 / (now - last),
+							island.getImmigrants(), island.getEmigrants());
+					last = now;
+					lastTime = time;
+				}
+			}
+			transport.stop();
+			transportThread.join();
+			
+			long dropped = island.getDropped() + transport.getLost();
+			System.out.printf("Ran to tick %d in %.1f s: %d creatures, %d immigrants, %d emigrants, %d dropped%n",
+					world.getTime(), (System.nanoTime() - start) / 1e9, world.getCreatures().size(),
+					island.getImmigrants(), island.getEmigrants(), dropped);
+			FrameCodec.writeDone(buffer, assignment.island, world.getTime(), world.getCreatures().size(),
+					island.getImmigrants(), island.getEmigrants(), dropped);
+			writeFully(channel, buffer);
+		}
+	}
+	
+	/*
+	 * Says hello to the Coordinator on the blocking channel, giving the port
+	 * Migrants are accepted on, and waits for the Assignment; buffer is left
+	 * cleared.
+	 */
+	static FrameCodec.Assignment join(SocketChannel channel, ByteBuffer buffer, int port) throws IOException {
+		FrameCodec.writeHello(buffer, port);
+		writeFully(channel, buffer);
+		
+		ByteBuffer frame = readFrame(channel, buffer);
+		if (frame.get() != FrameCodec.ASSIGN) {
+			throw new ProtocolException("Expected an ASSIGN frame.");
+		}
+		FrameCodec.Assignment assignment = FrameCodec.readAssign(frame);
+		buffer.clear();
+		return assignment;
+	}
+	
+	/*
+	 * Writes everything in buffer to the blocking channel and clears it.
+	 */
+	static void writeFully(SocketChannel channel, ByteBuffer buffer) throws IOException {
+		buffer.flip();
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+		buffer.clear();
+	}
+	
+	/*
+	 * Reads one frame from the blocking channel into buffer, and returns it
+	 * positioned at its type.
+	 */
+	static ByteBuffer readFrame(SocketChannel channel, ByteBuffer buffer) throws IOException {
+		buffer.clear().limit(Integer.BYTES);
+		readFully(channel, buffer);
+		int length = buffer.getInt(0);
+		if (length < 1 || length > FrameCodec.MAX_FRAME_SIZE - Integer.BYTES) {
+			throw new ProtocolException("Invalid frame length " + length + ".");
+		}
+		
+		buffer.limit(Integer.BYTES + length);
+		readFully(channel, buffer);
+		buffer.position(Integer.BYTES);
+		return buffer;
+	}
+	
+	private static void readFully(SocketChannel channel, ByteBuffer buffer) throws IOException {
+		while (buffer.hasRemaining()) {
+			if (channel.read(buffer) < 0) {
+				throw new EOFException("The coordinator closed the connection.");
+			}
+		}
+	}
+}
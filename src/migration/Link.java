@@ -0,0 +1,128 @@
+package migration;
+
+import java.io.IOException;
+import java.net.ProtocolException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+
+/**
+ * A Link is one non-blocking connection between JSENN processes, with a
+ * buffer of bytes read but not yet taken as frames and a buffer of frames
+ * written but not yet sent. Neither reading nor flushing ever waits for
+ * the other process; a Link is only used by one thread.
+ * 
+ * Copyright (C) 2022 Andrew Cupps, CC BY 4.0
+ * 
+ * @author Andrew Cupps
+ * @version 16 Oct 2026
+ */
+public class Link {
+	
+	/*
+	 * Size of the buffers of every Link
+	 */
+	private static final int BUFFER_SIZE = 256 * 1024;
+	
+	/*
+	 * The connection, the bytes read from it which have not been taken as
+	 * frames, and the frames written which have not been sent, both kept
+	 * ready for writing into
+	 */
+	private final SocketChannel channel;
+	private final ByteBuffer in = ByteBuffer.allocateDirect(BUFFER_SIZE);
+	private final ByteBuffer out = ByteBuffer.allocateDirect(BUFFER_SIZE);
+	
+	/*
+	 * The island at the other end, or -1 if it is not known
+	 */
+	private final int island;
+	
+	/**
+	 * Creates a Link over channel, which is switched to non-blocking mode.
+	 * @param channel - the connected channel
+	 * @param island - the island at the other end, or -1 if it is not known
+	 * @throws IOException if channel could not be switched
+	 */
+	public Link(SocketChannel channel, int island) throws IOException {
+		channel.configureBlocking(false);
+		this.channel = channel;
+		this.island = island;
+	}
+	
+	/**
+	 * Reads whatever bytes are available without waiting.
+	 * @return false if the other end has closed the connection
+	 * @throws IOException if the connection failed
+	 */
+	public boolean read() throws IOException {
+		return channel.read(in) >= 0;
+	}
+	
+	/**
+	 * Returns the next complete frame read, without its length and
+	 * positioned at its type, or null if no complete frame has been read.
+	 * @return the next frame, or null
+	 * @throws ProtocolException if the frame is longer than MAX_FRAME_SIZE
+	 */
+	public ByteBuffer nextFrame() throws ProtocolException {
+		in.flip();
+		if (in.remaining() < FrameCodec.HEADER_SIZE) {
+			in.compact();
+			return null;
+		}
+		
+		int length = in.getInt(in.position());
+		if (length < 1 || length > Math.min(FrameCodec.MAX_FRAME_SIZE, BUFFER_SIZE - Integer.BYTES)) {
+			throw new ProtocolException("Invalid frame length " + length + ".");
+		}
+		if (in.remaining() < Integer.BYTES + length) {
+			in.compact();
+			return null;
+		}
+		
+		/*
+		 * Copying the frame out, so that the read buffer can be compacted
+		 */
+		ByteBuffer frame = ByteBuffer.allocate(length);
+		int limit = in.limit();
+		in.position(in.position() + Integer.BYTES).limit(in.position() + length);
+		frame.put(in).flip();
+		in.limit(limit);
+		in.compact();
+		return frame;
+	}
+	
+	/**
+	 * Returns the buffer frames are written into before being sent.
+	 * @return the write buffer, ready to be written into
+	 */
+	public ByteBuffer out() {
+		return out;
+	}
+	
+	/**
+	 * Sends as many written bytes as the connection takes without waiting.
+	 * @return true if every written byte has been sent
+	 * @throws IOException if the connection failed
+	 */
+	public boolean flush() throws IOException {
+		out.flip();
+		channel.write(out);
+		out.compact();
+		return out.position() == 0;
+	}
+	
+	/**
+	 * Closes the connection, discarding anything not yet sent.
+	 */
+	public void close() {
+		try {
+			channel.close();
+		} catch (IOException e) {
+			// Nothing more can be done with a connection which failed to close
+		}
+	}
+	
+	public SocketChannel getChannel() { return channel; }
+	public int getIsland() { return island; }
+}
@@ -0,0 +1,296 @@
+package migration;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ProtocolException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+import creatures.CreaturePool;
+import creatures.Migrant;
+import simulation.MigrationQueue;
+
+/**
+ * The MigrationTransport carries Migrants between an Island and the Islands
+ * of other processes. It accepts connections from the Islands sending to
+ * it, decoding their MIGRANT frames into the Island's inbox, and connects
+ * to the Islands it sends to, encoding Migrants taken from one outbox per
+ * destination. Every socket is non-blocking and served by one Selector on
+ * the transport's own thread, so the Island only ever touches its
+ * MigrationQueues and never waits for the network.
+ * 
+ * Migrants are lost rather than delayed when something falls behind: a
+ * full outbox drops them on the Island's side, a full inbox drops them
+ * here, and a destination which cannot be reached or closes its connection
+ * is given up on. Migrants whose network does not have the layer sizes of
+ * the Island's Creatures are lost as well, before they reach the inbox.
+ * 
+ * Copyright (C) 2022 Andrew Cupps, CC BY 4.0
+ * 
+ * @author Andrew Cupps
+ * @version 16 Oct 2026
+ */
+public class MigrationTransport implements Runnable {
+	
+	/*
+	 * Longest time the transport waits for the network before taking
+	 * Migrants from the outboxes again
+	 */
+	private static final long SELECT_MILLIS = 1;
+	
+	/*
+	 * Layer sizes every Migrant's network must have to join the Island
+	 */
+	private static final int[] LAYER_SIZES = CreaturePool.getNetworkLayerSizes();
+	
+	/*
+	 * The island this transport serves, the Selector of all its sockets, and
+	 * the socket other islands connect to
+	 */
+	private int island = -1;
+	private final Selector selector;
+	private final ServerSocketChannel server;
+	
+	/*
+	 * The queue Migrants received are offered to, and for each destination
+	 * its Link, the outbox its Migrants are taken from, and a Migrant taken
+	 * but not yet written for lack of room
+	 */
+	private MigrationQueue inbox;
+	private final List<Link> destinations = new ArrayList<>();
+	private final List<MigrationQueue> outboxes = new ArrayList<>();
+	private final List<Migrant> pending = new ArrayList<>();
+	
+	/*
+	 * Whether the transport should keep running, and the numbers of Migrants
+	 * received, sent and lost
+	 */
+	private volatile boolean running = true;
+	private volatile long received = 0, sent = 0, lost = 0;
+	
+	/**
+	 * Opens a transport accepting connections on a port chosen by the
+	 * system; the port is known before the island it serves is.
+	 * @throws IOException if the socket could not be opened
+	 */
+	public MigrationTransport() throws IOException {
+		selector = Selector.open();
+		server = ServerSocketChannel.open();
+		server.bind(new InetSocketAddress(0));
+		server.configureBlocking(false);
+		server.register(selector, SelectionKey.OP_ACCEPT);
+	}
+	
+	/**
+	 * Sets the island served and the queue Migrants received are offered to;
+	 * the transport must be its only producer. Must be called before the
+	 * transport runs.
+	 * @param island - the island served
+	 * @param inbox - the inbox of the Island
+	 */
+	public void setInbox(int island, MigrationQueue inbox) {
+		this.island = island;
+		this.inbox = inbox;
+	}
+	
+	/**
+	 * Starts connecting to an island Migrants are sent to; the transport must
+	 * be the only consumer of outbox. Must be called before the transport
+	 * runs.
+	 * @param destination - the island sent to
+	 * @param host - the host the island accepts Migrants on
+	 * @param port - the port the island accepts Migrants on
+	 * @param outbox - the queue of Migrants for the island
+	 * @throws IOException if the connection could not be started
+	 */
+	public void connect(int destination, String host, int port, MigrationQueue outbox) throws IOException {
+		SocketChannel channel = SocketChannel.open();
+		Link link = new Link(channel, destination);
+		channel.connect(new InetSocketAddress(host, port));
+		channel.register(selector, SelectionKey.OP_CONNECT, link);
+		
+		destinations.add(link);
+		outboxes.add(outbox);
+		pending.add(null);
+	}
+	
+	/**
+	 * Serves every socket until stop() is called, then sends what it can of
+	 * the Migrants already written and closes every socket.
+	 */
+	@Override
+	public void run() {
+		try {
+			while (running) {
+				selector.select(SELECT_MILLIS);
+				Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+				while (keys.hasNext()) {
+					SelectionKey key = keys.next();
+					keys.remove();
+					if (key.isValid() && key.isAcceptable()) {
+						accept();
+					} else if (key.isValid() && key.isConnectable()) {
+						finishConnect(key);
+					} else if (key.isValid() && key.isReadable()) {
+						receive(key);
+					}
+				}
+				
+				for (int d = 0; d < destinations.size(); d++) {
+					send(d);
+				}
+			}
+			
+			for (int d = 0; d < destinations.size(); d++) {
+				if (destinations.get(d).getChannel().isConnected()) {
+					destinations.get(d).flush();
+				}
+			}
+		} catch (IOException e) {
+			System.err.println("Migration transport of island " + island + " failed: " + e);
+		} finally {
+			close();
+		}
+	}
+	
+	/*
+	 * Accepts a connection from an island sending Migrants here.
+	 */
+	private void accept() throws IOException {
+		SocketChannel channel = server.accept();
+		if (channel != null) {
+			Link link = new Link(channel, -1);
+			channel.register(selector, SelectionKey.OP_READ, link);
+		}
+	}
+	
+	/*
+	 * Completes a connection to a destination, giving it up if it failed.
+	 */
+	private void finishConnect(SelectionKey key) {
+		Link link = (Link) key.attachment();
+		try {
+			if (link.getChannel().finishConnect()) {
+				key.interestOps(SelectionKey.OP_READ);
+			}
+		} catch (IOException e) {
+			System.err.println("Island " + island + " could not reach island " + link.getIsland() + ": " + e);
+			key.cancel();
+			link.close();
+		}
+	}
+	
+	/*
+	 * Reads from a connection and offers every Migrant received to the
+	 * inbox; a connection which is closed or sends a malformed frame is
+	 * closed.
+	 */
+	private void receive(SelectionKey key) {
+		Link link = (Link) key.attachment();
+		try {
+			boolean open = link.read();
+			ByteBuffer frame;
+			while ((frame = link.nextFrame()) != null) {
+				if (frame.get() != FrameCodec.MIGRANT) {
+					throw new ProtocolException("Expected a MIGRANT frame.");
+				}
+				
+				Migrant migrant = FrameCodec.readMigrant(frame);
+				if (inbox != null && Arrays.equals(migrant.getNetwork().getLayerSizes(), LAYER_SIZES)
+						&& inbox.offer(migrant)) {
+					received++;
+				} else {
+					lost++;
+				}
+			}
+			
+			if (!open) {
+				key.cancel();
+				link.close();
+			}
+		} catch (IOException | RuntimeException e) {
+			System.err.println("Island " + island + " closed an incoming connection: " + e);
+			key.cancel();
+			link.close();
+		}
+	}
+	
+	/*
+	 * Writes as many Migrants of the outbox of destination d as fit, then
+	 * sends what the connection takes; Migrants of a destination which is
+	 * closed are lost.
+	 */
+	private void send(int d) {
+		Link link = destinations.get(d);
+		MigrationQueue outbox = outboxes.get(d);
+		if (!link.getChannel().isOpen()) {
+			while (outbox.poll() != null) {
+				lost++;
+			}
+			return;
+		}
+		if (!link.getChannel().isConnected()) {
+			return;
+		}
+		
+		try {
+			Migrant migrant = pending.get(d);
+			while (migrant != null || (migrant = outbox.poll()) != null) {
+				if (FrameCodec.migrantSize(migrant) > link.out().remaining()) {
+					break;
+				}
+				FrameCodec.writeMigrant(link.out(), island, migrant);
+				sent++;
+				migrant = null;
+			}
+			pending.set(d, migrant);
+			link.flush();
+		} catch (IOException e) {
+			System.err.println("Island " + island + " lost its connection to island " + link.getIsland() + ": " + e);
+			link.close();
+		}
+	}
+	
+	/*
+	 * Closes every socket and the Selector.
+	 */
+	private void close() {
+		for (SelectionKey key : selector.keys()) {
+			if (key.attachment() instanceof Link) {
+				((Link) key.attachment()).close();
+			}
+		}
+		try {
+			server.close();
+			selector.close();
+		} catch (IOException e) {
+			// Nothing more can be done with sockets which failed to close
+		}
+	}
+	
+	/**
+	 * Stops the transport after its current pass.
+	 */
+	public void stop() {
+		running = false;
+	}
+	
+	/**
+	 * Returns the port other islands connect to.
+	 * @return the port accepting connections
+	 */
+	public int getPort() {
+		return server.socket().getLocalPort();
+	}
+	
+	public long getReceived() { return received; }
+	public long getSent() { return sent; }
+	public long getLost() { return lost; }
+}
@@ -7,48 +7,38 @@ import functions.Function;
  * edge in the next field, as well as the weight and bias of the Edge; Edges
  * also transfer data through sigmoid processing between Nodes.
  * 
+ * The scale, weight and bias of an Edge live in the flat arrays of the
+ * Layer the Edge leaves from; an Edge is only a view onto them.
+ * 
  * Copyright (C) 2022 Andrew Cupps, CC BY 4.0
  * 
  * @author Andrew Cupps
- * @version 23 Dec 2022
+ * @version 16 Oct 2026
  */
 public class Edge {
-
+	
 	/*
 	 * The Node to which this Edge links
 	 */
 	private Node next;
 	
 	/*
-	 * The weight and bias of the current Node
-	 */
-	private double scale, weight, bias;
-	
-	/**
-	 * The default constructor for creating a new Edge to a Node; by default, 
-	 * scale, weight and bias are random numbers between -1 and 1. 
-	 * @param nextNode - the destination Node of the Edge
+	 * The Layer this Edge leaves from, and the index of this Edge's scale,
+	 * weight and bias in that Layer's arrays.
 	 */
-	public Edge(Node nextNode) {
-		next = nextNode;
-		scale = Math.random() * 2 - 1;
-		weight = Math.random() * 2 - 1;
-		bias = Math.random() * 2 - 1;
-	}
+	private Layer layer;
+	private int index;
 	
 	/**
-	 * Genetic algorithmic inheritance constructor for an Edge in a
-	 * Network being inherited. Data is copied from toInherit, with a maximum
-	 * variation of plus or minus maxVariance.
+	 * Constructor for the Edge stored at the given index of the given Layer.
+	 * @param layer - the Layer the Edge leaves from
+	 * @param index - the index of the Edge's data in layer
 	 * @param nextNode - the destination Node of the Edge
-	 * @param toInherit - the Edge to be inherited
-	 * @param maxVariance - the maximum variance of inherited Edge data
 	 */
-	public Edge(Node nextNode, Edge toInherit, double maxVariance) {
+	Edge(Layer layer, int index, Node nextNode) {
+		this.layer = layer;
+		this.index = index;
 		next = nextNode;
-		scale = Function.bound(-1, 1, toInherit.scale + Math.random() * maxVariance * 2 - maxVariance);
-		weight = toInherit.weight + Math.random() * maxVariance * 2 - maxVariance;
-		bias = toInherit.bias + Math.random() * maxVariance * 2 - maxVariance;
 	}
 	
 	/**
@@ -58,6 +48,11 @@ public class Edge {
 	 * @param data - the data to be transferred to the next Node.
 	 */
 	public void addData(double data) {
-		next.addData(Function.sigmoid(data, weight, scale, bias, 0));
+		next.addData(Function.sigmoid(data, getWeight(), getScale(), getBias(), 0));
 	}
+	
+	public Node getNext() { return next; }
+	public double getScale() { return layer.getScale(index); }
+	public double getWeight() { return layer.getWeight(index); }
+	public double getBias() { return layer.getBias(index); }
 }
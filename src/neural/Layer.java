@@ -1,20 +1,32 @@
 package neural;
 
-import java.util.Collection;
-import java.util.Iterator;
+import java.util.Arrays;
+
+import functions.Function;
+import functions.Function.SigmoidMode;
+import functions.SeededRandom;
 
 /**
  * The Layer class contains all the Nodes of a given layer in a neural network.
  * The size of the layer is predetermined and given in the constructor
  * parameters.
  * 
+ * Node data and the scales, weights and biases of all Edges leaving this
+ * Layer are stored in flat primitive arrays so that a forward pass walks
+ * contiguous memory rather than a graph of Node and Edge objects; Node and
+ * Edge objects are only created as views onto these arrays when they are
+ * requested through get(int), get(String) or Node.getEdges(). A Layer's
+ * arrays may also be a slice of larger arrays shared with other Networks,
+ * as when its Network is attached to a PopulationBrain; nodeOffset and
+ * edgeOffset give the start of this Layer's slice.
+ * 
  * Copyright (C) 2022 Andrew Cupps, CC BY 4.0
  * 
  * @author Andrew Cupps
- * @version 21 Dec 2022
+ * @version 16 Oct 2026
  */
 public class Layer {
-
+	
 	/*
 	 * The size of the Layer
 	 */
@@ -31,7 +43,32 @@ public class Layer {
 	private boolean isOutput;
 	
 	/*
-	 * All the nodes in the layer in array form
+	 * The current data and default data of each Node in the Layer; index i
+	 * holds the data of the i-th Node.
+	 */
+	private double[] data, defaultData;
+	
+	/*
+	 * The scale, weight and bias of every Edge from this Layer to the next
+	 * Layer, stored row-major; the Edge from Node i of this Layer to Node j
+	 * of the next Layer is at index i * next.size + j. These are null for
+	 * output Layers.
+	 */
+	private double[] scales, weights, biases;
+	
+	/*
+	 * The index of this Layer's first Node in data and defaultData, and of
+	 * its first Edge in scales, weights and biases.
+	 */
+	private int nodeOffset, edgeOffset;
+	
+	/*
+	 * Names of the Nodes in the Layer; only allocated once a name is set.
+	 */
+	private String[] names;
+	
+	/*
+	 * Node views of this Layer; each Node is only created once it is requested.
 	 */
 	private Node[] nodes;
 	
@@ -42,53 +79,64 @@ public class Layer {
 		isOutput = true;
 		
 		this.size = size;
+		data = new double[size];
+		defaultData = new double[size];
 		nodes = new Node[size];
-		
-		for (int i = 0; i < nodes.length; i++) {
-			nodes[i] = new Node();
-		}
 	}
-
+	
 	/**
 	 * Genetic algorithmic inheritance constructor for an output Layer. Copies the
 	 * data from the parameter Layer with slight variations at a maximum of
 	 * maxVariance.
 	 * @param toInherit - the Layer to be copied
 	 * @param maxVariance - the maximum variance of Layer data
+	 * @param random - the generator used for the variations
 	 */
-	public Layer(Layer toInherit, double maxVariance) {
+	public Layer(Layer toInherit, double maxVariance, SeededRandom random) {
 		isOutput = true;
 		
 		this.size = toInherit.size;
+		data = new double[size];
+		defaultData = new double[size];
 		nodes = new Node[size];
 		
-		for (int i = 0; i < nodes.length; i++) {
-			nodes[i] = new Node(toInherit.nodes[i], maxVariance);
+		for (int i = 0; i < size; i++) {
+			defaultData[i] = toInherit.defaultData[toInherit.nodeOffset + i] + random.nextDouble() * maxVariance * 2 - maxVariance;
+			data[i] = defaultData[i];
+		}
+		
+		if (toInherit.names != null) {
+			names = toInherit.names.clone();
 		}
 	}
 	
 	/**
-	 * Constructor for a non-output layer with unspecified Node identifications
+	 * Constructor for a non-output layer with unspecified Node identifications;
+	 * Edge parameters are drawn from random.
 	 */
-	public Layer(int size, Layer nextLayer) {
+	public Layer(int size, Layer nextLayer, SeededRandom random) {
 		isOutput = false;
 		
 		this.size = size;
+		data = new double[size];
+		defaultData = new double[size];
 		nodes = new Node[size];
 		
 		this.next = nextLayer;
 		
-		for (int i = 0; i < nodes.length; i++) {
-			nodes[i] = new Node();
-			
-			/*
-			 * Creating edges between each Node of the current Layer and each
-			 * of the next Layer.
-			 */
-			Node[] nextLayerNodes = nextLayer.nodes;
-			for (int j = 0; j < nextLayerNodes.length; j++) {
-				nodes[i].createEdge(nextLayerNodes[j]);
-			}
+		/*
+		 * Creating edges between each Node of the current Layer and each
+		 * of the next Layer; by default, scale, weight and bias are random
+		 * numbers between -1 and 1.
+		 */
+		int numEdges = size * nextLayer.size;
+		scales = new double[numEdges];
+		weights = new double[numEdges];
+		biases = new double[numEdges];
+		for (int k = 0; k < numEdges; k++) {
+			scales[k] = random.nextDouble() * 2 - 1;
+			weights[k] = random.nextDouble() * 2 - 1;
+			biases[k] = random.nextDouble() * 2 - 1;
 		}
 	}
 	
@@ -99,26 +147,61 @@ public class Layer {
 	 * @param toInherit - the Layer to be inherited
 	 * @param next - the next Layer in the Network
 	 * @param maxVariance - the maximum variance of copied data
+	 * @param random - the generator used for the variations
 	 */
-	public Layer(Layer toInherit, Layer next, double maxVariance) {
+	public Layer(Layer toInherit, Layer next, double maxVariance, SeededRandom random) {
 		isOutput = false;
 		
 		this.size = toInherit.size;
+		data = new double[size];
+		defaultData = new double[size];
 		nodes = new Node[size];
 		
 		this.next = next;
 		
-		for (int i = 0; i < nodes.length; i++) {
-			nodes[i] = new Node(toInherit.nodes[i], next.nodes, maxVariance);
+		int nextSize = next.size;
+		scales = new double[size * nextSize];
+		weights = new double[size * nextSize];
+		biases = new double[size * nextSize];
+		
+		for (int i = 0, k = 0; i < size; i++) {
+			defaultData[i] = toInherit.defaultData[toInherit.nodeOffset + i] + random.nextDouble() * maxVariance * 2 - maxVariance;
+			data[i] = defaultData[i];
+			
+			for (int j = 0; j < nextSize; j++, k++) {
+				scales[k] = Function.bound(-1, 1, toInherit.scales[toInherit.edgeOffset + k] + random.nextDouble() * maxVariance * 2 - maxVariance);
+				weights[k] = toInherit.weights[toInherit.edgeOffset + k] + random.nextDouble() * maxVariance * 2 - maxVariance;
+				biases[k] = toInherit.biases[toInherit.edgeOffset + k] + random.nextDouble() * maxVariance * 2 - maxVariance;
+			}
+		}
+		
+		if (toInherit.names != null) {
+			names = toInherit.names.clone();
 		}
 	}
-
+	
+	/*
+	 * Constructor for a non-output Layer without storage of its own, used
+	 * for Networks whose Layers are bound to a PopulationBrain immediately.
+	 */
+	Layer(int size, Layer nextLayer) {
+		isOutput = false;
+		
+		this.size = size;
+		nodes = new Node[size];
+		this.next = nextLayer;
+	}
+	
 	/**
 	 * Returns the node at the given parameter index.
 	 * @param index - the index of the Node to be returned.
 	 * @return nodes[index]
 	 */
 	public Node get(int index) {
+		if (nodes[index] == null) {
+			nodes[index] = new Node(this, index);
+		}
+		
 		return nodes[index];
 	}
 	
@@ -130,22 +213,42 @@ public class Layer {
 	 * @return the first Node with the given name in the nodes field
 	 */
 	public Node get(String name) {
-		for (Node n : nodes) {
-			if (n.hasName(name)) {
-				return n;
+		if (names == null) {
+			return null;
+		}
+		
+		for (int i = 0; i < size; i++) {
+			if (names[i] != null && names[i].equals(name)) {
+				return get(i);
 			}
 		}
 		
 		return null;
 	}
 	
+	/**
+	 * Returns the current data of the Node at the given index without
+	 * creating a Node object for it.
+	 * @param index - the index of the Node
+	 * @return the current data of the Node at index
+	 */
+	public double getData(int index) {
+		return data[nodeOffset + index];
+	}
+	
+	/**
+	 * Returns the number of Nodes in this Layer.
+	 * @return size
+	 */
+	public int getSize() {
+		return size;
+	}
+	
 	/**
 	 * Resets all the Nodes of the current Layer to have their default data values.
 	 */
 	public void resetLayer() {
-		for (Node n : nodes) {
-			n.resetData();
-		}
+		System.arraycopy(defaultData, nodeOffset, data, nodeOffset, size);
 	}
 	
 	/**
@@ -160,26 +263,205 @@ public class Layer {
 			throw new NeuralNetworkException("Input length does not match Layer size.");
 		}
 		
-		for (int i = 0; i < inputs.length; i++) {
-			nodes[i].setData(inputs[i]);
-		}
+		System.arraycopy(inputs, 0, data, nodeOffset, size);
+		System.arraycopy(inputs, 0, defaultData, nodeOffset, size);
 	}
 	
 	/**
 	 * Returns false if this Layer is an output layer; otherwise, this method
-	 * will call all Nodes to transfer their data, then returns true.
+	 * will add the sigmoid-processed data of every Node to each Node of the
+	 * next Layer, then returns true.
 	 * @return false if isOutput, true if not
 	 */
 	public boolean transferData() {
+		return transferData(LayerKernel.SCALAR);
+	}
+	
+	/**
+	 * Does the same as transferData(), using the given LayerKernel.
+	 * @param kernel - the LayerKernel used to transfer the data
+	 * @return false if isOutput, true if not
+	 */
+	public boolean transferData(LayerKernel kernel) {
 		if (isOutput) {
 			return false;
 		}
 		
-		for (Node n : nodes) {
-			n.transferData();
-		}
+		kernel.transferData(data, nodeOffset, size, next.data, next.nodeOffset, next.size,
+				scales, weights, biases, edgeOffset);
 		
 		return true;
 	}
 	
+	/**
+	 * Adds the sigmoid-processed data of each of the size Nodes starting at
+	 * data[offset] to each of the nextSize Nodes starting at
+	 * nextData[nextOffset], using the row-major Edge parameters starting at
+	 * edgeOffset. This is the forward pass of a single non-output Layer.
+	 */
+	static void transferData(double[] data, int offset, int size,
+			double[] nextData, int nextOffset, int nextSize,
+			double[] scales, double[] weights, double[] biases, int edgeOffset) {
+		for (int i = 0, k = edgeOffset; i < size; i++) {
+			double value = data[offset + i];
+			for (int j = nextOffset; j < nextOffset + nextSize; j++, k++) {
+				nextData[j] += Function.sigmoid(value, weights[k], scales[k], biases[k], 0);
+			}
+		}
+	}
+	
+	/*
+	 * Does the same as transferData(data, ...) with the FAST SigmoidMode.
+	 */
+	static void transferDataFast(double[] data, int offset, int size,
+			double[] nextData, int nextOffset, int nextSize,
+			double[] scales, double[] weights, double[] biases, int edgeOffset) {
+		for (int i = 0, k = edgeOffset; i < size; i++) {
+			double value = data[offset + i];
+			for (int j = nextOffset; j < nextOffset + nextSize; j++, k++) {
+				nextData[j] += Function.sigmoid(SigmoidMode.FAST, value, weights[k], scales[k], biases[k], 0);
+			}
+		}
+	}
+	
+	/**
+	 * Copies this Layer's Node data and Edge parameters into the given
+	 * arrays, starting at nodeOffset and edgeOffset respectively. The Edge
+	 * arrays are ignored for output Layers.
+	 */
+	void copyStorage(double[] toData, double[] toDefaultData, int toNodeOffset,
+			double[] toScales, double[] toWeights, double[] toBiases, int toEdgeOffset) {
+		System.arraycopy(data, nodeOffset, toData, toNodeOffset, size);
+		System.arraycopy(defaultData, nodeOffset, toDefaultData, toNodeOffset, size);
+		
+		if (!isOutput) {
+			int numEdges = size * next.size;
+			System.arraycopy(scales, edgeOffset, toScales, toEdgeOffset, numEdges);
+			System.arraycopy(weights, edgeOffset, toWeights, toEdgeOffset, numEdges);
+			System.arraycopy(biases, edgeOffset, toBiases, toEdgeOffset, numEdges);
+		}
+	}
+	
+	/**
+	 * Points this Layer at new storage without copying any data; the caller
+	 * is responsible for the contents of the given arrays.
+	 */
+	void setStorage(double[] data, double[] defaultData, int nodeOffset,
+			double[] scales, double[] weights, double[] biases, int edgeOffset) {
+		this.data = data;
+		this.defaultData = defaultData;
+		this.nodeOffset = nodeOffset;
+		
+		if (!isOutput) {
+			this.scales = scales;
+			this.weights = weights;
+			this.biases = biases;
+			this.edgeOffset = edgeOffset;
+		}
+	}
+	
+	/**
+	 * Moves this Layer's data out of any shared storage into arrays of its own.
+	 */
+	void detachStorage() {
+		int numEdges = isOutput ? 0 : size * next.size;
+		double[] ownData = new double[size], ownDefaultData = new double[size];
+		double[] ownScales = new double[numEdges], ownWeights = new double[numEdges],
+				ownBiases = new double[numEdges];
+		copyStorage(ownData, ownDefaultData, 0, ownScales, ownWeights, ownBiases, 0);
+		setStorage(ownData, ownDefaultData, 0, ownScales, ownWeights, ownBiases, 0);
+	}
+	
+	/**
+	 * Copies this Layer's default Node data, then the scales, weights and
+	 * biases of its Edges, into parameters starting at offset; returns the
+	 * offset following them.
+	 */
+	int getParameters(double[] parameters, int offset) {
+		System.arraycopy(defaultData, nodeOffset, parameters, offset, size);
+		offset += size;
+		
+		if (!isOutput) {
+			int numEdges = size * next.size;
+			System.arraycopy(scales, edgeOffset, parameters, offset, numEdges);
+			System.arraycopy(weights, edgeOffset, parameters, offset + numEdges, numEdges);
+			System.arraycopy(biases, edgeOffset, parameters, offset + 2 * numEdges, numEdges);
+			offset += 3 * numEdges;
+		}
+		return offset;
+	}
+	
+	/**
+	 * Gives this Layer arrays of its own holding the parameters copied by
+	 * getParameters() from parameters starting at offset, with the data of
+	 * every Node reset to its default; returns the offset following them.
+	 */
+	int setParameters(double[] parameters, int offset) {
+		defaultData = Arrays.copyOfRange(parameters, offset, offset + size);
+		data = defaultData.clone();
+		nodeOffset = 0;
+		offset += size;
+		
+		if (!isOutput) {
+			int numEdges = size * next.size;
+			scales = Arrays.copyOfRange(parameters, offset, offset + numEdges);
+			weights = Arrays.copyOfRange(parameters, offset + numEdges, offset + 2 * numEdges);
+			biases = Arrays.copyOfRange(parameters, offset + 2 * numEdges, offset + 3 * numEdges);
+			edgeOffset = 0;
+			offset += 3 * numEdges;
+		}
+		return offset;
+	}
+	
+	/*
+	 * Accessors used by the Node and Edge views of this Layer.
+	 */
+	
+	void setData(int index, double value) {
+		data[nodeOffset + index] = value;
+	}
+	
+	void addData(int index, double value) {
+		data[nodeOffset + index] += value;
+	}
+	
+	double getDefaultData(int index) {
+		return defaultData[nodeOffset + index];
+	}
+	
+	void setDefaultData(int index, double value) {
+		defaultData[nodeOffset + index] = value;
+	}
+	
+	String getName(int index) {
+		return (names == null) ? null : names[index];
+	}
+	
+	void setName(int index, String name) {
+		if (names == null) {
+			names = new String[size];
+		}
+		
+		names[index] = name;
+	}
+	
+	Layer getNext() {
+		return next;
+	}
+	
+	boolean isOutput() {
+		return isOutput;
+	}
+	
+	double getScale(int edge) {
+		return scales[edgeOffset + edge];
+	}
+	
+	double getWeight(int edge) {
+		return weights[edgeOffset + edge];
+	}
+	
+	double getBias(int edge) {
+		return biases[edgeOffset + edge];
+	}
 }
@@ -0,0 +1,78 @@
+package neural;
+
+import functions.Function.SigmoidMode;
+
+/**
+ * A LayerKernel performs the forward pass of a single non-output Layer over
+ * flat Layer storage: the sigmoid-processed data of each Node is added to
+ * every Node of the next Layer. The PopulationBrain uses a LayerKernel to
+ * evaluate the whole population.
+ * 
+ * SCALAR is the exact kernel used by Layer.transferData(), and FAST_SCALAR
+ * computes the sigmoid in the FAST SigmoidMode. The kernel
+ * returned by vector() is built on the jdk.incubator.vector module and
+ * computes the Edges to several Nodes of the next Layer at a time using an
+ * approximation of exp; it is only available when the JVM is started with
+ * --add-modules jdk.incubator.vector, and vector() returns SCALAR otherwise.
+ * 
+ * Copyright (C) 2022 Andrew Cupps, CC BY 4.0
+ * 
+ * @author Andrew Cupps
+ * @version 16 Oct 2026
+ */
+public interface LayerKernel {
+	
+	/**
+	 * The exact scalar kernel; gives the same results as Layer.transferData().
+	 */
+	LayerKernel SCALAR = Layer::transferData;
+	
+	/**
+	 * The scalar kernel using the table-based sigmoid of the FAST SigmoidMode.
+	 */
+	LayerKernel FAST_SCALAR = Layer::transferDataFast;
+	
+	/**
+	 * Adds the sigmoid-processed data of each of the size Nodes starting at
+	 * data[offset] to each of the nextSize Nodes starting at
+	 * nextData[nextOffset], using the row-major Edge parameters starting at
+	 * edgeOffset.
+	 */
+	void transferData(double[] data, int offset, int size,
+			double[] nextData, int nextOffset, int nextSize,
+			double[] scales, double[] weights, double[] biases, int edgeOffset);
+	
+	/**
+	 * Returns the scalar kernel computing the sigmoid in the given mode.
+	 * @param mode - the SigmoidMode of the kernel
+	 * @return FAST_SCALAR for the FAST mode, SCALAR otherwise
+	 */
+	static LayerKernel scalar(SigmoidMode mode) {
+		return (mode == SigmoidMode.FAST) ? FAST_SCALAR : SCALAR;
+	}
+	
+	/**
+	 * Returns the vectorized kernel if the jdk.incubator.vector module is
+	 * available and the kernel can be loaded, or SCALAR if not.
+	 * @return the vectorized kernel, or SCALAR
+	 */
+	static LayerKernel vector() {
+		if (isVectorAvailable()) {
+			try {
+				return (LayerKernel) Class.forName("neural.VectorKernel").getDeclaredConstructor().newInstance();
+			} catch (ReflectiveOperationException | LinkageError e) {
+				// Falling back to the scalar kernel, which gives the same results
+			}
+		}
+		
+		return SCALAR;
+	}
+	
+	/**
+	 * Checks whether the jdk.incubator.vector module is present in this JVM.
+	 * @return true if the vectorized kernel can be used, false otherwise
+	 */
+	static boolean isVectorAvailable() {
+		return ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+	}
+}
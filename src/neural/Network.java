@@ -1,18 +1,24 @@
 package neural;
 
+import functions.SeededRandom;
+
 /**
  * The Network class contains all the layers of a neural network, and sets up
  * the neural network so that all non-output nodes have an edge to each node
  * in the next layer of the Network; it also contains all the methods to input
  * and get data from the Network.
  * 
+ * Each Layer stores its Node data and outgoing Edge parameters in flat
+ * primitive arrays, so transferData() runs over contiguous memory; the Node
+ * and Edge objects of the Network are only built when they are requested.
+ * 
  * Copyright (C) 2022 Andrew Cupps, CC BY 4.0
  * 
  * @author Andrew Cupps
- * @version 23 Dec 2022
+ * @version 16 Oct 2026
  */
 public class Network {
-
+	
 	/*
 	 * The number of layers in the neural network
 	 */
@@ -23,21 +29,30 @@ public class Network {
 	 */
 	private Layer[] layers;
 	
+	/*
+	 * The PopulationBrain this Network is attached to, if any, and the slot
+	 * of this Network in it.
+	 */
+	PopulationBrain brain;
+	int slot = -1;
+	
 	/**
 	 * Default constructor for a new Network (so, not inherited from another.)
 	 * Creates the current network with numLayers amount of layers, where
 	 * each layer has a corresponding value in layerSizes representing the
 	 * number of Nodes in that layer. For example, if layerSizes[0] = 8, then
 	 * the first layer (since layers are zero-indexed in Network) will have
-	 * eight nodes.
+	 * eight nodes. All Edge parameters are drawn from random, so Networks
+	 * created from generators with the same seed are identical.
 	 * 
 	 * @param numLayers - the number of layers in the Network
 	 * @param layerSizes - an array representing the size in nodes of each layer
+	 * @param random - the generator used for the initial Edge parameters
 	 * @throws IllegalArgumentException if numLayers is less than two, or if the
 	 * size of layerSizes is not equal to numLayers, or if any of the
 	 * values of layerSizes is less than one.
 	 */
-	public Network(int numLayers, int[] layerSizes) {
+	public Network(int numLayers, int[] layerSizes, SeededRandom random) {
 		if (numLayers < 2) {
 			throw new IllegalArgumentException("Must have at least 2 layers.");
 		}
@@ -57,7 +72,21 @@ public class Network {
 			
 			layers[i] = 
 					new Layer(layerSizes[i], 
-							layers[i+1]);
+							layers[i+1], random);
+		}
+	}
+	
+	/*
+	 * Constructor for a Network with the given layer sizes whose Layers have
+	 * no data yet, used by PopulationBrain to restore Networks into slots.
+	 */
+	Network(int[] layerSizes) {
+		numLayers = layerSizes.length;
+		layers = new Layer[numLayers];
+		
+		layers[numLayers - 1] = new Layer(layerSizes[numLayers - 1]);
+		for (int i = numLayers - 2; i >= 0; i--) {
+			layers[i] = new Layer(layerSizes[i], layers[i+1]);
 		}
 	}
 	
@@ -72,8 +101,9 @@ public class Network {
 	 * @param maxVariance - the maximum variance of data from the original
 	 * Network data (so, the new data will be equal to the old data plus or 
 	 * minus maxVariance).
+	 * @param random - the generator used for the variations
 	 */
-	public Network(Network toInherit, double maxVariance) {
+	public Network(Network toInherit, double maxVariance, SeededRandom random) {
 		if (toInherit == null) {
 			throw new IllegalArgumentException("Network cannot inherit from a null Network.");
 		}
@@ -81,11 +111,94 @@ public class Network {
 		this.numLayers = toInherit.numLayers;
 		layers = new Layer[numLayers];
 		
-		layers[numLayers - 1] = new Layer(toInherit.layers[numLayers - 1], maxVariance);
+		layers[numLayers - 1] = new Layer(toInherit.layers[numLayers - 1], maxVariance, random);
 		
 		for (int i = numLayers - 2; i >= 0; i--) {
-			layers[i] = new Layer(toInherit.layers[i], layers[i+1], maxVariance);
+			layers[i] = new Layer(toInherit.layers[i], layers[i+1], maxVariance, random);
+		}
+	}
+	
+	/**
+	 * Constructor for a Network with the given layer sizes whose default
+	 * Node data and Edge parameters are taken from parameters, in the order
+	 * returned by getParameters(); used to rebuild a Network sent from
+	 * another process. The data of every Node is set to its default.
+	 * @param layerSizes - the size in nodes of each layer
+	 * @param parameters - the parameters of the Network
+	 * @throws IllegalArgumentException if there are fewer than two layers, if
+	 * any layer size is less than one, or if the number of parameters does
+	 * not match layerSizes
+	 */
+	public Network(int[] layerSizes, double[] parameters) {
+		this(checkLayerSizes(layerSizes));
+		if (parameters.length != getNumParameters(layerSizes)) {
+			throw new IllegalArgumentException("Expected " + getNumParameters(layerSizes) 
+					+ " parameters but got " + parameters.length + ".");
+		}
+		
+		for (int i = 0, offset = 0; i < numLayers; i++) {
+			offset = layers[i].setParameters(parameters, offset);
+		}
+	}
+	
+	/*
+	 * Returns layerSizes if it describes a valid Network.
+	 */
+	private static int[] checkLayerSizes(int[] layerSizes) {
+		if (layerSizes.length < 2) {
+			throw new IllegalArgumentException("Must have at least 2 layers.");
+		}
+		for (int size : layerSizes) {
+			if (size < 1) {
+				throw new IllegalArgumentException("Layer Sizes must be at least one.");
+			}
+		}
+		return layerSizes;
+	}
+	
+	/**
+	 * Returns the number of parameters of a Network with the given layer
+	 * sizes: the default data of every Node, and the scale, weight and bias
+	 * of every Edge.
+	 * @param layerSizes - the size in nodes of each layer
+	 * @return the number of parameters
+	 */
+	public static int getNumParameters(int[] layerSizes) {
+		int numParameters = 0;
+		for (int i = 0; i < layerSizes.length; i++) {
+			numParameters += layerSizes[i];
+			if (i < layerSizes.length - 1) {
+				numParameters += 3 * layerSizes[i] * layerSizes[i + 1];
+			}
+		}
+		return numParameters;
+	}
+	
+	/**
+	 * Returns every parameter of this Network: for each Layer in turn, the
+	 * default data of its Nodes, then the scales, weights and biases of the
+	 * Edges leaving it, in row-major order.
+	 * @return the parameters, from which Network(int[], double[]) rebuilds
+	 * this Network
+	 */
+	public double[] getParameters() {
+		double[] parameters = new double[getNumParameters(getLayerSizes())];
+		for (int i = 0, offset = 0; i < numLayers; i++) {
+			offset = layers[i].getParameters(parameters, offset);
+		}
+		return parameters;
+	}
+	
+	/**
+	 * Returns the size in nodes of each layer of the Network.
+	 * @return the layer sizes
+	 */
+	public int[] getLayerSizes() {
+		int[] layerSizes = new int[numLayers];
+		for (int i = 0; i < numLayers; i++) {
+			layerSizes[i] = layers[i].getSize();
 		}
+		return layerSizes;
 	}
 	
 	/**
@@ -104,6 +217,22 @@ public class Network {
 		return layers[layers.length - 1];
 	}
 	
+	/**
+	 * Returns the number of layers in the Network.
+	 * @return numLayers
+	 */
+	public int getNumLayers() {
+		return numLayers;
+	}
+	
+	/**
+	 * Returns the PopulationBrain this Network is attached to.
+	 * @return the PopulationBrain of this Network, or null if it has none
+	 */
+	public PopulationBrain getBrain() {
+		return brain;
+	}
+	
 	/**
 	 * Returns the layer specified by the int parameter layerNumber.
 	 * @param layerNumber - the depth of the Layer to be returned.
@@ -128,8 +257,17 @@ public class Network {
 	 * method will throw a NeuralNetworkException.
 	 */
 	public void transferData() {
+		transferData(LayerKernel.SCALAR);
+	}
+	
+	/**
+	 * Does the same as transferData(), evaluating each Layer with the given
+	 * LayerKernel.
+	 * @param kernel - the LayerKernel used to transfer the data
+	 */
+	public void transferData(LayerKernel kernel) {
 		for (int i = 0; i < layers.length - 1; i++) {
-			if (!layers[i].transferData()) {
+			if (!layers[i].transferData(kernel)) {
 				throw new NeuralNetworkException("Layer.transferData() called on an output Layer.");
 			}
 		}
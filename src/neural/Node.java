@@ -1,92 +1,44 @@
 package neural;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 /**
  * The Node object is the base unit of the Network; Nodes contain data
  * and Edges which connect a Node to other Nodes in the next layer.
  * 
+ * A Node is a view onto one index of its Layer's flat data arrays, so
+ * reading or writing a Node reads or writes the Layer directly; Nodes are
+ * only created by a Layer when they are requested.
+ * 
  * Copyright (C) 2022 Andrew Cupps, CC BY 4.0
  * 
  * @author Andrew Cupps
- * @version 21 Dec 2022
+ * @version 16 Oct 2026
  */
 public class Node {
 	
 	/*
-	 * The current value of the data stored in the Node, and the default value.
+	 * The Layer containing this Node, and the index of this Node in it.
 	 */
-	private double curData, defaultData;
+	private Layer layer;
+	private int index;
 	
 	/*
 	 * A list of all the edges between the current Node and all Nodes
-	 * of the next Layer in the Network.
+	 * of the next Layer in the Network; only built when requested.
 	 */
 	private List<Edge> edges;
 	
-	/*
-	 * The name of the current Node object; used for individual Node identification
-	 */
-	private String name;
-	
-	/**
-	 * The default constructor for a new Node; by default, Nodes have data
-	 * of 0.0 and no edges or name.
-	 */
-	public Node() {
-		defaultData = 0;
-		curData = defaultData;
-	}
-	
 	/**
-	 * Constructor for genetically inheriting an output Node; data from the
-	 * parameter Node is copied with variation of maximum plus or minus maxVariance.
-	 * @param toInherit - the Node to be inherited
-	 * @param maxVariance - the maximum variance of inherited Node data
+	 * Constructor for the Node at the given index of the given Layer.
+	 * @param layer - the Layer containing this Node
+	 * @param index - the index of this Node in layer
 	 */
-	public Node(Node toInherit, double maxVariance) {
-		defaultData = toInherit.defaultData + Math.random() * maxVariance * 2 - maxVariance;
-		curData = defaultData;
-		name = toInherit.name;
-	}
-	
-	/**
-	 * Constructor for genetically inheriting a non-output Node; data from
-	 * the parameter Node is copied with variation of maximum plus or minus
-	 * maxVariance.
-	 * @param toInherit - the Node to be inherited
-	 * @param nextNodes - the Nodes of the next Layer
-	 * @param maxVariance - the maximum variance of inherited Node data
-	 */
-	public Node(Node toInherit, Node[] nextNodes, double maxVariance) {
-		defaultData = toInherit.defaultData + Math.random() * maxVariance * 2 - maxVariance;
-		curData = defaultData;
-		name = toInherit.name;
-		
-		edges = new ArrayList<Edge>();
-		
-		for (int i = 0; i < nextNodes.length; i++) {
-			edges.add(new Edge(nextNodes[i], toInherit.edges.get(i), maxVariance));
-		}
-	}
-	
-	/**
-	 * If edge is not instantiated, it instantiates it as a new ArrayList.
-	 * This method then adds a new Edge with nextNode from the current Node.
-	 * @param nextNode - the Node to be linked to with a new Edge
-	 * @throws IllegalArgumentException if nextNode is null
-	 */
-	public void createEdge(Node nextNode) {
-		if (nextNode == null) {
-			throw new IllegalArgumentException("Cannot create an edge to a null Node object.");
-		}
-		
-		if (edges == null) {
-			edges = new ArrayList<Edge>();
-		}
-		
-		edges.add(new Edge(nextNode));
+	Node(Layer layer, int index) {
+		this.layer = layer;
+		this.index = index;
 	}
 	
 	/**
@@ -94,7 +46,7 @@ public class Node {
 	 * @param name - the name to be assigned to this Node
 	 */
 	public void setName(String name) {
-		this.name = name;
+		layer.setName(index, name);
 	}
 	
 	/**
@@ -105,19 +57,20 @@ public class Node {
 	 * the current Node object name is null)
 	 */
 	public boolean hasName(String name) {
+		String thisName = layer.getName(index);
 		
-		if (this.name == null) {
+		if (thisName == null) {
 			return false;
 		}
 		
-		return this.name.equals(name);
+		return thisName.equals(name);
 	}
 	
 	/**
 	 * Resets the value of curData to defaultData
 	 */
 	public void resetData() {
-		curData = defaultData;
+		layer.setData(index, layer.getDefaultData(index));
 	}
 	
 	/**
@@ -125,28 +78,52 @@ public class Node {
 	 * @param data - the data to be added
 	 */
 	public void addData(double data) {
-		curData += data;
+		layer.addData(index, data);
 	}
 	
 	/**
-	 * Sets both the current data and default data of this Node to the 
+	 * Sets both the current data and default data of this Node to the
 	 * parameter data.
 	 * @param data the data to be set as this Node's data
 	 */
 	public void setData(double data) {
-		curData = data;
-		defaultData = data;
+		layer.setData(index, data);
+		layer.setDefaultData(index, data);
 	}
 	
 	/**
-	 * Calls addData on all of the current Node's Edges with curData as 
+	 * Calls addData on all of the current Node's Edges with curData as
 	 * the method parameter.
 	 */
 	public void transferData() {
-		for (Edge e : edges) {
+		double curData = getData();
+		for (Edge e : getEdges()) {
 			e.addData(curData);
 		}
 	}
 	
-	public double getData() { return curData; }
+	/**
+	 * Returns the Edges from this Node to each Node of the next Layer,
+	 * building them the first time they are requested. Nodes of an output
+	 * Layer have no Edges.
+	 * @return an unmodifiable list of this Node's Edges
+	 */
+	public List<Edge> getEdges() {
+		if (edges == null) {
+			if (layer.isOutput()) {
+				edges = Collections.emptyList();
+			} else {
+				Layer next = layer.getNext();
+				List<Edge> built = new ArrayList<Edge>(next.getSize());
+				for (int j = 0; j < next.getSize(); j++) {
+					built.add(new Edge(layer, index * next.getSize() + j, next.get(j)));
+				}
+				edges = Collections.unmodifiableList(built);
+			}
+		}
+		
+		return edges;
+	}
+	
+	public double getData() { return layer.getData(index); }
 }
@@ -0,0 +1,377 @@
+package neural;
+
+import java.util.Arrays;
+
+import checkpoint.StateReader;
+import checkpoint.StateWriter;
+
+/**
+ * The PopulationBrain evaluates the Networks of a whole population at once.
+ * Every attached Network must share the same layer sizes; the Node data and
+ * Edge parameters of each attached Network are moved into one slot of large
+ * per-layer arrays shared by the whole population, so that a layer of every
+ * Network lies in one contiguous block. Networks submitted for evaluation
+ * are then run together, one layer of the whole population at a time, in a
+ * single loop over that shared layout.
+ * 
+ * Attached Networks keep working as normal Networks; their Layers simply
+ * read and write their slot of the shared arrays. Slots are kept dense:
+ * removing a Network moves the Network in the last slot into its place.
+ * 
+ * Each layer is evaluated with a LayerKernel; by default this is the exact
+ * scalar kernel, but the vectorized kernel may be selected with setKernel.
+ * 
+ * Copyright (C) 2022 Andrew Cupps, CC BY 4.0
+ * 
+ * @author Andrew Cupps
+ * @version 16 Oct 2026
+ */
+public class PopulationBrain {
+	
+	/*
+	 * Initial number of slots allocated
+	 */
+	private static final int INITIAL_CAPACITY = 64;
+	
+	/*
+	 * The number of Nodes in each layer of every attached Network
+	 */
+	private int[] layerSizes;
+	
+	/*
+	 * The number of slots in use, and the number of slots allocated
+	 */
+	private int size, capacity;
+	
+	/*
+	 * Per-layer Node data of every slot; layer l of slot s starts at
+	 * s * layerSizes[l].
+	 */
+	private double[][] data, defaultData;
+	
+	/*
+	 * Per-layer Edge parameters of every slot; the Edges leaving layer l of
+	 * slot s start at s * layerSizes[l] * layerSizes[l + 1]. The arrays for
+	 * the output layer are empty.
+	 */
+	private double[][] scales, weights, biases;
+	
+	/*
+	 * The Network in each slot, and whether each slot has been submitted
+	 * for evaluation since the last call to evaluate().
+	 */
+	private Network[] networks;
+	private boolean[] pending;
+	
+	/*
+	 * The kernel used to evaluate each layer
+	 */
+	private LayerKernel kernel = LayerKernel.SCALAR;
+	
+	/**
+	 * Creates an empty PopulationBrain for Networks with the given layer sizes.
+	 * @param layerSizes - the number of Nodes in each layer of every Network
+	 * @throws IllegalArgumentException if there are fewer than two layers
+	 */
+	public PopulationBrain(int[] layerSizes) {
+		if (layerSizes.length < 2) {
+			throw new IllegalArgumentException("Must have at least 2 layers.");
+		}
+		
+		this.layerSizes = layerSizes.clone();
+		
+		int numLayers = layerSizes.length;
+		data = new double[numLayers][];
+		defaultData = new double[numLayers][];
+		scales = new double[numLayers][];
+		weights = new double[numLayers][];
+		biases = new double[numLayers][];
+		allocate(INITIAL_CAPACITY);
+	}
+	
+	/**
+	 * Attaches the parameter Network to this PopulationBrain, moving its data
+	 * into a new slot.
+	 * @param network - the Network to be attached
+	 * @throws IllegalArgumentException if network is already attached to a
+	 * PopulationBrain or does not match this PopulationBrain's layer sizes
+	 */
+	public void add(Network network) {
+		if (network.brain != null) {
+			throw new IllegalArgumentException("Network is already attached to a PopulationBrain.");
+		}
+		
+		if (network.getNumLayers() != layerSizes.length) {
+			throw new IllegalArgumentException("Network does not match PopulationBrain layer sizes.");
+		}
+		
+		for (int l = 0; l < layerSizes.length; l++) {
+			if (network.getSpecifiedLayer(l).getSize() != layerSizes[l]) {
+				throw new IllegalArgumentException("Network does not match PopulationBrain layer sizes.");
+			}
+		}
+		
+		if (size == capacity) {
+			allocate(capacity * 2);
+		}
+		
+		int slot = size++;
+		for (int l = 0; l < layerSizes.length; l++) {
+			Layer layer = network.getSpecifiedLayer(l);
+			layer.copyStorage(data[l], defaultData[l], nodeOffset(l, slot),
+					scales[l], weights[l], biases[l], edgeOffset(l, slot));
+		}
+		
+		networks[slot] = network;
+		pending[slot] = false;
+		network.brain = this;
+		network.slot = slot;
+		bind(slot);
+	}
+	
+	/**
+	 * Detaches the parameter Network from this PopulationBrain; the Network
+	 * keeps its current data in arrays of its own. The Network in the last
+	 * slot is moved into the freed slot.
+	 * @param network - the Network to be detached
+	 * @throws IllegalArgumentException if network is not attached to this
+	 * PopulationBrain
+	 */
+	public void remove(Network network) {
+		if (network.brain != this) {
+			throw new IllegalArgumentException("Network is not attached to this PopulationBrain.");
+		}
+		
+		int slot = network.slot;
+		for (int l = 0; l < layerSizes.length; l++) {
+			network.getSpecifiedLayer(l).detachStorage();
+		}
+		network.brain = null;
+		network.slot = -1;
+		
+		int last = --size;
+		if (slot != last) {
+			for (int l = 0; l < layerSizes.length; l++) {
+				int nodes = layerSizes[l];
+				System.arraycopy(data[l], last * nodes, data[l], slot * nodes, nodes);
+				System.arraycopy(defaultData[l], last * nodes, defaultData[l], slot * nodes, nodes);
+				
+				if (l < layerSizes.length - 1) {
+					int edges = nodes * layerSizes[l + 1];
+					System.arraycopy(scales[l], last * edges, scales[l], slot * edges, edges);
+					System.arraycopy(weights[l], last * edges, weights[l], slot * edges, edges);
+					System.arraycopy(biases[l], last * edges, biases[l], slot * edges, edges);
+				}
+			}
+			
+			networks[slot] = networks[last];
+			pending[slot] = pending[last];
+			networks[slot].slot = slot;
+			bind(slot);
+		}
+		
+		networks[last] = null;
+		pending[last] = false;
+	}
+	
+	/**
+	 * Marks the parameter Network to have its data transferred on the next
+	 * call to evaluate(). Networks in different slots may be submitted from
+	 * different threads at once. Submitting a Network more than once before
+	 * evaluate() has no further effect.
+	 * @param network - the Network to be evaluated
+	 * @throws IllegalArgumentException if network is not attached to this
+	 * PopulationBrain
+	 */
+	public void submit(Network network) {
+		if (network.brain != this) {
+			throw new IllegalArgumentException("Network is not attached to this PopulationBrain.");
+		}
+		
+		pending[network.slot] = true;
+	}
+	
+	/**
+	 * Transfers data through every submitted Network, giving the same results
+	 * as calling Network.transferData() on each of them; one layer is
+	 * evaluated across the whole population before moving to the next.
+	 */
+	public void evaluate() {
+		evaluate(0, size);
+	}
+	
+	/**
+	 * Transfers data through every submitted Network in slots fromSlot
+	 * (inclusive) to toSlot (exclusive). Calls on disjoint ranges of slots
+	 * touch disjoint data, so they may run on different threads at once, as
+	 * long as no Network is added or removed meanwhile.
+	 * @param fromSlot - the first slot to be evaluated
+	 * @param toSlot - the slot after the last slot to be evaluated
+	 */
+	public void evaluate(int fromSlot, int toSlot) {
+		for (int l = 0; l < layerSizes.length - 1; l++) {
+			int nodes = layerSizes[l], nextNodes = layerSizes[l + 1], edges = nodes * nextNodes;
+			double[] layerData = data[l], nextData = data[l + 1];
+			double[] layerScales = scales[l], layerWeights = weights[l], layerBiases = biases[l];
+			
+			for (int s = fromSlot; s < toSlot; s++) {
+				if (pending[s]) {
+					kernel.transferData(layerData, s * nodes, nodes, nextData, s * nextNodes, nextNodes,
+							layerScales, layerWeights, layerBiases, s * edges);
+				}
+			}
+		}
+		
+		Arrays.fill(pending, fromSlot, toSlot, false);
+	}
+	
+	/**
+	 * Puts the Node data and Edge parameters of every attached Network into
+	 * state, one array per layer and kind of value, in slot order.
+	 * @param state - the StateWriter the Networks are saved to
+	 */
+	public void saveState(StateWriter state) {
+		state.putInts("brain.layerSizes", layerSizes, layerSizes.length);
+		state.putLong("brain.size", size);
+		for (int l = 0; l < layerSizes.length; l++) {
+			int nodes = layerSizes[l], edges = (l < layerSizes.length - 1) ? nodes * layerSizes[l + 1] : 0;
+			state.putDoubles("brain." + l + ".data", data[l], size * nodes);
+			state.putDoubles("brain." + l + ".defaultData", defaultData[l], size * nodes);
+			state.putDoubles("brain." + l + ".scales", scales[l], size * edges);
+			state.putDoubles("brain." + l + ".weights", weights[l], size * edges);
+			state.putDoubles("brain." + l + ".biases", biases[l], size * edges);
+		}
+	}
+	
+	/**
+	 * Attaches a new Network to each slot saved by saveState(), holding the
+	 * data and Edge parameters saved for that slot.
+	 * @param state - the StateReader the Networks are restored from
+	 * @throws IllegalStateException if any Network is attached already
+	 * @throws IllegalArgumentException if the saved Networks do not match
+	 * this PopulationBrain's layer sizes
+	 */
+	public void restoreState(StateReader state) {
+		if (size != 0) {
+			throw new IllegalStateException("PopulationBrain must be empty to be restored.");
+		}
+		
+		if (!Arrays.equals(state.getInts("brain.layerSizes"), layerSizes)) {
+			throw new IllegalArgumentException("Saved Networks do not match PopulationBrain layer sizes.");
+		}
+		
+		int n = (int) state.getLong("brain.size");
+		if (n > capacity) {
+			allocate(Math.max(n, capacity * 2));
+		}
+		
+		for (int l = 0; l < layerSizes.length; l++) {
+			restoreArray(state, "brain." + l + ".data", data[l]);
+			restoreArray(state, "brain." + l + ".defaultData", defaultData[l]);
+			restoreArray(state, "brain." + l + ".scales", scales[l]);
+			restoreArray(state, "brain." + l + ".weights", weights[l]);
+			restoreArray(state, "brain." + l + ".biases", biases[l]);
+		}
+		
+		for (int s = 0; s < n; s++) {
+			Network network = new Network(layerSizes);
+			networks[s] = network;
+			pending[s] = false;
+			network.brain = this;
+			network.slot = s;
+			bind(s);
+		}
+		size = n;
+	}
+	
+	/**
+	 * Returns the Network attached to the given slot.
+	 * @param slot - the slot of the Network
+	 * @return the Network in slot
+	 */
+	public Network getNetwork(int slot) {
+		return networks[slot];
+	}
+	
+	/**
+	 * Sets the kernel used to evaluate each layer of the population.
+	 * @param kernel - the LayerKernel to be used by evaluate()
+	 */
+	public void setKernel(LayerKernel kernel) {
+		this.kernel = kernel;
+	}
+	
+	public LayerKernel getKernel() { return kernel; }
+	
+	/**
+	 * Returns the number of Networks attached to this PopulationBrain.
+	 * @return size
+	 */
+	public int size() {
+		return size;
+	}
+	
+	/*
+	 * Returns the index of the first Node of layer l of the given slot.
+	 */
+	private int nodeOffset(int l, int slot) {
+		return slot * layerSizes[l];
+	}
+	
+	/*
+	 * Returns the index of the first Edge leaving layer l of the given slot.
+	 */
+	private int edgeOffset(int l, int slot) {
+		return (l < layerSizes.length - 1) ? slot * layerSizes[l] * layerSizes[l + 1] : 0;
+	}
+	
+	/*
+	 * Copies the saved array of the given name into the start of target.
+	 */
+	private static void restoreArray(StateReader state, String name, double[] target) {
+		double[] saved = state.getDoubles(name);
+		System.arraycopy(saved, 0, target, 0, saved.length);
+	}
+	
+	/*
+	 * Points every Layer of the Network in the given slot at that slot of
+	 * the shared arrays.
+	 */
+	private void bind(int slot) {
+		Network network = networks[slot];
+		for (int l = 0; l < layerSizes.length; l++) {
+			network.getSpecifiedLayer(l).setStorage(data[l], defaultData[l], nodeOffset(l, slot),
+					scales[l], weights[l], biases[l], edgeOffset(l, slot));
+		}
+	}
+	
+	/*
+	 * Grows the shared arrays to hold newCapacity slots, keeping the data of
+	 * all current slots and rebinding their Networks.
+	 */
+	private void allocate(int newCapacity) {
+		for (int l = 0; l < layerSizes.length; l++) {
+			int nodes = layerSizes[l];
+			int edges = (l < layerSizes.length - 1) ? nodes * layerSizes[l + 1] : 0;
+			
+			data[l] = (data[l] == null) ? new double[newCapacity * nodes]
+					: Arrays.copyOf(data[l], newCapacity * nodes);
+			defaultData[l] = (defaultData[l] == null) ? new double[newCapacity * nodes]
+					: Arrays.copyOf(defaultData[l], newCapacity * nodes);
+			scales[l] = (scales[l] == null) ? new double[newCapacity * edges]
+					: Arrays.copyOf(scales[l], newCapacity * edges);
+			weights[l] = (weights[l] == null) ? new double[newCapacity * edges]
+					: Arrays.copyOf(weights[l], newCapacity * edges);
+			biases[l] = (biases[l] == null) ? new double[newCapacity * edges]
+					: Arrays.copyOf(biases[l], newCapacity * edges);
+		}
+		
+		networks = (networks == null) ? new Network[newCapacity] : Arrays.copyOf(networks, newCapacity);
+		pending = (pending == null) ? new boolean[newCapacity] : Arrays.copyOf(pending, newCapacity);
+		capacity = newCapacity;
+		
+		for (int s = 0; s < size; s++) {
+			bind(s);
+		}
+	}
+}
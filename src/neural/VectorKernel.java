@@ -0,0 +1,110 @@
+package neural;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * The VectorKernel is a LayerKernel built on the jdk.incubator.vector module.
+ * For each Node of a Layer, the Edges to as many Nodes of the next Layer as
+ * fit in a vector are processed together: their weights, scales and biases
+ * are loaded from the row-major Edge arrays, the sigmoid is computed one
+ * vector at a time, and the results are accumulated into the next Layer in
+ * the same order as the scalar kernel.
+ * 
+ * The sigmoid uses a polynomial approximation of exp with a relative error
+ * below 1e-13, so each Edge's contribution differs from the scalar kernel by
+ * about that much. This class must only be loaded through
+ * LayerKernel.vector(), which checks that the module is present.
+ * 
+ * Copyright (C) 2022 Andrew Cupps, CC BY 4.0
+ * 
+ * @author Andrew Cupps
+ * @version 16 Oct 2026
+ */
+final class VectorKernel implements LayerKernel {
+	
+	private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+	
+	/*
+	 * Constants for exp(x) = 2^n * exp(r), where n = round(x / ln 2) and
+	 * r = x - n * ln 2; ln 2 is split in two parts so that r is exact.
+	 */
+	private static final double LOG2_E = 1.4426950408889634;
+	private static final double LN2_HI = 0.6931471803691238;
+	private static final double LN2_LO = 1.9082149292705877e-10;
+	
+	/*
+	 * Adding 1.5 * 2^52 to a double rounds it to an integer held in the low
+	 * bits of the sum.
+	 */
+	private static final double ROUNDING_SHIFT = 6755399441055744.0;
+	private static final long ROUNDING_SHIFT_BITS = Double.doubleToRawLongBits(ROUNDING_SHIFT);
+	
+	/*
+	 * Inputs to exp are clamped to +/- EXP_LIMIT so that 2^n stays a normal
+	 * double; the sigmoid is already saturated well before this.
+	 */
+	private static final double EXP_LIMIT = 700;
+	
+	/*
+	 * Taylor coefficients 1/k! of exp(r) for |r| <= ln(2) / 2, highest first
+	 */
+	private static final double[] EXP_COEFFICIENTS = {
+		1.0 / 39916800, 1.0 / 3628800, 1.0 / 362880, 1.0 / 40320, 1.0 / 5040,
+		1.0 / 720, 1.0 / 120, 1.0 / 24, 1.0 / 6, 1.0 / 2, 1.0, 1.0
+	};
+	
+	@Override
+	public void transferData(double[] data, int offset, int size,
+			double[] nextData, int nextOffset, int nextSize,
+			double[] scales, double[] weights, double[] biases, int edgeOffset) {
+		for (int j = 0; j < nextSize; j += SPECIES.length()) {
+			VectorMask<Double> mask = SPECIES.indexInRange(j, nextSize);
+			DoubleVector sum = DoubleVector.fromArray(SPECIES, nextData, nextOffset + j, mask);
+			
+			for (int i = 0; i < size; i++) {
+				int k = edgeOffset + i * nextSize + j;
+				DoubleVector weight = DoubleVector.fromArray(SPECIES, weights, k, mask);
+				DoubleVector scale = DoubleVector.fromArray(SPECIES, scales, k, mask);
+				DoubleVector bias = DoubleVector.fromArray(SPECIES, biases, k, mask);
+				
+				DoubleVector x = weight.mul(data[offset + i]).sub(bias);
+				sum = sum.add(sigmoid(x, scale));
+			}
+			
+			sum.intoArray(nextData, nextOffset + j, mask);
+		}
+	}
+	
+	/*
+	 * Returns scale / (1 + e^(-x)) for every lane.
+	 */
+	private static DoubleVector sigmoid(DoubleVector x, DoubleVector scale) {
+		return scale.div(exp(x.neg()).add(1.0));
+	}
+	
+	/*
+	 * Returns an approximation of e^x for every lane.
+	 */
+	private static DoubleVector exp(DoubleVector x) {
+		x = x.max(-EXP_LIMIT).min(EXP_LIMIT);
+		
+		DoubleVector shifted = x.mul(LOG2_E).add(ROUNDING_SHIFT);
+		DoubleVector n = shifted.sub(ROUNDING_SHIFT);
+		DoubleVector r = x.sub(n.mul(LN2_HI)).sub(n.mul(LN2_LO));
+		
+		DoubleVector p = DoubleVector.broadcast(SPECIES, EXP_COEFFICIENTS[0]);
+		for (int c = 1; c < EXP_COEFFICIENTS.length; c++) {
+			p = p.mul(r).add(EXP_COEFFICIENTS[c]);
+		}
+		
+		DoubleVector twoToN = shifted.reinterpretAsLongs()
+				.sub(ROUNDING_SHIFT_BITS - 1023)
+				.lanewise(VectorOperators.LSHL, 52)
+				.reinterpretAsDoubles();
+		
+		return p.mul(twoToN);
+	}
+}
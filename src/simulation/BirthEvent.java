@@ -0,0 +1,46 @@
+package simulation;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event for a Creature born by reproduction. Disabled by
+ * default.
+ * 
+ * Copyright (C) 2022 Andrew Cupps, CC BY 4.0
+ * 
+ * @author Andrew Cupps
+ * @version 16 Oct 2026
+ */
+@Name("jsenn.Birth")
+@Label("Birth")
+@Category({"JSENN", "Creatures"})
+@Description("A Creature born by reproduction")
+@Enabled(false)
+@StackTrace(false)
+public class BirthEvent extends Event {
+	
+	@Label("Tick")
+	public long tick;
+	
+	@Label("Parent Age")
+	@Description("Age of the parent in ticks")
+	public long parentAge;
+	
+	@Label("Generation")
+	@Description("Number of ancestors of the newborn since its lineage was spawned")
+	public int generation;
+	
+	@Label("Lineage")
+	@Description("Number of the spawned Creature the newborn descends from")
+	public long lineage;
+	
+	@Label("Variance")
+	@Description("Maximum genetic variance of the newborn from its parent")
+	public double variance;
+}
@@ -0,0 +1,50 @@
+package simulation;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event for the death of a Creature. Disabled by default.
+ * 
+ * Copyright (C) 2022 Andrew Cupps, CC BY 4.0
+ * 
+ * @author Andrew Cupps
+ * @version 16 Oct 2026
+ */
+@Name("jsenn.Death")
+@Label("Death")
+@Category({"JSENN", "Creatures"})
+@Description("The death of a Creature")
+@Enabled(false)
+@StackTrace(false)
+public class DeathEvent extends Event {
+	
+	/**
+	 * Causes of death
+	 */
+	public static final String ENERGY = "energy", HEALTH = "health", KILLED = "killed";
+	
+	@Label("Tick")
+	public long tick;
+	
+	@Label("Cause")
+	@Description("Whether the Creature ran out of energy or of health, or was killed by another")
+	public String cause;
+	
+	@Label("Age")
+	@Description("Age of the Creature in ticks")
+	public long age;
+	
+	@Label("Generation")
+	@Description("Number of ancestors of the Creature since its lineage was spawned")
+	public int generation;
+	
+	@Label("Lineage")
+	@Description("Number of the spawned Creature the Creature descends from")
+	public long lineage;
+}
@@ -0,0 +1,161 @@
+package simulation;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import checkpoint.Checkpointer;
+import journal.EventJournal;
+
+/**
+ * The HeadlessRunner runs a World without a display, stepping it as fast as
+ * the machine allows and printing progress to the console. It is meant for
+ * long evolution runs on machines without a screen, such as servers. Its
+ * SimulationMetrics are registered over JMX, so a run can be watched live
+ * with JConsole or VisualVM.
+ * 
+ * Options are given as pairs of arguments:
+ * --ticks N      tick to run until, counted from the World's creation
+ *                (default 1000000)
+ * --width W      width of the World in pixels (default 1920)
+ * --height H     height of the World in pixels (default 1080)
+ * --seed S       seed of the World (default -Djsenn.seed, or a new seed)
+ * --threads T    threads used to update Creatures (default all processors)
+ * --report R     ticks between progress reports (default 10000)
+ * --checkpoint F       file checkpoints are written to; one is always
+ *                      written at the end of the run
+ * --checkpoint-every C ticks between checkpoints (default only at the end)
+ * --resume F           checkpoint file to resume from; the seed, size
+ *                      and parameter options are then ignored
+ * --param K=V          sets parameter K of the World, such as
+ *                      VECTOR_KERNEL=true; may be given more than once
+ * --journal D          directory every spawn, birth and death is recorded
+ *                      to, read with journal.JournalReader
+ * 
+ * Checkpoints are copied between ticks and written on a background thread,
+ * so the run only pauses for the copy. A periodic checkpoint which fails is
+ * reported and the run carries on; only a failed final checkpoint fails the
+ * run.
+ * 
+ * Copyright (C) 2022 Andrew Cupps, CC BY 4.0
+ * 
+ * @author Andrew Cupps
+ * @version 16 Oct 2026
+ */
+public class HeadlessRunner {
+	
+	/**
+	 * Main method which creates a World from the given options and runs it.
+	 * @param args - the options described above
+	 * @throws IOException if a checkpoint could not be read or written
+	 */
+	public static void main(String[] args) throws IOException {
+		long ticks = 1000000;
+		int width = 1920, height = 1080;
+		long seed = World.defaultSeed();
+		int threads = Runtime.getRuntime().availableProcessors();
+		long report = 10000;
+		Path checkpointPath = null, resumePath = null, journalPath = null;
+		long checkpointEvery = 0;
+		Parameters parameters = Parameters.DEFAULT;
+		
+		for (int i = 0; i < args.length; i += 2) {
+			if (i + 1 >= args.length) {
+				throw new IllegalArgumentException("Missing value for option " + args[i] + ".");
+			}
+			
+			String value = args[i + 1];
+			switch (args[i]) {
+			case "--ticks": ticks = Long.parseLong(value); break;
+			case "--width": width = Integer.parseInt(value); break;
+			case "--height": height = Integer.parseInt(value); break;
+			case "--seed": seed = Long.parseLong(value); break;
+			case "--threads": threads = Integer.parseInt(value); break;
+			case "--report": report = Long.parseLong(value); break;
+			case "--checkpoint": checkpointPath = Paths.get(value); break;
+			case "--checkpoint-every": checkpointEvery = Long.parseLong(value); break;
+			case "--resume": resumePath = Paths.get(value); break;
+			case "--journal": journalPath = Paths.get(value); break;
+			case "--param": parameters = withParameter(parameters, value); break;
+			default: throw new IllegalArgumentException("Unknown option " + args[i] + ".");
+			}
+		}
+		
+		if (report < 1) {
+			throw new IllegalArgumentException("Report interval must be at least one.");
+		}
+		
+		if (checkpointEvery < 0 || (checkpointEvery > 0 && checkpointPath == null)) {
+			throw new IllegalArgumentException("Checkpoint interval needs a positive value and --checkpoint.");
+		}
+		
+		World world;
+		if (resumePath != null) {
+			world = World.load(resumePath, threads);
+			System.out.println("Resumed " + resumePath + " at tick " + world.getTime());
+		} else {
+			world = new World(width, height, seed, threads, parameters);
+		}
+		System.out.println("Seed: " + world.getSeed());
+		world.getMetrics().register(Long.toString(world.getSeed()));
+		
+		try (Checkpointer checkpointer = new Checkpointer();
+				EventJournal journal = (journalPath != null) ? new EventJournal(journalPath) : null) {
+			world.getCreatures().setJournal(journal);
+			boolean journaling = journal != null;
+			
+			long start = System.nanoTime(), last = start, lastTime = world.getTime();
+			while (world.getTime() < ticks) {
+				long steps = Math.min(report - world.getTime() % report, ticks - world.getTime());
+				if (checkpointEvery > 0) {
+					steps = Math.min(steps, checkpointEvery - world.getTime() % checkpointEvery);
+				}
+				world.step(steps);
+				
+				long time = world.getTime();
+				if (checkpointEvery > 0 && time % checkpointEvery == 0 && time < ticks) {
+					checkpointer.write(world::checkpoint, checkpointPath).whenComplete((written, failure) -> {
+						if (failure != null) {
+							System.err.println("Checkpoint of tick " + time + " failed: " + failure.getMessage());
+						}
+					});
+				}
+				if (time % report == 0 || time == ticks) {
+					long now = System.nanoTime();
+					System.out.printf("tick %d: %d creatures, %.0f ticks/s%n", time,
+							world.getCreatures().size(), (time - lastTime) * 1e9 / (now - last));
+					last = now;
+					lastTime = time;
+				}
+				if (journaling && journal.getError() != null) {
+					System.err.println("Journal failed, no longer recording: " + journal.getError().getMessage());
+					world.getCreatures().setJournal(null);
+					journaling = false;
+				}
+			}
+			
+			if (checkpointPath != null) {
+				checkpointer.write(world::checkpoint, checkpointPath);
+				checkpointer.awaitLastWrite();
+				System.out.println("Checkpoint written to " + checkpointPath);
+			}
+			System.out.printf("Ran to tick %d in %.1f s%n", world.getTime(), (System.nanoTime() - start) / 1e9);
+			if (journal != null) {
+				System.out.printf("Journaled %d events, dropped %d%n", journal.getCommitted(), journal.getDropped());
+			}
+		}
+	}
+	
+	/*
+	 * Returns parameters with the parameter of an option of the form
+	 * KEY=value set.
+	 */
+	private static Parameters withParameter(Parameters parameters, String option) {
+		int equals = option.indexOf('=');
+		if (equals < 0) {
+			throw new IllegalArgumentException("Expected KEY=value but got " + option + ".");
+		}
+		
+		return parameters.with(option.substring(0, equals), option.substring(equals + 1));
+	}
+}
@@ -0,0 +1,188 @@
+package simulation;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import creatures.CreaturePool;
+import creatures.Migrant;
+import functions.SeededRandom;
+import simulation.SimulationMetrics.Phase;
+
+/**
+ * An Island is one World of an island model, stepped on a thread of its own
+ * and connected to other Islands by MigrationQueues. Between ticks, every
+ * Migrant waiting in its inboxes is added to its World; every interval
+ * ticks, copies of a few Creatures chosen at random are offered to each of
+ * its outboxes. Queues never block, so Islands run at their own speed and
+ * never wait for each other; Migrants which do not fit into a full queue
+ * are dropped. The time taken by each exchange is recorded as the
+ * MIGRATION phase of the World's SimulationMetrics.
+ * 
+ * Since Migrants arrive whenever their source Island gets to send them, a
+ * run of several Islands is not reproduced exactly by its seeds, unlike a
+ * single World.
+ * 
+ * Copyright (C) 2022 Andrew Cupps, CC BY 4.0
+ * 
+ * @author Andrew Cupps
+ * @version 16 Oct 2026
+ */
+public class Island implements Runnable {
+	
+	/*
+	 * Salt mixed into the World seed for the generator choosing emigrants,
+	 * so that it does not repeat the generator of the CreaturePool
+	 */
+	private static final long MIGRATION_SALT = 0x5DEECE66DL;
+	
+	/*
+	 * The number of this Island, its World, the tick it runs until, the
+	 * ticks between emigrations and the number of Creatures copied to each
+	 * outbox per emigration
+	 */
+	private final int index;
+	private final World world;
+	private final long ticks, interval;
+	private final int numMigrants;
+	
+	/*
+	 * The queues Migrants arrive in and leave through, and the generator
+	 * choosing emigrants
+	 */
+	private final List<MigrationQueue> inboxes = new ArrayList<>();
+	private final List<MigrationQueue> outboxes = new ArrayList<>();
+	private final SeededRandom random;
+	
+	/*
+	 * Whether the Island should keep running, and the numbers of Migrants
+	 * received and sent
+	 */
+	private volatile boolean running = true;
+	private volatile long immigrants = 0, emigrants = 0;
+	
+	/**
+	 * Creates an Island running world until the given tick.
+	 * @param index - the number of the Island
+	 * @param world - the World of the Island, only used by its thread once
+	 * the Island runs
+	 * @param ticks - the tick to run until
+	 * @param interval - the number of ticks between emigrations
+	 * @param numMigrants - the number of Creatures copied to each outbox
+	 * per emigration
+	 * @throws IllegalArgumentException if interval is less than one or
+	 * numMigrants is negative
+	 */
+	public Island(int index, World world, long ticks, long interval, int numMigrants) {
+		if (interval < 1 || numMigrants < 0) {
+			throw new IllegalArgumentException("Migration interval must be at least one and migrants at least zero.");
+		}
+		
+		this.index = index;
+		this.world = world;
+		this.ticks = ticks;
+		this.interval = interval;
+		this.numMigrants = numMigrants;
+		random = new SeededRandom(world.getSeed() ^ MIGRATION_SALT);
+	}
+	
+	/**
+	 * Adds a queue Migrants arrive in; this Island must be its only consumer.
+	 * Must be called before the Island runs.
+	 * @param inbox - the queue to be polled
+	 */
+	public void addInbox(MigrationQueue inbox) {
+		inboxes.add(inbox);
+	}
+	
+	/**
+	 * Adds a queue Migrants are sent through; this Island must be its only
+	 * producer. Must be called before the Island runs.
+	 * @param outbox - the queue to be offered Migrants
+	 */
+	public void addOutbox(MigrationQueue outbox) {
+		outboxes.add(outbox);
+	}
+	
+	/**
+	 * Steps the World until it reaches the final tick or stop() is called,
+	 * exchanging Migrants between ticks.
+	 */
+	@Override
+	public void run() {
+		SimulationMetrics metrics = world.getMetrics();
+		while (running && world.getTime() < ticks) {
+			world.step();
+			
+			long t = metrics.start();
+			boolean exchanged = admit();
+			if (world.getTime() % interval == 0) {
+				emigrate();
+				exchanged = true;
+			}
+			if (exchanged) {
+				metrics.lap(Phase.MIGRATION, t);
+			}
+		}
+	}
+	
+	/*
+	 * Adds every Migrant waiting in the inboxes to the World; returns true if
+	 * there were any.
+	 */
+	private boolean admit() {
+		CreaturePool creatures = world.getCreatures();
+		long admitted = 0;
+		for (int i = 0; i < inboxes.size(); i++) {
+			Migrant migrant;
+			while ((migrant = inboxes.get(i).poll()) != null) {
+				creatures.immigrate(migrant);
+				admitted++;
+			}
+		}
+		
+		if (admitted > 0) {
+			immigrants += admitted;
+			return true;
+		}
+		return false;
+	}
+	
+	/*
+	 * Offers copies of numMigrants Creatures chosen at random to each outbox.
+	 */
+	private void emigrate() {
+		CreaturePool creatures = world.getCreatures();
+		for (int o = 0; o < outboxes.size(); o++) {
+			for (int m = 0; m < numMigrants && creatures.size() > 0; m++) {
+				int s = (int) (random.nextDouble() * creatures.size());
+				if (outboxes.get(o).offer(creatures.emigrate(s, random))) {
+					emigrants++;
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Stops the Island after its current tick.
+	 */
+	public void stop() {
+		running = false;
+	}
+	
+	/**
+	 * Returns the number of Migrants dropped because an outbox was full.
+	 * @return the number of Migrants dropped
+	 */
+	public long getDropped() {
+		long dropped = 0;
+		for (MigrationQueue outbox : outboxes) {
+			dropped += outbox.getDropped();
+		}
+		return dropped;
+	}
+	
+	public int getIndex() { return index; }
+	public World getWorld() { return world; }
+	public long getImmigrants() { return immigrants; }
+	public long getEmigrants() { return emigrants; }
+}
@@ -0,0 +1,135 @@
+package simulation;
+
+import creatures.CreaturePool;
+
+/**
+ * The IslandRunner runs an island model: several Worlds with different
+ * seeds, and so different terrain, each stepped on its own thread, which
+ * exchange a few Creatures at a regular interval. Islands are connected in
+ * a ring, each sending Migrants to the next through a MigrationQueue, so
+ * that good genomes spread slowly between otherwise independent
+ * populations. Every Island's SimulationMetrics are registered over JMX
+ * under the name island-N.
+ * 
+ * Options are given as pairs of arguments:
+ * --islands N    number of Islands (default 4)
+ * --seed S       seed of the first Island; Island i has seed S + i
+ *                (default -Djsenn.seed, or a new seed)
+ * --ticks N      ticks each Island is run for (default 1000000)
+ * --width W      width of each World in pixels (default 1920)
+ * --height H     height of each World in pixels (default 1080)
+ * --threads T    threads used to update the Creatures of each Island
+ *                (default 1)
+ * --interval I   ticks between migrations (default 1000)
+ * --migrants M   Creatures sent to the next Island per migration (default 2)
+ * --report R     milliseconds between progress reports (default 10000)
+ * 
+ * Copyright (C) 2022 Andrew Cupps, CC BY 4.0
+ * 
+ * @author Andrew Cupps
+ * @version 16 Oct 2026
+ */
+public class IslandRunner {
+	
+	/*
+	 * Number of Migrants each queue holds
+	 */
+	private static final int QUEUE_CAPACITY = 64;
+	
+	/**
+	 * Main method which creates Islands from the given options and runs them.
+	 * @param args - the options described above
+	 * @throws InterruptedException if interrupted while waiting for Islands
+	 */
+	public static void main(String[] args) throws InterruptedException {
+		int numIslands = 4;
+		long seed = World.defaultSeed();
+		long ticks = 1000000;
+		int width = 1920, height = 1080;
+		int threads = 1;
+		long interval = 1000;
+		int numMigrants = 2;
+		long report = 10000;
+		
+		for (int i = 0; i < args.length; i += 2) {
+			if (i + 1 >= args.length) {
+				throw new IllegalArgumentException("Missing value for option " + args[i] + ".");
+			}
+			
+			String value = args[i + 1];
+			switch (args[i]) {
+			case "--islands": numIslands = Integer.parseInt(value); break;
+			case "--seed": seed = Long.parseLong(value); break;
+			case "--ticks": ticks = Long.parseLong(value); break;
+			case "--width": width = Integer.parseInt(value); break;
+			case "--height": height = Integer.parseInt(value); break;
+			case "--threads": threads = Integer.parseInt(value); break;
+			case "--interval": interval = Long.parseLong(value); break;
+			case "--migrants": numMigrants = Integer.parseInt(value); break;
+			case "--report": report = Long.parseLong(value); break;
+			default: throw new IllegalArgumentException("Unknown option " + args[i] + ".");
+			}
+		}
+		
+		if (numIslands < 1 || report < 1) {
+			throw new IllegalArgumentException("Number of islands and report interval must be at least one.");
+		}
+		
+		Island[] islands = new Island[numIslands];
+		for (int i = 0; i < numIslands; i++) {
+			World world = new World(width, height, seed + i, threads);
+			world.getMetrics().register("island-" + i);
+			islands[i] = new Island(i, world, ticks, interval, numMigrants);
+		}
+		for (int i = 0; i < numIslands && numIslands > 1; i++) {
+			MigrationQueue queue = new MigrationQueue(QUEUE_CAPACITY);
+			islands[i].addOutbox(queue);
+			islands[(i + 1) % numIslands].addInbox(queue);
+		}
+		System.out.println("Running " + numIslands + " islands with seeds " + seed + " to " + (seed + numIslands - 1));
+		
+		Thread[] islandThreads = new Thread[numIslands];
+		for (int i = 0; i < numIslands; i++) {
+			islandThreads[i] = new Thread(islands[i], "JSENN island " + i);
+			islandThreads[i].start();
+		}
+		
+		long start = System.nanoTime();
+		for (int i = 0; i < numIslands; i++) {
+			while (islandThreads[i].isAlive()) {
+				islandThreads[i].join(report);
+				if (islandThreads[i].isAlive()) {
+					report(islands);
+				}
+			}
+		}
+		
+		System.out.printf("Ran %d islands to tick %d in %.1f s%n", numIslands, ticks,
+				(System.nanoTime() - start) / 1e9);
+		for (Island island : islands) {
+			CreaturePool creatures = island.getWorld().getCreatures();
+			int maxGeneration = 0;
+			for (int s = 0; s < creatures.size(); s++) {
+				maxGeneration = Math.max(maxGeneration, creatures.getGeneration(s));
+			}
+			System.out.printf("island %d: %d creatures, max generation %d, %d immigrants, %d emigrants, "
+					+ "%d dropped, migration %s%n", island.getIndex(), creatures.size(), maxGeneration,
+					island.getImmigrants(), island.getEmigrants(), island.getDropped(),
+					new LatencySummary(island.getWorld().getMetrics().getHistogram(SimulationMetrics.Phase.MIGRATION)));
+		}
+	}
+	
+	/*
+	 * Prints the progress of every Island from its thread-safe metrics.
+	 */
+	private static void report(Island[] islands) {
+		StringBuilder line = new StringBuilder();
+		for (Island island : islands) {
+			SimulationMetrics metrics = island.getWorld().getMetrics();
+			line.append(line.length() == 0 ? "" : ", ").append("island ").append(island.getIndex())
+					.append(": tick ").append(metrics.getTicks()).append(", ").append(metrics.getPopulation())
+					.append(" creatures");
+		}
+		System.out.println(line);
+	}
+}
@@ -0,0 +1,123 @@
+package simulation;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A LatencyHistogram counts recorded durations in logarithmic buckets, in
+ * the manner of HdrHistogram: every power of two is split into 32 linear
+ * sub-buckets, so any percentile is reported within about 3% of the true
+ * value using a fixed, small array, whatever the range of the durations.
+ * Durations may be recorded from any thread, and read from any other
+ * thread while they are being recorded; recording never allocates.
+ * 
+ * Copyright (C) 2022 Andrew Cupps, CC BY 4.0
+ * 
+ * @author Andrew Cupps
+ * @version 16 Oct 2026
+ */
+public final class LatencyHistogram {
+	
+	/*
+	 * Number of linear sub-buckets in every power of two; values below
+	 * twice this are counted exactly
+	 */
+	private static final int SUB_BUCKET_BITS = 5;
+	private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+	
+	/*
+	 * Number of counts needed to cover every non-negative long
+	 */
+	private static final int NUM_COUNTS = (64 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+	
+	/*
+	 * The count of each bucket, and the number, sum and maximum of all
+	 * recorded values
+	 */
+	private final AtomicLongArray counts = new AtomicLongArray(NUM_COUNTS);
+	private final AtomicLong count = new AtomicLong();
+	private final AtomicLong sum = new AtomicLong();
+	private final AtomicLong max = new AtomicLong();
+	
+	/**
+	 * Records a single duration; negative durations are recorded as 0.
+	 * @param nanos - the duration in nanoseconds
+	 */
+	public void record(long nanos) {
+		nanos = Math.max(0, nanos);
+		counts.incrementAndGet(index(nanos));
+		count.incrementAndGet();
+		sum.addAndGet(nanos);
+		max.accumulateAndGet(nanos, Math::max);
+	}
+	
+	/**
+	 * Returns the smallest recorded duration which is at least as long as the
+	 * given percentage of all recorded durations, rounded up to the end of
+	 * its bucket; returns 0 if nothing has been recorded.
+	 * @param percentile - the percentile, from 0 to 100
+	 * @return the duration at that percentile in nanoseconds
+	 */
+	public long getValueAtPercentile(double percentile) {
+		long total = count.get();
+		if (total == 0) {
+			return 0;
+		}
+		
+		long target = Math.max(1, (long) Math.ceil(total * Math.min(100, percentile) / 100));
+		long seen = 0;
+		for (int i = 0; i < NUM_COUNTS; i++) {
+			seen += counts.get(i);
+			if (seen >= target) {
+				return Math.min(highestValue(i), getMax());
+			}
+		}
+		
+		return getMax();
+	}
+	
+	/**
+	 * Forgets every recorded duration. Durations recorded while the
+	 * histogram is being reset may be partly kept.
+	 */
+	public void reset() {
+		for (int i = 0; i < NUM_COUNTS; i++) {
+			counts.set(i, 0);
+		}
+		count.set(0);
+		sum.set(0);
+		max.set(0);
+	}
+	
+	/**
+	 * Returns the mean of all recorded durations, or 0 if nothing has been
+	 * recorded.
+	 * @return the mean duration in nanoseconds
+	 */
+	public double getMean() {
+		long total = count.get();
+		return (total == 0) ? 0 : (double) sum.get() / total;
+	}
+	
+	public long getCount() { return count.get(); }
+	public long getMax() { return max.get(); }
+	
+	/*
+	 * Returns the index of the bucket counting value; the power of two
+	 * bucket starts at SUB_BUCKETS << bucket, except for bucket 0, which
+	 * counts every value below 2 * SUB_BUCKETS exactly.
+	 */
+	static int index(long value) {
+		int bucket = Math.max(0, 64 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS - 1);
+		return bucket * SUB_BUCKETS + (int) (value >>> bucket);
+	}
+	
+	/*
+	 * Returns the highest value counted by the bucket at index i.
+	 */
+	static long highestValue(int i) {
+		int bucket = Math.max(0, i / SUB_BUCKETS - 1);
+		long subBucket = i - bucket * SUB_BUCKETS;
+		return ((subBucket + 1) << bucket) - 1;
+	}
+}
@@ -0,0 +1,46 @@
+package simulation;
+
+/**
+ * A LatencySummary is an immutable summary of a LatencyHistogram at one
+ * point in time, in nanoseconds; through the SimulationMetricsMXBean it is
+ * shown as a composite value, with one item per getter.
+ * 
+ * Copyright (C) 2022 Andrew Cupps, CC BY 4.0
+ * 
+ * @author Andrew Cupps
+ * @version 16 Oct 2026
+ */
+public final class LatencySummary {
+	
+	private final long count;
+	private final double meanNanos;
+	private final long p50Nanos, p90Nanos, p99Nanos, p999Nanos, maxNanos;
+	
+	/**
+	 * Summarizes the durations currently recorded by histogram.
+	 * @param histogram - the histogram to be summarized
+	 */
+	public LatencySummary(LatencyHistogram histogram) {
+		count = histogram.getCount();
+		meanNanos = histogram.getMean();
+		p50Nanos = histogram.getValueAtPercentile(50);
+		p90Nanos = histogram.getValueAtPercentile(90);
+		p99Nanos = histogram.getValueAtPercentile(99);
+		p999Nanos = histogram.getValueAtPercentile(99.9);
+		maxNanos = histogram.getMax();
+	}
+	
+	public long getCount() { return count; }
+	public double getMeanNanos() { return meanNanos; }
+	public long getP50Nanos() { return p50Nanos; }
+	public long getP90Nanos() { return p90Nanos; }
+	public long getP99Nanos() { return p99Nanos; }
+	public long getP999Nanos() { return p999Nanos; }
+	public long getMaxNanos() { return maxNanos; }
+	
+	@Override
+	public String toString() {
+		return String.format("count %d, mean %.0f ns, p50 %d ns, p99 %d ns, max %d ns", 
+				count, meanNanos, p50Nanos, p99Nanos, maxNanos);
+	}
+}
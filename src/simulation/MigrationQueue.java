@@ -0,0 +1,113 @@
+package simulation;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import creatures.Migrant;
+
+/**
+ * A MigrationQueue hands Migrants from one Island to another without either
+ * of them ever waiting. It is a bounded ring with a single producer and a
+ * single consumer: the producer offers Migrants, which are dropped if the
+ * ring is full, and the consumer polls them, getting null once the ring is
+ * empty. Each side raises its own counter and publishes it with release
+ * semantics, so neither takes a lock or spins.
+ * 
+ * Only one thread may offer and only one thread may poll.
+ * 
+ * Copyright (C) 2022 Andrew Cupps, CC BY 4.0
+ * 
+ * @author Andrew Cupps
+ * @version 16 Oct 2026
+ */
+public class MigrationQueue {
+	
+	/*
+	 * The ring of Migrants and the number of Migrants it holds, a power of two
+	 */
+	private final Migrant[] ring;
+	private final int capacity;
+	
+	/*
+	 * The number of Migrants offered and the number polled; each counter is
+	 * only raised by one thread
+	 */
+	private final AtomicLong offered = new AtomicLong(), polled = new AtomicLong();
+	
+	/*
+	 * The producer's last reading of polled and the consumer's last reading
+	 * of offered, and the number of Migrants dropped
+	 */
+	private long cachedPolled = 0, cachedOffered = 0;
+	private volatile long dropped = 0;
+	
+	/**
+	 * Creates an empty MigrationQueue holding up to capacity Migrants.
+	 * @param capacity - the number of Migrants the queue holds; a power of two
+	 * @throws IllegalArgumentException if capacity is not a power of two
+	 */
+	public MigrationQueue(int capacity) {
+		if (capacity < 1 || Integer.bitCount(capacity) != 1) {
+			throw new IllegalArgumentException("Capacity must be a power of two.");
+		}
+		
+		this.capacity = capacity;
+		ring = new Migrant[capacity];
+	}
+	
+	/**
+	 * Adds migrant to the queue, or drops it if the queue is full.
+	 * @param migrant - the Migrant to be added
+	 * @return true if migrant was added, false if it was dropped
+	 */
+	public boolean offer(Migrant migrant) {
+		long head = offered.get();
+		if (head - cachedPolled >= capacity) {
+			cachedPolled = polled.get();
+			if (head - cachedPolled >= capacity) {
+				dropped++;
+				return false;
+			}
+		}
+		
+		ring[(int) (head & (capacity - 1))] = migrant;
+		offered.lazySet(head + 1);
+		return true;
+	}
+	
+	/**
+	 * Removes and returns the oldest Migrant in the queue.
+	 * @return the oldest Migrant, or null if the queue is empty
+	 */
+	public Migrant poll() {
+		long tail = polled.get();
+		if (tail >= cachedOffered) {
+			cachedOffered = offered.get();
+			if (tail >= cachedOffered) {
+				return null;
+			}
+		}
+		
+		int index = (int) (tail & (capacity - 1));
+		Migrant migrant = ring[index];
+		ring[index] = null;
+		polled.lazySet(tail + 1);
+		return migrant;
+	}
+	
+	/**
+	 * Returns the number of Migrants waiting in the queue; may be read from
+	 * any thread.
+	 * @return the number of Migrants waiting
+	 */
+	public int size() {
+		return (int) (offered.get() - polled.get());
+	}
+	
+	/**
+	 * Returns the number of Migrants dropped because the queue was full.
+	 * @return the number of Migrants dropped
+	 */
+	public long getDropped() {
+		return dropped;
+	}
+}
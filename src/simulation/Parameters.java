@@ -0,0 +1,249 @@
+package simulation;
+
+import java.util.Arrays;
+
+import checkpoint.StateReader;
+import checkpoint.StateWriter;
+
+/**
+ * Parameters are the constants of a World which experiments vary, such as
+ * how much eating costs or how fast soil regrows. A World reads them once
+ * when it is created and never shares them, so Worlds with different
+ * Parameters can run side by side in the same program. Parameters are
+ * immutable; with() returns a copy with one value changed.
+ * 
+ * Copyright (C) 2022 Andrew Cupps, CC BY 4.0
+ * 
+ * @author Andrew Cupps
+ * @version 16 Oct 2026
+ */
+public final class Parameters {
+	
+	/**
+	 * Every parameter, with its default value and the range of values it
+	 * may take; flags are 1 for true and 0 for false.
+	 */
+	public enum Key {
+		
+		/**
+		 * Amount of energy used when a Creature eats
+		 */
+		CREATURE_EAT_COST(12.5, false, 0, Double.MAX_VALUE),
+		
+		/**
+		 * The amount of ticks before a Creature can reproduce
+		 */
+		CREATURE_REPRODUCTION_TIME(80, true, 0, Integer.MAX_VALUE),
+		
+		/**
+		 * Amount of energy used when a Creature attacks, the damage it deals
+		 * each Creature it touches per point of its attack above the other's
+		 * defense, and the energy taken from the Creature attacked and given
+		 * to the attacker per point of damage
+		 */
+		CREATURE_ATTACK_COST(5, false, 0, Double.MAX_VALUE),
+		CREATURE_ATTACK_DAMAGE_RATE(0.1, false, 0, Double.MAX_VALUE),
+		CREATURE_ATTACK_ENERGY_TRANSFER(1, false, 0, Double.MAX_VALUE),
+		
+		/**
+		 * The rate that nutrition naturally increases on soil Tiles
+		 */
+		NUTRITION_INCREASE_RATE(3.5, false, 0, Double.MAX_VALUE),
+		
+		/**
+		 * Number of Creatures spawned when the World is created, and minimum
+		 * number of Creatures
+		 */
+		INITIAL_NUM_CREATURES(60, true, 0, Integer.MAX_VALUE),
+		MIN_NUM_CREATURES(30, true, 0, Integer.MAX_VALUE),
+		
+		/**
+		 * For simulation of changing conditions: whether the nutrition of
+		 * soil rises and falls in cycles, by how much, and how fast
+		 */
+		CHANGING_NUTRITION(0, true, 0, 1),
+		TOTAL_CHANGE_AMOUNT(100, false, 0, Double.MAX_VALUE),
+		CHANGE_RATE_MODIFIER(0.001, false, 0, Double.MAX_VALUE),
+		
+		/**
+		 * For simulation of moving terrain: whether the terrain moves, and
+		 * the number of ticks between movements
+		 */
+		CHANGING_TERRAIN(0, true, 0, 1),
+		TIME_BETWEEN_CHANGES(600, true, 1, Integer.MAX_VALUE),
+		
+		/**
+		 * Whether the World computes sigmoids with the FAST, table-based
+		 * SigmoidMode rather than the EXACT one; networks evaluated by the
+		 * vector kernel use its own approximation either way
+		 */
+		FAST_SIGMOID(0, true, 0, 1),
+		
+		/**
+		 * Whether the networks of Creatures are evaluated with the SIMD
+		 * kernel, which needs --add-modules jdk.incubator.vector and falls
+		 * back to the exact scalar kernel without it
+		 */
+		VECTOR_KERNEL(0, true, 0, 1);
+		
+		private final double defaultValue, min, max;
+		private final boolean integral;
+		
+		private Key(double defaultValue, boolean integral, double min, double max) {
+			this.defaultValue = defaultValue;
+			this.integral = integral;
+			this.min = min;
+			this.max = max;
+		}
+		
+		/**
+		 * @return the value of this Key in DEFAULT
+		 */
+		public double getDefault() { return defaultValue; }
+		
+		/**
+		 * @return whether values of this Key must be whole numbers
+		 */
+		public boolean isIntegral() { return integral; }
+	}
+	
+	/**
+	 * The Parameters every World has unless it is given others.
+	 */
+	public static final Parameters DEFAULT = new Parameters();
+	
+	/*
+	 * The value of each Key, by ordinal
+	 */
+	private final double[] values;
+	
+	private Parameters() {
+		Key[] keys = Key.values();
+		values = new double[keys.length];
+		for (int k = 0; k < keys.length; k++) {
+			values[k] = keys[k].defaultValue;
+		}
+	}
+	
+	private Parameters(double[] values) {
+		this.values = values;
+	}
+	
+	/**
+	 * Returns a copy of these Parameters with the value of key replaced.
+	 * @param key - the Key to be changed
+	 * @param value - its new value
+	 * @return the changed copy
+	 * @throws IllegalArgumentException if value is out of the range of key,
+	 * or if key is integral and value is not a whole number
+	 */
+	public Parameters with(Key key, double value) {
+		check(key, value);
+		double[] changed = values.clone();
+		changed[key.ordinal()] = value;
+		return new Parameters(changed);
+	}
+	
+	/**
+	 * Returns a copy of these Parameters with the value of the named Key
+	 * replaced by the given text: a number, or true or false for flags.
+	 * @param name - the name of the Key, such as "CREATURE_EAT_COST"
+	 * @param value - the text of its new value
+	 * @return the changed copy
+	 * @throws IllegalArgumentException if there is no such Key or the value
+	 * is invalid
+	 */
+	public Parameters with(String name, String value) {
+		Key key;
+		try {
+			key = Key.valueOf(name.trim().toUpperCase());
+		} catch (IllegalArgumentException e) {
+			throw new IllegalArgumentException("Unknown parameter " + name + "; expected one of "
+					+ Arrays.toString(Key.values()) + ".");
+		}
+		
+		String text = value.trim();
+		if (text.equalsIgnoreCase("true") || text.equalsIgnoreCase("false")) {
+			return with(key, text.equalsIgnoreCase("true") ? 1 : 0);
+		}
+		try {
+			return with(key, Double.parseDouble(text));
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException("Invalid value " + value + " for " + key + ".");
+		}
+	}
+	
+	public double get(Key key) { return values[key.ordinal()]; }
+	public int getInt(Key key) { return (int) values[key.ordinal()]; }
+	public boolean is(Key key) { return values[key.ordinal()] != 0; }
+	
+	/**
+	 * Puts every value into state.
+	 * @param state - the StateWriter the Parameters are saved to
+	 */
+	public void saveState(StateWriter state) {
+		for (Key key : Key.values()) {
+			state.putLong("parameters." + key.name(), Double.doubleToRawLongBits(get(key)));
+		}
+	}
+	
+	/**
+	 * Returns the Parameters saved by saveState().
+	 * @param state - the StateReader the Parameters are restored from
+	 * @return the saved Parameters
+	 * @throws IllegalArgumentException if a saved value is invalid
+	 */
+	public static Parameters restoreState(StateReader state) {
+		double[] values = new double[Key.values().length];
+		for (Key key : Key.values()) {
+			values[key.ordinal()] = Double.longBitsToDouble(state.getLong("parameters." + key.name()));
+			check(key, values[key.ordinal()]);
+		}
+		return new Parameters(values);
+	}
+	
+	/**
+	 * Returns these Parameters as NAME=value pairs separated by spaces.
+	 * @return the Parameters as text
+	 */
+	@Override
+	public String toString() {
+		StringBuilder text = new StringBuilder();
+		for (Key key : Key.values()) {
+			if (text.length() > 0) {
+				text.append(' ');
+			}
+			text.append(key).append('=').append(format(key));
+		}
+		return text.toString();
+	}
+	
+	/**
+	 * Returns the value of key as text, without a fraction for integral Keys.
+	 * @param key - the Key to be formatted
+	 * @return the value of key
+	 */
+	public String format(Key key) {
+		return key.integral ? Long.toString((long) get(key)) : Double.toString(get(key));
+	}
+	
+	@Override
+	public boolean equals(Object other) {
+		return other instanceof Parameters && Arrays.equals(values, ((Parameters) other).values);
+	}
+	
+	@Override
+	public int hashCode() {
+		return Arrays.hashCode(values);
+	}
+	
+	/*
+	 * Checks that value is in the range of key, and a whole number if key is
+	 * integral.
+	 */
+	private static void check(Key key, double value) {
+		if (!(value >= key.min && value <= key.max) || (key.integral && value != Math.rint(value))) {
+			throw new IllegalArgumentException("Invalid value " + value + " for " + key + ".");
+		}
+	}
+}
@@ -0,0 +1,87 @@
+package simulation;
+
+/**
+ * A RenderSnapshot is a copy of everything needed to draw a World at the
+ * end of one tick: the packed color of every Tile, and the position, size,
+ * color and vision point of every Creature, in pixels. Snapshots are written
+ * by the simulation thread through a SnapshotExchange and read by a viewer;
+ * a snapshot is never modified while a viewer holds it, so the viewer may
+ * read it without any locking. The arrays returned by the getters are the
+ * snapshot's own and must not be modified; only the first getNumCreatures()
+ * entries of the Creature arrays are valid.
+ * 
+ * Copyright (C) 2022 Andrew Cupps, CC BY 4.0
+ * 
+ * @author Andrew Cupps
+ * @version 16 Oct 2026
+ */
+public final class RenderSnapshot {
+	
+	/*
+	 * Initial number of Creatures the Creature arrays can hold
+	 */
+	private static final int INITIAL_CAPACITY = 64;
+	
+	/*
+	 * The position of this snapshot in its SnapshotExchange, which stays the
+	 * same for the life of the snapshot
+	 */
+	private final int index;
+	
+	/*
+	 * The number of columns and rows of Tiles, and the packed color of each
+	 * Tile in row-major order
+	 */
+	private final int tilesWidth, tilesHeight;
+	final int[] tileRGB;
+	
+	/*
+	 * The tick this snapshot was taken after, or -1 if it has never been
+	 * written
+	 */
+	long tick = -1;
+	
+	/*
+	 * The number of Creatures, and the fields of each Creature used for drawing
+	 */
+	int numCreatures;
+	int[] creatureX, creatureY, creatureSize, creatureRGB, visionX, visionY;
+	
+	RenderSnapshot(int index, int tilesWidth, int tilesHeight) {
+		this.index = index;
+		this.tilesWidth = tilesWidth;
+		this.tilesHeight = tilesHeight;
+		tileRGB = new int[tilesWidth * tilesHeight];
+		ensureCapacity(INITIAL_CAPACITY);
+	}
+	
+	/*
+	 * Grows the Creature arrays to hold at least n Creatures.
+	 */
+	void ensureCapacity(int n) {
+		if (creatureX != null && creatureX.length >= n) {
+			return;
+		}
+		
+		int capacity = Math.max(n, (creatureX == null) ? 0 : creatureX.length * 2);
+		creatureX = new int[capacity];
+		creatureY = new int[capacity];
+		creatureSize = new int[capacity];
+		creatureRGB = new int[capacity];
+		visionX = new int[capacity];
+		visionY = new int[capacity];
+	}
+	
+	public int getIndex() { return index; }
+	public long getTick() { return tick; }
+	public int getTilesWidth() { return tilesWidth; }
+	public int getTilesHeight() { return tilesHeight; }
+	public int[] getTileRGB() { return tileRGB; }
+	public int getNumCreatures() { return numCreatures; }
+	public int[] getCreatureX() { return creatureX; }
+	public int[] getCreatureY() { return creatureY; }
+	public int[] getCreatureSize() { return creatureSize; }
+	public int[] getCreatureRGB() { return creatureRGB; }
+	public int[] getVisionX() { return visionX; }
+	public int[] getVisionY() { return visionY; }
+}
@@ -0,0 +1,220 @@
+package simulation;
+
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * SimulationMetrics records where the time of every tick of a World goes,
+ * and counts ticks, births and deaths. Each Phase of a tick is timed into
+ * its own LatencyHistogram; timing a phase costs a single System.nanoTime()
+ * call, since consecutive phases share their boundaries through lap(). All
+ * of it can be exposed to JConsole or VisualVM through register().
+ * 
+ * Copyright (C) 2022 Andrew Cupps, CC BY 4.0
+ * 
+ * @author Andrew Cupps
+ * @version 16 Oct 2026
+ */
+public class SimulationMetrics implements SimulationMetricsMXBean {
+	
+	/**
+	 * The timed phases; TICK is the whole tick, from MOVE to TERRAIN, while
+	 * PUBLISH and PAINT are timed by the SimulationThread and the viewer,
+	 * CHECKPOINT is the pause taken to copy the World for a checkpoint, and
+	 * MIGRATION is the pause taken by an Island to exchange Migrants.
+	 */
+	public enum Phase {
+		TICK, MOVE, EAT, COMBAT, SENSE, DEATHS, BIRTHS, TILES, TERRAIN, PUBLISH, PAINT, CHECKPOINT, MIGRATION
+	}
+	
+	/*
+	 * The histogram of each Phase, by ordinal
+	 */
+	private final LatencyHistogram[] histograms = new LatencyHistogram[Phase.values().length];
+	
+	/*
+	 * Counters of ticks, births and deaths, and the current population
+	 */
+	private final AtomicLong ticks = new AtomicLong();
+	private final AtomicLong births = new AtomicLong();
+	private final AtomicLong deaths = new AtomicLong();
+	private volatile int population;
+	
+	/*
+	 * Whether phases are timed
+	 */
+	private volatile boolean enabled = true;
+	
+	/*
+	 * The bytes allocated by each thread when getAllocatedBytes() last saw
+	 * it alive, by thread id, so that threads which have since exited are
+	 * still counted
+	 */
+	private final Map<Long, Long> allocatedByThread = new HashMap<>();
+	
+	/**
+	 * Creates SimulationMetrics with every histogram and counter empty.
+	 */
+	public SimulationMetrics() {
+		for (int i = 0; i < histograms.length; i++) {
+			histograms[i] = new LatencyHistogram();
+		}
+	}
+	
+	/**
+	 * Returns the time a phase starts at, to be passed to lap() when it ends,
+	 * or 0 if phases are not being timed.
+	 * @return the current System.nanoTime(), or 0
+	 */
+	public long start() {
+		return enabled ? System.nanoTime() : 0;
+	}
+	
+	/**
+	 * Records the time since start as the duration of phase, and returns the
+	 * current time as the start of the next phase. Nothing is recorded if
+	 * start is 0, as returned by start() when phases are not being timed.
+	 * @param phase - the Phase which has just ended
+	 * @param start - the time the phase started at
+	 * @return the current System.nanoTime(), or 0
+	 */
+	public long lap(Phase phase, long start) {
+		if (start == 0) {
+			return start();
+		}
+		
+		long now = System.nanoTime();
+		histograms[phase.ordinal()].record(now - start);
+		return now;
+	}
+	
+	/**
+	 * Counts Creatures born and Creatures which died.
+	 * @param births - the number of Creatures born
+	 * @param deaths - the number of Creatures which died
+	 */
+	public void count(int births, int deaths) {
+		this.births.addAndGet(births);
+		this.deaths.addAndGet(deaths);
+	}
+	
+	/**
+	 * Counts the end of a tick.
+	 * @param population - the number of Creatures alive after the tick
+	 */
+	public void endTick(int population) {
+		ticks.incrementAndGet();
+		this.population = population;
+	}
+	
+	/**
+	 * Registers these metrics with the platform MBean server under the name
+	 * jsenn:type=SimulationMetrics,name=name.
+	 * @param name - the name distinguishing these metrics from others
+	 * @return the ObjectName registered
+	 * @throws IllegalStateException if the metrics could not be registered,
+	 * such as when the name is already taken
+	 */
+	public ObjectName register(String name) {
+		try {
+			ObjectName objectName = new ObjectName("jsenn:type=SimulationMetrics,name=" + ObjectName.quote(name));
+			ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+			return objectName;
+		} catch (JMException e) {
+			throw new IllegalStateException("Could not register metrics " + name + ".", e);
+		}
+	}
+	
+	/**
+	 * Returns the histogram of phase.
+	 * @param phase - the Phase
+	 * @return the LatencyHistogram phase is recorded in
+	 */
+	public LatencyHistogram getHistogram(Phase phase) {
+		return histograms[phase.ordinal()];
+	}
+	
+	@Override
+	public void reset() {
+		for (LatencyHistogram histogram : histograms) {
+			histogram.reset();
+		}
+		ticks.set(0);
+		births.set(0);
+		deaths.set(0);
+	}
+	
+	@Override
+	public synchronized long getAllocatedBytes() {
+		if (!(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean)) {
+			return -1;
+		}
+		
+		com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		if (!threads.isThreadAllocatedMemorySupported() || !threads.isThreadAllocatedMemoryEnabled()) {
+			return -1;
+		}
+		
+		long[] ids = threads.getAllThreadIds();
+		long[] allocated = threads.getThreadAllocatedBytes(ids);
+		for (int i = 0; i < ids.length; i++) {
+			if (allocated[i] > 0) {
+				allocatedByThread.merge(ids[i], allocated[i], Math::max);
+			}
+		}
+		
+		long total = 0;
+		for (long bytes : allocatedByThread.values()) {
+			total += bytes;
+		}
+		return total;
+	}
+	
+	@Override
+	public boolean isEnabled() { return enabled; }
+	@Override
+	public void setEnabled(boolean enabled) { this.enabled = enabled; }
+	@Override
+	public long getTicks() { return ticks.get(); }
+	@Override
+	public int getPopulation() { return population; }
+	@Override
+	public long getBirths() { return births.get(); }
+	@Override
+	public long getDeaths() { return deaths.get(); }
+	@Override
+	public LatencySummary getTickLatency() { return summary(Phase.TICK); }
+	@Override
+	public LatencySummary getMoveLatency() { return summary(Phase.MOVE); }
+	@Override
+	public LatencySummary getEatLatency() { return summary(Phase.EAT); }
+	@Override
+	public LatencySummary getCombatLatency() { return summary(Phase.COMBAT); }
+	@Override
+	public LatencySummary getSenseLatency() { return summary(Phase.SENSE); }
+	@Override
+	public LatencySummary getDeathLatency() { return summary(Phase.DEATHS); }
+	@Override
+	public LatencySummary getBirthLatency() { return summary(Phase.BIRTHS); }
+	@Override
+	public LatencySummary getTileLatency() { return summary(Phase.TILES); }
+	@Override
+	public LatencySummary getTerrainLatency() { return summary(Phase.TERRAIN); }
+	@Override
+	public LatencySummary getPublishLatency() { return summary(Phase.PUBLISH); }
+	@Override
+	public LatencySummary getPaintLatency() { return summary(Phase.PAINT); }
+	@Override
+	public LatencySummary getCheckpointLatency() { return summary(Phase.CHECKPOINT); }
+	@Override
+	public LatencySummary getMigrationLatency() { return summary(Phase.MIGRATION); }
+	
+	private LatencySummary summary(Phase phase) {
+		return new LatencySummary(histograms[phase.ordinal()]);
+	}
+}
@@ -0,0 +1,59 @@
+package simulation;
+
+/**
+ * The management interface of SimulationMetrics, through which the metrics
+ * of a running World can be watched live in JConsole or VisualVM. Every
+ * latency is summarized from all ticks since the metrics were last reset.
+ * 
+ * Copyright (C) 2022 Andrew Cupps, CC BY 4.0
+ * 
+ * @author Andrew Cupps
+ * @version 16 Oct 2026
+ */
+public interface SimulationMetricsMXBean {
+	
+	/**
+	 * @return whether phases are being timed
+	 */
+	boolean isEnabled();
+	
+	/**
+	 * Starts or stops timing phases; counters are always kept.
+	 * @param enabled - whether phases should be timed
+	 */
+	void setEnabled(boolean enabled);
+	
+	/**
+	 * Forgets every recorded latency and resets the counters of ticks,
+	 * births and deaths.
+	 */
+	void reset();
+	
+	long getTicks();
+	int getPopulation();
+	long getBirths();
+	long getDeaths();
+	
+	/**
+	 * Returns the number of bytes allocated by every thread of the JVM which
+	 * was alive at this or an earlier call, so that the total never falls
+	 * when threads exit; bytes a thread allocated after the last call which
+	 * saw it alive are not counted.
+	 * @return the number of bytes allocated, or -1 if the JVM cannot measure it
+	 */
+	long getAllocatedBytes();
+	
+	LatencySummary getTickLatency();
+	LatencySummary getMoveLatency();
+	LatencySummary getEatLatency();
+	LatencySummary getCombatLatency();
+	LatencySummary getSenseLatency();
+	LatencySummary getDeathLatency();
+	LatencySummary getBirthLatency();
+	LatencySummary getTileLatency();
+	LatencySummary getTerrainLatency();
+	LatencySummary getPublishLatency();
+	LatencySummary getPaintLatency();
+	LatencySummary getCheckpointLatency();
+	LatencySummary getMigrationLatency();
+}
@@ -0,0 +1,259 @@
+package simulation;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.locks.LockSupport;
+
+import checkpoint.Checkpointer;
+
+/**
+ * The SimulationThread steps a World on its own thread, separately from any
+ * viewer, and publishes RenderSnapshots of it through a SnapshotExchange. A
+ * viewer only ever reads published snapshots, so a slow tick never stalls
+ * the display and a slow frame never stalls the simulation.
+ * 
+ * Ticks are scheduled with a fixed timestep: at normal Speed the World is
+ * stepped UPDATE_RATE times per second, and faster Speeds multiply that rate,
+ * while snapshots are still published at most FRAME_RATE times per second,
+ * so frames are skipped rather than ticks. If ticks take longer than the
+ * Speed allows, the thread catches up by running extra ticks, but never more
+ * than MAX_CATCH_UP_NANOS of real time worth; anything beyond is dropped and
+ * the simulation simply runs slower than the chosen Speed.
+ * 
+ * Checkpoints requested from other threads are taken between ticks and
+ * written in the background by a Checkpointer.
+ * 
+ * Copyright (C) 2022 Andrew Cupps, CC BY 4.0
+ * 
+ * @author Andrew Cupps
+ * @version 16 Oct 2026
+ */
+public class SimulationThread extends Thread {
+	
+	/**
+	 * Simulation speeds, as multiples of UPDATE_RATE; MAX steps the World as
+	 * fast as possible.
+	 */
+	public enum Speed {
+		NORMAL(1), FAST(10), FASTER(100), MAX(0);
+		
+		private final int multiplier;
+		
+		private Speed(int multiplier) {
+			this.multiplier = multiplier;
+		}
+		
+		/**
+		 * Returns the Speed named by the given multiplier, "1", "10" or
+		 * "100", or by "max".
+		 * @param name - the multiplier or "max"
+		 * @return the Speed with that name
+		 * @throws IllegalArgumentException if name is not a Speed
+		 */
+		public static Speed parse(String name) {
+			for (Speed speed : values()) {
+				if (speed == MAX ? name.equalsIgnoreCase("max") : name.equals(Integer.toString(speed.multiplier))) {
+					return speed;
+				}
+			}
+			throw new IllegalArgumentException("Unknown speed " + name + "; expected 1, 10, 100 or max.");
+		}
+		
+		/**
+		 * @return the number of ticks simulated per tick at normal Speed, or
+		 * 0 for MAX
+		 */
+		public int getMultiplier() { return multiplier; }
+	}
+	
+	/**
+	 * Number of times per second the World should be updated at normal
+	 * Speed, and the simulated time of one tick in nanoseconds.
+	 */
+	private static final int UPDATE_RATE = 60;
+	private static final long TICK_NANOS = 1000000000L / UPDATE_RATE;
+	
+	/**
+	 * Maximum number of times per second a snapshot is published.
+	 */
+	private static final int FRAME_RATE = 60;
+	private static final long FRAME_NANOS = 1000000000L / FRAME_RATE;
+	
+	/*
+	 * How far behind real time, in real nanoseconds, the simulation may fall
+	 * and still catch up
+	 */
+	private static final long MAX_CATCH_UP_NANOS = 250000000L;
+	
+	/*
+	 * The World stepped by this thread, and the exchange snapshots of it are
+	 * published to
+	 */
+	private final World world;
+	private final SnapshotExchange snapshots;
+	
+	/*
+	 * Whether the simulation is paused, and whether this thread should keep
+	 * running; both may be changed from other threads.
+	 */
+	private volatile boolean paused = false;
+	private volatile boolean running = true;
+	
+	/*
+	 * The current simulation speed; may be changed from other threads.
+	 */
+	private volatile Speed speed = Speed.NORMAL;
+	
+	/*
+	 * The file a checkpoint has been requested to, or null, which may be set
+	 * from other threads, and the Checkpointer writing checkpoints
+	 */
+	private volatile Path checkpointRequest = null;
+	private final Checkpointer checkpointer = new Checkpointer();
+	
+	/**
+	 * Creates a SimulationThread stepping the given World, and publishes a
+	 * first snapshot of it so that a viewer has something to draw before the
+	 * thread is started.
+	 * @param world - the World to be stepped
+	 * @param snapshots - the exchange snapshots are published to
+	 */
+	public SimulationThread(World world, SnapshotExchange snapshots) {
+		super("JSENN simulation");
+		this.world = world;
+		this.snapshots = snapshots;
+		setDaemon(true);
+		
+		snapshots.publish(world);
+	}
+	
+	/**
+	 * Steps the World at the current Speed, publishing a snapshot once per
+	 * frame in which it was stepped, until shutdown() is called.
+	 */
+	@Override
+	public void run() {
+		long previous = System.nanoTime();
+		long nextFrame = previous;
+		long lag = 0;  // simulated nanoseconds owed, at most one catch-up
+		boolean unpublished = false;
+		while (running) {
+			takeRequestedCheckpoint();
+			
+			Speed speed = this.speed;
+			boolean stepping = !paused;
+			long now = System.nanoTime();
+			if (!stepping || speed == Speed.MAX) {
+				lag = 0;
+			} else {
+				lag = Math.min(lag + (now - previous) * speed.multiplier, MAX_CATCH_UP_NANOS * speed.multiplier);
+			}
+			previous = now;
+			
+			/*
+			 * Running owed ticks until the next frame is due
+			 */
+			while (stepping && (speed == Speed.MAX || lag >= TICK_NANOS) && now < nextFrame && running) {
+				world.step();
+				unpublished = true;
+				lag -= (speed == Speed.MAX) ? 0 : TICK_NANOS;
+				now = System.nanoTime();
+			}
+			
+			/*
+			 * Publishing once per frame; frames missed while ticks ran long
+			 * are skipped
+			 */
+			if (now >= nextFrame) {
+				if (unpublished) {
+					long t = world.getMetrics().start();
+					snapshots.publish(world);
+					world.getMetrics().lap(SimulationMetrics.Phase.PUBLISH, t);
+					unpublished = false;
+				}
+				nextFrame += FRAME_NANOS;
+				if (nextFrame <= now) {
+					nextFrame = now + FRAME_NANOS;
+				}
+				continue;
+			}
+			
+			/*
+			 * Waiting for the next tick or frame
+			 */
+			long delay = nextFrame - now;
+			if (stepping && speed != Speed.MAX) {
+				delay = Math.min(delay, (TICK_NANOS - lag) / speed.multiplier);
+			}
+			LockSupport.parkNanos(delay);
+		}
+		
+		takeRequestedCheckpoint();
+		try {
+			checkpointer.close();
+		} catch (IOException e) {
+			// Already reported when the write completed
+		}
+	}
+	
+	/*
+	 * Takes the requested checkpoint, if any; the write is reported once it
+	 * has finished, and a failed write is reported rather than stopping the
+	 * simulation.
+	 */
+	private void takeRequestedCheckpoint() {
+		Path path = checkpointRequest;
+		if (path == null) {
+			return;
+		}
+		
+		checkpointRequest = null;
+		long time = world.getTime();
+		try {
+			checkpointer.write(world::checkpoint, path).whenComplete((written, failure) -> {
+				if (failure == null) {
+					System.out.println("Checkpoint of tick " + time + " written to " + path);
+				} else {
+					System.err.println("Checkpoint of tick " + time + " failed: " + failure.getMessage());
+				}
+			});
+		} catch (IOException e) {
+			System.err.println("Checkpoint failed: " + e.getMessage());
+		}
+	}
+	
+	/**
+	 * Sets the simulation speed; takes effect from the next tick.
+	 * @param speed - the new Speed
+	 */
+	public void setSpeed(Speed speed) {
+		this.speed = speed;
+	}
+	
+	/**
+	 * Pauses the simulation if it is running, or resumes it if it is paused.
+	 */
+	public void togglePause() {
+		paused = !paused;
+	}
+	
+	/**
+	 * Requests a checkpoint of the World to be taken after the current tick
+	 * and written to path in the background.
+	 * @param path - the checkpoint file
+	 */
+	public void requestCheckpoint(Path path) {
+		checkpointRequest = path;
+		LockSupport.unpark(this);
+	}
+	
+	/**
+	 * Stops this thread after the current tick.
+	 */
+	public void shutdown() {
+		running = false;
+	}
+	
+	public boolean isPaused() { return paused; }
+	public Speed getSpeed() { return speed; }
+}
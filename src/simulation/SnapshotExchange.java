@@ -0,0 +1,151 @@
+package simulation;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import creatures.CreaturePool;
+import environment.TileField;
+
+/**
+ * The SnapshotExchange passes RenderSnapshots of a World from the simulation
+ * thread to a viewer without either side ever waiting for the other. It is a
+ * triple buffer: the simulation thread writes into a back snapshot and then
+ * swaps it with the middle one, while the viewer swaps the middle snapshot
+ * with the front one it reads whenever a newer snapshot has been published.
+ * The swaps are single atomic operations, so the snapshot a viewer holds is
+ * never written until the viewer takes another.
+ * 
+ * Each snapshot only has the colors of Tiles which changed since that
+ * snapshot was last written copied into it, so publishing costs time in
+ * proportion to the number of Creatures and changed Tiles.
+ * 
+ * Only one thread may publish and only one thread may take snapshots.
+ * 
+ * Copyright (C) 2022 Andrew Cupps, CC BY 4.0
+ * 
+ * @author Andrew Cupps
+ * @version 16 Oct 2026
+ */
+public class SnapshotExchange {
+	
+	/*
+	 * Flag set on the middle index when its snapshot has not yet been taken
+	 */
+	private static final int FRESH = 4;
+	private static final int INDEX_MASK = 3;
+	
+	/*
+	 * The three snapshots; back is only used by the publishing thread, front
+	 * only by the taking thread, and middle holds the index of the third
+	 * snapshot, with the FRESH flag
+	 */
+	private final RenderSnapshot[] snapshots = new RenderSnapshot[3];
+	private int back = 0, front = 2;
+	private final AtomicInteger middle = new AtomicInteger(1);
+	
+	/*
+	 * For each snapshot, the indices of Tiles whose color has changed since
+	 * the snapshot was last written, the number of such Tiles, and whether
+	 * each Tile is in the list; a snapshot which has never been written has
+	 * every Tile copied instead.
+	 */
+	private final int[][] changedTiles = new int[3][];
+	private final int[] numChangedTiles = new int[3];
+	private final boolean[][] isChangedTile = new boolean[3][];
+	private final boolean[] written = new boolean[3];
+	
+	/**
+	 * Creates a SnapshotExchange for snapshots of the given World.
+	 * @param world - the World to be published
+	 */
+	public SnapshotExchange(World world) {
+		TileField tiles = world.getTiles();
+		for (int b = 0; b < 3; b++) {
+			snapshots[b] = new RenderSnapshot(b, tiles.getWidth(), tiles.getHeight());
+			changedTiles[b] = new int[tiles.size()];
+			isChangedTile[b] = new boolean[tiles.size()];
+		}
+	}
+	
+	/**
+	 * Writes a snapshot of the current state of world and publishes it,
+	 * replacing any snapshot which has not been taken yet. Must only be
+	 * called from the thread stepping world.
+	 * @param world - the World to be published
+	 */
+	public void publish(World world) {
+		TileField tiles = world.getTiles();
+		recordChangedTiles(tiles);
+		
+		RenderSnapshot snapshot = snapshots[back];
+		if (!written[back]) {
+			for (int t = 0; t < snapshot.tileRGB.length; t++) {
+				snapshot.tileRGB[t] = tiles.getRGB(t);
+			}
+			written[back] = true;
+		} else {
+			int[] changed = changedTiles[back];
+			for (int k = 0; k < numChangedTiles[back]; k++) {
+				snapshot.tileRGB[changed[k]] = tiles.getRGB(changed[k]);
+			}
+		}
+		clearChangedTiles(back);
+		
+		CreaturePool creatures = world.getCreatures();
+		int n = creatures.size();
+		snapshot.ensureCapacity(n);
+		for (int s = 0; s < n; s++) {
+			snapshot.creatureX[s] = (int) creatures.getX(s);
+			snapshot.creatureY[s] = (int) creatures.getY(s);
+			snapshot.creatureSize[s] = (int) creatures.getSize(s);
+			snapshot.creatureRGB[s] = creatures.getCreatureRGB(s);
+			snapshot.visionX[s] = (int) creatures.getVisionXGraphics(s);
+			snapshot.visionY[s] = (int) creatures.getVisionYGraphics(s);
+		}
+		snapshot.numCreatures = n;
+		snapshot.tick = world.getTime();
+		
+		back = middle.getAndSet(back | FRESH) & INDEX_MASK;
+	}
+	
+	/**
+	 * Returns the most recently published snapshot; the snapshot is not
+	 * written again until take() is next called. Returns null if nothing has
+	 * been published yet.
+	 * @return the latest RenderSnapshot, or null
+	 */
+	public RenderSnapshot take() {
+		if ((middle.get() & FRESH) != 0) {
+			front = middle.getAndSet(front) & INDEX_MASK;
+		}
+		
+		RenderSnapshot snapshot = snapshots[front];
+		return (snapshot.tick < 0) ? null : snapshot;
+	}
+	
+	/*
+	 * Moves the Tiles whose color has changed since the last publish from the
+	 * TileField into the changed list of every snapshot.
+	 */
+	private void recordChangedTiles(TileField tiles) {
+		for (int k = 0; k < tiles.getNumChanged(); k++) {
+			int t = tiles.getChanged(k);
+			for (int b = 0; b < 3; b++) {
+				if (written[b] && !isChangedTile[b][t]) {
+					isChangedTile[b][t] = true;
+					changedTiles[b][numChangedTiles[b]++] = t;
+				}
+			}
+		}
+		tiles.clearChanged();
+	}
+	
+	/*
+	 * Empties the changed list of snapshot b.
+	 */
+	private void clearChangedTiles(int b) {
+		for (int k = 0; k < numChangedTiles[b]; k++) {
+			isChangedTile[b][changedTiles[b][k]] = false;
+		}
+		numChangedTiles[b] = 0;
+	}
+}
@@ -0,0 +1,349 @@
+package simulation;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import creatures.CreaturePool;
+
+/**
+ * The SweepRunner compares evolutionary outcomes across Parameters. It runs
+ * one headless World for every combination of the given parameter values
+ * and seeds, with as many Worlds running at once as there are workers, each
+ * World stepped on a single worker thread. As each run finishes, one line
+ * of summary statistics is appended to a CSV file, so results can be read
+ * while the sweep is still going.
+ * 
+ * Options are given as pairs of arguments:
+ * --param K=V,V  values of parameter K to try, such as
+ *                CREATURE_EAT_COST=10,12.5,15; may be repeated, and every
+ *                combination of values is run
+ * --seeds S      seeds of each combination, as a list such as 1,2,5 or a
+ *                range such as 1-8 (default 1-4)
+ * --ticks N      ticks each World is run for (default 100000)
+ * --width W      width of each World in pixels (default 1920)
+ * --height H     height of each World in pixels (default 1080)
+ * --sample S     ticks between samples of the population (default 100)
+ * --workers T    Worlds run at once (default all processors)
+ * --out F        CSV file the results are written to (default sweep.csv)
+ * 
+ * Copyright (C) 2022 Andrew Cupps, CC BY 4.0
+ * 
+ * @author Andrew Cupps
+ * @version 16 Oct 2026
+ */
+public class SweepRunner {
+	
+	/*
+	 * Columns of the summary of each run, after the run number, seed and
+	 * every parameter
+	 */
+	private static final String SUMMARY_HEADER = "ticks,population,meanPopulation,minPopulation,maxPopulation,"
+			+ "births,deaths,meanGeneration,maxGeneration,lineages,treeSize,meanSize,meanAttack,meanDefense,"
+			+ "meanGeneticVariance,meanMaxLinearVelocity,seconds";
+	
+	/*
+	 * The runs of the sweep, the size and length of each run, and the
+	 * number of ticks between population samples
+	 */
+	private final List<Parameters> parameterSets;
+	private final long[] seeds;
+	private final int width, height;
+	private final long ticks, sample;
+	
+	/*
+	 * The CSV file results are streamed to, and the number of runs finished
+	 */
+	private BufferedWriter out;
+	private final AtomicInteger finished = new AtomicInteger();
+	
+	/**
+	 * Creates a SweepRunner for every combination of parameterSets and seeds.
+	 * @param parameterSets - the Parameters of the runs
+	 * @param seeds - the seeds each set of Parameters is run with
+	 * @param width - the width of each World in pixels
+	 * @param height - the height of each World in pixels
+	 * @param ticks - the number of ticks each World is run for
+	 * @param sample - the number of ticks between population samples
+	 * @throws IllegalArgumentException if there are no runs, or ticks or
+	 * sample is less than one
+	 */
+	public SweepRunner(List<Parameters> parameterSets, long[] seeds, int width, int height, long ticks, long sample) {
+		if (parameterSets.isEmpty() || seeds.length == 0) {
+			throw new IllegalArgumentException("A sweep needs at least one set of parameters and one seed.");
+		}
+		if (ticks < 1 || sample < 1) {
+			throw new IllegalArgumentException("Ticks and sample interval must be at least one.");
+		}
+		
+		this.parameterSets = List.copyOf(parameterSets);
+		this.seeds = seeds.clone();
+		this.width = width;
+		this.height = height;
+		this.ticks = ticks;
+		this.sample = sample;
+	}
+	
+	/**
+	 * Runs every combination on the given number of worker threads, writing
+	 * the summary of each run to path as soon as it finishes.
+	 * @param path - the CSV file to be written
+	 * @param workers - the number of Worlds run at once
+	 * @return the number of runs which failed
+	 * @throws IOException if the results could not be written
+	 * @throws InterruptedException if interrupted while waiting for runs
+	 */
+	public int run(Path path, int workers) throws IOException, InterruptedException {
+		if (workers < 1) {
+			throw new IllegalArgumentException("Number of workers must be at least one.");
+		}
+		
+		AtomicInteger numThreads = new AtomicInteger();
+		ExecutorService executor = Executors.newFixedThreadPool(workers, runnable -> {
+			Thread thread = new Thread(runnable, "JSENN sweep worker " + numThreads.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+		
+		int failures = 0;
+		try (BufferedWriter writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+			out = writer;
+			StringBuilder header = new StringBuilder("run,seed");
+			for (Parameters.Key key : Parameters.Key.values()) {
+				header.append(',').append(key);
+			}
+			writeLine(header.append(',').append(SUMMARY_HEADER).toString());
+			
+			List<Future<?>> runs = new ArrayList<>();
+			int total = parameterSets.size() * seeds.length;
+			for (int p = 0; p < parameterSets.size(); p++) {
+				for (int s = 0; s < seeds.length; s++) {
+					int run = p * seeds.length + s;
+					Parameters parameters = parameterSets.get(p);
+					long seed = seeds[s];
+					runs.add(executor.submit(() -> runWorld(run, total, parameters, seed)));
+				}
+			}
+			
+			for (Future<?> run : runs) {
+				try {
+					run.get();
+				} catch (ExecutionException e) {
+					if (e.getCause() instanceof UncheckedIOException) {
+						throw ((UncheckedIOException) e.getCause()).getCause();
+					}
+					failures++;
+				}
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+		return failures;
+	}
+	
+	/*
+	 * Runs one World to the end and writes its summary; runs on a worker
+	 * thread.
+	 */
+	private void runWorld(int run, int total, Parameters parameters, long seed) {
+		long start = System.nanoTime();
+		try {
+			World world = new World(width, height, seed, 1, parameters);
+			CreaturePool creatures = world.getCreatures();
+			
+			long populationSum = 0, numSamples = 0;
+			int minPopulation = Integer.MAX_VALUE, maxPopulation = 0;
+			while (world.getTime() < ticks) {
+				world.step(Math.min(sample, ticks - world.getTime()));
+				int population = creatures.size();
+				populationSum += population;
+				numSamples++;
+				minPopulation = Math.min(minPopulation, population);
+				maxPopulation = Math.max(maxPopulation, population);
+			}
+			
+			StringBuilder line = new StringBuilder();
+			line.append(run).append(',').append(seed);
+			for (Parameters.Key key : Parameters.Key.values()) {
+				line.append(',').append(parameters.format(key));
+			}
+			line.append(',').append(world.getTime());
+			line.append(',').append(creatures.size());
+			line.append(',').append(format((double) populationSum / numSamples));
+			line.append(',').append(minPopulation).append(',').append(maxPopulation);
+			line.append(',').append(world.getMetrics().getBirths());
+			line.append(',').append(world.getMetrics().getDeaths());
+			appendTraits(line, creatures);
+			line.append(',').append(format((System.nanoTime() - start) / 1e9));
+			writeLine(line.toString());
+			
+			System.out.printf("Run %d of %d finished in %.1f s: seed %d, %d creatures%n", finished.incrementAndGet(),
+					total, (System.nanoTime() - start) / 1e9, seed, creatures.size());
+		} catch (RuntimeException e) {
+			System.err.println("Run " + run + " with seed " + seed + " and " + parameters + " failed: " + e);
+			throw e;
+		}
+	}
+	
+	/*
+	 * Appends the statistics of the living Creatures of a run to line; the
+	 * means are left empty if no Creature is alive.
+	 */
+	private static void appendTraits(StringBuilder line, CreaturePool creatures) {
+		int n = creatures.size();
+		double generationSum = 0, sizeSum = 0, attackSum = 0, defenseSum = 0, varianceSum = 0, velocitySum = 0;
+		int maxGeneration = 0;
+		long[] lineages = new long[n];
+		for (int s = 0; s < n; s++) {
+			generationSum += creatures.getGeneration(s);
+			maxGeneration = Math.max(maxGeneration, creatures.getGeneration(s));
+			sizeSum += creatures.getSize(s);
+			attackSum += creatures.getAttack(s);
+			defenseSum += creatures.getDefense(s);
+			varianceSum += creatures.getGeneticVariance(s);
+			velocitySum += creatures.getMaxLinearVelocity(s);
+			lineages[s] = creatures.getLineage(s);
+		}
+		
+		Arrays.sort(lineages);
+		int numLineages = 0;
+		for (int s = 0; s < n; s++) {
+			if (s == 0 || lineages[s] != lineages[s - 1]) {
+				numLineages++;
+			}
+		}
+		
+		line.append(',').append(mean(generationSum, n)).append(',').append(maxGeneration);
+		line.append(',').append(numLineages).append(',').append(creatures.getPhylogeny().size());
+		line.append(',').append(mean(sizeSum, n)).append(',').append(mean(attackSum, n));
+		line.append(',').append(mean(defenseSum, n)).append(',').append(mean(varianceSum, n));
+		line.append(',').append(mean(velocitySum, n));
+	}
+	
+	private static String format(double value) {
+		return String.format(Locale.ROOT, "%.4f", value);
+	}
+	
+	/*
+	 * Returns the formatted mean of n values with the given sum, or an empty
+	 * column if there are none.
+	 */
+	private static String mean(double sum, int n) {
+		return (n == 0) ? "" : format(sum / n);
+	}
+	
+	/*
+	 * Writes one line to the CSV file and flushes it, so that it can be read
+	 * straight away.
+	 */
+	private synchronized void writeLine(String line) {
+		try {
+			out.write(line);
+			out.newLine();
+			out.flush();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+	
+	/**
+	 * Main method which runs a sweep from the options described above.
+	 * @param args - the options
+	 * @throws IOException if the results could not be written
+	 * @throws InterruptedException if interrupted while waiting for runs
+	 */
+	public static void main(String[] args) throws IOException, InterruptedException {
+		List<Parameters> parameterSets = new ArrayList<>(List.of(Parameters.DEFAULT));
+		long[] seeds = parseSeeds("1-4");
+		long ticks = 100000, sample = 100;
+		int width = 1920, height = 1080;
+		int workers = Runtime.getRuntime().availableProcessors();
+		Path path = Paths.get("sweep.csv");
+		
+		for (int i = 0; i < args.length; i += 2) {
+			if (i + 1 >= args.length) {
+				throw new IllegalArgumentException("Missing value for option " + args[i] + ".");
+			}
+			
+			String value = args[i + 1];
+			switch (args[i]) {
+			case "--param": parameterSets = combine(parameterSets, value); break;
+			case "--seeds": seeds = parseSeeds(value); break;
+			case "--ticks": ticks = Long.parseLong(value); break;
+			case "--width": width = Integer.parseInt(value); break;
+			case "--height": height = Integer.parseInt(value); break;
+			case "--sample": sample = Long.parseLong(value); break;
+			case "--workers": workers = Integer.parseInt(value); break;
+			case "--out": path = Paths.get(value); break;
+			default: throw new IllegalArgumentException("Unknown option " + args[i] + ".");
+			}
+		}
+		
+		SweepRunner sweep = new SweepRunner(parameterSets, seeds, width, height, ticks, sample);
+		System.out.println("Running " + parameterSets.size() * seeds.length + " worlds on " + workers
+				+ " workers into " + path);
+		long start = System.nanoTime();
+		int failures = sweep.run(path, workers);
+		System.out.printf("Sweep finished in %.1f s with %d failed runs%n", (System.nanoTime() - start) / 1e9,
+				failures);
+		if (failures > 0) {
+			System.exit(1);
+		}
+	}
+	
+	/*
+	 * Returns every set of Parameters in sets with the parameter given as
+	 * KEY=value,value set to each of its values in turn.
+	 */
+	static List<Parameters> combine(List<Parameters> sets, String option) {
+		int equals = option.indexOf('=');
+		if (equals < 0) {
+			throw new IllegalArgumentException("Expected KEY=value,value but got " + option + ".");
+		}
+		
+		String name = option.substring(0, equals);
+		List<Parameters> combined = new ArrayList<>();
+		for (Parameters parameters : sets) {
+			for (String value : option.substring(equals + 1).split(",")) {
+				combined.add(parameters.with(name, value));
+			}
+		}
+		return combined;
+	}
+	
+	/*
+	 * Parses seeds given as a comma-separated list of seeds and ranges.
+	 */
+	static long[] parseSeeds(String option) {
+		List<Long> seeds = new ArrayList<>();
+		for (String part : option.split(",")) {
+			int dash = part.indexOf('-', 1);
+			if (dash < 0) {
+				seeds.add(Long.parseLong(part.trim()));
+			} else {
+				long from = Long.parseLong(part.substring(0, dash).trim());
+				long to = Long.parseLong(part.substring(dash + 1).trim());
+				if (to < from) {
+					throw new IllegalArgumentException("Empty seed range " + part + ".");
+				}
+				for (long seed = from; seed <= to; seed++) {
+					seeds.add(seed);
+				}
+			}
+		}
+		return seeds.stream().mapToLong(Long::longValue).toArray();
+	}
+}
@@ -0,0 +1,35 @@
+package simulation;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event spanning a single World tick. Like every JSENN
+ * event it is disabled by default, and is only recorded when enabled by a
+ * recording's settings, such as jsenn.jfc.
+ * 
+ * Copyright (C) 2022 Andrew Cupps, CC BY 4.0
+ * 
+ * @author Andrew Cupps
+ * @version 16 Oct 2026
+ */
+@Name("jsenn.Tick")
+@Label("Tick")
+@Category({"JSENN", "Simulation"})
+@Description("A single tick of a World")
+@Enabled(false)
+@StackTrace(false)
+public class TickEvent extends Event {
+	
+	@Label("Tick")
+	long tick;
+	
+	@Label("Population")
+	@Description("Number of Creatures alive after the tick")
+	int population;
+}
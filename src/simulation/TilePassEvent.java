@@ -0,0 +1,34 @@
+package simulation;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event spanning the Tile pass of a World tick, in which
+ * every active Tile is updated. Disabled by default.
+ * 
+ * Copyright (C) 2022 Andrew Cupps, CC BY 4.0
+ * 
+ * @author Andrew Cupps
+ * @version 16 Oct 2026
+ */
+@Name("jsenn.TilePass")
+@Label("Tile Pass")
+@Category({"JSENN", "Simulation"})
+@Description("Update of every active Tile in a tick")
+@Enabled(false)
+@StackTrace(false)
+public class TilePassEvent extends Event {
+	
+	@Label("Tick")
+	long tick;
+	
+	@Label("Active Tiles")
+	@Description("Number of Tiles updated")
+	int activeTiles;
+}
@@ -0,0 +1,396 @@
+package simulation;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import checkpoint.Checkpoint;
+import checkpoint.StateReader;
+import checkpoint.StateWriter;
+import creatures.CreaturePool;
+import environment.OpenSimplex2S;
+import environment.TileField;
+import functions.Function.SigmoidMode;
+import neural.LayerKernel;
+import simulation.SimulationMetrics.Phase;
+
+/**
+ * The World contains everything that is simulated in JSENN: the Tiles of the
+ * environment, generated from a seed, and the CreaturePool of all Creatures
+ * living on them. A World has no dependency on graphics; it is advanced one
+ * tick at a time with step(), either by a viewer such as JSENNPanel or by
+ * the HeadlessRunner, which runs a World as fast as possible without a
+ * display.
+ * 
+ * Two Worlds created with the same dimensions and seed evolve identically.
+ * 
+ * Copyright (C) 2022 Andrew Cupps, CC BY 4.0
+ * 
+ * @author Andrew Cupps
+ * @version 16 Oct 2026
+ */
+public class World {
+	
+	/**
+	 * Size of tiles in pixels
+	 */
+	private static final int TILE_SIZE = 15;
+	
+	/*
+	 * Terrain is generated from KdotJPG's OpenSimplex2 noise generator;
+	 * SCALING_FACTOR is used to scale the noise.
+	 */
+	private static final double SCALING_FACTOR = 0.03;
+	
+	/*
+	 * Size of the World in pixels, and in Tiles
+	 */
+	private final int width, height;
+	private final int numTilesX, numTilesY;
+	
+	/*
+	 * The seed of the terrain and of every Creature, and the constants this
+	 * World was created with
+	 */
+	private final long seed;
+	private final Parameters parameters;
+	
+	/*
+	 * All Tiles of the World, in row-major order, and all Creatures
+	 */
+	private final TileField tiles;
+	private final CreaturePool creatures;
+	
+	/*
+	 * Timings of every phase of a tick, and counters of Creatures
+	 */
+	private final SimulationMetrics metrics = new SimulationMetrics();
+	
+	/*
+	 * The number of ticks simulated, and the number of times the terrain
+	 * has moved
+	 */
+	private long time = 0;
+	private int numMovements = 0;
+	
+	/**
+	 * Creates a new World of the given size in pixels, generated from seed,
+	 * which updates Creatures using every available processor.
+	 * @param width - the width of the World in pixels
+	 * @param height - the height of the World in pixels
+	 * @param seed - the seed of the terrain and of every Creature
+	 * @throws IllegalArgumentException if the World is smaller than three
+	 * Tiles in either direction
+	 */
+	public World(int width, int height, long seed) {
+		this(width, height, seed, Runtime.getRuntime().availableProcessors());
+	}
+	
+	/**
+	 * Creates a new World of the given size in pixels, generated from seed,
+	 * which updates Creatures using the given number of threads.
+	 * @param width - the width of the World in pixels
+	 * @param height - the height of the World in pixels
+	 * @param seed - the seed of the terrain and of every Creature
+	 * @param parallelism - the number of threads used to update Creatures
+	 * @throws IllegalArgumentException if the World is smaller than three
+	 * Tiles in either direction, or if parallelism is less than one
+	 */
+	public World(int width, int height, long seed, int parallelism) {
+		this(width, height, seed, parallelism, Parameters.DEFAULT);
+	}
+	
+	/**
+	 * Creates a new World of the given size in pixels, generated from seed
+	 * with the given Parameters, which updates Creatures using the given
+	 * number of threads.
+	 * @param width - the width of the World in pixels
+	 * @param height - the height of the World in pixels
+	 * @param seed - the seed of the terrain and of every Creature
+	 * @param parallelism - the number of threads used to update Creatures
+	 * @param parameters - the constants of the World
+	 * @throws IllegalArgumentException if the World is smaller than three
+	 * Tiles in either direction, or if parallelism is less than one
+	 */
+	public World(int width, int height, long seed, int parallelism, Parameters parameters) {
+		if (width < 3 * TILE_SIZE || height < 3 * TILE_SIZE) {
+			throw new IllegalArgumentException("World must be at least 3 Tiles in each direction.");
+		}
+		
+		this.width = width;
+		this.height = height;
+		this.seed = seed;
+		this.parameters = parameters;
+		// Rounding up so that the last, partial column and row still have Tiles
+		numTilesX = (width + TILE_SIZE - 1) / TILE_SIZE;
+		numTilesY = (height + TILE_SIZE - 1) / TILE_SIZE;
+		tiles = new TileField(numTilesX, numTilesY, parameters.get(Parameters.Key.NUTRITION_INCREASE_RATE),
+				getSigmoidMode());
+		generateTerrain();
+		
+		creatures = new CreaturePool(this, seed, parallelism);
+		creatures.getBrain().setKernel(getLayerKernel());
+		
+		for (int i = 0; i < parameters.getInt(Parameters.Key.INITIAL_NUM_CREATURES); i++) {
+			creatures.spawn();
+		}
+	}
+	
+	/**
+	 * Restores a World saved by saveState(), which updates Creatures using
+	 * the given number of threads; the restored World evolves exactly as the
+	 * saved World would have, whatever its parallelism.
+	 * @param state - the StateReader the World is restored from
+	 * @param parallelism - the number of threads used to update Creatures
+	 * @throws IllegalArgumentException if the state does not describe a
+	 * valid World, or if parallelism is less than one
+	 */
+	public World(StateReader state, int parallelism) {
+		this.width = (int) state.getLong("world.width");
+		this.height = (int) state.getLong("world.height");
+		this.seed = state.getLong("world.seed");
+		this.parameters = Parameters.restoreState(state);
+		if (width < 3 * TILE_SIZE || height < 3 * TILE_SIZE) {
+			throw new IllegalArgumentException("World must be at least 3 Tiles in each direction.");
+		}
+		
+		numTilesX = (width + TILE_SIZE - 1) / TILE_SIZE;
+		numTilesY = (height + TILE_SIZE - 1) / TILE_SIZE;
+		tiles = new TileField(numTilesX, numTilesY, parameters.get(Parameters.Key.NUTRITION_INCREASE_RATE),
+				getSigmoidMode());
+		tiles.restoreState(state);
+		
+		creatures = new CreaturePool(this, seed, parallelism);
+		creatures.getBrain().setKernel(getLayerKernel());
+		creatures.restoreState(state);
+		
+		time = state.getLong("world.time");
+		numMovements = (int) state.getLong("world.numMovements");
+	}
+	
+	/**
+	 * Reads a checkpoint file written from checkpoint() and restores the World
+	 * saved in it.
+	 * @param path - the checkpoint file
+	 * @param parallelism - the number of threads used to update Creatures
+	 * @return the restored World
+	 * @throws IOException if the file could not be read or is corrupt
+	 */
+	public static World load(Path path, int parallelism) throws IOException {
+		return new World(Checkpoint.read(path), parallelism);
+	}
+	
+	/*
+	 * Assigning each index of the tiles field to be a tile with elevation
+	 * values according to the noise generator, surrounded by border Tiles.
+	 */
+	private void generateTerrain() {
+		/*
+		 * Creating non-border Tiles
+		 */
+		double i = 0.01, j = 0.01;
+		for (int xIndex = 1; xIndex < numTilesX - 1; xIndex++) {
+			for (int yIndex = 1; yIndex < numTilesY - 1; yIndex++) {
+				float noiseValue = OpenSimplex2S.noise2(seed, i, j);
+				tiles.setElevation(tiles.index(xIndex, yIndex), noiseValue + 0.5);
+				j += SCALING_FACTOR;
+			}
+			j = 0.01;
+			i += SCALING_FACTOR;
+		}
+		
+		/*
+		 * Creating border Tiles
+		 */
+		for (int xIndex = 0; xIndex < numTilesX; xIndex++) {
+			tiles.setBorder(tiles.index(xIndex, 0));
+			tiles.setBorder(tiles.index(xIndex, numTilesY - 1));
+		}
+		for (int yIndex = 0; yIndex < numTilesY; yIndex++) {
+			tiles.setBorder(tiles.index(0, yIndex));
+			tiles.setBorder(tiles.index(numTilesX - 1, yIndex));
+		}
+	}
+	
+	/**
+	 * Simulates the given number of ticks.
+	 * @param ticks - the number of ticks to simulate
+	 */
+	public void step(long ticks) {
+		for (long t = 0; t < ticks; t++) {
+			step();
+		}
+	}
+	
+	/**
+	 * Simulates a single tick: all Creatures are updated, then all Tiles,
+	 * and new Creatures are spawned if too few are left. Every phase is
+	 * timed in the World's SimulationMetrics, and the tick and its Tile pass
+	 * are recorded as TickEvent and TilePassEvent when those are enabled.
+	 */
+	public void step() {
+		time++;
+		long start = metrics.start();
+		TickEvent tickEvent = new TickEvent();
+		tickEvent.begin();
+		
+		/*
+		 * Updating all creatures; dead creatures are removed and their
+		 * energy returned to the soil, and new ones are born
+		 */
+		creatures.update();
+		long phaseStart = metrics.start();
+		TilePassEvent tileEvent = new TilePassEvent();
+		tileEvent.begin();
+		int activeTiles = tiles.getNumActive();
+		
+		/*
+		 * Updating all Tiles; only Tiles which have changed or are still
+		 * regrowing are visited, and changing nutrition moves the offset of
+		 * the whole field rather than activating every soil Tile
+		 */
+		tiles.update();
+		if (parameters.is(Parameters.Key.CHANGING_NUTRITION)) {
+			double changeRate = parameters.get(Parameters.Key.CHANGE_RATE_MODIFIER);
+			tiles.shiftNutrition(parameters.get(Parameters.Key.TOTAL_CHANGE_AMOUNT) *
+					changeRate * Math.cos(time * changeRate));
+		}
+		phaseStart = metrics.lap(Phase.TILES, phaseStart);
+		if (tileEvent.shouldCommit()) {
+			tileEvent.tick = time;
+			tileEvent.activeTiles = activeTiles;
+			tileEvent.commit();
+		}
+		
+		/*
+		 * Updating tiles for moving terrain
+		 */
+		if (parameters.is(Parameters.Key.CHANGING_TERRAIN)
+				&& time % parameters.getInt(Parameters.Key.TIME_BETWEEN_CHANGES) == 0) {
+			for (int i = 1; i < numTilesX - 1; i++) {
+				for (int j = 2; j < numTilesY - 1; j++) {
+					tiles.copyTile(tiles.index(i, j), tiles.index(i, j-1));
+				}
+			}
+			for (int i = 1; i < numTilesX - 1; i++) {
+				float noiseValue = OpenSimplex2S.noise2(seed, 0.01 + SCALING_FACTOR * (i - 1), (numTilesY - 2 + numMovements) * SCALING_FACTOR + 0.01);
+				tiles.setElevation(tiles.index(i, numTilesY - 2), noiseValue + 0.5);
+			}
+			numMovements++;
+		}
+		
+		metrics.lap(Phase.TERRAIN, phaseStart);
+		
+		while (creatures.size() < parameters.getInt(Parameters.Key.MIN_NUM_CREATURES)) {
+			creatures.spawn();
+		}
+		metrics.lap(Phase.TICK, start);
+		metrics.endTick(creatures.size());
+		if (tickEvent.shouldCommit()) {
+			tickEvent.tick = time;
+			tickEvent.population = creatures.size();
+			tickEvent.commit();
+		}
+	}
+	
+	/**
+	 * Puts the whole state of the World into state: its size, seed, time and
+	 * Parameters, every Tile and every Creature. Must not be called during step().
+	 * @param state - the StateWriter the World is saved to
+	 */
+	public void saveState(StateWriter state) {
+		state.putLong("world.width", width);
+		state.putLong("world.height", height);
+		state.putLong("world.seed", seed);
+		state.putLong("world.time", time);
+		state.putLong("world.numMovements", numMovements);
+		parameters.saveState(state);
+		tiles.saveState(state);
+		creatures.saveState(state);
+	}
+	
+	/**
+	 * Copies the whole state of the World into a new Checkpoint, which stays
+	 * unchanged as the World goes on, and so can be written to a file on
+	 * another thread. Must be called from the thread stepping the World.
+	 * @return a Checkpoint of the current tick
+	 */
+	public Checkpoint checkpoint() {
+		long t = metrics.start();
+		Checkpoint checkpoint = new Checkpoint();
+		saveState(checkpoint);
+		metrics.lap(Phase.CHECKPOINT, t);
+		return checkpoint;
+	}
+	
+	public double getTileEnergyRate(double x, double y) {
+		return tiles.getEnergyRate(tileIndex(x, y));
+	}
+	
+	public double eat(double x, double y) {
+		return tiles.eat(tileIndex(x, y));
+	}
+	
+	public void addNutrition(double x, double y, double amount) {
+		tiles.addNutrition(tileIndex(x, y), amount);
+	}
+	
+	public int getTileRGB(double x, double y) {
+		return tiles.getRGB(tileIndex(x, y));
+	}
+	
+	/**
+	 * Returns the index in the TileField of the Tile containing the point
+	 * x, y in pixels.
+	 * @param x - the x coordinate in pixels
+	 * @param y - the y coordinate in pixels
+	 * @return the index of the Tile at x, y
+	 */
+	public int tileIndex(double x, double y) {
+		return tiles.index((int) x / TILE_SIZE, (int) y / TILE_SIZE);
+	}
+	
+	public int getWidth() { return width; }
+	public int getHeight() { return height; }
+	public long getSeed() { return seed; }
+	public Parameters getParameters() { return parameters; }
+	
+	/**
+	 * Returns the way sigmoids are computed in this World, as set by its
+	 * FAST_SIGMOID parameter.
+	 * @return the SigmoidMode of the World
+	 */
+	public SigmoidMode getSigmoidMode() {
+		return parameters.is(Parameters.Key.FAST_SIGMOID) ? SigmoidMode.FAST : SigmoidMode.EXACT;
+	}
+	
+	/**
+	 * Returns the kernel the networks of Creatures are evaluated with, as
+	 * set by the VECTOR_KERNEL and FAST_SIGMOID parameters; the vectorized
+	 * kernel falls back to the exact scalar kernel when the
+	 * jdk.incubator.vector module is absent.
+	 * @return the LayerKernel of the World
+	 */
+	public LayerKernel getLayerKernel() {
+		return parameters.is(Parameters.Key.VECTOR_KERNEL) ? LayerKernel.vector() : LayerKernel.scalar(getSigmoidMode());
+	}
+	
+	public long getTime() { return time; }
+	public TileField getTiles() { return tiles; }
+	public CreaturePool getCreatures() { return creatures; }
+	public SimulationMetrics getMetrics() { return metrics; }
+	
+	/**
+	 * Gets the size of every Tile in pixels.
+	 * @return the static int TILE_SIZE.
+	 */
+	public static int getTileSize() { return TILE_SIZE; }
+	
+	/**
+	 * Returns the seed given with -Djsenn.seed=<seed>, so that a run can be
+	 * repeated, or a new seed if none was given.
+	 * @return the seed for a new World
+	 */
+	public static long defaultSeed() {
+		return Long.getLong("jsenn.seed", System.nanoTime());
+	}
+}